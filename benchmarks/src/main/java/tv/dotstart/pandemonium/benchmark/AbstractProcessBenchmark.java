@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.benchmark;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides a base for benchmarks which are executed against a simulated process.
+ *
+ * The simulated latency of every read defaults to zero in order to measure the overhead of the
+ * process abstraction itself but may be adjusted through the {@code latency} parameter (in
+ * nanoseconds) in order to approximate the cost of a call to the operating system.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class AbstractProcessBenchmark {
+
+    /**
+     * Defines the name of the simulated executable module.
+     */
+    protected static final String MODULE_NAME = "game.exe";
+
+    /**
+     * Defines the size of the simulated executable module.
+     */
+    protected static final int MODULE_SIZE = 0x100000;
+
+    @Param("0")
+    public long latency;
+
+    /**
+     * Creates and opens a new simulated process.
+     */
+    @Nonnull
+    protected SimulatedProcess createProcess() throws ProcessStateException {
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, MODULE_SIZE)
+                .setReadLatency(Duration.ofNanos(this.latency))
+                .setWriteLatency(Duration.ofNanos(this.latency))
+                .build();
+
+        process.open();
+        return process;
+    }
+}
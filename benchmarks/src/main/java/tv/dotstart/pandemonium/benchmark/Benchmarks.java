@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides an entry point which executes the benchmark suite.
+ *
+ * Unless specified otherwise on the command line, each benchmark is executed twice: Once in
+ * throughput mode (reported in operations per second) and once in sample mode (reported in
+ * nanoseconds per operation including percentiles such as p99). The GC profiler is enabled by
+ * default in order to report allocation rates. All standard JMH options are accepted.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] arguments) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(arguments);
+
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats() || !commandLine.getBenchModes().isEmpty()) {
+            new Runner(commandLine).run();
+            return;
+        }
+
+        run(commandLine, Mode.Throughput, TimeUnit.SECONDS);
+        run(commandLine, Mode.SampleTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Executes all selected benchmarks in the specified mode.
+     */
+    private static void run(CommandLineOptions commandLine, Mode mode, TimeUnit timeUnit) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .mode(mode)
+                .timeUnit(timeUnit);
+
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.time.Duration;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Measures reads through deep pointers of varying chain depths with and without the deep pointer
+ * cache.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class DeepPointerBenchmark extends AbstractProcessBenchmark {
+    private ProcessMemoryPointer pointer;
+
+    @Param({"0", "1", "2", "3", "4", "5"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    @Setup
+    public void setup() throws ProcessStateException {
+        SimulatedProcess process = this.createProcess();
+
+        long[] offsets = new long[this.depth];
+        for (int i = 0; i < offsets.length; ++i) {
+            offsets[i] = 0x10 + i * 0x8;
+        }
+
+        long address = process.chain(MODULE_NAME, 0x1000, offsets);
+        process.buffer(address, 4).putInt(0, 42);
+
+        if (!this.cached) {
+            process.setPointerCacheTimeout(Duration.ZERO);
+        }
+
+        this.pointer = process.pointer(MODULE_NAME, 0x1000, offsets);
+    }
+
+    @Benchmark
+    public long resolve() {
+        return this.pointer.getAddress();
+    }
+
+    @Benchmark
+    public int readInteger() {
+        return this.pointer.readInteger();
+    }
+}
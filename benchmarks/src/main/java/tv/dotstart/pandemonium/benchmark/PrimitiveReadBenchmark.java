@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.nio.ByteBuffer;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Measures primitive reads through a direct pointer.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class PrimitiveReadBenchmark extends AbstractProcessBenchmark {
+    private ProcessMemoryPointer pointer;
+
+    @Setup
+    public void setup() throws ProcessStateException {
+        SimulatedProcess process = this.createProcess();
+
+        ByteBuffer buffer = process.getModule(MODULE_NAME).get().getBuffer();
+        buffer.putLong(0x1000, 0x0123456789ABCDEFL);
+
+        this.pointer = process.pointer(MODULE_NAME, 0x1000);
+    }
+
+    @Benchmark
+    public byte readByte() {
+        return this.pointer.readByte();
+    }
+
+    @Benchmark
+    public short readShort() {
+        return this.pointer.readShort();
+    }
+
+    @Benchmark
+    public int readInteger() {
+        return this.pointer.readInteger();
+    }
+
+    @Benchmark
+    public long readLong() {
+        return this.pointer.readLong();
+    }
+
+    @Benchmark
+    public float readFloat() {
+        return this.pointer.readFloat();
+    }
+
+    @Benchmark
+    public double readDouble() {
+        return this.pointer.readDouble();
+    }
+
+    @Benchmark
+    public long readUnsignedInteger() {
+        return this.pointer.readUnsignedInteger();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Measures readability checks over ranges of varying lengths.
+ *
+ * Unreadable ranges end one byte past the end of the simulated module and thus represent the
+ * worst case for implementations which probe each byte.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class ReadableBenchmark extends AbstractProcessBenchmark {
+    private ProcessMemoryPointer pointer;
+
+    @Param({"1", "16", "256", "4096"})
+    public int length;
+
+    @Param({"true", "false"})
+    public boolean readable;
+
+    @Setup
+    public void setup() throws ProcessStateException {
+        SimulatedProcess process = this.createProcess();
+
+        long offset = this.readable ? 0x1000 : MODULE_SIZE - this.length + 1;
+        this.pointer = process.pointer(MODULE_NAME, offset);
+    }
+
+    @Benchmark
+    public boolean isReadable() {
+        return this.pointer.isReadable(this.length);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.nio.ByteBuffer;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Measures string reads at varying maximum lengths.
+ *
+ * The simulated string occupies half of the maximum length in order to reflect the typical use
+ * of generous upper bounds.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class StringReadBenchmark extends AbstractProcessBenchmark {
+    private ProcessMemoryPointer pointer;
+
+    @Param({"8", "32", "128", "512", "2048"})
+    public int maxLength;
+
+    @Setup
+    public void setup() throws ProcessStateException {
+        SimulatedProcess process = this.createProcess();
+
+        ByteBuffer buffer = process.getModule(MODULE_NAME).get().getBuffer();
+        buffer.position(0x1000);
+
+        for (int i = 0; i < this.maxLength / 2; ++i) {
+            buffer.put((byte) ('a' + i % 26));
+        }
+        buffer.put((byte) 0);
+
+        this.pointer = process.pointer(MODULE_NAME, 0x1000);
+    }
+
+    @Benchmark
+    public String readString() {
+        return this.pointer.readString(this.maxLength);
+    }
+}
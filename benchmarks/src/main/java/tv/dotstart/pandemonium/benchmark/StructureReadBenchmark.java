@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.benchmark;
+
+import com.sun.jna.Structure;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Measures structure reads.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class StructureReadBenchmark extends AbstractProcessBenchmark {
+    private ProcessMemoryPointer pointer;
+    private final Entity entity = new Entity();
+
+    @Setup
+    public void setup() throws ProcessStateException {
+        SimulatedProcess process = this.createProcess();
+
+        ByteBuffer buffer = process.getModule(MODULE_NAME).get().getBuffer();
+        buffer.putFloat(0x1000, 1.0f);
+        buffer.putFloat(0x1004, 2.0f);
+        buffer.putFloat(0x1008, 3.0f);
+        buffer.putInt(0x100C, 100);
+        buffer.putInt(0x1010, 1);
+
+        this.pointer = process.pointer(MODULE_NAME, 0x1000);
+    }
+
+    @Benchmark
+    public Entity readStructure() {
+        return this.pointer.readStructure(Entity.class);
+    }
+
+    @Benchmark
+    public Entity readStructureInto() {
+        return this.pointer.readStructure(this.entity);
+    }
+
+    /**
+     * Represents a typical game entity.
+     */
+    public static class Entity extends Structure {
+        public float x;
+        public float y;
+        public float z;
+        public int health;
+        public int flags;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<String> getFieldOrder() {
+            return Arrays.asList("x", "y", "z", "health", "flags");
+        }
+    }
+}
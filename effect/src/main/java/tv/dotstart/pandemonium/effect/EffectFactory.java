@@ -22,6 +22,7 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.pin.ValuePinner;
 
 /**
  * Provides a factory for an effect which may be applied to the program instance or memory in order
@@ -37,6 +38,21 @@ public interface EffectFactory {
     @Nonnull
     Effect build(@Nonnull Process process);
 
+    /**
+     * Builds a new effect instance for the specified process which may pin values using the
+     * supplied pinner for its duration.
+     *
+     * By default, this method delegates to {@link #build(Process)}. Factories which produce
+     * effects that need to continuously assert their values should override this method while
+     * still providing a non-pinned implementation of {@link #build(Process)}.
+     *
+     * @see PinnedEffect for a base implementation of effects which pin values.
+     */
+    @Nonnull
+    default Effect build(@Nonnull Process process, @Nonnull ValuePinner pinner) {
+        return this.build(process);
+    }
+
     /**
      * Retrieves the base localization key which is used to refer to the effects produced by this
      * factory within the application UI.
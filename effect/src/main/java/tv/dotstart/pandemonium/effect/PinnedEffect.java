@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.effect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.pin.Pin;
+import tv.dotstart.pandemonium.process.pin.ValuePinner;
+
+/**
+ * Provides a base for effects which continuously assert one or more values while they are active.
+ *
+ * Implementations register their pins using {@link #register(Pin)} when applied. All registered
+ * pins are cancelled when the effect is reverted (implementations which wish to restore the
+ * original values are expected to do so after invoking the parent implementation).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public abstract class PinnedEffect implements Effect {
+    private final ValuePinner pinner;
+    private final List<Pin> pins = new ArrayList<>();
+
+    protected PinnedEffect(@Nonnull ValuePinner pinner) {
+        this.pinner = pinner;
+    }
+
+    /**
+     * Retrieves the pinner which asserts the values of this effect.
+     */
+    @Nonnull
+    protected ValuePinner getPinner() {
+        return this.pinner;
+    }
+
+    /**
+     * Registers a pin which is to be cancelled when this effect is reverted.
+     */
+    @Nonnull
+    protected <P extends Pin> P register(@Nonnull P pin) {
+        this.pins.add(pin);
+        return pin;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void revert() {
+        this.pins.forEach(Pin::cancel);
+        this.pins.clear();
+    }
+}
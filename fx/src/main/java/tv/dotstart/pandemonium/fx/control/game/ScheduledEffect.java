@@ -16,9 +16,6 @@
  */
 package tv.dotstart.pandemonium.fx.control.game;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -42,7 +39,6 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.css.PseudoClass;
-import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -59,7 +55,6 @@ import tv.dotstart.pandemonium.effect.EffectFactory;
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public class ScheduledEffect extends StackPane implements Initializable {
-    private static final Logger logger = LogManager.getFormatterLogger(ScheduledEffect.class);
     private static final PseudoClass PSEUDO_CLASS_STOPPED = PseudoClass.getPseudoClass("stopped");
     private static final PseudoClass PSEUDO_CLASS_WAITING = PseudoClass.getPseudoClass("waiting");
     private static final PseudoClass PSEUDO_CLASS_APPLIED = PseudoClass.getPseudoClass("applied");
@@ -104,10 +99,10 @@ public class ScheduledEffect extends StackPane implements Initializable {
         this.delay = delay;
         this.duration = duration;
 
-        // construct a timeline for this schedule
+        // construct a timeline which animates the progress of this schedule between status
+        // updates (the effect itself is applied and reverted by the game runtime)
         this.timeline = new Timeline(
-                new KeyFrame(delay, this::onDelayFinished),
-                new KeyFrame(delay.add(duration), this::onDurationFinished)
+                new KeyFrame(delay.add(duration))
         );
 
         this.progress.bind(Bindings.createDoubleBinding(this::updateProgress, this.timeline.currentTimeProperty()));
@@ -137,39 +132,38 @@ public class ScheduledEffect extends StackPane implements Initializable {
     }
 
     /**
-     * "Plays" the scheduled effect resulting in its effect being applied when the specified
+     * Updates the presented state of this schedule.
+     *
+     * This method is expected to be invoked on the application thread whenever the runtime which
+     * owns the actual schedule changes its state.
      */
-    public void play() {
-        if (this.state.get() == State.WAITING || this.state.get() == State.APPLIED) {
-            logger.info("Resuming playback of effect from paused state for effect provided by %s", this.factory.getClass().getName());
-            this.timeline.play();
-            return;
+    public void update(@Nonnull Status status) {
+        State previous = this.state.get();
+
+        if (status.getState() == State.STOPPED) {
+            this.timeline.stop();
+        } else if (status.isRunning()) {
+            this.timeline.playFrom(status.getElapsed());
+        } else {
+            this.timeline.pause();
+            this.timeline.jumpTo(status.getElapsed());
         }
 
-        logger.info("Scheduled effect provided by %s", this.factory.getClass().getName());
-        this.state.set(State.WAITING);
-        this.timeline.playFromStart();
-    }
+        this.state.set(status.getState());
 
-    /**
-     * Pauses the scheduled effect (e.g. delays the next action until the effect is unpaused).
-     */
-    public void pause() {
-        this.timeline.pause();
-    }
+        if (previous != State.APPLIED && status.getState() == State.APPLIED) {
+            Runnable runnable = this.getOnApply();
 
-    /**
-     * Aborts the effect (if it has already been played) and stops its schedule.
-     */
-    public void abort() {
-        logger.info("Aborting effect provided by %s", this.factory.getClass().getName());
-        this.timeline.stop();
+            if (runnable != null) {
+                runnable.run();
+            }
+        } else if (previous == State.APPLIED && status.getState() == State.REVERTED) {
+            Runnable runnable = this.getOnRevert();
 
-        if (this.state.get() == State.APPLIED) {
-            this.onDurationFinished(null);
+            if (runnable != null) {
+                runnable.run();
+            }
         }
-
-        this.state.set(State.STOPPED);
     }
 
     // <editor-fold desc="Event Handlers & Bindings">
@@ -203,47 +197,6 @@ public class ScheduledEffect extends StackPane implements Initializable {
         return this.getWidth() * this.getProgress();
     }
 
-    /**
-     * Handles a finalized delay.
-     */
-    private void onDelayFinished(ActionEvent event) {
-        logger.info("%d second delay has passed - Applying effect provided by %s", (int) this.delay.toSeconds(), this.factory.getClass().getName());
-
-        this.effect.apply();
-        this.state.set(State.APPLIED);
-
-        if (event != null) {
-            Runnable runnable = this.getOnApply();
-
-            if (runnable != null) {
-                runnable.run();
-            }
-        }
-    }
-
-    /**
-     * Handles a finalized duration.
-     */
-    private void onDurationFinished(ActionEvent event) {
-        logger.info("%d second duration has passed - Reverting effect provided by %s", (int) this.duration.toSeconds(), this.factory.getClass().getName());
-
-        if (!this.factory.isPersistent()) {
-            this.effect.revert();
-        } else {
-            logger.info("Effect indicates that it is persistent and thus won't be reverted");
-        }
-
-        this.state.set(State.REVERTED);
-
-        if (event != null) {
-            Runnable runnable = this.getOnRevert();
-
-            if (runnable != null) {
-                runnable.run();
-            }
-        }
-    }
-
     // </editor-fold>
 
     // <editor-fold desc="Getters & Setters">
@@ -361,4 +314,47 @@ public class ScheduledEffect extends StackPane implements Initializable {
         APPLIED,
         REVERTED
     }
+
+    /**
+     * Represents an immutable snapshot of the state of a schedule.
+     */
+    public static final class Status {
+        private final State state;
+        private final Duration elapsed;
+        private final boolean running;
+
+        public Status(@Nonnull State state, @Nonnull Duration elapsed, boolean running) {
+            this.state = state;
+            this.elapsed = elapsed;
+            this.running = running;
+        }
+
+        // <editor-fold desc="Getters & Setters">
+        @Nonnull
+        public State getState() {
+            return this.state;
+        }
+
+        @Nonnull
+        public Duration getElapsed() {
+            return this.elapsed;
+        }
+
+        public boolean isRunning() {
+            return this.running;
+        }
+        // </editor-fold>
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "Status{" +
+                    "state=" + this.state +
+                    ", elapsed=" + this.elapsed +
+                    ", running=" + this.running +
+                    '}';
+        }
+    }
 }
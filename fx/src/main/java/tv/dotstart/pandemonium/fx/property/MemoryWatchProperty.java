@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.fx.property;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectPropertyBase;
+import tv.dotstart.pandemonium.process.watch.WatchListener;
+
+/**
+ * Exposes the value of a memory watch as a read-only JavaFX property.
+ *
+ * Changes are received on the sampling thread of the watcher and handed to the JavaFX application
+ * thread. Updates are coalesced: While an update is pending, newer values replace the pending
+ * value instead of queueing additional tasks and thus the application thread observes at most
+ * one update per pulse regardless of the sampling frequency.
+ *
+ * Example:
+ * <pre>
+ * MemoryWatchProperty&lt;Integer&gt; health = new MemoryWatchProperty&lt;&gt;();
+ * watcher.watchInteger(pointer, 60, health);
+ * label.textProperty().bind(health.asString());
+ * </pre>
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class MemoryWatchProperty<T> extends ReadOnlyObjectPropertyBase<T> implements WatchListener<T> {
+    private static final Object NONE = new Object();
+
+    private final Object bean;
+    private final String name;
+    private final AtomicReference<Object> pending = new AtomicReference<>(NONE);
+    private T value;
+
+    public MemoryWatchProperty() {
+        this(null, "");
+    }
+
+    public MemoryWatchProperty(@Nullable Object bean, @Nonnull String name) {
+        this.bean = bean;
+        this.name = name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onChange(@Nullable T previousValue, @Nullable T value) {
+        if (this.pending.getAndSet(value) == NONE) {
+            Platform.runLater(this::apply);
+        }
+    }
+
+    /**
+     * Applies the most recently received value on the JavaFX application thread.
+     */
+    @SuppressWarnings("unchecked")
+    private void apply() {
+        this.value = (T) this.pending.getAndSet(NONE);
+        this.fireValueChangedEvent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get() {
+        return this.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getBean() {
+        return this.bean;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return this.name;
+    }
+}
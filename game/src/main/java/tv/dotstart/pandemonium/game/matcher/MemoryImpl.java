@@ -59,8 +59,8 @@ class MemoryImpl implements MatcherChain.Memory {
             public boolean isCompatible(@Nonnull Process process) {
                 try {
                     for (Address address : this.addresses) {
-                        for (int i = 0; i < address.length; ++i) {
-                            process.pointer(address.moduleName, address.offset).readByte(i);
+                        if (!process.pointer(address.moduleName, address.offset).isReadable(address.length)) {
+                            return false;
                         }
                     }
 
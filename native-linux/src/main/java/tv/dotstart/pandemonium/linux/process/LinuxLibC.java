@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.linux.process;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+/**
+ * Provides direct mappings for the libc functions which are invoked on the memory access hot
+ * path.
+ *
+ * The mapped functions expect {@code unsigned long} and {@code ssize_t} arguments which are
+ * represented as Java longs and are thus only usable on 64-bit runtimes (see
+ * {@link #isAvailable()}).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class LinuxLibC {
+
+    /**
+     * Defines the size of a single {@code struct iovec} (in bytes).
+     */
+    static final int IOVEC_SIZE = 16;
+
+    /**
+     * Defines the maximum amount of vectors which may be passed to a single call.
+     */
+    static final int IOV_MAX = 1024;
+
+    static final int EPERM = 1;
+    static final int EINTR = 4;
+    static final int EFAULT = 14;
+    static final int ENOSYS = 38;
+
+    /**
+     * Defines the size of a single {@code struct pollfd} (in bytes).
+     */
+    static final int POLLFD_SIZE = 8;
+    static final short POLLIN = 0x1;
+
+    /**
+     * Defines the system call number of {@code pidfd_open} (which is shared by all architectures
+     * since its introduction in Linux 5.3).
+     */
+    static final long SYS_PIDFD_OPEN = 434;
+
+    static final int EAGAIN = 11;
+    static final int ENOBUFS = 105;
+
+    static final int AF_NETLINK = 16;
+    static final int SOCK_DGRAM = 2;
+    static final int SOCK_CLOEXEC = 0x80000;
+    static final int MSG_DONTWAIT = 0x40;
+
+    /**
+     * Defines the size of a {@code struct sockaddr_nl} (in bytes).
+     */
+    static final int SOCKADDR_NL_SIZE = 12;
+
+    private static final boolean available;
+
+    static {
+        boolean registered = false;
+
+        if (Native.LONG_SIZE == 8 && Native.POINTER_SIZE == 8) {
+            try {
+                Native.register(LinuxLibC.class, "c");
+                registered = true;
+            } catch (UnsatisfiedLinkError ignore) {
+            }
+        }
+
+        available = registered;
+    }
+
+    private LinuxLibC() {
+    }
+
+    /**
+     * Checks whether the mappings within this class are available on the current runtime.
+     */
+    static boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Transfers data from the address space of a remote process into the calling process.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/process_vm_readv.2.html">process_vm_readv(2)</a>
+     */
+    static native long process_vm_readv(int pid, Pointer localIov, long localIovCount, Pointer remoteIov, long remoteIovCount, long flags);
+
+    /**
+     * Transfers data from the calling process into the address space of a remote process.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/process_vm_writev.2.html">process_vm_writev(2)</a>
+     */
+    static native long process_vm_writev(int pid, Pointer localIov, long localIovCount, Pointer remoteIov, long remoteIovCount, long flags);
+
+    /**
+     * Closes a file descriptor.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/close.2.html">close(2)</a>
+     */
+    static native int close(int fd);
+
+    /**
+     * Waits for one of a set of file descriptors to become ready.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/poll.2.html">poll(2)</a>
+     */
+    static native int poll(Pointer fds, long nfds, int timeout);
+
+    /**
+     * Invokes a system call which lacks a libc wrapper (such as {@code pidfd_open} on older glibc
+     * versions).
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/syscall.2.html">syscall(2)</a>
+     */
+    static native long syscall(long number, long arg0, long arg1);
+
+    /**
+     * Assigns a local address to a socket.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/bind.2.html">bind(2)</a>
+     */
+    static native int bind(int fd, Pointer address, int addressLength);
+
+    /**
+     * Receives a message from a socket.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/recv.2.html">recv(2)</a>
+     */
+    static native long recv(int fd, Pointer buffer, long length, int flags);
+
+    /**
+     * Transmits a message via a socket.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/send.2.html">send(2)</a>
+     */
+    static native long send(int fd, Pointer buffer, long length, int flags);
+
+    /**
+     * Creates a new socket.
+     *
+     * @see <a href="http://man7.org/linux/man-pages/man2/socket.2.html">socket(2)</a>
+     */
+    static native int socket(int domain, int type, int protocol);
+}
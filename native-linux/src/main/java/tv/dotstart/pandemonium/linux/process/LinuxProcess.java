@@ -0,0 +1,706 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.linux.process;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import tv.dotstart.pandemonium.process.AbstractProcess;
+import tv.dotstart.pandemonium.process.MemoryRegion;
+import tv.dotstart.pandemonium.process.exception.ProcessAttachmentException;
+import tv.dotstart.pandemonium.process.exception.ProcessException;
+import tv.dotstart.pandemonium.process.exception.ProcessPermissionException;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.ProcessTerminatedException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+
+/**
+ * Represents a process on Linux based systems.
+ *
+ * Memory is accessed through {@code process_vm_readv} and {@code process_vm_writev} whenever the
+ * kernel and runtime permit their use. Otherwise (or when writing to read-only mappings such as
+ * code), the process is accessed through positional I/O on {@code /proc/<pid>/mem}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class LinuxProcess extends AbstractProcess {
+    private static final Logger logger = LogManager.getFormatterLogger(LinuxProcess.class);
+
+    /**
+     * Defines the maximum amount of time (in milliseconds) the monitor blocks before it checks
+     * whether it has been stopped.
+     */
+    private static final int MONITOR_INTERVAL = 500;
+
+    private final int pid;
+    private final String name;
+    private final Path directory;
+    private final long startTime;
+    private final Path path;
+    private final long size;
+    private final boolean is64;
+    private final Map<String, LinuxProcessModule> moduleMap;
+
+    private volatile FileChannel memoryChannel;
+    private Monitor monitor;
+    private volatile boolean vectoredIo = LinuxLibC.isAvailable();
+
+    public LinuxProcess(@Nonnegative int pid, @Nonnull String name) throws ProcessException {
+        this.pid = pid;
+        this.name = name;
+        this.directory = Paths.get("/proc", Integer.toString(pid));
+
+        logger.info("Attaching to process with pid %d (\"%s\") in read-write mode", pid, name);
+
+        // the process start time permits us to tell our process apart from a different process
+        // which has been assigned the same pid after ours terminated
+        String[] stat = this.readStat();
+        if (stat == null) {
+            throw new ProcessTerminatedException("Process with pid " + pid + " has terminated");
+        }
+        this.startTime = Long.parseLong(stat[19]);
+
+        // query the module list by grouping all file backed mappings by their respective path
+        List<String> mappings;
+
+        try {
+            mappings = Files.readAllLines(this.directory.resolve("maps"), StandardCharsets.UTF_8);
+        } catch (AccessDeniedException ex) {
+            throw new ProcessPermissionException("Failed to attach to process: Access Denied", ex);
+        } catch (IOException ex) {
+            throw new ProcessAttachmentException("Failed to retrieve process modules: " + ex.getMessage(), ex);
+        }
+
+        Map<String, long[]> ranges = new LinkedHashMap<>();
+
+        for (String mapping : mappings) {
+            // each line is formatted as "<start>-<end> <perms> <offset> <dev> <inode> <path>"
+            // while the path is padded with spaces and may be missing entirely for anonymous
+            // mappings
+            String[] columns = mapping.split("\\s+", 6);
+
+            if (columns.length != 6 || !columns[5].startsWith("/")) {
+                continue;
+            }
+
+            int separator = columns[0].indexOf('-');
+            long start = Long.parseUnsignedLong(columns[0].substring(0, separator), 16);
+            long end = Long.parseUnsignedLong(columns[0].substring(separator + 1), 16);
+
+            long[] range = ranges.computeIfAbsent(columns[5], (p) -> new long[]{start, end});
+            range[0] = Math.min(range[0], start);
+            range[1] = Math.max(range[1], end);
+        }
+
+        if (ranges.isEmpty()) {
+            throw new ProcessAttachmentException("Failed to retrieve process modules: No modules received");
+        }
+
+        // module names are compared without respect to their case since titles which are executed
+        // through Wine or Proton refer to their modules using Windows semantics
+        Map<String, LinuxProcessModule> moduleMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        logger.info("Found %d modules:", ranges.size());
+
+        Path executablePath = null;
+        long executableSize = 0;
+        int index = 0;
+
+        for (Map.Entry<String, long[]> entry : ranges.entrySet()) {
+            Path modulePath = Paths.get(entry.getKey());
+            long[] range = entry.getValue();
+
+            logger.info("  #%02d - %s (located at %s) starting at 0x%016X", ++index, modulePath.getFileName(), modulePath, range[0]);
+            LinuxProcessModule module = new LinuxProcessModule(this, modulePath, range[0], range[1] - range[0]);
+
+            if (executablePath == null && module.getName().equalsIgnoreCase(name)) {
+                executablePath = modulePath;
+                executableSize = module.getSize();
+            }
+
+            moduleMap.putIfAbsent(module.getName(), module);
+        }
+
+        this.moduleMap = Collections.unmodifiableMap(moduleMap);
+
+        // processes which are not executed through a compatibility layer are identified by their
+        // executable link instead
+        if (executablePath == null) {
+            try {
+                executablePath = Files.readSymbolicLink(this.directory.resolve("exe"));
+                executableSize = Files.size(executablePath);
+            } catch (IOException ex) {
+                throw new ProcessAttachmentException("Failed to locate executable module: " + ex.getMessage(), ex);
+            }
+        }
+
+        this.path = executablePath;
+        this.size = executableSize;
+        this.is64 = this.evaluateArchitecture();
+    }
+
+    /**
+     * Evaluates whether the executable has been compiled for a 64-bit architecture based on its
+     * file header.
+     *
+     * Both ELF images (native processes) and PE images (processes executed through Wine or
+     * Proton) are supported.
+     */
+    private boolean evaluateArchitecture() throws ProcessAttachmentException {
+        ByteBuffer header = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (channel.read(header) == -1) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            throw new ProcessAttachmentException("Failed to access executable module \"" + this.path + "\": " + ex.getMessage(), ex);
+        }
+
+        if (header.position() >= 5 && header.getInt(0) == 0x464C457F) { // \x7FELF
+            boolean is64 = header.get(4) == 2;
+            logger.info("Process is an ELF image - Using %d-Bit pointers", is64 ? 64 : 32);
+            return is64;
+        }
+
+        if (header.position() >= 0x40 && header.getShort(0) == 0x5A4D) { // MZ
+            int peOffset = header.getInt(0x3C);
+
+            if (peOffset >= 0 && peOffset + 6 <= header.position()) {
+                int machine = header.getShort(peOffset + 4) & 0xFFFF;
+                boolean is64 = machine == 0x8664 || machine == 0xAA64;
+
+                logger.info("Process is a PE image (machine 0x%04X) - Using %d-Bit pointers", machine, is64 ? 64 : 32);
+                return is64;
+            }
+        }
+
+        logger.warn("Unknown executable format - Assuming process to match the runtime architecture");
+        return Native.POINTER_SIZE == 8;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws ProcessAttachmentException, ProcessStateException {
+        FileChannel channel = this.memoryChannel;
+
+        if (channel == null) {
+            throw new ProcessStateException("Process is already closed");
+        }
+
+        logger.info("Closing process \"%s\"", this.name);
+        this.memoryChannel = null;
+
+        this.monitor.shutdown();
+        this.monitor = null;
+
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new ProcessAttachmentException("Failed to detach from process: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Path getExecutablePath() {
+        return this.path;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getExecutableSize() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Set<LinuxProcessModule> getModules() {
+        return Collections.unmodifiableSet(new HashSet<>(this.moduleMap.values()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<LinuxProcessModule> getModule(@Nonnull String moduleName) {
+        return Optional.ofNullable(this.moduleMap.get(moduleName));
+    }
+
+    /**
+     * Retrieves the process identifier.
+     */
+    @Nonnegative
+    public int getPid() {
+        return this.pid;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasModule(@Nonnull String moduleName) {
+        return this.moduleMap.containsKey(moduleName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean is64Bit() {
+        return this.is64;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAlive() {
+        String[] stat = this.readStat();
+
+        // zombie processes have terminated but have not been reaped by their parent yet
+        return stat != null && !"Z".equals(stat[0]) && !"X".equals(stat[0]) && Long.parseLong(stat[19]) == this.startTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOpen() {
+        return this.memoryChannel != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open() throws ProcessAttachmentException, ProcessStateException {
+        if (this.memoryChannel != null) {
+            throw new ProcessStateException("Process is already open");
+        }
+
+        if (!this.isAlive()) {
+            throw new ProcessTerminatedException("Process with pid " + this.pid + " has terminated");
+        }
+
+        // access to the memory file is subject to the same ptrace checks as process_vm_readv and
+        // process_vm_writev and thus doubles as a permission check for the vectored I/O path
+        try {
+            this.memoryChannel = FileChannel.open(this.directory.resolve("mem"), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (AccessDeniedException ex) {
+            throw new ProcessPermissionException("Failed to attach to process: Access Denied (check kernel.yama.ptrace_scope)", ex);
+        } catch (NoSuchFileException ex) {
+            throw new ProcessTerminatedException("Process with pid " + this.pid + " has terminated", ex);
+        } catch (IOException ex) {
+            throw new ProcessAttachmentException("Failed to attach to process: " + ex.getMessage(), ex);
+        }
+
+        // termination is detected by a dedicated thread which permits the memory access path to
+        // check a flag instead of parsing the process state on every access
+        this.monitor = new Monitor();
+        this.monitor.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        if (this.vectoredIo) {
+            LinuxScratchBuffer scratch = LinuxScratchBuffer.get()
+                    .local(buffer, 0, length)
+                    .remote(0, address, length);
+
+            long bytesRead = LinuxLibC.process_vm_readv(this.pid, scratch.local, 1, scratch.remote, 1, 0);
+
+            if (bytesRead == length) {
+                return;
+            }
+
+            if (bytesRead >= 0 || !this.isVectoredIoUnsupported(Native.getLastError())) {
+                throw new ProcessMemoryReadException(String.format("Failed to read process memory from address 0x%016X: Expected %d bytes but received %d", address, length, Math.max(0, bytesRead)));
+            }
+        }
+
+        ByteBuffer target = buffer.getByteBuffer(0, length);
+
+        try {
+            FileChannel channel = this.getMemoryChannel();
+
+            while (target.hasRemaining()) {
+                if (channel.read(target, address + target.position()) <= 0) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            throw new ProcessMemoryReadException(String.format("Failed to read process memory from address 0x%016X: %s", address, ex.getMessage()), ex);
+        }
+
+        if (target.position() != length) {
+            throw new ProcessMemoryReadException(String.format("Failed to read process memory from address 0x%016X: Expected %d bytes but received %d", address, length, target.position()));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * When available, up to {@link LinuxLibC#IOV_MAX} ranges are transferred through a single
+     * call to {@code process_vm_readv}.
+     */
+    @Override
+    protected void readMemory(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull Pointer buffer) {
+        if (!this.vectoredIo) {
+            super.readMemory(addresses, lengths, count, buffer);
+            return;
+        }
+
+        LinuxScratchBuffer scratch = LinuxScratchBuffer.get();
+        long position = 0;
+        int index = 0;
+
+        while (index < count) {
+            int vectorCount = Math.min(count - index, LinuxLibC.IOV_MAX);
+            long length = 0;
+
+            for (int i = 0; i < vectorCount; ++i) {
+                scratch.remote(i, addresses[index + i], lengths[index + i]);
+                length += lengths[index + i];
+            }
+
+            scratch.local(buffer, position, length);
+            long bytesRead = LinuxLibC.process_vm_readv(this.pid, scratch.local, 1, scratch.remote, vectorCount, 0);
+
+            // partial transfers stop at the first inaccessible range so we'll simply fall back to
+            // transferring each range of this chunk on its own in order to report the offending
+            // range or switch to the memory file if vectored I/O is unavailable
+            if (bytesRead != length) {
+                long rangePosition = position;
+
+                for (int i = 0; i < vectorCount; ++i) {
+                    this.readMemory(addresses[index + i], buffer.share(rangePosition), lengths[index + i]);
+                    rangePosition += lengths[index + i];
+                }
+            }
+
+            position += length;
+            index += vectorCount;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        if (this.vectoredIo) {
+            LinuxScratchBuffer scratch = LinuxScratchBuffer.get()
+                    .local(buffer, 0, length)
+                    .remote(0, address, length);
+
+            long bytesWritten = LinuxLibC.process_vm_writev(this.pid, scratch.local, 1, scratch.remote, 1, 0);
+
+            if (bytesWritten == length) {
+                return;
+            }
+
+            // process_vm_writev respects the protection of the target pages while the memory file
+            // permits writes to read-only mappings (such as code) and is thus used as a fallback
+            int errorNo = Native.getLastError();
+            if (bytesWritten >= 0 || (errorNo != LinuxLibC.EFAULT && !this.isVectoredIoUnsupported(errorNo))) {
+                throw new ProcessMemoryWriteException(String.format("Failed to write process memory at address 0x%016X: Expected to write %d bytes but wrote %d bytes", address, length, Math.max(0, bytesWritten)));
+            }
+        }
+
+        ByteBuffer source = buffer.getByteBuffer(0, length);
+
+        try {
+            FileChannel channel = this.getMemoryChannel();
+
+            while (source.hasRemaining()) {
+                if (channel.write(source, address + source.position()) <= 0) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            throw new ProcessMemoryWriteException(String.format("Failed to write process memory at address 0x%016X: %s", address, ex.getMessage()), ex);
+        }
+
+        if (source.position() != length) {
+            throw new ProcessMemoryWriteException(String.format("Failed to write process memory at address 0x%016X: Expected to write %d bytes but wrote %d bytes", address, length, source.position()));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Regions are parsed from {@code /proc/<pid>/maps} which lists each mapping along with its
+     * protection.
+     */
+    @Nonnull
+    @Override
+    protected Collection<MemoryRegion> queryRegions() {
+        List<String> mappings;
+
+        try {
+            mappings = Files.readAllLines(this.directory.resolve("maps"), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new ProcessMemoryStateException("Failed to query memory regions: " + ex.getMessage(), ex);
+        }
+
+        List<MemoryRegion> regions = new ArrayList<>(mappings.size());
+
+        for (String mapping : mappings) {
+            // only the address range and permissions (e.g. "r-xp") are of interest to us here
+            String[] columns = mapping.split(" ", 3);
+
+            if (columns.length < 2 || columns[1].length() < 3) {
+                continue;
+            }
+
+            int separator = columns[0].indexOf('-');
+            long start = Long.parseUnsignedLong(columns[0].substring(0, separator), 16);
+            long end = Long.parseUnsignedLong(columns[0].substring(separator + 1), 16);
+
+            if (end <= start) {
+                continue;
+            }
+
+            String permissions = columns[1];
+            regions.add(new MemoryRegion(start, end - start, permissions.charAt(0) == 'r', permissions.charAt(1) == 'w', permissions.charAt(2) == 'x'));
+        }
+
+        return regions;
+    }
+
+    /**
+     * Retrieves the memory file channel of this process.
+     *
+     * @throws ProcessMemoryStateException when the process has been closed.
+     */
+    @Nonnull
+    private FileChannel getMemoryChannel() {
+        FileChannel channel = this.memoryChannel;
+
+        if (channel == null) {
+            throw new ProcessMemoryStateException("Process is closed");
+        }
+
+        return channel;
+    }
+
+    /**
+     * Evaluates whether a vectored I/O error indicates that the respective system calls are
+     * unavailable to us (e.g. when they have been disabled by the kernel configuration or a
+     * seccomp filter) and disables vectored I/O for this process if so.
+     */
+    private boolean isVectoredIoUnsupported(int errorNo) {
+        if (errorNo != LinuxLibC.ENOSYS && errorNo != LinuxLibC.EPERM) {
+            return false;
+        }
+
+        logger.warn("Vectored I/O is unavailable (error %d) - Falling back to /proc/%d/mem", errorNo, this.pid);
+        this.vectoredIo = false;
+        return true;
+    }
+
+    /**
+     * Reads the contents of {@code /proc/<pid>/stat} starting with the process state.
+     *
+     * @return an array of stat fields or null if the process does not exist.
+     */
+    @Nullable
+    private String[] readStat() {
+        String stat;
+
+        try (InputStream inputStream = Files.newInputStream(this.directory.resolve("stat"))) {
+            byte[] buffer = new byte[1024];
+            int length = 0;
+            int read;
+
+            while (length < buffer.length && (read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+            }
+
+            stat = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            return null;
+        }
+
+        // the process name is enclosed in parentheses and may contain spaces as well as
+        // parentheses on its own thus we'll skip everything up to the last closing parenthesis
+        int nameEnd = stat.lastIndexOf(')');
+        if (nameEnd == -1) {
+            return null;
+        }
+
+        String[] fields = stat.substring(nameEnd + 2).trim().split(" ");
+        return fields.length < 20 ? null : fields;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateAccess() throws ProcessMemoryStateException {
+        // the memory file is kept until the process is closed explicitly in order to permit its
+        // owner to release it once it has been notified of the termination
+        if (this.memoryChannel == null || this.isTerminated()) {
+            throw new ProcessMemoryStateException("Process is closed");
+        }
+    }
+
+    /**
+     * Waits for the termination of the process on a dedicated daemon thread.
+     *
+     * When supported by the kernel, the monitor blocks on a {@code pidfd} which becomes readable as
+     * soon as the process exits. Otherwise, the process state is polled periodically. In both
+     * cases, the wait is performed in slices in order to permit the monitor to be stopped when the
+     * process is closed.
+     */
+    private final class Monitor extends Thread {
+        private volatile boolean running = true;
+
+        Monitor() {
+            super("process-monitor-" + LinuxProcess.this.pid);
+            this.setDaemon(true);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            int pidfd = LinuxLibC.isAvailable() ? (int) LinuxLibC.syscall(LinuxLibC.SYS_PIDFD_OPEN, LinuxProcess.this.pid, 0) : -1;
+
+            if (pidfd < 0) {
+                logger.debug("Process file descriptors are not available - Falling back to polling");
+                this.poll();
+                return;
+            }
+
+            try {
+                // the pid may have been reassigned between our last check and the creation of the
+                // descriptor in which case we would be waiting for an unrelated process
+                if (!LinuxProcess.this.isAlive()) {
+                    LinuxProcess.this.signalTermination();
+                    return;
+                }
+
+                Memory fds = new Memory(LinuxLibC.POLLFD_SIZE);
+                fds.setInt(0, pidfd);
+                fds.setShort(4, LinuxLibC.POLLIN);
+
+                while (this.running) {
+                    fds.setShort(6, (short) 0);
+                    int result = LinuxLibC.poll(fds, 1, MONITOR_INTERVAL);
+
+                    if (result > 0 && (fds.getShort(6) & LinuxLibC.POLLIN) != 0) {
+                        LinuxProcess.this.signalTermination();
+                        return;
+                    }
+
+                    if (result < 0 && Native.getLastError() != LinuxLibC.EINTR) {
+                        logger.warn("Cannot wait for process with pid %d (errno %d) - Falling back to polling", LinuxProcess.this.pid, Native.getLastError());
+                        this.poll();
+                        return;
+                    }
+                }
+            } finally {
+                LinuxLibC.close(pidfd);
+            }
+        }
+
+        /**
+         * Periodically parses the process state until it terminates or the monitor is stopped.
+         */
+        private void poll() {
+            try {
+                while (this.running) {
+                    if (!LinuxProcess.this.isAlive()) {
+                        LinuxProcess.this.signalTermination();
+                        return;
+                    }
+
+                    Thread.sleep(MONITOR_INTERVAL);
+                }
+            } catch (InterruptedException ignore) {
+            }
+        }
+
+        /**
+         * Stops the monitor.
+         */
+        void shutdown() {
+            this.running = false;
+            this.interrupt();
+        }
+    }
+}
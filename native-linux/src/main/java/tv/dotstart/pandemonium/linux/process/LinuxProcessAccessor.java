@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.linux.process;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.controlsfx.tools.Platform;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import tv.dotstart.pandemonium.process.ProcessAccessor;
+import tv.dotstart.pandemonium.process.discovery.ProcessDescriptor;
+import tv.dotstart.pandemonium.process.discovery.ProcessNotifier;
+import tv.dotstart.pandemonium.process.exception.ProcessException;
+import tv.dotstart.pandemonium.spring.condition.annotation.PlatformConditional;
+
+/**
+ * Provides access to processes on Linux based systems through the {@code /proc} file system.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Lazy
+@Component
+@PlatformConditional(Platform.UNIX)
+public class LinuxProcessAccessor implements ProcessAccessor {
+    private static final Logger logger = LogManager.getFormatterLogger(LinuxProcessAccessor.class);
+    private static final Path PROC = Paths.get("/proc");
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Set<LinuxProcess> getActiveProcesses() {
+        return this.getMatchingProcess((n) -> true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Set<ProcessDescriptor> getProcessDescriptors() {
+        Set<ProcessDescriptor> descriptors = new HashSet<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(PROC, (p) -> isPid(p.getFileName().toString()))) {
+            for (Path directory : stream) {
+                String name = readName(directory);
+
+                if (name != null) {
+                    descriptors.add(new ProcessDescriptor(Integer.parseInt(directory.getFileName().toString()), name));
+                }
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to enumerate processes: " + ex.getMessage(), ex);
+        }
+
+        return descriptors;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessNotifier createNotifier() {
+        return LinuxProcessNotifier.open();
+    }
+
+    /**
+     * Retrieves a set of active processes whose name matches the supplied predicate.
+     */
+    @Nonnull
+    public Set<LinuxProcess> getMatchingProcess(@Nonnull Predicate<String> matcher) {
+        Set<LinuxProcess> processes = new HashSet<>();
+
+        for (ProcessDescriptor descriptor : this.getProcessDescriptors()) {
+            if (matcher.test(descriptor.getName())) {
+                this.getProcess(descriptor).ifPresent(processes::add);
+            }
+        }
+
+        return processes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<LinuxProcess> getProcess(@Nonnull ProcessDescriptor descriptor) {
+        // the pid may have been reassigned since the descriptor has been created
+        if (!descriptor.getName().equals(readName(PROC.resolve(Integer.toString(descriptor.getPid()))))) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new LinuxProcess(descriptor.getPid(), descriptor.getName()));
+        } catch (IllegalStateException | ProcessException ex) {
+            logger.warn("Failed to access process: " + ex.getMessage(), ex);
+            logger.warn("Process will not be visible to the application and its addons");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<LinuxProcess> getProcess(@Nonnull String name) {
+        return this.getMatchingProcess(name::equalsIgnoreCase).stream().findAny();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<LinuxProcess> getProcess(@Nonnull Collection<String> names) {
+        // all names are matched against a single snapshot of the process table
+        Set<String> lowerCaseNames = names.stream()
+                .map((n) -> n.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+
+        return this.getMatchingProcess((n) -> lowerCaseNames.contains(n.toLowerCase(Locale.ROOT))).stream().findAny();
+    }
+
+    /**
+     * Checks whether a {@code /proc} entry refers to a process.
+     */
+    private static boolean isPid(@Nonnull String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+
+        for (int i = 0; i < name.length(); ++i) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Evaluates the name of a process.
+     *
+     * Processes are identified by the file name of their first command line argument since Wine
+     * and Proton replace it with the Windows path of the executed image (e.g. "C:\Game\dxhr.exe")
+     * while the kernel would report the name of the loader instead. Processes without a command
+     * line (such as kernel threads) are identified by their kernel name.
+     *
+     * @return a process name or null if the process has terminated in the meantime.
+     */
+    @Nullable
+    static String readName(@Nonnull Path directory) {
+        try {
+            byte[] commandLine = Files.readAllBytes(directory.resolve("cmdline"));
+
+            int length = 0;
+            while (length < commandLine.length && commandLine[length] != 0) {
+                ++length;
+            }
+
+            if (length != 0) {
+                String executable = new String(commandLine, 0, length, StandardCharsets.UTF_8);
+                int separator = Math.max(executable.lastIndexOf('/'), executable.lastIndexOf('\\'));
+
+                return executable.substring(separator + 1);
+            }
+
+            return new String(Files.readAllBytes(directory.resolve("comm")), StandardCharsets.UTF_8).trim();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
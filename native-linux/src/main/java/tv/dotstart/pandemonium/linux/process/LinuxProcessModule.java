@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.linux.process;
+
+import java.nio.file.Path;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Represents a file which has been mapped into the address space of a process (as listed within
+ * {@code /proc/<pid>/maps}).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class LinuxProcessModule implements ProcessModule {
+    private final LinuxProcess process;
+    private final Path path;
+    private final long baseAddress;
+    private final long size;
+
+    LinuxProcessModule(@Nonnull LinuxProcess process, @Nonnull Path path, long baseAddress, @Nonnegative long size) {
+        this.process = process;
+        this.path = path;
+        this.baseAddress = baseAddress;
+        this.size = size;
+    }
+
+    /**
+     * Retrieves the address at which the first mapping of this module begins.
+     */
+    public long getBaseAddress() {
+        return this.baseAddress;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String getName() {
+        return this.path.getFileName().toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * On Linux, the module size refers to the range between the start of its first mapping and
+     * the end of its last mapping.
+     */
+    @Override
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer pointer(@Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException {
+        this.process.validateAccess();
+
+        return new LinuxProcessMemoryPointer(this.process, this, this.baseAddress + offset, offsets);
+    }
+}
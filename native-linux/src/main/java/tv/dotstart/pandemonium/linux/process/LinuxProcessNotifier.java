@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.linux.process;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import tv.dotstart.pandemonium.process.discovery.ProcessNotifier;
+
+/**
+ * Receives process events from the kernel through the netlink process connector.
+ *
+ * Subscribing to the connector typically requires the {@code CAP_NET_ADMIN} capability (or a
+ * kernel which has been built without the connector altogether) and thus callers are expected to
+ * fall back to polling when the subscription fails (see {@link #open()}).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+final class LinuxProcessNotifier implements ProcessNotifier {
+    private static final Logger logger = LogManager.getFormatterLogger(LinuxProcessNotifier.class);
+
+    private static final int NETLINK_CONNECTOR = 11;
+    private static final int CN_IDX_PROC = 1;
+    private static final int CN_VAL_PROC = 1;
+    private static final int PROC_CN_MCAST_LISTEN = 1;
+    private static final short NLMSG_DONE = 3;
+
+    private static final int PROC_EVENT_EXEC = 0x00000002;
+    private static final int PROC_EVENT_EXIT = 0x80000000;
+
+    /**
+     * Defines the combined size of the {@code struct nlmsghdr} and {@code struct cn_msg} headers
+     * which precede every message.
+     */
+    private static final int HEADER_SIZE = 16 + 20;
+    private static final int MESSAGE_SIZE = 1024;
+
+    private final int socket;
+    private final Memory fds = new Memory(LinuxLibC.POLLFD_SIZE);
+    private final Memory message = new Memory(MESSAGE_SIZE);
+
+    private LinuxProcessNotifier(int socket) {
+        this.socket = socket;
+        this.fds.setInt(0, socket);
+        this.fds.setShort(4, LinuxLibC.POLLIN);
+    }
+
+    /**
+     * Subscribes to the process connector or falls back to polling if the connector is not
+     * available.
+     */
+    @Nonnull
+    static ProcessNotifier open() {
+        if (!LinuxLibC.isAvailable()) {
+            return ProcessNotifier.polling();
+        }
+
+        int socket = LinuxLibC.socket(LinuxLibC.AF_NETLINK, LinuxLibC.SOCK_DGRAM | LinuxLibC.SOCK_CLOEXEC, NETLINK_CONNECTOR);
+        if (socket < 0) {
+            logger.debug("Process connector is not available (errno %d) - Falling back to polling", Native.getLastError());
+            return ProcessNotifier.polling();
+        }
+
+        Memory address = new Memory(LinuxLibC.SOCKADDR_NL_SIZE);
+        address.clear();
+        address.setShort(0, (short) LinuxLibC.AF_NETLINK);
+        address.setInt(8, CN_IDX_PROC);
+
+        Memory subscription = new Memory(HEADER_SIZE + 4);
+        subscription.clear();
+        subscription.setInt(0, HEADER_SIZE + 4);
+        subscription.setShort(4, NLMSG_DONE);
+        subscription.setInt(16, CN_IDX_PROC);
+        subscription.setInt(20, CN_VAL_PROC);
+        subscription.setShort(32, (short) 4);
+        subscription.setInt(36, PROC_CN_MCAST_LISTEN);
+
+        if (LinuxLibC.bind(socket, address, LinuxLibC.SOCKADDR_NL_SIZE) != 0 || LinuxLibC.send(socket, subscription, subscription.size(), 0) < 0) {
+            logger.debug("Cannot subscribe to process connector (errno %d) - Falling back to polling", Native.getLastError());
+            LinuxLibC.close(socket);
+            return ProcessNotifier.polling();
+        }
+
+        return new LinuxProcessNotifier(socket);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean await(@Nonnegative long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        this.fds.setShort(6, (short) 0);
+        int result = LinuxLibC.poll(this.fds, 1, (int) Math.min(Integer.MAX_VALUE, unit.toMillis(timeout)));
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        if (result == 0) {
+            return false;
+        }
+
+        if (result < 0) {
+            // signals are reported as a spurious change since the caller will simply synchronize
+            // its state once more
+            return true;
+        }
+
+        // all pending events are drained at once in order to coalesce them into a single change
+        boolean changed = false;
+
+        while (true) {
+            long length = LinuxLibC.recv(this.socket, this.message, MESSAGE_SIZE, LinuxLibC.MSG_DONTWAIT);
+
+            if (length < 0) {
+                int errno = Native.getLastError();
+
+                if (errno == LinuxLibC.EAGAIN) {
+                    return changed;
+                }
+
+                if (errno != LinuxLibC.ENOBUFS && errno != LinuxLibC.EINTR) {
+                    logger.warn("Failed to receive process events (errno %d)", errno);
+                    return true;
+                }
+
+                // the kernel has dropped one or more events due to a full receive buffer and thus
+                // the process table may have changed in unknown ways
+                changed = true;
+                continue;
+            }
+
+            if (length >= HEADER_SIZE + 24) {
+                int what = this.message.getInt(HEADER_SIZE);
+                int pid = this.message.getInt(HEADER_SIZE + 16);
+                int tgid = this.message.getInt(HEADER_SIZE + 20);
+
+                // exit events are generated for every thread while we are only interested in
+                // processes (e.g. their main thread)
+                changed |= what == PROC_EVENT_EXEC || (what == PROC_EVENT_EXIT && pid == tgid);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPushing() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        LinuxLibC.close(this.socket);
+    }
+}
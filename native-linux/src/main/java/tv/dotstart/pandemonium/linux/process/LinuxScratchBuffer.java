@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.linux.process;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Provides a thread confined set of {@code struct iovec} arrays which are reused for every call
+ * to {@code process_vm_readv} and {@code process_vm_writev} in order to keep the hot path free of
+ * allocations.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+final class LinuxScratchBuffer {
+    private static final ThreadLocal<LinuxScratchBuffer> instance = ThreadLocal.withInitial(LinuxScratchBuffer::new);
+
+    final Memory local = new Memory(LinuxLibC.IOVEC_SIZE);
+    final Memory remote = new Memory(LinuxLibC.IOVEC_SIZE * LinuxLibC.IOV_MAX);
+
+    private LinuxScratchBuffer() {
+    }
+
+    /**
+     * Retrieves the scratch buffer of the calling thread.
+     */
+    @Nonnull
+    static LinuxScratchBuffer get() {
+        return instance.get();
+    }
+
+    /**
+     * Updates the local vector.
+     */
+    @Nonnull
+    LinuxScratchBuffer local(@Nonnull Pointer buffer, long offset, @Nonnegative long length) {
+        this.local.setLong(0, Pointer.nativeValue(buffer) + offset);
+        this.local.setLong(8, length);
+        return this;
+    }
+
+    /**
+     * Updates a remote vector.
+     */
+    @Nonnull
+    LinuxScratchBuffer remote(@Nonnegative int index, long address, @Nonnegative long length) {
+        this.remote.setLong(index * LinuxLibC.IOVEC_SIZE, address);
+        this.remote.setLong(index * LinuxLibC.IOVEC_SIZE + 8, length);
+        return this;
+    }
+}
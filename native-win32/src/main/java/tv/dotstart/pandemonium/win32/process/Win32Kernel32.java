@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.win32.process;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+import com.sun.jna.win32.StdCallLibrary;
+
+import java.util.Collections;
+
+/**
+ * Provides direct mappings for the kernel32 functions which are invoked on the memory access hot
+ * path.
+ *
+ * Unlike the interface mappings provided by {@link com.sun.jna.platform.win32.Kernel32}, direct
+ * mappings do not allocate argument arrays, boxed primitives or by-reference wrappers on every
+ * invocation and thus permit reads without producing any garbage.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class Win32Kernel32 {
+
+    static {
+        Native.register(Win32Kernel32.class, NativeLibrary.getInstance("kernel32", Collections.singletonMap(Library.OPTION_CALLING_CONVENTION, StdCallLibrary.STDCALL_CONVENTION)));
+    }
+
+    private Win32Kernel32() {
+    }
+
+    /**
+     * @see com.sun.jna.platform.win32.Kernel32#GetExitCodeProcess(com.sun.jna.platform.win32.WinNT.HANDLE,
+     * com.sun.jna.ptr.IntByReference)
+     */
+    static native boolean GetExitCodeProcess(Pointer hProcess, Pointer lpExitCode);
+
+    /**
+     * @see com.sun.jna.platform.win32.Kernel32#ReadProcessMemory(com.sun.jna.platform.win32.WinNT.HANDLE,
+     * Pointer, Pointer, int, com.sun.jna.ptr.IntByReference)
+     */
+    static native boolean ReadProcessMemory(Pointer hProcess, Pointer lpBaseAddress, Pointer lpBuffer, int nSize, Pointer lpNumberOfBytesRead);
+
+    /**
+     * Retrieves information on the range of pages which contains the supplied address.
+     *
+     * The buffer is expected to hold a {@code MEMORY_BASIC_INFORMATION} structure of the runtime
+     * pointer size. The returned value (a {@code SIZE_T}) is only ever compared against zero and
+     * thus safely mapped to an integer.
+     */
+    static native int VirtualQueryEx(Pointer hProcess, Pointer lpAddress, Pointer lpBuffer, int dwLength);
+
+    /**
+     * @see com.sun.jna.platform.win32.Kernel32#WaitForSingleObject(com.sun.jna.platform.win32.WinNT.HANDLE,
+     * int)
+     */
+    static native int WaitForSingleObject(Pointer hHandle, int dwMilliseconds);
+
+    /**
+     * @see com.sun.jna.platform.win32.Kernel32#WriteProcessMemory(com.sun.jna.platform.win32.WinNT.HANDLE,
+     * Pointer, Pointer, int, com.sun.jna.ptr.IntByReference)
+     */
+    static native boolean WriteProcessMemory(Pointer hProcess, Pointer lpBaseAddress, Pointer lpBuffer, int nSize, Pointer lpNumberOfBytesWritten);
+}
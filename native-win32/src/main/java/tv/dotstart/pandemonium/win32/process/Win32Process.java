@@ -20,53 +20,95 @@ import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 import com.sun.jna.platform.win32.Kernel32;
 import com.sun.jna.platform.win32.Psapi;
+import com.sun.jna.platform.win32.WinBase;
 import com.sun.jna.platform.win32.WinDef;
 import com.sun.jna.platform.win32.WinNT;
 import com.sun.jna.ptr.IntByReference;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.context.NoSuchMessageException;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.concurrent.locks.StampedLock;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
-import tv.dotstart.pandemonium.process.Process;
-import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.AbstractProcess;
+import tv.dotstart.pandemonium.process.MemoryRegion;
 import tv.dotstart.pandemonium.process.exception.ProcessAttachmentException;
 import tv.dotstart.pandemonium.process.exception.ProcessException;
 import tv.dotstart.pandemonium.process.exception.ProcessPermissionException;
 import tv.dotstart.pandemonium.process.exception.ProcessStateException;
 import tv.dotstart.pandemonium.process.exception.ProcessTerminatedException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
 import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
 
 /**
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
-public class Win32Process implements Process {
+public class Win32Process extends AbstractProcess {
     private static final Logger logger = LogManager.getFormatterLogger(Win32Process.class);
 
+    /**
+     * Defines the size of a {@code MEMORY_BASIC_INFORMATION} structure as well as the offsets of
+     * its respective fields for the pointer size of the runtime.
+     */
+    static final int MEMORY_BASIC_INFORMATION_SIZE = Native.POINTER_SIZE == 8 ? 48 : 28;
+    private static final int MBI_REGION_SIZE_OFFSET = Native.POINTER_SIZE == 8 ? 24 : 12;
+    private static final int MBI_STATE_OFFSET = MBI_REGION_SIZE_OFFSET + Native.POINTER_SIZE;
+    private static final int MBI_PROTECT_OFFSET = MBI_STATE_OFFSET + 4;
+
+    private static final int MEM_COMMIT = 0x1000;
+    private static final int PAGE_GUARD = 0x100;
+    private static final int PAGE_READABLE = 0x02 | 0x04 | 0x08 | 0x20 | 0x40 | 0x80;
+    private static final int PAGE_WRITABLE = 0x04 | 0x08 | 0x40 | 0x80;
+    private static final int PAGE_EXECUTABLE = 0x10 | 0x20 | 0x40 | 0x80;
+
+    /**
+     * Defines the maximum amount of time (in milliseconds) the monitor blocks before it checks
+     * whether it has been stopped.
+     */
+    private static final int MONITOR_INTERVAL = 500;
+
+    /**
+     * Defines the amount of module handles which are requested with the first enumeration attempt.
+     */
+    private static final int INITIAL_MODULE_CAPACITY = 256;
+
     private final int pid;
     private final String name;
     private final Path path;
     private final long size;
     private final boolean is64;
-    private final Map<String, Win32ProcessModule> moduleMap;
     private final WinNT.HANDLE infoHandle;
 
-    WinNT.HANDLE accessHandle;
+    private final Object moduleLock = new Object();
+    private volatile Map<String, Win32ProcessModule> moduleMap;
+
+    /**
+     * Guards the access handle against being closed while memory accesses are still in progress.
+     *
+     * A stamped lock is used in favor of a reentrant implementation since it does not track its
+     * readers and thus does not allocate when acquired on the memory access path.
+     */
+    private final StampedLock handleLock = new StampedLock();
+    volatile WinNT.HANDLE accessHandle;
+    private Monitor monitor;
 
     public Win32Process(@Nonnegative int pid, @Nonnull String name) throws ProcessException {
         this.pid = pid;
@@ -74,7 +116,7 @@ public class Win32Process implements Process {
 
         // attach to process using read permissions
         logger.info("Attaching to process with pid %d (\"%s\") in read-only mode", pid, name);
-        this.infoHandle = Kernel32.INSTANCE.OpenProcess(Kernel32.PROCESS_QUERY_INFORMATION | Kernel32.PROCESS_VM_READ, true, this.pid);
+        this.infoHandle = Kernel32.INSTANCE.OpenProcess(Kernel32.PROCESS_QUERY_INFORMATION | Kernel32.PROCESS_VM_READ | Kernel32.SYNCHRONIZE, true, this.pid);
         int errorNo = Kernel32.INSTANCE.GetLastError();
 
         switch (errorNo) {
@@ -112,60 +154,23 @@ public class Win32Process implements Process {
             this.is64 = false;
         }
 
-        // query module list with info handle
-        WinDef.HMODULE[] modules = new WinDef.HMODULE[1024];
-        int moduleStructSize = Native.getNativeSize(WinDef.HMODULE.class);
-        int moduleArraySize = moduleStructSize * modules.length;
-
-        IntByReference requiredSize = new IntByReference();
-        Psapi.INSTANCE.EnumProcessModules(this.infoHandle, modules, moduleArraySize, requiredSize);
-
-        // make sure we got a list of modules and that it fits our array since truncated lists may
-        // cause issues further down the road
-        if (requiredSize.getValue() == 0 || requiredSize.getValue() < moduleStructSize) {
-            throw new ProcessAttachmentException("Failed to retrieve process modules: No modules received");
-        } else if (requiredSize.getValue() > moduleArraySize) {
-            throw new ProcessAttachmentException("Failed to retrieve process modules: Module list exceeded allocated memory");
-        }
-
-        int moduleCount = requiredSize.getValue() / moduleStructSize;
-        Map<String, Win32ProcessModule> moduleMap = new HashMap<>();
-        logger.info("Found %d modules:", moduleCount);
-
-        Path executablePath = null;
-        long executableSize = 0;
-
-        for (int i = 0; i < moduleCount; ++i) {
-            WinDef.HMODULE module = modules[i];
-
-            // query the module filename
-            // this seems to be a fully qualified path to the respective exe or dll so we'll just
-            // convert it into a path while we're at it
-            char[] filename = new char[Kernel32.MAX_PATH];
-            int length = Psapi.INSTANCE.GetModuleFileNameExW(this.infoHandle, module, filename, filename.length);
-            Path modulePath = Paths.get(new String(filename, 0, length));
-
-            // construct a new module representation and store it in our local module map
-            try {
-                logger.info("  #%02d - %s (located at %s) starting at 0x%016X", i + 1, modulePath.getFileName(), modulePath, Pointer.nativeValue(module.getPointer()));
-                Win32ProcessModule processModule = new Win32ProcessModule(this, modulePath, module.getPointer());
-
-                if (modulePath.getFileName().toString().equalsIgnoreCase(name)) {
-                    executablePath = modulePath;
-                    executableSize = processModule.getSize();
-                }
+        // the executable is located without enumerating the module list since the latter is
+        // expensive on processes with a large amount of modules and is thus deferred until a module
+        // is actually requested
+        char[] filename = new char[Kernel32.MAX_PATH];
+        int length = Psapi.INSTANCE.GetModuleFileNameExW(this.infoHandle, null, filename, filename.length);
 
-                moduleMap.put(processModule.getName(), processModule);
-            } catch (IOException ex) {
-                throw new ProcessAttachmentException("Failed to access process module \"" + modulePath + "\": " + ex.getMessage(), ex);
-            }
+        if (length == 0) {
+            throw new ProcessAttachmentException("Failed to locate executable module: Received error " + Kernel32.INSTANCE.GetLastError());
         }
 
-        this.moduleMap = Collections.unmodifiableMap(moduleMap);
+        Path executablePath = Paths.get(new String(filename, 0, length));
+        long executableSize;
 
-        // validate and store executable module information
-        if (executablePath == null) {
-            throw new ProcessAttachmentException("Failed to locate executable module");
+        try {
+            executableSize = Files.size(executablePath);
+        } catch (IOException ex) {
+            throw new ProcessAttachmentException("Failed to access executable module \"" + executablePath + "\": " + ex.getMessage(), ex);
         }
 
         this.path = executablePath;
@@ -177,12 +182,28 @@ public class Win32Process implements Process {
      */
     @Override
     public void close() throws ProcessAttachmentException, ProcessStateException {
-        if (this.accessHandle == null) {
-            throw new ProcessStateException("Process is already closed");
+        WinNT.HANDLE accessHandle;
+        long stamp = this.handleLock.writeLock();
+
+        try {
+            accessHandle = this.accessHandle;
+
+            if (accessHandle == null) {
+                throw new ProcessStateException("Process is already closed");
+            }
+
+            // all in-flight memory accesses have completed at this point while subsequent accesses
+            // will observe the closed state before ever touching the handle
+            this.accessHandle = null;
+        } finally {
+            this.handleLock.unlockWrite(stamp);
         }
 
         logger.info("Closing process \"%s\"", this.name);
-        Kernel32.INSTANCE.CloseHandle(this.accessHandle);
+        this.monitor.shutdown();
+        this.monitor = null;
+
+        Kernel32.INSTANCE.CloseHandle(accessHandle);
 
         int errorNo = Kernel32.INSTANCE.GetLastError();
         if (errorNo != Kernel32.ERROR_SUCCESS) {
@@ -222,7 +243,7 @@ public class Win32Process implements Process {
     @Nonnull
     @Override
     public Set<Win32ProcessModule> getModules() {
-        return Collections.unmodifiableSet(new HashSet<>(this.moduleMap.values()));
+        return Collections.unmodifiableSet(new HashSet<>(this.getModuleMap().values()));
     }
 
     /**
@@ -231,35 +252,112 @@ public class Win32Process implements Process {
     @Nonnull
     @Override
     public Optional<Win32ProcessModule> getModule(@Nonnull String moduleName) {
-        return Optional.ofNullable(this.moduleMap.get(moduleName));
+        return Optional.ofNullable(this.getModuleMap().get(moduleName.toLowerCase(Locale.ROOT)));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nonnull
     @Override
-    public Optional<Win32ProcessModule> getModule(@Nonnull Collection<String> moduleNames) {
-        return moduleNames.stream()
-                .flatMap((n) -> this.getModule(n).map(Stream::of).orElseGet(Stream::empty))
-                .findAny();
+    public boolean hasModule(@Nonnull String moduleName) {
+        return this.getModuleMap().containsKey(moduleName.toLowerCase(Locale.ROOT));
     }
 
     /**
-     * {@inheritDoc}
+     * Discards the cached module list in order to have it enumerated again when a module is
+     * requested next (e.g. after the process has loaded additional libraries).
      */
-    @Override
-    public boolean hasModule(@Nonnull String moduleName) {
-        return this.moduleMap.containsKey(moduleName);
+    public void refreshModules() {
+        this.moduleMap = null;
+        this.discardPointers();
     }
 
     /**
-     * {@inheritDoc}
+     * Retrieves the module index of this process and enumerates the process modules if no index
+     * has been constructed yet.
+     *
+     * Modules are indexed by their lower case names since Windows treats file names without
+     * respect to their case.
      */
-    @Override
-    public boolean hasModule(@Nonnull Collection<String> moduleNames) {
-        return moduleNames.stream()
-                .anyMatch(this::hasModule);
+    @Nonnull
+    private Map<String, Win32ProcessModule> getModuleMap() {
+        Map<String, Win32ProcessModule> moduleMap = this.moduleMap;
+
+        if (moduleMap == null) {
+            synchronized (this.moduleLock) {
+                moduleMap = this.moduleMap;
+
+                if (moduleMap == null) {
+                    try {
+                        moduleMap = this.enumerateModules();
+                        this.moduleMap = moduleMap;
+                    } catch (ProcessAttachmentException ex) {
+                        // failed enumerations are not cached in order to permit a retry with the
+                        // next request
+                        logger.warn("Failed to enumerate modules of process with pid %d: %s", this.pid, ex.getMessage());
+                        moduleMap = Collections.emptyMap();
+                    }
+                }
+            }
+        }
+
+        return moduleMap;
+    }
+
+    /**
+     * Enumerates all modules which are currently loaded within the process.
+     *
+     * Module sizes are taken from the image within process memory and thus the enumeration does
+     * not access any files.
+     */
+    @Nonnull
+    private Map<String, Win32ProcessModule> enumerateModules() throws ProcessAttachmentException {
+        int moduleStructSize = Native.getNativeSize(WinDef.HMODULE.class);
+        IntByReference requiredSize = new IntByReference();
+        WinDef.HMODULE[] modules = new WinDef.HMODULE[INITIAL_MODULE_CAPACITY];
+
+        // the module list may grow between two calls and thus the array is resized until the list
+        // fits entirely
+        while (true) {
+            if (!Psapi.INSTANCE.EnumProcessModules(this.infoHandle, modules, moduleStructSize * modules.length, requiredSize)) {
+                throw new ProcessAttachmentException("Failed to retrieve process modules: Received error " + Kernel32.INSTANCE.GetLastError());
+            }
+
+            if (requiredSize.getValue() <= moduleStructSize * modules.length) {
+                break;
+            }
+
+            modules = new WinDef.HMODULE[requiredSize.getValue() / moduleStructSize];
+        }
+
+        int moduleCount = requiredSize.getValue() / moduleStructSize;
+        if (moduleCount == 0) {
+            throw new ProcessAttachmentException("Failed to retrieve process modules: No modules received");
+        }
+
+        Map<String, Win32ProcessModule> moduleMap = new HashMap<>(moduleCount * 2);
+        Psapi.MODULEINFO moduleInfo = new Psapi.MODULEINFO();
+        char[] filename = new char[Kernel32.MAX_PATH];
+
+        for (int i = 0; i < moduleCount; ++i) {
+            WinDef.HMODULE module = modules[i];
+
+            // modules may be unloaded while we are enumerating them in which case they are
+            // silently skipped
+            int length = Psapi.INSTANCE.GetModuleFileNameExW(this.infoHandle, module, filename, filename.length);
+            if (length == 0 || !Psapi.INSTANCE.GetModuleInformation(this.infoHandle, module, moduleInfo, moduleInfo.size())) {
+                continue;
+            }
+
+            Path modulePath = Paths.get(new String(filename, 0, length));
+            Win32ProcessModule processModule = new Win32ProcessModule(this, modulePath, module.getPointer(), moduleInfo.SizeOfImage & 0xFFFFFFFFL);
+
+            logger.debug("  #%02d - %s (located at %s) starting at 0x%016X", i + 1, modulePath.getFileName(), modulePath, Pointer.nativeValue(module.getPointer()));
+            moduleMap.putIfAbsent(processModule.getName().toLowerCase(Locale.ROOT), processModule);
+        }
+
+        logger.info("Found %d modules in process with pid %d", moduleMap.size(), this.pid);
+        return Collections.unmodifiableMap(moduleMap);
     }
 
     /**
@@ -275,10 +373,10 @@ public class Win32Process implements Process {
      */
     @Override
     public boolean isAlive() {
-        IntByReference exitCode = new IntByReference();
-        Kernel32.INSTANCE.GetExitCodeProcess(this.infoHandle, exitCode);
+        Win32ScratchBuffer scratch = Win32ScratchBuffer.get();
+        Win32Kernel32.GetExitCodeProcess(this.infoHandle.getPointer(), scratch.status);
 
-        return exitCode.getValue() == Kernel32.STILL_ACTIVE;
+        return scratch.status.getInt(0) == Kernel32.STILL_ACTIVE;
     }
 
     /**
@@ -317,36 +415,124 @@ public class Win32Process implements Process {
             default:
                 throw new ProcessAttachmentException("Failed to attach to process: Unknown error (code " + errorNo + ")");
         }
+
+        // termination is detected by a dedicated thread which permits the memory access path to
+        // check a flag instead of querying the exit code on every access
+        this.monitor = new Monitor();
+        this.monitor.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        Win32ScratchBuffer scratch = Win32ScratchBuffer.get();
+        long stamp = this.handleLock.readLock();
+
+        try {
+            WinNT.HANDLE accessHandle = this.accessHandle;
+
+            if (accessHandle == null) {
+                throw new ProcessMemoryStateException("Process is closed");
+            }
+
+            scratch.status.setInt(0, 0);
+            Win32Kernel32.ReadProcessMemory(accessHandle.getPointer(), scratch.address.set(address), buffer, length, scratch.status);
+        } finally {
+            this.handleLock.unlockRead(stamp);
+        }
+
+        int bytesRead = scratch.status.getInt(0);
+        if (bytesRead != length) {
+            throw new ProcessMemoryReadException(String.format("Failed to read process memory from address 0x%016X: Expected %d bytes but received %d", address, length, bytesRead));
+        }
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nonnull
     @Override
-    public ProcessMemoryPointer pointer(@Nonnull String moduleName, @Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException {
-        return this.getModule(moduleName)
-                .orElseThrow(() -> new NoSuchMessageException("No such module"))
-                .pointer(offset, offsets);
+    protected void writeMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        Win32ScratchBuffer scratch = Win32ScratchBuffer.get();
+        long stamp = this.handleLock.readLock();
+
+        try {
+            WinNT.HANDLE accessHandle = this.accessHandle;
+
+            if (accessHandle == null) {
+                throw new ProcessMemoryStateException("Process is closed");
+            }
+
+            scratch.status.setInt(0, 0);
+            Win32Kernel32.WriteProcessMemory(accessHandle.getPointer(), scratch.address.set(address), buffer, length, scratch.status);
+        } finally {
+            this.handleLock.unlockRead(stamp);
+        }
+
+        int bytesWritten = scratch.status.getInt(0);
+        if (bytesWritten != length) {
+            throw new ProcessMemoryWriteException(String.format("Failed to write process memory at address 0x%016X: Expected to write %d bytes but wrote %d bytes", address, length, bytesWritten));
+        }
     }
 
     /**
      * {@inheritDoc}
+     *
+     * Regions are enumerated through {@code VirtualQueryEx} while reserved or free ranges as well
+     * as guard pages are skipped.
      */
     @Nonnull
     @Override
-    public ProcessMemoryPointer pointer(@Nonnull Collection<String> moduleNames, @Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException {
-        return this.getModule(moduleNames)
-                .orElseThrow(() -> new NoSuchMessageException("No such module"))
-                .pointer(offset, offsets);
+    protected Collection<MemoryRegion> queryRegions() {
+        Win32ScratchBuffer scratch = Win32ScratchBuffer.get();
+        Pointer handle = this.infoHandle.getPointer();
+        List<MemoryRegion> regions = new ArrayList<>();
+        long address = 0;
+
+        while (Win32Kernel32.VirtualQueryEx(handle, scratch.address.set(address), scratch.region, MEMORY_BASIC_INFORMATION_SIZE) != 0) {
+            long base = readSize(scratch.region, 0);
+            long size = readSize(scratch.region, MBI_REGION_SIZE_OFFSET);
+            int state = scratch.region.getInt(MBI_STATE_OFFSET);
+            int protect = scratch.region.getInt(MBI_PROTECT_OFFSET);
+
+            if (state == MEM_COMMIT && (protect & PAGE_GUARD) == 0) {
+                regions.add(new MemoryRegion(base, size, (protect & PAGE_READABLE) != 0, (protect & PAGE_WRITABLE) != 0, (protect & PAGE_EXECUTABLE) != 0));
+            }
+
+            long next = base + size;
+
+            if (size <= 0 || next <= address) {
+                break;
+            }
+
+            address = next;
+        }
+
+        return regions;
     }
 
     /**
-     * Validates the process state.
+     * Reads a value of the runtime pointer size (such as {@code SIZE_T} or {@code PVOID}) from a
+     * native buffer.
      */
-    void validate() {
-        if (!this.isAlive()) {
-            this.accessHandle = null;
+    private static long readSize(@Nonnull Pointer buffer, @Nonnegative int offset) {
+        if (Native.POINTER_SIZE == 8) {
+            return buffer.getLong(offset);
+        }
+
+        return buffer.getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateAccess() throws ProcessMemoryStateException {
+        // the handle is kept until the process is closed explicitly in order to permit its owner to
+        // release it once it has been notified of the termination
+        if (this.accessHandle == null || this.isTerminated()) {
+            throw new ProcessMemoryStateException("Process is closed");
         }
     }
 
@@ -368,4 +554,68 @@ public class Win32Process implements Process {
         // API
         Kernel32.INSTANCE.CloseHandle(this.infoHandle);
     }
+
+    /**
+     * Waits for the termination of the process on a dedicated daemon thread.
+     *
+     * The wait is performed in slices in order to permit the monitor to be stopped when the
+     * process is closed.
+     */
+    private final class Monitor extends Thread {
+        private volatile boolean running = true;
+
+        Monitor() {
+            super("process-monitor-" + Win32Process.this.pid);
+            this.setDaemon(true);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            Pointer handle = Win32Process.this.infoHandle.getPointer();
+
+            while (this.running) {
+                int result = Win32Kernel32.WaitForSingleObject(handle, MONITOR_INTERVAL);
+
+                if (result == WinBase.WAIT_OBJECT_0) {
+                    Win32Process.this.signalTermination();
+                    return;
+                }
+
+                if (result == WinBase.WAIT_FAILED) {
+                    logger.warn("Cannot wait for process with pid %d (error %d) - Falling back to polling", Win32Process.this.pid, Native.getLastError());
+                    this.poll();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Periodically queries the exit code of the process until it terminates or the monitor is
+         * stopped.
+         */
+        private void poll() {
+            try {
+                while (this.running) {
+                    if (!Win32Process.this.isAlive()) {
+                        Win32Process.this.signalTermination();
+                        return;
+                    }
+
+                    Thread.sleep(MONITOR_INTERVAL);
+                }
+            } catch (InterruptedException ignore) {
+            }
+        }
+
+        /**
+         * Stops the monitor.
+         */
+        void shutdown() {
+            this.running = false;
+            this.interrupt();
+        }
+    }
 }
@@ -24,26 +24,31 @@ import com.sun.jna.platform.win32.WinNT;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.controlsfx.tools.Platform;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.process.ProcessAccessor;
+import tv.dotstart.pandemonium.process.discovery.ProcessDescriptor;
 import tv.dotstart.pandemonium.process.exception.ProcessException;
+import tv.dotstart.pandemonium.spring.condition.annotation.PlatformConditional;
 
 /**
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 @Lazy
 @Component
+@PlatformConditional(Platform.WINDOWS)
 public class Win32ProcessAccessor implements ProcessAccessor {
     private static final Logger logger = LogManager.getFormatterLogger(Win32ProcessAccessor.class);
 
@@ -60,34 +65,55 @@ public class Win32ProcessAccessor implements ProcessAccessor {
      * {@inheritDoc}
      */
     @Nonnull
-    public Set<Win32Process> getMatchingProcess(@Nonnull Predicate<String> matcher) {
-        Set<Win32Process> processes = new HashSet<>();
+    @Override
+    public Set<ProcessDescriptor> getProcessDescriptors() {
+        Set<ProcessDescriptor> descriptors = new HashSet<>();
         WinNT.HANDLE snapshot = Kernel32.INSTANCE.CreateToolhelp32Snapshot(Tlhelp32.TH32CS_SNAPPROCESS, new WinDef.DWORD(0));
 
         try {
             Tlhelp32.PROCESSENTRY32.ByReference processEntry = new Tlhelp32.PROCESSENTRY32.ByReference();
 
             while (Kernel32.INSTANCE.Process32Next(snapshot, processEntry)) {
-                try {
-                    String name = Native.toString(processEntry.szExeFile);
-
-                    if (!matcher.test(name)) {
-                        continue;
-                    }
-
-                    processes.add(new Win32Process(processEntry.th32ProcessID.intValue(), name));
-                } catch (IllegalStateException | ProcessException ex) {
-                    logger.warn("Failed to access process: " + ex.getMessage(), ex);
-                    logger.warn("Process will not be visible to the application and its addons");
-                }
+                descriptors.add(new ProcessDescriptor(processEntry.th32ProcessID.intValue(), Native.toString(processEntry.szExeFile)));
             }
 
-            return processes;
+            return descriptors;
         } finally {
             Kernel32.INSTANCE.CloseHandle(snapshot);
         }
     }
 
+    /**
+     * Retrieves a set of active processes whose name matches the supplied predicate.
+     */
+    @Nonnull
+    public Set<Win32Process> getMatchingProcess(@Nonnull Predicate<String> matcher) {
+        Set<Win32Process> processes = new HashSet<>();
+
+        for (ProcessDescriptor descriptor : this.getProcessDescriptors()) {
+            if (matcher.test(descriptor.getName())) {
+                this.getProcess(descriptor).ifPresent(processes::add);
+            }
+        }
+
+        return processes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<Win32Process> getProcess(@Nonnull ProcessDescriptor descriptor) {
+        try {
+            return Optional.of(new Win32Process(descriptor.getPid(), descriptor.getName()));
+        } catch (IllegalStateException | ProcessException ex) {
+            logger.warn("Failed to access process: " + ex.getMessage(), ex);
+            logger.warn("Process will not be visible to the application and its addons");
+            return Optional.empty();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -103,8 +129,11 @@ public class Win32ProcessAccessor implements ProcessAccessor {
     @Nonnull
     @Override
     public Optional<Win32Process> getProcess(@Nonnull Collection<String> names) {
-        return names.stream()
-                .flatMap((n) -> this.getProcess(n).map(Stream::of).orElseGet(Stream::empty))
-                .findAny();
+        // all names are matched against a single snapshot of the process table
+        Set<String> lowerCaseNames = names.stream()
+                .map((n) -> n.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+
+        return this.getMatchingProcess((n) -> lowerCaseNames.contains(n.toLowerCase(Locale.ROOT))).stream().findAny();
     }
 }
@@ -18,8 +18,6 @@ package tv.dotstart.pandemonium.win32.process;
 
 import com.sun.jna.Pointer;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 import javax.annotation.Nonnegative;
@@ -39,13 +37,13 @@ public class Win32ProcessModule implements ProcessModule {
     private final Pointer pointer;
     private final Win32ProcessMemoryPointer memoryPointer;
 
-    public Win32ProcessModule(@Nonnull Win32Process process, @Nonnull Path path, @Nonnull Pointer pointer) throws IOException {
+    public Win32ProcessModule(@Nonnull Win32Process process, @Nonnull Path path, @Nonnull Pointer pointer, @Nonnegative long size) {
         this.process = process;
         this.path = path;
         this.pointer = pointer;
+        this.size = size;
 
-        this.size = Files.size(path);
-        this.memoryPointer = new Win32ProcessMemoryPointer(process, this, pointer, new long[0]);
+        this.memoryPointer = new Win32ProcessMemoryPointer(process, this, Pointer.nativeValue(pointer), new long[0]);
     }
 
     /**
@@ -68,6 +66,9 @@ public class Win32ProcessModule implements ProcessModule {
 
     /**
      * {@inheritDoc}
+     *
+     * The size is taken from the image within process memory and may thus differ from the size of
+     * the module file.
      */
     @Override
     public long getSize() {
@@ -80,12 +81,8 @@ public class Win32ProcessModule implements ProcessModule {
     @Nonnull
     @Override
     public ProcessMemoryPointer pointer(@Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException {
-        this.process.validate();
+        this.process.validateAccess();
 
-        if (this.process.accessHandle == null) {
-            throw new ProcessMemoryStateException("Process is closed");
-        }
-
-        return new Win32ProcessMemoryPointer(this.process, this, this.pointer.share(offset), offsets);
+        return new Win32ProcessMemoryPointer(this.process, this, Pointer.nativeValue(this.pointer) + offset, offsets);
     }
 }
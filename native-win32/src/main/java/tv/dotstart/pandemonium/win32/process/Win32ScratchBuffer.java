@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.win32.process;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Provides a thread confined set of native arguments which are reused for every call on the
+ * memory access hot path in order to keep it free of allocations.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+final class Win32ScratchBuffer {
+
+    private static final ThreadLocal<Win32ScratchBuffer> instance = ThreadLocal.withInitial(Win32ScratchBuffer::new);
+
+    final Memory status = new Memory(4);
+    final Memory region = new Memory(Win32Process.MEMORY_BASIC_INFORMATION_SIZE);
+    final AddressPointer address = new AddressPointer();
+
+    private Win32ScratchBuffer() {
+    }
+
+    /**
+     * Retrieves the scratch buffer of the calling thread.
+     */
+    @Nonnull
+    static Win32ScratchBuffer get() {
+        return instance.get();
+    }
+
+    /**
+     * Provides a pointer whose address may be changed after its construction in order to pass
+     * arbitrary addresses to native functions without allocating a new pointer every time.
+     */
+    static final class AddressPointer extends Pointer {
+
+        AddressPointer() {
+            super(0);
+        }
+
+        /**
+         * Updates the address this pointer references.
+         */
+        @Nonnull
+        AddressPointer set(long address) {
+            this.peer = address;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,739 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.testkit;
+
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.AbstractProcess;
+import tv.dotstart.pandemonium.process.MemoryRegion;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.ProcessTerminatedException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+
+/**
+ * Provides a process implementation which simulates the address space of a game within the
+ * current process.
+ *
+ * Modules and heap allocations are backed by off-heap buffers which are mapped at simulated
+ * addresses and may be prepared freely by tests and benchmarks. Deep pointer chains may be
+ * scripted through {@link #chain(String, long, long...)} while latency may be injected into every
+ * read and write in order to approximate the cost of a call to the operating system.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class SimulatedProcess extends AbstractProcess {
+
+    /**
+     * Defines the address at which the first module is mapped unless specified otherwise.
+     */
+    public static final long MODULE_BASE = 0x00400000L;
+
+    /**
+     * Defines the address at which the simulated heap begins.
+     */
+    public static final long HEAP_BASE = 0x10000000L;
+
+    /**
+     * Defines the size of the blocks which are allocated for every level of a scripted pointer
+     * chain (unless a larger offset requires a bigger block).
+     */
+    public static final int CHAIN_BLOCK_SIZE = 256;
+
+    private static final int ALIGNMENT = 16;
+    private static final int STAGING_SIZE = 4096;
+    private static final ThreadLocal<byte[]> staging = ThreadLocal.withInitial(() -> new byte[STAGING_SIZE]);
+
+    private final String name;
+    private final boolean is64;
+    private final Map<String, SimulatedProcessModule> moduleMap;
+    private final SimulatedProcessModule executable;
+    private final LongAdder readCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+
+    private final Object allocationLock = new Object();
+    private volatile SimulatedRegion[] regions;
+    private long nextHeapAddress = HEAP_BASE;
+
+    private volatile boolean alive = true;
+    private volatile boolean open;
+    private volatile long readLatency;
+    private volatile long writeLatency;
+
+    private SimulatedProcess(@Nonnull Builder builder) {
+        this.name = builder.name;
+        this.is64 = builder.is64;
+        this.readLatency = builder.readLatency.toNanos();
+        this.writeLatency = builder.writeLatency.toNanos();
+
+        Map<String, SimulatedProcessModule> moduleMap = new LinkedHashMap<>();
+        List<SimulatedRegion> regions = new ArrayList<>();
+        long nextAddress = MODULE_BASE;
+
+        for (ModuleDefinition definition : builder.modules) {
+            long address = definition.address >= 0 ? definition.address : nextAddress;
+            SimulatedRegion region = new SimulatedRegion(address, definition.size);
+
+            for (SimulatedRegion other : regions) {
+                if (address < other.getEnd() && other.address < region.getEnd()) {
+                    throw new IllegalStateException("Module \"" + definition.name + "\" overlaps with another module");
+                }
+            }
+
+            regions.add(region);
+            moduleMap.put(definition.name, new SimulatedProcessModule(this, definition.name, region));
+
+            // subsequent modules are aligned to the allocation granularity of Windows
+            nextAddress = Math.max(nextAddress, (region.getEnd() + 0xFFFF) & ~0xFFFFL);
+        }
+
+        this.moduleMap = Collections.unmodifiableMap(moduleMap);
+        this.executable = moduleMap.get(this.name);
+
+        if (this.executable == null) {
+            throw new IllegalStateException("Failed to locate executable module: No module named \"" + this.name + "\"");
+        }
+
+        this.regions = sort(regions.toArray(new SimulatedRegion[regions.size()]));
+    }
+
+    /**
+     * Creates a new builder for a simulated process with the specified name.
+     *
+     * @param name a process name which also identifies its executable module.
+     */
+    @Nonnull
+    public static Builder builder(@Nonnull String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Sorts an array of regions by address.
+     */
+    @Nonnull
+    private static SimulatedRegion[] sort(@Nonnull SimulatedRegion[] regions) {
+        Arrays.sort(regions, (a, b) -> Long.compare(a.address, b.address));
+        return regions;
+    }
+
+    /**
+     * Delays the calling thread for the specified amount of nanoseconds.
+     *
+     * Short delays are implemented through busy waiting since parking is too imprecise to
+     * simulate the latency of a single system call.
+     */
+    private static void delay(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + nanos;
+
+        if (nanos >= 1_000_000) {
+            LockSupport.parkNanos(nanos);
+        }
+
+        while (System.nanoTime() < deadline) {
+            // busy wait
+        }
+    }
+
+    // <editor-fold desc="Simulation">
+
+    /**
+     * Allocates a new block of zeroed memory on the simulated heap.
+     *
+     * @param size a block size in bytes.
+     * @return the simulated address of the block.
+     */
+    public long allocate(@Nonnegative int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be greater than zero");
+        }
+
+        synchronized (this.allocationLock) {
+            long address = this.nextHeapAddress;
+            this.nextHeapAddress = (address + size + ALIGNMENT - 1) & ~(long) (ALIGNMENT - 1);
+
+            if (!this.is64 && this.nextHeapAddress > 0xFFFFFFFFL) {
+                throw new IllegalStateException("Simulated heap exhausted");
+            }
+
+            SimulatedRegion[] regions = Arrays.copyOf(this.regions, this.regions.length + 1);
+            regions[regions.length - 1] = new SimulatedRegion(address, size);
+            this.regions = sort(regions);
+
+            return address;
+        }
+    }
+
+    /**
+     * Frees a block which has previously been allocated on the simulated heap.
+     *
+     * Subsequent accesses to the block will fail in the same way accesses to unmapped memory fail
+     * within a real process.
+     *
+     * @throws IllegalArgumentException when no block starts at the specified address.
+     */
+    public void free(long address) {
+        synchronized (this.allocationLock) {
+            if (address < HEAP_BASE) {
+                throw new IllegalArgumentException("Cannot free module memory");
+            }
+
+            SimulatedRegion[] regions = this.regions;
+            int index = indexOf(regions, address);
+
+            if (index == -1 || regions[index].address != address) {
+                throw new IllegalArgumentException(String.format("No block allocated at address 0x%016X", address));
+            }
+
+            SimulatedRegion[] updated = new SimulatedRegion[regions.length - 1];
+            System.arraycopy(regions, 0, updated, 0, index);
+            System.arraycopy(regions, index + 1, updated, index, regions.length - index - 1);
+            this.regions = updated;
+        }
+    }
+
+    /**
+     * Creates a view of a range of simulated memory.
+     *
+     * The returned buffer uses the native byte order and writes to it are visible to subsequent
+     * reads immediately.
+     *
+     * @throws IllegalArgumentException when the range is not mapped.
+     */
+    @Nonnull
+    public ByteBuffer buffer(long address, @Nonnegative int length) {
+        SimulatedRegion region = this.findRegion(address, length);
+
+        if (region == null) {
+            throw new IllegalArgumentException(String.format("Range 0x%016X-0x%016X is not mapped", address, address + length));
+        }
+
+        return region.slice(address, length);
+    }
+
+    /**
+     * Scripts a chain of pointers which resolves the specified deep pointer to a newly allocated
+     * block of memory.
+     *
+     * One block is allocated on the simulated heap for every level of the chain while the pointer
+     * to it is written to the address referenced by the previous level (starting at the specified
+     * module offset). Scripting the same chain again simulates the game re-allocating its data
+     * structures (e.g. when a new map is loaded) as all pointers are updated to reference new
+     * blocks.
+     *
+     * @param moduleName a module name.
+     * @param offset     an offset from the module start address.
+     * @param offsets    an array of further offsets to apply when resolving the pointer.
+     * @return the address the chain resolves to.
+     * @throws IllegalArgumentException when the module does not exist.
+     */
+    public long chain(@Nonnull String moduleName, @Nonnegative long offset, @Nonnull @Nonnegative long... offsets) {
+        SimulatedProcessModule module = this.getModule(moduleName)
+                .orElseThrow(() -> new IllegalArgumentException("No such module: " + moduleName));
+        long address = module.getBaseAddress() + offset;
+
+        for (long deepOffset : offsets) {
+            long block = this.allocate((int) Math.max(CHAIN_BLOCK_SIZE, deepOffset + 8));
+            ByteBuffer buffer = this.buffer(address, this.is64 ? 8 : 4);
+
+            if (this.is64) {
+                buffer.putLong(0, block);
+            } else {
+                buffer.putInt(0, (int) block);
+            }
+
+            address = block + deepOffset;
+        }
+
+        return address;
+    }
+
+    /**
+     * Simulates the termination of this process.
+     *
+     * All registered termination listeners are notified on the calling thread.
+     */
+    public void terminate() {
+        this.alive = false;
+        this.signalTermination();
+    }
+
+    /**
+     * Retrieves the total amount of reads which have been passed to this process.
+     *
+     * Reads which are served by memory frames or combined within a batch are not passed to the
+     * process and are thus not counted.
+     */
+    public long getReadCount() {
+        return this.readCount.sum();
+    }
+
+    /**
+     * Retrieves the total amount of writes which have been passed to this process.
+     */
+    public long getWriteCount() {
+        return this.writeCount.sum();
+    }
+
+    /**
+     * Resets the read and write counters.
+     */
+    public void resetCounters() {
+        this.readCount.reset();
+        this.writeCount.reset();
+    }
+
+    /**
+     * Retrieves the latency which is injected into every read.
+     */
+    @Nonnull
+    public Duration getReadLatency() {
+        return Duration.ofNanos(this.readLatency);
+    }
+
+    /**
+     * Sets the latency which is injected into every read.
+     */
+    public void setReadLatency(@Nonnull Duration latency) {
+        if (latency.isNegative()) {
+            throw new IllegalArgumentException("Latency cannot be negative");
+        }
+
+        this.readLatency = latency.toNanos();
+    }
+
+    /**
+     * Retrieves the latency which is injected into every write.
+     */
+    @Nonnull
+    public Duration getWriteLatency() {
+        return Duration.ofNanos(this.writeLatency);
+    }
+
+    /**
+     * Sets the latency which is injected into every write.
+     */
+    public void setWriteLatency(@Nonnull Duration latency) {
+        if (latency.isNegative()) {
+            throw new IllegalArgumentException("Latency cannot be negative");
+        }
+
+        this.writeLatency = latency.toNanos();
+    }
+    // </editor-fold>
+
+    /**
+     * Locates the index of the region which contains the specified address.
+     *
+     * @return a region index or -1 if the address is not mapped.
+     */
+    private static int indexOf(@Nonnull SimulatedRegion[] regions, long address) {
+        int low = 0;
+        int high = regions.length - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            SimulatedRegion region = regions[middle];
+
+            if (address < region.address) {
+                high = middle - 1;
+            } else if (address >= region.getEnd()) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Locates the region which contains the specified range in its entirety.
+     */
+    private SimulatedRegion findRegion(long address, @Nonnegative int length) {
+        SimulatedRegion[] regions = this.regions;
+        int index = indexOf(regions, address);
+
+        if (index == -1 || !regions[index].contains(address, length)) {
+            return null;
+        }
+
+        return regions[index];
+    }
+
+    /**
+     * Locates the index of the first region of a sequence of contiguous regions which contains the
+     * specified range in its entirety.
+     *
+     * Ranges may span multiple regions as long as they are directly adjacent to each other (e.g.
+     * neighbouring heap blocks) just like a real process permits accesses which cross the
+     * boundaries between allocations.
+     *
+     * @return a region index or -1 if the range is not mapped in its entirety.
+     */
+    private static int indexOf(@Nonnull SimulatedRegion[] regions, long address, @Nonnegative int length) {
+        int index = indexOf(regions, address);
+
+        if (index == -1) {
+            return -1;
+        }
+
+        long end = address + length;
+        long mappedEnd = regions[index].getEnd();
+
+        for (int i = index + 1; mappedEnd < end; ++i) {
+            if (i == regions.length || regions[i].address != mappedEnd) {
+                return -1;
+            }
+
+            mappedEnd = regions[i].getEnd();
+        }
+
+        return index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        this.readCount.increment();
+        delay(this.readLatency);
+
+        SimulatedRegion[] regions = this.regions;
+        int index = indexOf(regions, address, length);
+
+        if (index == -1) {
+            throw new ProcessMemoryReadException(String.format("Failed to read process memory from address 0x%016X: Range of %d bytes is not mapped", address, length));
+        }
+
+        // copies are staged through a heap buffer since JNA provides no way of copying between
+        // two native buffers directly without allocating
+        byte[] staging = SimulatedProcess.staging.get();
+        int position = 0;
+
+        while (position < length) {
+            SimulatedRegion region = regions[index];
+            long offset = address + position - region.address;
+            int amount = (int) Math.min(Math.min(length - position, staging.length), region.size - offset);
+
+            region.memory.read(offset, staging, 0, amount);
+            buffer.write(position, staging, 0, amount);
+            position += amount;
+
+            if (offset + amount == region.size) {
+                ++index;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        this.writeCount.increment();
+        delay(this.writeLatency);
+
+        SimulatedRegion[] regions = this.regions;
+        int index = indexOf(regions, address, length);
+
+        if (index == -1) {
+            throw new ProcessMemoryWriteException(String.format("Failed to write process memory at address 0x%016X: Range of %d bytes is not mapped", address, length));
+        }
+
+        byte[] staging = SimulatedProcess.staging.get();
+        int position = 0;
+
+        while (position < length) {
+            SimulatedRegion region = regions[index];
+            long offset = address + position - region.address;
+            int amount = (int) Math.min(Math.min(length - position, staging.length), region.size - offset);
+
+            buffer.read(position, staging, 0, amount);
+            region.memory.write(offset, staging, 0, amount);
+            position += amount;
+
+            if (offset + amount == region.size) {
+                ++index;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    protected Collection<MemoryRegion> queryRegions() {
+        SimulatedRegion[] regions = this.regions;
+        List<MemoryRegion> result = new ArrayList<>(regions.length);
+
+        for (SimulatedRegion region : regions) {
+            result.add(new MemoryRegion(region.address, region.size, true, true, false));
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateAccess() throws ProcessMemoryStateException {
+        if (!this.alive) {
+            this.open = false;
+        }
+
+        if (!this.open) {
+            throw new ProcessMemoryStateException("Process is closed");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws ProcessStateException {
+        if (!this.open) {
+            throw new ProcessStateException("Process is already closed");
+        }
+
+        this.open = false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Path getExecutablePath() {
+        return this.executable.getPath();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getExecutableSize() {
+        return this.executable.getSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Set<SimulatedProcessModule> getModules() {
+        return Collections.unmodifiableSet(new HashSet<>(this.moduleMap.values()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<SimulatedProcessModule> getModule(@Nonnull String moduleName) {
+        return Optional.ofNullable(this.moduleMap.get(moduleName));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasModule(@Nonnull String moduleName) {
+        return this.moduleMap.containsKey(moduleName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean is64Bit() {
+        return this.is64;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAlive() {
+        return this.alive;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open() throws ProcessStateException {
+        if (this.open) {
+            throw new ProcessStateException("Process is already open");
+        }
+
+        if (!this.alive) {
+            throw new ProcessTerminatedException("Simulated process has terminated");
+        }
+
+        this.open = true;
+    }
+
+    /**
+     * Provides a factory for simulated processes.
+     */
+    public static final class Builder {
+        private final String name;
+        private final List<ModuleDefinition> modules = new ArrayList<>();
+
+        private boolean is64;
+        private Duration readLatency = Duration.ZERO;
+        private Duration writeLatency = Duration.ZERO;
+
+        Builder(@Nonnull String name) {
+            this.name = name;
+        }
+
+        /**
+         * Builds a simulated process using this builder's configuration.
+         *
+         * @throws IllegalStateException when no executable module has been defined or two
+         *                               modules overlap.
+         */
+        @Nonnull
+        public SimulatedProcess build() {
+            return new SimulatedProcess(this);
+        }
+
+        /**
+         * Adds a module which is mapped directly after the previously added module.
+         *
+         * @param name a module name.
+         * @param size a module size in bytes.
+         */
+        @Nonnull
+        public Builder addModule(@Nonnull String name, @Nonnegative int size) {
+            return this.addModule(name, -1, size);
+        }
+
+        /**
+         * Adds a module which is mapped at the specified address.
+         *
+         * @param name    a module name.
+         * @param address a simulated base address.
+         * @param size    a module size in bytes.
+         */
+        @Nonnull
+        public Builder addModule(@Nonnull String name, long address, @Nonnegative int size) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("Size must be greater than zero");
+            }
+
+            this.modules.add(new ModuleDefinition(name, address, size));
+            return this;
+        }
+
+        // <editor-fold desc="Getters & Setters">
+        public boolean is64Bit() {
+            return this.is64;
+        }
+
+        @Nonnull
+        public Builder set64Bit(boolean is64) {
+            this.is64 = is64;
+            return this;
+        }
+
+        @Nonnull
+        public Duration getReadLatency() {
+            return this.readLatency;
+        }
+
+        @Nonnull
+        public Builder setReadLatency(@Nonnull Duration readLatency) {
+            this.readLatency = readLatency;
+            return this;
+        }
+
+        @Nonnull
+        public Duration getWriteLatency() {
+            return this.writeLatency;
+        }
+
+        @Nonnull
+        public Builder setWriteLatency(@Nonnull Duration writeLatency) {
+            this.writeLatency = writeLatency;
+            return this;
+        }
+        // </editor-fold>
+    }
+
+    /**
+     * Represents a module which has been added to a builder.
+     */
+    private static final class ModuleDefinition {
+        private final String name;
+        private final long address;
+        private final int size;
+
+        ModuleDefinition(@Nonnull String name, long address, @Nonnegative int size) {
+            this.name = name;
+            this.address = address;
+            this.size = size;
+        }
+    }
+}
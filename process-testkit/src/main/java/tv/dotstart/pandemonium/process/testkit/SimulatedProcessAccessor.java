@@ -0,0 +1,216 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.testkit;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+
+import tv.dotstart.pandemonium.process.ProcessAccessor;
+import tv.dotstart.pandemonium.process.discovery.ProcessDescriptor;
+import tv.dotstart.pandemonium.process.discovery.ProcessNotifier;
+
+/**
+ * Provides a process accessor which exposes a set of simulated processes.
+ *
+ * Simulated processes disappear from the accessor as soon as they have been terminated.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class SimulatedProcessAccessor implements ProcessAccessor {
+
+    /**
+     * Defines the identifier which is assigned to the first registered process.
+     */
+    private static final int FIRST_PID = 1000;
+
+    private final Map<SimulatedProcess, Integer> processes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPid = new AtomicInteger(FIRST_PID);
+
+    private final Object changeLock = new Object();
+    @GuardedBy("changeLock")
+    private long changeCount;
+
+    /**
+     * Registers a simulated process with this accessor.
+     *
+     * Each process is assigned a unique identifier upon its registration and notifiers are woken
+     * up when the process is registered or terminated.
+     */
+    @Nonnull
+    public SimulatedProcessAccessor register(@Nonnull SimulatedProcess process) {
+        if (this.processes.putIfAbsent(process, this.nextPid.getAndIncrement()) == null) {
+            process.addTerminationListener((p) -> this.signalChange());
+            this.signalChange();
+        }
+
+        return this;
+    }
+
+    /**
+     * Removes a simulated process from this accessor.
+     */
+    @Nonnull
+    public SimulatedProcessAccessor unregister(@Nonnull SimulatedProcess process) {
+        if (this.processes.remove(process) != null) {
+            this.signalChange();
+        }
+
+        return this;
+    }
+
+    /**
+     * Wakes up all notifiers which have been created by this accessor.
+     */
+    private void signalChange() {
+        synchronized (this.changeLock) {
+            ++this.changeCount;
+            this.changeLock.notifyAll();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessNotifier createNotifier() {
+        return new ProcessNotifier() {
+            private long lastChange;
+
+            {
+                synchronized (SimulatedProcessAccessor.this.changeLock) {
+                    this.lastChange = SimulatedProcessAccessor.this.changeCount;
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean await(@Nonnegative long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+                long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+                synchronized (SimulatedProcessAccessor.this.changeLock) {
+                    long remaining;
+
+                    while (SimulatedProcessAccessor.this.changeCount == this.lastChange && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(SimulatedProcessAccessor.this.changeLock, remaining);
+                    }
+
+                    boolean changed = SimulatedProcessAccessor.this.changeCount != this.lastChange;
+                    this.lastChange = SimulatedProcessAccessor.this.changeCount;
+                    return changed;
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean isPushing() {
+                return true;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Set<SimulatedProcess> getActiveProcesses() {
+        Set<SimulatedProcess> processes = new HashSet<>();
+
+        for (SimulatedProcess process : this.processes.keySet()) {
+            if (process.isAlive()) {
+                processes.add(process);
+            }
+        }
+
+        return Collections.unmodifiableSet(processes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Set<ProcessDescriptor> getProcessDescriptors() {
+        Set<ProcessDescriptor> descriptors = new HashSet<>();
+
+        this.processes.forEach((process, pid) -> {
+            if (process.isAlive()) {
+                descriptors.add(new ProcessDescriptor(pid, process.getName()));
+            }
+        });
+
+        return descriptors;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<SimulatedProcess> getProcess(@Nonnull ProcessDescriptor descriptor) {
+        return this.processes.entrySet().stream()
+                .filter((e) -> e.getValue() == descriptor.getPid() && e.getKey().isAlive())
+                .map(Map.Entry::getKey)
+                .findAny();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<SimulatedProcess> getProcess(@Nonnull String name) {
+        return this.getActiveProcesses().stream()
+                .filter((p) -> p.getName().equalsIgnoreCase(name))
+                .findAny();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<SimulatedProcess> getProcess(@Nonnull Collection<String> names) {
+        return names.stream()
+                .flatMap((n) -> this.getProcess(n).map(Stream::of).orElseGet(Stream::empty))
+                .findAny();
+    }
+}
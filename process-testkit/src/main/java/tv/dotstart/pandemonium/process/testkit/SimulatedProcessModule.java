@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.testkit;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Represents a simulated module which is backed by an off-heap buffer.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class SimulatedProcessModule implements ProcessModule {
+    private final SimulatedProcess process;
+    private final String name;
+    private final SimulatedRegion region;
+
+    SimulatedProcessModule(@Nonnull SimulatedProcess process, @Nonnull String name, @Nonnull SimulatedRegion region) {
+        this.process = process;
+        this.name = name;
+        this.region = region;
+    }
+
+    /**
+     * Retrieves the simulated address at which this module has been mapped.
+     */
+    public long getBaseAddress() {
+        return this.region.address;
+    }
+
+    /**
+     * Retrieves the buffer which backs the memory of this module.
+     *
+     * The buffer is ordered using the native byte order and may be modified freely in order to
+     * prepare the module contents (changes are visible to subsequent reads immediately).
+     */
+    @Nonnull
+    public ByteBuffer getBuffer() {
+        return this.region.buffer.duplicate().order(this.region.buffer.order());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Path getPath() {
+        return Paths.get(this.name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSize() {
+        return this.region.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer pointer(@Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException {
+        this.process.validateAccess();
+
+        return new SimulatedProcessMemoryPointer(this.process, this, this.region.address + offset, offsets);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.testkit;
+
+import com.sun.jna.Memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Represents a contiguous range of simulated process memory which is backed by an off-heap
+ * buffer.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class SimulatedRegion {
+    final long address;
+    final int size;
+    final Memory memory;
+    final ByteBuffer buffer;
+
+    SimulatedRegion(long address, @Nonnegative int size) {
+        this.address = address;
+        this.size = size;
+        this.memory = new Memory(size);
+        this.memory.clear();
+        this.buffer = this.memory.getByteBuffer(0, size).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Checks whether the supplied range is located entirely within this region.
+     */
+    boolean contains(long address, @Nonnegative int length) {
+        return address >= this.address && address + length <= this.address + this.size;
+    }
+
+    /**
+     * Retrieves the end address (exclusive) of this region.
+     */
+    long getEnd() {
+        return this.address + this.size;
+    }
+
+    /**
+     * Creates a view of a range within this region.
+     */
+    @Nonnull
+    ByteBuffer slice(long address, @Nonnegative int length) {
+        ByteBuffer buffer = this.buffer.duplicate();
+        buffer.position((int) (address - this.address));
+        buffer.limit(buffer.position() + length);
+
+        return buffer.slice().order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases for {@link AbstractProcess}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class AbstractProcessTest {
+    private static final String MODULE_NAME = "Game.exe";
+
+    /**
+     * Creates a new simulated process with a single module.
+     */
+    private static SimulatedProcess createProcess() throws ProcessStateException {
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        process.open();
+
+        return process;
+    }
+
+    /**
+     * Evaluates whether pointers to modules with mixed case names are resolved using the name
+     * passed by the caller.
+     */
+    @Test
+    public void testMixedCaseModuleName() throws ProcessStateException {
+        SimulatedProcess process = createProcess();
+        process.getModule(MODULE_NAME).get().getBuffer().putInt(0x10, 42);
+
+        ProcessMemoryPointer pointer = process.pointer(MODULE_NAME, 0x10);
+
+        Assert.assertEquals(0x400010, pointer.getAddress());
+        Assert.assertEquals(42, pointer.readInteger());
+        Assert.assertEquals(MODULE_NAME, PointerPath.of(MODULE_NAME, 0x10).getModuleName());
+    }
+
+    /**
+     * Evaluates whether pointers are interned along with their paths.
+     */
+    @Test
+    public void testInterning() throws ProcessStateException {
+        SimulatedProcess process = createProcess();
+
+        Assert.assertSame(process.pointer(MODULE_NAME, 0x10), process.pointer(PointerPath.of(MODULE_NAME, 0x10)));
+        Assert.assertNotSame(process.pointer(MODULE_NAME, 0x10), process.pointer(MODULE_NAME, 0x14));
+    }
+
+    /**
+     * Evaluates whether interned pointers are released once they are no longer referenced.
+     */
+    @Test
+    public void testInternedPointerRelease() throws ProcessStateException, InterruptedException {
+        SimulatedProcess process = createProcess();
+        AbstractProcess base = process;
+        ProcessMemoryPointer retained = process.pointer(MODULE_NAME, 0x10);
+
+        for (int i = 0; i < 10_000; ++i) {
+            process.pointer(MODULE_NAME, 0x20, i);
+        }
+
+        Assert.assertTrue(base.getInternedPointerCount() > 1);
+
+        // released pointers are expunged whenever a new path is interned
+        for (int i = 0; i < 50 && base.getInternedPointerCount() > 2; ++i) {
+            System.gc();
+            Thread.sleep(10);
+            process.pointer(MODULE_NAME, 0x30, i);
+        }
+
+        Assert.assertTrue("Expected released pointers to be expunged", base.getInternedPointerCount() <= 2);
+        Assert.assertSame(retained, process.pointer(MODULE_NAME, 0x10));
+    }
+}
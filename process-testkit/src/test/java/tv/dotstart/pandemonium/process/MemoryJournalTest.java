@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases for {@link MemoryJournal}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class MemoryJournalTest {
+    private static final String MODULE_NAME = "dxhr.exe";
+
+    /**
+     * Creates a new simulated process with a single module.
+     */
+    private static SimulatedProcess createProcess() throws ProcessStateException {
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        process.open();
+
+        return process;
+    }
+
+    /**
+     * Evaluates whether the original contents are restored to the modified addresses while the
+     * pointer generation remains unchanged.
+     */
+    @Test
+    public void testRevert() throws ProcessStateException {
+        SimulatedProcess process = createProcess();
+        long address = process.chain(MODULE_NAME, 0x10, 0x20);
+        process.buffer(address, 4).putInt(0, 42);
+
+        ProcessMemoryPointer pointer = process.pointer(MODULE_NAME, 0x10, 0x20);
+        MemoryJournal journal = process.transaction()
+                .writeInteger(pointer, 1337)
+                .writeInteger(pointer, 4, 1337)
+                .commit();
+
+        Assert.assertEquals(1337, process.buffer(address, 4).getInt(0));
+
+        journal.revert();
+        Assert.assertEquals(42, process.buffer(address, 4).getInt(0));
+        Assert.assertEquals(0, process.buffer(address + 4, 4).getInt(0));
+    }
+
+    /**
+     * Evaluates whether the original contents are restored through the re-resolved pointers once
+     * the game has re-allocated its data structures and the previous addresses have been released.
+     */
+    @Test
+    public void testRevertAfterInvalidation() throws ProcessStateException {
+        SimulatedProcess process = createProcess();
+        long address = process.chain(MODULE_NAME, 0x10, 0x20);
+        process.buffer(address, 4).putInt(0, 42);
+
+        ProcessMemoryPointer pointer = process.pointer(MODULE_NAME, 0x10, 0x20);
+        MemoryJournal journal = process.transaction()
+                .writeInteger(pointer, 1337)
+                .commit();
+
+        // simulate a map change which re-allocates the structure and releases the old block
+        long relocated = process.chain(MODULE_NAME, 0x10, 0x20);
+        process.buffer(relocated, 4).putInt(0, 1337);
+        process.free(address - 0x20);
+        process.invalidatePointers();
+
+        journal.revert();
+        Assert.assertEquals(42, process.buffer(relocated, 4).getInt(0));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.async;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases for {@link MemoryExecutor} and {@link AsyncProcess}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class MemoryExecutorTest {
+    private static final String MODULE_NAME = "dxhr.exe";
+
+    private final AtomicReference<Throwable> uncaught = new AtomicReference<>();
+    private Thread.UncaughtExceptionHandler previousHandler;
+    private MemoryExecutor executor;
+    private AsyncProcess process;
+
+    @Before
+    public void setUp() throws ProcessStateException {
+        this.previousHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((t, ex) -> this.uncaught.compareAndSet(null, ex));
+
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        process.open();
+
+        this.executor = new MemoryExecutor(1);
+        this.process = new AsyncProcess(process, this.executor);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.close();
+        Thread.setDefaultUncaughtExceptionHandler(this.previousHandler);
+    }
+
+    /**
+     * Waits for a future to complete and asserts that it has been cancelled.
+     */
+    private static void assertCancelled(@SuppressWarnings("rawtypes") CompletableFuture future) throws InterruptedException, ExecutionException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected operation to be cancelled");
+        } catch (CancellationException ignore) {
+        } catch (TimeoutException ex) {
+            Assert.fail("Operation did not complete");
+        }
+    }
+
+    /**
+     * Evaluates whether operations are executed in order of submission.
+     */
+    @Test
+    public void testOrder() throws InterruptedException, ExecutionException, TimeoutException {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 10; ++i) {
+            int value = i;
+            this.process.submit((p) -> builder.append(value));
+        }
+
+        Assert.assertEquals("0123456789", this.process.submit((p) -> builder.toString()).get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Evaluates whether queued operations are discarded when the executor is closed while an
+     * operation of their lane is still being executed.
+     */
+    @Test
+    public void testCloseWhileActive() throws InterruptedException, ExecutionException, TimeoutException {
+        this.process.setTimeout(Duration.ZERO);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> active = this.process.submit((p) -> {
+            started.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException ignore) {
+            }
+
+            return 42;
+        });
+        CompletableFuture<Integer> queued = this.process.submit((p) -> 1337);
+
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        this.executor.close();
+        release.countDown();
+
+        Assert.assertEquals(42, (int) active.get(5, TimeUnit.SECONDS));
+        assertCancelled(queued);
+
+        // the lane is not wedged by the rejection either
+        assertCancelled(this.process.submit((p) -> 1));
+        Assert.assertNull(this.uncaught.get());
+    }
+
+    /**
+     * Evaluates whether operations which have not been started by the pool are discarded when the
+     * executor is closed.
+     */
+    @Test
+    public void testCloseWhileQueued() throws InterruptedException, ExecutionException {
+        this.process.setTimeout(Duration.ZERO);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncProcess other = new AsyncProcess(this.process.getProcess(), this.executor);
+
+        // occupy the only thread of the pool using a different lane
+        other.submit((p) -> {
+            started.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException ignore) {
+            }
+
+            return null;
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> first = this.process.submit((p) -> 1);
+        CompletableFuture<Integer> second = this.process.submit((p) -> 2);
+
+        this.executor.close();
+        release.countDown();
+
+        assertCancelled(first);
+        assertCancelled(second);
+        Assert.assertNull(this.uncaught.get());
+    }
+
+    /**
+     * Evaluates whether operations which are submitted after the executor has been closed fail
+     * immediately.
+     */
+    @Test
+    public void testSubmitAfterClose() throws InterruptedException, ExecutionException {
+        this.executor.close();
+
+        CompletableFuture<Integer> future = this.process.submit((p) -> 1);
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+        assertCancelled(future);
+    }
+}
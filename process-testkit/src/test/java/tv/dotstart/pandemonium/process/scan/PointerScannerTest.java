@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import tv.dotstart.pandemonium.process.PointerPath;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases for {@link PointerScanner}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class PointerScannerTest {
+    private static final String MODULE_NAME = "game.exe";
+
+    /**
+     * Creates a new simulated process with a single module.
+     */
+    private static SimulatedProcess createProcess(boolean is64) throws ProcessStateException {
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .set64Bit(is64)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        process.open();
+
+        return process;
+    }
+
+    /**
+     * Evaluates whether multi-level chains are located and resolve to their target.
+     */
+    @Test
+    public void testChain() throws ProcessStateException {
+        for (boolean is64 : new boolean[]{false, true}) {
+            SimulatedProcess process = createProcess(is64);
+            long target = process.chain(MODULE_NAME, 0x200, 0x18, 0x20);
+
+            List<PointerPath> results = PointerScanner.builder(process).build().scan(target);
+
+            Assert.assertTrue("Expected chain in " + results, results.contains(PointerPath.of(MODULE_NAME, 0x200, 0x18, 0x20)));
+
+            for (PointerPath path : results) {
+                Assert.assertEquals(target, process.pointer(path).getAddress());
+            }
+        }
+    }
+
+    /**
+     * Evaluates whether addresses within a module image are reported as static paths.
+     */
+    @Test
+    public void testStaticAddress() throws ProcessStateException {
+        SimulatedProcess process = createProcess(false);
+
+        List<PointerPath> results = PointerScanner.builder(process).build().scan(0x400010);
+
+        Assert.assertEquals(PointerPath.of(MODULE_NAME, 0x10), results.get(0));
+    }
+
+    /**
+     * Evaluates whether chains which exceed the maximum depth are omitted.
+     */
+    @Test
+    public void testDepthLimit() throws ProcessStateException {
+        SimulatedProcess process = createProcess(false);
+        long target = process.chain(MODULE_NAME, 0x200, 0x8, 0x10, 0x18);
+        PointerPath path = PointerPath.of(MODULE_NAME, 0x200, 0x8, 0x10, 0x18);
+
+        Assert.assertFalse(PointerScanner.builder(process).setDepth(2).build().scan(target).contains(path));
+        Assert.assertTrue(PointerScanner.builder(process).setDepth(3).build().scan(target).contains(path));
+    }
+
+    /**
+     * Evaluates whether pointers which refer to an address further away from the target than the
+     * maximum offset are omitted.
+     */
+    @Test
+    public void testMaximumOffset() throws ProcessStateException {
+        SimulatedProcess process = createProcess(false);
+        long target = process.chain(MODULE_NAME, 0x200, 0x80);
+        PointerPath path = PointerPath.of(MODULE_NAME, 0x200, 0x80);
+
+        Assert.assertFalse(PointerScanner.builder(process).setMaximumOffset(0x40).build().scan(target).contains(path));
+        Assert.assertTrue(PointerScanner.builder(process).setMaximumOffset(0x80).build().scan(target).contains(path));
+    }
+
+    /**
+     * Evaluates whether scans return at most the maximum amount of results.
+     */
+    @Test
+    public void testMaximumResults() throws ProcessStateException {
+        SimulatedProcess process = createProcess(false);
+        long block = process.allocate(0x40);
+        ByteBuffer module = process.getModule(MODULE_NAME).get().getBuffer();
+
+        for (int i = 0; i < 50; ++i) {
+            module.putInt(0x300 + i * 4, (int) block);
+        }
+
+        Assert.assertEquals(50, PointerScanner.builder(process).build().scan(block + 0x10).size());
+        Assert.assertEquals(10, PointerScanner.builder(process).setMaximumResults(10).build().scan(block + 0x10).size());
+    }
+
+    /**
+     * Evaluates whether chains are located within an index which is large enough to be sorted and
+     * searched in parallel.
+     */
+    @Test
+    public void testLargeIndex() throws ProcessStateException {
+        SimulatedProcess process = createProcess(false);
+        long target = process.chain(MODULE_NAME, 0x200, 0x18, 0x20);
+
+        // fill a large block with pointers to random locations within itself
+        int size = 0x40000;
+        long noise = process.allocate(size);
+        ByteBuffer buffer = process.buffer(noise, size);
+        Random random = new Random(42);
+
+        for (int i = 0; i < size; i += 4) {
+            buffer.putInt(i, (int) (noise + random.nextInt(size)));
+        }
+
+        PointerScanner scanner = PointerScanner.builder(process).build();
+
+        Assert.assertTrue(scanner.getPointerCount() >= size / 4);
+        Assert.assertTrue(scanner.scan(target).contains(PointerPath.of(MODULE_NAME, 0x200, 0x18, 0x20)));
+    }
+}
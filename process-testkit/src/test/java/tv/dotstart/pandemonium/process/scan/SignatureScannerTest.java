@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.OptionalLong;
+
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcessModule;
+
+/**
+ * Provides test cases for {@link SignatureScanner}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class SignatureScannerTest {
+    private static final String MODULE_NAME = "dxhr.exe";
+    private static final String SIGNATURE = "8B 0D ?? ?? ?? ?? 85 C9";
+    private static final byte[] MATCH = {(byte) 0x8B, 0x0D, 0x11, 0x22, 0x33, 0x44, (byte) 0x85, (byte) 0xC9};
+
+    /**
+     * Creates a module of the supplied size which contains a single match at the specified
+     * offset.
+     */
+    private static SimulatedProcessModule createModule(int size, int offset) throws ProcessStateException {
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, size)
+                .build();
+        process.open();
+
+        SimulatedProcessModule module = process.getModule(MODULE_NAME).get();
+        ByteBuffer buffer = module.getBuffer();
+        buffer.position(offset);
+        buffer.put(MATCH);
+
+        return module;
+    }
+
+    /**
+     * Evaluates whether signatures are located within modules which are not a multiple of the
+     * chunk size.
+     */
+    @Test
+    public void testUnalignedSize() throws ProcessStateException {
+        int[] sizes = {
+                SignatureScanner.CHUNK_SIZE + 1,
+                SignatureScanner.CHUNK_SIZE * 3 / 2,
+                SignatureScanner.CHUNK_SIZE * 5 + 4096,
+                SignatureScanner.CHUNK_SIZE * 97 / 2
+        };
+
+        for (int size : sizes) {
+            SimulatedProcessModule module = createModule(size, size - MATCH.length);
+
+            Assert.assertEquals("Module of " + size + " bytes", OptionalLong.of(size - MATCH.length), module.scan(SIGNATURE));
+        }
+    }
+
+    /**
+     * Evaluates whether signatures which cross the boundary between two chunks are located.
+     */
+    @Test
+    public void testChunkBoundary() throws ProcessStateException {
+        int offset = SignatureScanner.CHUNK_SIZE - 3;
+        SimulatedProcessModule module = createModule(SignatureScanner.CHUNK_SIZE * 3 / 2, offset);
+
+        Assert.assertEquals(OptionalLong.of(offset), module.scan(SIGNATURE));
+    }
+
+    /**
+     * Evaluates whether the first of multiple occurrences is reported.
+     */
+    @Test
+    public void testFirstOccurrence() throws ProcessStateException {
+        int size = SignatureScanner.CHUNK_SIZE * 5 / 2;
+        SimulatedProcessModule module = createModule(size, size - MATCH.length);
+
+        ByteBuffer buffer = module.getBuffer();
+        buffer.position(SignatureScanner.CHUNK_SIZE + 17);
+        buffer.put(MATCH);
+
+        Assert.assertEquals(OptionalLong.of(SignatureScanner.CHUNK_SIZE + 17), module.scan(SIGNATURE));
+    }
+}
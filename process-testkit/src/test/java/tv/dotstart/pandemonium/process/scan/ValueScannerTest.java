@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases for {@link ValueScanner}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class ValueScannerTest {
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int BLOCK_SIZE = 3 * CHUNK_SIZE;
+
+    private SimulatedProcess process;
+    private long block;
+    private ByteBuffer buffer;
+
+    @Before
+    public void setUp() throws ProcessStateException {
+        this.process = SimulatedProcess.builder("game.exe")
+                .addModule("game.exe", 0x400000, 0x1000)
+                .build();
+        this.process.open();
+
+        this.block = this.process.allocate(BLOCK_SIZE);
+        this.buffer = this.process.buffer(this.block, BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a scanner which covers the allocated block.
+     */
+    private ValueScanner createScanner(ValueType type) {
+        return ValueScanner.builder(this.process, type)
+                .addRange(this.block, BLOCK_SIZE)
+                .build();
+    }
+
+    /**
+     * Evaluates whether exact initial scans locate all matching slots (including those which
+     * reside at the boundaries between chunks).
+     */
+    @Test
+    public void testFirstScanValue() {
+        int[] offsets = {0x10, CHUNK_SIZE - 4, CHUNK_SIZE, BLOCK_SIZE - 4};
+
+        for (int offset : offsets) {
+            this.buffer.putInt(offset, 1337);
+        }
+
+        ValueScanner scanner = this.createScanner(ValueType.INTEGER);
+
+        Assert.assertEquals(offsets.length, scanner.firstScan(1337));
+        Assert.assertEquals(offsets.length, scanner.getCount());
+        Assert.assertTrue(scanner.isScanned());
+
+        long[] addresses = scanner.getAddresses();
+        Assert.assertEquals(offsets.length, addresses.length);
+
+        for (int i = 0; i < offsets.length; ++i) {
+            Assert.assertEquals(this.block + offsets[i], addresses[i]);
+        }
+
+        Assert.assertArrayEquals(new long[]{this.block + offsets[0], this.block + offsets[1]}, scanner.getAddresses(2));
+    }
+
+    /**
+     * Evaluates whether unknown initial scans consider every aligned slot a candidate.
+     */
+    @Test
+    public void testFirstScanUnknown() {
+        ValueScanner scanner = this.createScanner(ValueType.INTEGER);
+
+        Assert.assertEquals(BLOCK_SIZE / Integer.BYTES, scanner.firstScan());
+        Assert.assertEquals(this.block, scanner.getAddresses(1)[0]);
+
+        ValueScanner shortScanner = ValueScanner.builder(this.process, ValueType.SHORT)
+                .addRange(this.block, 0x100)
+                .build();
+        Assert.assertEquals(0x100 / Short.BYTES, shortScanner.firstScan());
+
+        ValueScanner alignedScanner = ValueScanner.builder(this.process, ValueType.INTEGER)
+                .addRange(this.block, 0x100)
+                .setAlignment(1)
+                .build();
+        Assert.assertEquals(0x100 - Integer.BYTES + 1, alignedScanner.firstScan());
+    }
+
+    /**
+     * Evaluates whether subsequent scans refine a dense set of candidates according to their
+     * condition.
+     */
+    @Test
+    public void testNextScanCondition() {
+        ValueScanner scanner = this.createScanner(ValueType.INTEGER);
+        scanner.firstScan();
+
+        Assert.assertEquals(BLOCK_SIZE / Integer.BYTES, scanner.nextScan(ScanCondition.UNCHANGED));
+
+        this.buffer.putInt(0x20, 5);
+        this.buffer.putInt(CHUNK_SIZE + 0x40, 7);
+        this.buffer.putInt(2 * CHUNK_SIZE + 0x80, -3);
+
+        Assert.assertEquals(3, scanner.nextScan(ScanCondition.CHANGED));
+        Assert.assertArrayEquals(new long[]{this.block + 0x20, this.block + CHUNK_SIZE + 0x40, this.block + 2 * CHUNK_SIZE + 0x80}, scanner.getAddresses());
+
+        this.buffer.putInt(0x20, 6);
+        this.buffer.putInt(CHUNK_SIZE + 0x40, 4);
+
+        Assert.assertEquals(1, scanner.nextScan(ScanCondition.INCREASED));
+        Assert.assertArrayEquals(new long[]{this.block + 0x20}, scanner.getAddresses());
+
+        this.buffer.putInt(0x20, 2);
+
+        Assert.assertEquals(1, scanner.nextScan(ScanCondition.DECREASED));
+        Assert.assertEquals(0, scanner.nextScan(ScanCondition.CHANGED));
+        Assert.assertEquals(0, scanner.getAddresses().length);
+    }
+
+    /**
+     * Evaluates whether subsequent exact scans refine the set of candidates.
+     */
+    @Test
+    public void testNextScanValue() {
+        this.buffer.putFloat(0x10, 1.5f);
+        this.buffer.putFloat(0x20, 1.5f);
+        this.buffer.putFloat(CHUNK_SIZE + 0x30, 1.5f);
+
+        ValueScanner scanner = this.createScanner(ValueType.FLOAT);
+        Assert.assertEquals(3, scanner.firstScan(1.5f));
+
+        this.buffer.putFloat(0x20, 2.5f);
+        this.buffer.putFloat(CHUNK_SIZE + 0x30, 2.5f);
+
+        Assert.assertEquals(2, scanner.nextScan(2.5f));
+        Assert.assertArrayEquals(new long[]{this.block + 0x20, this.block + CHUNK_SIZE + 0x30}, scanner.getAddresses());
+    }
+
+    /**
+     * Evaluates whether scans reject invalid states and conditions.
+     */
+    @Test
+    public void testInvalidState() {
+        ValueScanner scanner = this.createScanner(ValueType.INTEGER);
+
+        try {
+            scanner.nextScan(ScanCondition.CHANGED);
+            Assert.fail("Expected IllegalStateException");
+        } catch (IllegalStateException ignore) {
+        }
+
+        scanner.firstScan();
+
+        try {
+            scanner.nextScan(ScanCondition.EXACT);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ignore) {
+        }
+    }
+
+    /**
+     * Evaluates whether resetting a scanner discards all candidates.
+     */
+    @Test
+    public void testReset() {
+        this.buffer.putInt(0x10, 42);
+
+        ValueScanner scanner = this.createScanner(ValueType.INTEGER);
+        Assert.assertEquals(1, scanner.firstScan(42));
+
+        scanner.reset();
+
+        Assert.assertFalse(scanner.isScanned());
+        Assert.assertEquals(0, scanner.getCount());
+        Assert.assertEquals(0, scanner.getAddresses().length);
+
+        Assert.assertEquals(1, scanner.firstScan(42));
+    }
+}
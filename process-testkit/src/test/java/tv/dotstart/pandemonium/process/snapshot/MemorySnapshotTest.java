@@ -0,0 +1,194 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.snapshot;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import tv.dotstart.pandemonium.process.MemoryFrame;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases for {@link MemorySnapshot} and {@link MemoryDiff}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class MemorySnapshotTest {
+    private static final int BLOCK_SIZE = 4 * MemoryFrame.PAGE_SIZE;
+
+    private SimulatedProcess process;
+    private long block;
+    private ByteBuffer buffer;
+
+    @Before
+    public void setUp() throws ProcessStateException {
+        this.process = SimulatedProcess.builder("game.exe")
+                .addModule("game.exe", 0x400000, 0x1000)
+                .build();
+        this.process.open();
+
+        this.block = this.process.allocate(BLOCK_SIZE);
+        this.buffer = this.process.buffer(this.block, BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a snapshot which covers the allocated block.
+     */
+    private MemorySnapshot capture() {
+        return MemorySnapshot.builder(this.process)
+                .addRange(this.block, BLOCK_SIZE)
+                .build();
+    }
+
+    /**
+     * Evaluates whether snapshots retain the values observed at the time of their capture.
+     */
+    @Test
+    public void testValues() {
+        this.buffer.put(0x00, (byte) 0x7F);
+        this.buffer.putShort(0x10, (short) 0x1234);
+        this.buffer.putInt(0x20, 0xCAFEBABE);
+        this.buffer.putLong(0x30, 0x0123456789ABCDEFL);
+        this.buffer.putFloat(0x40, 1.5f);
+        this.buffer.putDouble(0x50, -2.25);
+
+        MemorySnapshot snapshot = this.capture();
+        this.buffer.putInt(0x20, 0);
+
+        Assert.assertEquals((byte) 0x7F, snapshot.getByte(this.block));
+        Assert.assertEquals((short) 0x1234, snapshot.getShort(this.block + 0x10));
+        Assert.assertEquals(0xCAFEBABE, snapshot.getInteger(this.block + 0x20));
+        Assert.assertEquals(0x0123456789ABCDEFL, snapshot.getLong(this.block + 0x30));
+        Assert.assertEquals(1.5f, snapshot.getFloat(this.block + 0x40), 0);
+        Assert.assertEquals(-2.25, snapshot.getDouble(this.block + 0x50), 0);
+        Assert.assertEquals(BLOCK_SIZE, snapshot.getSize());
+
+        Assert.assertEquals(0, this.capture().getInteger(this.block + 0x20));
+    }
+
+    /**
+     * Evaluates whether comparing two equal snapshots produces an empty diff.
+     */
+    @Test
+    public void testEqual() {
+        MemoryDiff diff = this.capture().diff(this.capture());
+
+        Assert.assertTrue(diff.isEmpty());
+        Assert.assertEquals(0, diff.getCount());
+        Assert.assertEquals(0, diff.getSize());
+    }
+
+    /**
+     * Evaluates whether changed bytes are reported precisely and in ascending order.
+     */
+    @Test
+    public void testChanges() {
+        MemorySnapshot before = this.capture();
+
+        this.buffer.put(0x03, (byte) 1);
+        this.buffer.putInt(0x100, -1);
+        this.buffer.put(MemoryFrame.PAGE_SIZE - 1, (byte) 1);
+        this.buffer.put(MemoryFrame.PAGE_SIZE, (byte) 1);
+        this.buffer.put(BLOCK_SIZE - 1, (byte) 1);
+
+        MemoryDiff diff = before.diff(this.capture());
+
+        Assert.assertFalse(diff.isEmpty());
+        Assert.assertEquals(4, diff.getCount());
+        Assert.assertEquals(8, diff.getSize());
+
+        Assert.assertEquals(this.block + 0x03, diff.getAddress(0));
+        Assert.assertEquals(1, diff.getLength(0));
+        Assert.assertEquals(this.block + 0x100, diff.getAddress(1));
+        Assert.assertEquals(4, diff.getLength(1));
+        Assert.assertEquals(this.block + MemoryFrame.PAGE_SIZE - 1, diff.getAddress(2));
+        Assert.assertEquals(2, diff.getLength(2));
+        Assert.assertEquals(this.block + BLOCK_SIZE - 1, diff.getAddress(3));
+        Assert.assertEquals(1, diff.getLength(3));
+
+        Assert.assertTrue(diff.contains(this.block + 0x103));
+        Assert.assertFalse(diff.contains(this.block + 0x104));
+        Assert.assertTrue(diff.intersects(this.block, 4));
+        Assert.assertFalse(diff.intersects(this.block, 3));
+    }
+
+    /**
+     * Evaluates whether changes separated by a limited amount of unchanged bytes are merged.
+     */
+    @Test
+    public void testMaximumGap() {
+        MemorySnapshot before = this.capture();
+
+        this.buffer.put(0x10, (byte) 1);
+        this.buffer.put(0x14, (byte) 1);
+        MemorySnapshot after = this.capture();
+
+        MemoryDiff separate = before.diff(after, 2);
+        Assert.assertEquals(2, separate.getCount());
+
+        MemoryDiff merged = before.diff(after, 3);
+        Assert.assertEquals(1, merged.getCount());
+        Assert.assertEquals(this.block + 0x10, merged.getAddress(0));
+        Assert.assertEquals(5, merged.getLength(0));
+    }
+
+    /**
+     * Evaluates whether pages which become readable or unreadable are reported as changed.
+     */
+    @Test
+    public void testUnreadablePages() {
+        long end = this.block + BLOCK_SIZE;
+        MemorySnapshot.Builder builder = MemorySnapshot.builder(this.process)
+                .addRange(this.block, BLOCK_SIZE + MemoryFrame.PAGE_SIZE);
+
+        MemorySnapshot before = builder.build();
+        Assert.assertTrue(before.isReadable(this.block, BLOCK_SIZE));
+        Assert.assertFalse(before.isReadable(end, 1));
+
+        try {
+            before.getByte(end);
+            Assert.fail("Expected ProcessMemoryReadException");
+        } catch (ProcessMemoryReadException ignore) {
+        }
+
+        Assert.assertEquals(end, this.process.allocate(MemoryFrame.PAGE_SIZE));
+        MemorySnapshot after = builder.build();
+        Assert.assertTrue(after.isReadable(end, MemoryFrame.PAGE_SIZE));
+
+        MemoryDiff diff = before.diff(after);
+        Assert.assertEquals(1, diff.getCount());
+        Assert.assertEquals(end, diff.getAddress(0));
+        Assert.assertEquals(MemoryFrame.PAGE_SIZE, diff.getLength(0));
+    }
+
+    /**
+     * Evaluates whether snapshots of different ranges are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentRanges() {
+        MemorySnapshot other = MemorySnapshot.builder(this.process)
+                .addRange(this.block, MemoryFrame.PAGE_SIZE)
+                .build();
+
+        this.capture().diff(other);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.structure;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases for {@link StructureAccessor}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class StructureAccessorTest {
+    private static final String MODULE_NAME = "dxhr.exe";
+
+    /**
+     * Creates a pointer to a structure of two integers and a short.
+     */
+    private static ProcessMemoryPointer createPointer() throws ProcessStateException {
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        process.open();
+
+        ByteBuffer buffer = process.getModule(MODULE_NAME).get().getBuffer();
+        buffer.putInt(0x10, 42);
+        buffer.putInt(0x14, -1337);
+        buffer.putShort(0x18, (short) 7);
+
+        return process.pointer(MODULE_NAME, 0x10);
+    }
+
+    /**
+     * Evaluates whether structures which declare a no-argument constructor are read.
+     */
+    @Test
+    public void testDefaultConstructor() throws ProcessStateException {
+        DefaultStructure structure = createPointer().readStructure(DefaultStructure.class);
+
+        Assert.assertEquals(42, structure.first);
+        Assert.assertEquals(-1337, structure.second);
+        Assert.assertEquals(7, structure.third);
+    }
+
+    /**
+     * Evaluates whether structures which only declare a constructor that accepts a pointer are
+     * read.
+     */
+    @Test
+    public void testPointerConstructor() throws ProcessStateException {
+        PointerStructure structure = createPointer().readStructure(PointerStructure.class);
+
+        Assert.assertEquals(42, structure.first);
+        Assert.assertEquals(-1337, structure.second);
+        Assert.assertEquals(7, structure.third);
+        Assert.assertEquals(42, structure.getPointer().getInt(0));
+    }
+
+    public static class DefaultStructure extends Structure {
+        public int first;
+        public int second;
+        public short third;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<String> getFieldOrder() {
+            return Arrays.asList("first", "second", "third");
+        }
+    }
+
+    public static class PointerStructure extends Structure {
+        public int first;
+        public int second;
+        public short third;
+
+        public PointerStructure(Pointer pointer) {
+            super(pointer);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<String> getFieldOrder() {
+            return Arrays.asList("first", "second", "third");
+        }
+    }
+}
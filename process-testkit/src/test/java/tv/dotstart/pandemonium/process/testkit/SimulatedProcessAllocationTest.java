@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.testkit;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.ToLongFunction;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+
+/**
+ * Provides test cases which guard the memory access path of {@link SimulatedProcess} against
+ * allocation regressions.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class SimulatedProcessAllocationTest {
+    private static final String MODULE_NAME = "dxhr.exe";
+
+    /**
+     * Defines the amount of reads which are performed in order to warm up the access path.
+     */
+    private static final int WARMUP_ITERATIONS = 200_000;
+
+    /**
+     * Defines the amount of reads which are measured.
+     */
+    private static final int ITERATIONS = 1_000_000;
+
+    private com.sun.management.ThreadMXBean bean;
+    private ProcessMemoryPointer pointer;
+
+    @Before
+    public void setUp() throws ProcessStateException {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        this.bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(this.bean.isThreadAllocatedMemorySupported());
+        this.bean.setThreadAllocatedMemoryEnabled(true);
+
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        process.open();
+        process.getModule(MODULE_NAME).get().getBuffer().putLong(0x10, 0x402A2A2A2A2A2A2AL);
+
+        this.pointer = process.pointer(MODULE_NAME, 0x10);
+    }
+
+    /**
+     * Evaluates whether a primitive read through a pointer does not allocate (less than a byte
+     * per read on average in order to tolerate incidental allocations of the runtime).
+     *
+     * @param reader a function which performs the read and returns its raw value.
+     */
+    private void assertNoAllocation(String name, ToLongFunction<ProcessMemoryPointer> reader) {
+        ProcessMemoryPointer pointer = this.pointer;
+        long expected = reader.applyAsLong(pointer);
+        long checksum = 0;
+
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            checksum += reader.applyAsLong(pointer);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = this.bean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < ITERATIONS; ++i) {
+            checksum += reader.applyAsLong(pointer);
+        }
+
+        long allocated = this.bean.getThreadAllocatedBytes(threadId) - before;
+
+        Assert.assertEquals(expected * (WARMUP_ITERATIONS + ITERATIONS), checksum);
+        Assert.assertTrue("Expected " + name + " reads to not allocate but got " + ((double) allocated / ITERATIONS) + " bytes per read", allocated < ITERATIONS);
+    }
+
+    /**
+     * Evaluates whether reading bytes does not allocate.
+     */
+    @Test
+    public void testReadByteAllocation() {
+        this.assertNoAllocation("byte", ProcessMemoryPointer::readByte);
+    }
+
+    /**
+     * Evaluates whether reading shorts does not allocate.
+     */
+    @Test
+    public void testReadShortAllocation() {
+        this.assertNoAllocation("short", ProcessMemoryPointer::readShort);
+    }
+
+    /**
+     * Evaluates whether reading integers does not allocate.
+     */
+    @Test
+    public void testReadIntegerAllocation() {
+        this.assertNoAllocation("integer", ProcessMemoryPointer::readInteger);
+    }
+
+    /**
+     * Evaluates whether reading longs does not allocate.
+     */
+    @Test
+    public void testReadLongAllocation() {
+        this.assertNoAllocation("long", ProcessMemoryPointer::readLong);
+    }
+
+    /**
+     * Evaluates whether reading floats does not allocate.
+     */
+    @Test
+    public void testReadFloatAllocation() {
+        this.assertNoAllocation("float", (p) -> Float.floatToRawIntBits(p.readFloat()));
+    }
+
+    /**
+     * Evaluates whether reading doubles does not allocate.
+     */
+    @Test
+    public void testReadDoubleAllocation() {
+        this.assertNoAllocation("double", (p) -> Double.doubleToRawLongBits(p.readDouble()));
+    }
+}
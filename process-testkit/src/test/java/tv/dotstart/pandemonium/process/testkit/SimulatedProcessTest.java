@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.testkit;
+
+import com.sun.jna.Memory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+
+/**
+ * Provides test cases for {@link SimulatedProcess}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class SimulatedProcessTest {
+    private static final String MODULE_NAME = "game.exe";
+
+    /**
+     * Creates a new simulated process with a single module.
+     */
+    private static SimulatedProcess createProcess() throws ProcessStateException {
+        SimulatedProcess process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        process.open();
+
+        return process;
+    }
+
+    /**
+     * Evaluates whether ranges which span adjacent heap blocks are read and written just like
+     * within a real process.
+     */
+    @Test
+    public void testAdjacentBlocks() throws ProcessStateException {
+        SimulatedProcess process = createProcess();
+        long first = process.allocate(0x40);
+        long second = process.allocate(0x40);
+        Assert.assertEquals(first + 0x40, second);
+
+        byte[] data = new byte[16];
+        Arrays.fill(data, (byte) 0x2A);
+
+        Assert.assertTrue(process.isReadable(first + 0x38, data.length));
+        Memory buffer = new Memory(data.length);
+        buffer.write(0, data, 0, data.length);
+        process.write(first + 0x38, buffer, data.length);
+
+        byte[] read = new byte[16];
+        process.read(first + 0x38, read, 0, read.length);
+
+        Assert.assertArrayEquals(data, read);
+        Assert.assertEquals(0x2A2A2A2A, process.buffer(second, 4).getInt(0));
+    }
+
+    /**
+     * Evaluates whether ranges which span unmapped memory are rejected.
+     */
+    @Test(expected = ProcessMemoryReadException.class)
+    public void testUnmappedGap() throws ProcessStateException {
+        SimulatedProcess process = createProcess();
+        long first = process.allocate(0x40);
+        long second = process.allocate(0x40);
+        process.allocate(0x40);
+        process.free(second);
+
+        Assert.assertFalse(process.isReadable(first + 0x38, 0x50));
+        process.read(first + 0x38, new byte[0x50], 0, 0x50);
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import com.sun.jna.Memory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.ProcessAttachmentException;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.testkit.SimulatedProcess;
+
+/**
+ * Provides test cases which record the memory traffic of a process through a
+ * {@link RecordingProcess} and replay it through a {@link ReplayProcess}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class TraceRoundTripTest {
+    private static final String MODULE_NAME = "game.exe";
+    private static final long UNMAPPED_ADDRESS = 0x7FFF0000L;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private SimulatedProcess process;
+    private Path tracePath;
+
+    @Before
+    public void setUp() throws IOException {
+        this.process = SimulatedProcess.builder(MODULE_NAME)
+                .addModule(MODULE_NAME, 0x400000, 0x1000)
+                .build();
+        this.tracePath = this.folder.getRoot().toPath().resolve("process.trace");
+    }
+
+    /**
+     * Reads an integer from a process.
+     */
+    private static int readInteger(Process process, long address) {
+        byte[] buffer = new byte[Integer.BYTES];
+        process.read(address, buffer, 0, buffer.length);
+        return ByteBuffer.wrap(buffer).order(ByteOrder.nativeOrder()).getInt();
+    }
+
+    /**
+     * Writes an integer to a process.
+     */
+    private static void writeInteger(Process process, long address, int value) {
+        Memory buffer = new Memory(Integer.BYTES);
+        buffer.setInt(0, value);
+        process.write(address, buffer, Integer.BYTES);
+    }
+
+    /**
+     * Waits until the system clock has advanced in order to separate two trace entries.
+     */
+    private static void tick() {
+        long start = System.nanoTime();
+
+        while (System.nanoTime() - start < 1000000) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Evaluates whether the process description and modules survive a round trip.
+     */
+    @Test
+    public void testProcess() throws IOException, ProcessAttachmentException, ProcessStateException {
+        RecordingProcess recording = new RecordingProcess(this.process, this.tracePath);
+        recording.open();
+        recording.close();
+
+        ReplayProcess replay = ReplayProcess.load(this.tracePath);
+        replay.open();
+
+        Assert.assertEquals(MODULE_NAME, replay.getName());
+        Assert.assertEquals(this.process.is64Bit(), replay.is64Bit());
+        Assert.assertEquals(this.process.getExecutableSize(), replay.getExecutableSize());
+
+        ProcessModule module = replay.getModule(MODULE_NAME).orElseThrow(AssertionError::new);
+        Assert.assertEquals(0x400000, module.pointer(0).getAddress());
+        Assert.assertEquals(0x1000, module.getSize());
+
+        replay.close();
+    }
+
+    /**
+     * Evaluates whether recorded reads are served by the replay while unrecorded ranges remain
+     * unreadable.
+     */
+    @Test
+    public void testReads() throws IOException, ProcessAttachmentException, ProcessStateException {
+        long block = this.process.allocate(0x100);
+        this.process.buffer(block, 0x100).putInt(0x10, 1337);
+
+        RecordingProcess recording = new RecordingProcess(this.process, this.tracePath);
+        recording.open();
+        Assert.assertEquals(1337, readInteger(recording, block + 0x10));
+        recording.close();
+
+        ReplayProcess replay = ReplayProcess.load(this.tracePath);
+        replay.open();
+
+        Assert.assertEquals(1337, readInteger(replay, block + 0x10));
+
+        try {
+            readInteger(replay, block + 0x20);
+            Assert.fail("Expected ProcessMemoryReadException");
+        } catch (ProcessMemoryReadException ignore) {
+        }
+
+        replay.close();
+    }
+
+    /**
+     * Evaluates whether the replay reconstructs the address space at the selected position.
+     */
+    @Test
+    public void testTimeline() throws IOException, ProcessAttachmentException, ProcessStateException {
+        long block = this.process.allocate(0x100);
+        ByteBuffer buffer = this.process.buffer(block, 0x100);
+
+        RecordingProcess recording = new RecordingProcess(this.process, this.tracePath);
+        recording.open();
+
+        buffer.putInt(0, 1);
+        Assert.assertEquals(1, readInteger(recording, block));
+        tick();
+
+        buffer.putInt(0, 2);
+        Assert.assertEquals(2, readInteger(recording, block));
+        tick();
+
+        writeInteger(recording, block, 3);
+        Assert.assertEquals(3, buffer.getInt(0));
+        recording.close();
+
+        ReplayProcess replay = ReplayProcess.load(this.tracePath);
+        replay.open();
+
+        Assert.assertEquals(Duration.ZERO, replay.getPosition());
+        Assert.assertEquals(1, readInteger(replay, block));
+
+        replay.seek(replay.getDuration());
+        Assert.assertEquals(replay.getDuration(), replay.getPosition());
+        Assert.assertEquals(3, readInteger(replay, block));
+
+        replay.seek(Duration.ZERO);
+        Assert.assertEquals(1, readInteger(replay, block));
+
+        replay.advance(replay.getDuration().plusSeconds(1));
+        Assert.assertEquals(replay.getDuration(), replay.getPosition());
+        Assert.assertEquals(3, readInteger(replay, block));
+
+        writeInteger(replay, block, 4);
+        Assert.assertEquals(4, readInteger(replay, block));
+
+        replay.close();
+    }
+
+    /**
+     * Evaluates whether failed reads are recorded and reproduced by the replay.
+     */
+    @Test
+    public void testReadFailure() throws IOException, ProcessAttachmentException, ProcessStateException {
+        long block = this.process.allocate(0x100);
+
+        RecordingProcess recording = new RecordingProcess(this.process, this.tracePath);
+        recording.open();
+        Assert.assertEquals(0, readInteger(recording, block));
+        tick();
+
+        this.process.free(block);
+
+        try {
+            readInteger(recording, block);
+            Assert.fail("Expected ProcessMemoryReadException");
+        } catch (ProcessMemoryReadException ignore) {
+        }
+
+        try {
+            readInteger(recording, UNMAPPED_ADDRESS);
+            Assert.fail("Expected ProcessMemoryReadException");
+        } catch (ProcessMemoryReadException ignore) {
+        }
+
+        recording.close();
+
+        ReplayProcess replay = ReplayProcess.load(this.tracePath);
+        replay.open();
+        Assert.assertEquals(0, readInteger(replay, block));
+
+        replay.seek(replay.getDuration());
+
+        try {
+            readInteger(replay, block);
+            Assert.fail("Expected ProcessMemoryReadException");
+        } catch (ProcessMemoryReadException ignore) {
+        }
+
+        replay.close();
+    }
+
+    /**
+     * Evaluates whether a playing replay terminates once it passes the end of its trace.
+     */
+    @Test
+    public void testPlayback() throws IOException, ProcessAttachmentException, ProcessStateException {
+        long block = this.process.allocate(0x100);
+
+        RecordingProcess recording = new RecordingProcess(this.process, this.tracePath);
+        recording.open();
+        readInteger(recording, block);
+        tick();
+        readInteger(recording, block);
+        recording.close();
+
+        ReplayProcess replay = ReplayProcess.load(this.tracePath);
+        replay.open();
+        Assert.assertTrue(replay.isAlive());
+
+        replay.play(1000000);
+        tick();
+
+        Assert.assertFalse(replay.isAlive());
+        Assert.assertFalse(replay.isPlaying());
+        Assert.assertEquals(replay.getDuration(), replay.getPosition());
+
+        replay.close();
+    }
+}
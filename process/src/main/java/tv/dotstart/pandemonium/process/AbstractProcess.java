@@ -0,0 +1,753 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import tv.dotstart.pandemonium.process.async.AsyncProcess;
+import tv.dotstart.pandemonium.process.async.MemoryExecutor;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+import tv.dotstart.pandemonium.process.metrics.ProcessMetrics;
+
+/**
+ * Provides a base implementation for processes which takes care of all platform independent
+ * aspects of memory access such as memory frames, batches and the deep pointer cache.
+ *
+ * Implementations are only required to provide a method of reading and writing contiguous ranges
+ * of process memory at an absolute address.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public abstract class AbstractProcess implements Process {
+    private static final Logger logger = LogManager.getFormatterLogger(AbstractProcess.class);
+
+    /**
+     * Defines the minimum amount of time (in nanoseconds) between two refreshes of the region
+     * index which are caused by ranges that are not covered by the index.
+     */
+    private static final long REGION_REFRESH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final AtomicLong pointerGeneration = new AtomicLong();
+    private final ConcurrentMap<PointerPath, PointerReference> pointers = new ConcurrentHashMap<>();
+    private final ReferenceQueue<ProcessMemoryPointer> releasedPointers = new ReferenceQueue<>();
+    private final ProcessMetrics metrics = new ProcessMetrics(this);
+
+    private final Object asyncLock = new Object();
+    private volatile AsyncProcess async;
+    private final ThreadLocal<MemoryFrame> frame = ThreadLocal.withInitial(() -> new MemoryFrame(this::readPage));
+
+    volatile long pointerCacheTimeout = -1;
+    private volatile RegionIndex regionIndex;
+
+    @GuardedBy("terminationListeners")
+    private final List<ProcessTerminationListener> terminationListeners = new ArrayList<>();
+    private volatile boolean terminated;
+
+    /**
+     * Validates whether the process memory is currently accessible.
+     *
+     * @throws ProcessMemoryStateException when the process has terminated or has not been opened.
+     */
+    protected abstract void validateAccess() throws ProcessMemoryStateException;
+
+    /**
+     * Reads a contiguous range of process memory into a native buffer.
+     *
+     * This method is invoked after the process state has been validated and is expected to pass
+     * the supplied buffer to the operating system as is.
+     *
+     * @param address an absolute address within the process address space.
+     * @param buffer  a native target buffer.
+     * @param length  the amount of bytes to read.
+     * @throws ProcessMemoryReadException when the range is not readable.
+     */
+    protected abstract void readMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length);
+
+    /**
+     * Reads a set of contiguous ranges of process memory into a native buffer.
+     *
+     * The ranges are written to the buffer back to back. Implementations which are capable of
+     * reading multiple ranges through a single call to the operating system are expected to
+     * override this method while the default implementation reads each range separately.
+     *
+     * @param addresses an array of absolute addresses.
+     * @param lengths   an array of range lengths.
+     * @param count     the amount of ranges to read.
+     * @param buffer    a native target buffer.
+     * @throws ProcessMemoryReadException when one or more ranges are not readable.
+     */
+    protected void readMemory(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull Pointer buffer) {
+        long position = 0;
+
+        for (int i = 0; i < count; ++i) {
+            this.readMemory(addresses[i], buffer.share(position), lengths[i]);
+            position += lengths[i];
+        }
+    }
+
+    /**
+     * Writes a contiguous range of process memory from a native buffer.
+     *
+     * @param address an absolute address within the process address space.
+     * @param buffer  a native source buffer.
+     * @param length  the amount of bytes to write.
+     * @throws ProcessMemoryWriteException when the range is not writable.
+     */
+    protected abstract void writeMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length);
+
+    /**
+     * Queries the memory regions within the address space of the process.
+     *
+     * This method is invoked after the process state has been validated. Implementations may
+     * return regions in any order but are expected to exclude regions which are reserved but not
+     * committed.
+     *
+     * @throws ProcessMemoryStateException when the regions cannot be queried.
+     */
+    @Nonnull
+    protected abstract Collection<MemoryRegion> queryRegions();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addTerminationListener(@Nonnull ProcessTerminationListener listener) {
+        synchronized (this.terminationListeners) {
+            if (!this.terminated) {
+                this.terminationListeners.add(listener);
+                return;
+            }
+        }
+
+        this.notifyTermination(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeTerminationListener(@Nonnull ProcessTerminationListener listener) {
+        synchronized (this.terminationListeners) {
+            this.terminationListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Checks whether the termination of the process has been signalled.
+     *
+     * Implementations are expected to consult this flag on their memory access path instead of
+     * querying the process state from the operating system.
+     */
+    protected final boolean isTerminated() {
+        return this.terminated;
+    }
+
+    /**
+     * Signals the termination of the process and notifies all registered listeners.
+     *
+     * This method is typically invoked by the background monitor of an implementation and has no
+     * effect when termination has already been signalled.
+     */
+    protected final void signalTermination() {
+        List<ProcessTerminationListener> listeners;
+
+        synchronized (this.terminationListeners) {
+            if (this.terminated) {
+                return;
+            }
+
+            this.terminated = true;
+            listeners = new ArrayList<>(this.terminationListeners);
+            this.terminationListeners.clear();
+        }
+
+        logger.info("Process \"%s\" has terminated", this.getName());
+        listeners.forEach(this::notifyTermination);
+    }
+
+    /**
+     * Notifies a single listener of the termination of the process.
+     */
+    private void notifyTermination(@Nonnull ProcessTerminationListener listener) {
+        try {
+            listener.onTermination(this);
+        } catch (RuntimeException ex) {
+            logger.error("Termination listener failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public AsyncProcess async() {
+        AsyncProcess async = this.async;
+
+        if (async == null) {
+            synchronized (this.asyncLock) {
+                async = this.async;
+
+                if (async == null) {
+                    async = new AsyncProcess(this, MemoryExecutor.getDefault());
+                    this.async = async;
+                }
+            }
+        }
+
+        return async;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch batch() throws ProcessMemoryStateException {
+        this.validateAccess();
+        return new Batch();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beginFrame() throws ProcessMemoryStateException {
+        MemoryFrame frame = this.frame.get();
+
+        if (!frame.isActive()) {
+            this.validateAccess();
+        }
+
+        frame.begin();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endFrame() {
+        this.frame.get().end();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPointerGeneration() {
+        return this.pointerGeneration.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<Duration> getPointerCacheTimeout() {
+        long timeout = this.pointerCacheTimeout;
+
+        if (timeout < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Duration.ofNanos(timeout));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setPointerCacheTimeout(@Nullable Duration timeout) {
+        if (timeout != null && timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+
+        this.pointerCacheTimeout = timeout == null ? -1 : timeout.toNanos();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<? extends ProcessModule> getModule(@Nonnull Collection<String> moduleNames) {
+        return moduleNames.stream()
+                .map(this::getModule)
+                .filter(Optional::isPresent)
+                .<ProcessModule>map(Optional::get)
+                .findFirst();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasModule(@Nonnull Collection<String> moduleNames) {
+        return moduleNames.stream()
+                .anyMatch(this::hasModule);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public MemoryRegionMap getRegionMap() {
+        return this.getRegionIndex().map;
+    }
+
+    /**
+     * Retrieves the current region index or constructs a new index if none is present.
+     */
+    @Nonnull
+    private RegionIndex getRegionIndex() {
+        RegionIndex index = this.regionIndex;
+
+        if (index == null) {
+            this.validateAccess();
+
+            index = new RegionIndex(new MemoryRegionMap(this.queryRegions()));
+            this.regionIndex = index;
+        }
+
+        return index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateRegions() {
+        this.regionIndex = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isReadable(long address, @Nonnegative int length) {
+        if (length == 0) {
+            return true;
+        }
+
+        RegionIndex index = this.getRegionIndex();
+
+        if (!index.map.isReadable(address, length)) {
+            // the range may have been mapped since the index was constructed so we'll query the
+            // regions again unless this has happened recently (in order to prevent repeated
+            // checks of unmapped ranges from querying the regions over and over again)
+            if (System.nanoTime() - index.timestamp < REGION_REFRESH_INTERVAL) {
+                return false;
+            }
+
+            this.invalidateRegions();
+            index = this.getRegionIndex();
+
+            if (!index.map.isReadable(address, length)) {
+                return false;
+            }
+        }
+
+        // the index may be outdated (e.g. because the range has been released since its
+        // construction) and thus we'll verify it with a single probe
+        try {
+            this.read(address, ScratchBuffer.get().memory, 1);
+            return true;
+        } catch (ProcessMemoryReadException ex) {
+            this.invalidateRegions();
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidatePointers() {
+        this.pointerGeneration.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer pointer(@Nonnull PointerPath path) throws ProcessMemoryStateException {
+        this.validateAccess();
+
+        PointerReference reference = this.pointers.get(path);
+        ProcessMemoryPointer pointer = reference != null ? reference.get() : null;
+
+        if (pointer != null) {
+            return pointer;
+        }
+
+        this.expungePointers();
+
+        // pointers are immutable (aside from their cached address) and may thus be shared freely
+        // between all users of the same path
+        ProcessMemoryPointer created = this.getModule(path.getModuleName())
+                .orElseThrow(() -> new NoSuchElementException("No such module: " + path.getModuleName()))
+                .pointer(path.getOffset(), path.offsets);
+        PointerReference createdReference = new PointerReference(path, created, this.releasedPointers);
+
+        // another thread may have interned the same path in the meantime in which case its pointer
+        // is used instead as long as it is still reachable
+        while (true) {
+            reference = this.pointers.putIfAbsent(path, createdReference);
+
+            if (reference == null) {
+                return created;
+            }
+
+            pointer = reference.get();
+
+            if (pointer != null) {
+                return pointer;
+            }
+
+            if (this.pointers.replace(path, reference, createdReference)) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the amount of paths which are currently interned (including paths whose pointers
+     * have been released but not yet expunged).
+     */
+    @Nonnegative
+    int getInternedPointerCount() {
+        return this.pointers.size();
+    }
+
+    /**
+     * Removes all interned pointers which are no longer referenced outside of this process.
+     */
+    private void expungePointers() {
+        PointerReference reference;
+
+        while ((reference = (PointerReference) this.releasedPointers.poll()) != null) {
+            this.pointers.remove(reference.path, reference);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer pointer(@Nonnull String moduleName, @Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException {
+        return this.pointer(PointerPath.of(moduleName, offset, offsets));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer pointer(@Nonnull Collection<String> moduleNames, @Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException {
+        ProcessModule module = this.getModule(moduleNames)
+                .orElseThrow(() -> new NoSuchElementException("No such module: " + moduleNames));
+
+        return this.pointer(PointerPath.of(module.getName(), offset, offsets));
+    }
+
+    /**
+     * Discards all interned pointers.
+     *
+     * Implementations are expected to invoke this method whenever the base addresses of their
+     * modules may have changed (e.g. when their module list is refreshed).
+     */
+    protected final void discardPointers() {
+        this.pointers.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * This method does not allocate any memory on its own and is thus used by all primitive reads
+     * in conjunction with a thread confined scratch buffer.
+     */
+    @Override
+    public void read(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        // reads within an active frame are served from its page cache without consulting the
+        // operating system unless the respective pages turn out to be unreadable
+        MemoryFrame frame = this.frame.get();
+
+        if (frame.isActive() && frame.read(address, buffer, length)) {
+            this.recordCachedRead(length);
+            return;
+        }
+
+        this.readDirect(address, buffer, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length) {
+        MemoryFrame frame = this.frame.get();
+
+        if (frame.isActive() && frame.read(address, buffer, offset, length)) {
+            this.recordCachedRead(length);
+            return;
+        }
+
+        Memory memory = this.getScratch(length);
+        this.readDirect(address, memory, length);
+        memory.read(0, buffer, offset, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull Pointer buffer) {
+        if (this.frame.get().isActive()) {
+            long position = 0;
+
+            for (int i = 0; i < count; ++i) {
+                this.read(addresses[i], buffer.share(position), lengths[i]);
+                position += lengths[i];
+            }
+
+            return;
+        }
+
+        this.validateAccess();
+
+        if (!this.metrics.isEnabled()) {
+            this.readMemory(addresses, lengths, count, buffer);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            this.readMemory(addresses, lengths, count, buffer);
+        } catch (ProcessMemoryReadException ex) {
+            long time = System.nanoTime() - start;
+
+            for (int i = 0; i < count; ++i) {
+                this.metrics.recordReadFailure(addresses[i], time / count);
+            }
+
+            throw ex;
+        }
+
+        // the ranges of a batch are passed to the operating system at once and thus share the
+        // latency of the call
+        long time = System.nanoTime() - start;
+
+        for (int i = 0; i < count; ++i) {
+            this.metrics.recordRead(addresses[i], lengths[i], time / count);
+        }
+    }
+
+    /**
+     * Reads a set of ranges into a heap buffer (back to back).
+     */
+    private void read(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull byte[] buffer) {
+        int length = 0;
+
+        for (int i = 0; i < count; ++i) {
+            length += lengths[i];
+        }
+
+        Memory memory = this.getScratch(length);
+        this.read(addresses, lengths, count, memory);
+        memory.read(0, buffer, 0, length);
+    }
+
+    /**
+     * Retrieves a native buffer of the requested size which is reused by the calling thread
+     * whenever possible.
+     */
+    @Nonnull
+    private Memory getScratch(@Nonnegative int length) {
+        ScratchBuffer scratch = ScratchBuffer.get();
+
+        if (length <= ScratchBuffer.SIZE) {
+            return scratch.memory;
+        }
+        if (length <= MemoryFrame.PAGE_SIZE) {
+            return scratch.buffer;
+        }
+
+        return new Memory(length);
+    }
+
+    /**
+     * Reads an entire page into a frame.
+     */
+    private void readPage(long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length) {
+        Memory page = ScratchBuffer.get().page;
+
+        this.readDirect(address, page, length);
+        page.read(0, buffer, offset, length);
+    }
+
+    /**
+     * Reads an arbitrary amount of data from process memory into a native buffer while bypassing
+     * any active frame.
+     */
+    private void readDirect(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        this.validateAccess();
+
+        if (!this.metrics.isEnabled()) {
+            this.readMemory(address, buffer, length);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            this.readMemory(address, buffer, length);
+        } catch (ProcessMemoryReadException ex) {
+            this.metrics.recordReadFailure(address, System.nanoTime() - start);
+            throw ex;
+        }
+
+        this.metrics.recordRead(address, length, System.nanoTime() - start);
+    }
+
+    /**
+     * Records a read which has been served from the active frame.
+     */
+    private void recordCachedRead(@Nonnegative int length) {
+        if (this.metrics.isEnabled()) {
+            this.metrics.recordCachedRead(length);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        this.validateAccess();
+
+        if (!this.metrics.isEnabled()) {
+            this.writeMemory(address, buffer, length);
+        } else {
+            long start = System.nanoTime();
+
+            try {
+                this.writeMemory(address, buffer, length);
+            } catch (ProcessMemoryWriteException ex) {
+                this.metrics.recordWriteFailure(address, System.nanoTime() - start);
+                throw ex;
+            }
+
+            this.metrics.recordWrite(address, length, System.nanoTime() - start);
+        }
+
+        MemoryFrame frame = this.frame.get();
+
+        if (frame.isActive()) {
+            frame.update(address, buffer, length);
+        }
+    }
+
+    /**
+     * Represents an interned pointer along with the path it has been interned with.
+     *
+     * Pointers are referenced weakly in order to permit paths which are no longer in use to be
+     * released (e.g. when paths are resolved dynamically).
+     */
+    private static final class PointerReference extends WeakReference<ProcessMemoryPointer> {
+        private final PointerPath path;
+
+        PointerReference(@Nonnull PointerPath path, @Nonnull ProcessMemoryPointer pointer, @Nonnull ReferenceQueue<ProcessMemoryPointer> queue) {
+            super(pointer, queue);
+            this.path = path;
+        }
+    }
+
+    /**
+     * Represents a region map along with the time of its construction.
+     */
+    private static final class RegionIndex {
+        private final MemoryRegionMap map;
+        private final long timestamp = System.nanoTime();
+
+        RegionIndex(@Nonnull MemoryRegionMap map) {
+            this.map = map;
+        }
+    }
+
+    /**
+     * Provides a batch implementation which passes all coalesced ranges to the process at once.
+     */
+    private final class Batch extends AbstractProcessMemoryBatch {
+
+        Batch() {
+            super(AbstractProcess.this);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void read(@Nonnegative long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length) {
+            AbstractProcess.this.read(address, buffer, offset, length);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void read(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull byte[] buffer) {
+            AbstractProcess.this.read(addresses, lengths, count, buffer);
+        }
+    }
+}
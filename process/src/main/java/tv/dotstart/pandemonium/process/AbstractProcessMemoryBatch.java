@@ -0,0 +1,438 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import com.sun.jna.Native;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Provides a base implementation for memory batches which takes care of coalescing the scheduled
+ * reads into as few address ranges as possible.
+ *
+ * Implementations are only required to provide a method of reading a contiguous range of process
+ * memory into a local buffer.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+public abstract class AbstractProcessMemoryBatch implements ProcessMemoryBatch {
+
+    /**
+     * Defines the page size which is assumed when deciding whether two ranges may be merged
+     * despite a gap between them.
+     */
+    public static final int PAGE_SIZE = 4096;
+
+    /**
+     * Defines the maximum amount of unrequested bytes which are read in order to merge two
+     * neighbouring ranges.
+     *
+     * Gaps are only ever bridged within a single page as both ranges are known to be readable and
+     * thus the bytes between them are guaranteed to be mapped as well.
+     */
+    public static final int MAXIMUM_GAP = 64;
+
+    private final Process process;
+    private final List<Element> elements = new ArrayList<>();
+
+    protected AbstractProcessMemoryBatch(@Nonnull Process process) {
+        this.process = process;
+    }
+
+    /**
+     * Reads a contiguous range of process memory into the supplied buffer.
+     *
+     * @param address an absolute address within the process address space.
+     * @param buffer  a target buffer.
+     * @param offset  an offset within the target buffer.
+     * @param length  the amount of bytes to read.
+     */
+    protected abstract void read(@Nonnegative long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length);
+
+    /**
+     * Reads a set of contiguous ranges of process memory into the supplied buffer.
+     *
+     * The ranges are sorted by address and are written to the buffer back to back. Implementations
+     * which are capable of reading multiple ranges through a single call to the operating system
+     * (e.g. using vectored I/O) are expected to override this method while the default
+     * implementation reads each range separately.
+     *
+     * @param addresses an array of absolute addresses.
+     * @param lengths   an array of range lengths.
+     * @param count     the amount of ranges to read.
+     * @param buffer    a target buffer.
+     */
+    protected void read(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull byte[] buffer) {
+        int position = 0;
+
+        for (int i = 0; i < count; ++i) {
+            this.read(addresses[i], buffer, position, lengths[i]);
+            position += lengths[i];
+        }
+    }
+
+    /**
+     * Appends a new read to this batch.
+     */
+    @Nonnull
+    private ProcessMemoryBatch append(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnull Type type, @Nonnegative int length) {
+        if (pointer.getProcess() != this.process) {
+            throw new IllegalArgumentException("Pointer does not belong to the batch process");
+        }
+
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length must be greater than zero");
+        }
+
+        this.elements.add(new Element(pointer, offset, type, length));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readByte(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset) {
+        return this.append(pointer, offset, Type.BYTE, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readByteArray(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnegative int length) {
+        return this.append(pointer, offset, Type.BYTE_ARRAY, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readDouble(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset) {
+        return this.append(pointer, offset, Type.DOUBLE, 8);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readFloat(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset) {
+        return this.append(pointer, offset, Type.FLOAT, 4);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readInteger(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset) {
+        return this.append(pointer, offset, Type.INTEGER, 4);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readLong(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset) {
+        return this.append(pointer, offset, Type.LONG, 8);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readShort(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset) {
+        return this.append(pointer, offset, Type.SHORT, 2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryBatch readString(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnegative int maxLength) {
+        return this.append(pointer, offset, Type.STRING, maxLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.elements.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Result execute() {
+        int count = this.elements.size();
+        Element[] elements = this.elements.toArray(new Element[count]);
+
+        // resolve all pointers to their absolute addresses first since deep pointers may require
+        // their own reads and we'll need the final addresses in order to figure out which ranges
+        // may be merged
+        long[] addresses = new long[count];
+
+        for (int i = 0; i < count; ++i) {
+            addresses[i] = elements[i].pointer.getAddress(elements[i].offset);
+        }
+
+        Integer[] order = new Integer[count];
+
+        for (int i = 0; i < count; ++i) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, Comparator.comparingLong((i) -> addresses[i]));
+
+        // walk the sorted elements and merge them into ranges as long as they overlap, touch or
+        // are separated by a small gap within the same page
+        long[] rangeStarts = new long[count];
+        int[] rangeLengths = new int[count];
+        int[] positions = new int[count];
+        int rangeCount = 0;
+        int bufferLength = 0;
+
+        long rangeStart = 0;
+        long rangeEnd = 0;
+        int rangePosition = 0;
+
+        for (int i = 0; i < count; ++i) {
+            int index = order[i];
+            long start = addresses[index];
+            long end = start + elements[index].length;
+
+            if (i != 0 && (start <= rangeEnd || (start - rangeEnd <= MAXIMUM_GAP && (rangeEnd - 1) / PAGE_SIZE == start / PAGE_SIZE))) {
+                rangeEnd = Math.max(rangeEnd, end);
+            } else {
+                if (i != 0) {
+                    rangeStarts[rangeCount] = rangeStart;
+                    rangeLengths[rangeCount++] = (int) (rangeEnd - rangeStart);
+                    bufferLength += (int) (rangeEnd - rangeStart);
+                }
+
+                rangeStart = start;
+                rangeEnd = end;
+                rangePosition = bufferLength;
+            }
+
+            positions[index] = rangePosition + (int) (start - rangeStart);
+        }
+
+        if (count != 0) {
+            rangeStarts[rangeCount] = rangeStart;
+            rangeLengths[rangeCount++] = (int) (rangeEnd - rangeStart);
+            bufferLength += (int) (rangeEnd - rangeStart);
+        }
+
+        // read all ranges into a single buffer which backs the result
+        byte[] buffer = new byte[bufferLength];
+
+        if (rangeCount != 0) {
+            this.read(rangeStarts, rangeLengths, rangeCount, buffer);
+        }
+
+        Type[] types = new Type[count];
+        int[] lengths = new int[count];
+
+        for (int i = 0; i < count; ++i) {
+            types[i] = elements[i].type;
+            lengths[i] = elements[i].length;
+        }
+
+        return new ResultImpl(buffer, types, positions, lengths);
+    }
+
+    /**
+     * Retrieves the process this batch reads from.
+     */
+    @Nonnull
+    protected Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Provides a list of supported element types.
+     */
+    private enum Type {
+        BYTE,
+        BYTE_ARRAY,
+        DOUBLE,
+        FLOAT,
+        INTEGER,
+        LONG,
+        SHORT,
+        STRING
+    }
+
+    /**
+     * Represents a single scheduled read.
+     */
+    private static final class Element {
+        private final ProcessMemoryPointer pointer;
+        private final long offset;
+        private final Type type;
+        private final int length;
+
+        Element(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnull Type type, @Nonnegative int length) {
+            this.pointer = pointer;
+            this.offset = offset;
+            this.type = type;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Provides a result implementation which decodes values from a shared buffer.
+     */
+    private static final class ResultImpl implements Result {
+        private final ByteBuffer buffer;
+        private final Type[] types;
+        private final int[] positions;
+        private final int[] lengths;
+
+        ResultImpl(@Nonnull byte[] buffer, @Nonnull Type[] types, @Nonnull int[] positions, @Nonnull int[] lengths) {
+            this.buffer = ByteBuffer.wrap(buffer).order(ByteOrder.nativeOrder());
+            this.types = types;
+            this.positions = positions;
+            this.lengths = lengths;
+        }
+
+        /**
+         * Retrieves the buffer position of an element after verifying its type.
+         */
+        @Nonnegative
+        private int position(@Nonnegative int index, @Nonnull Type type) {
+            if (index < 0 || index >= this.types.length) {
+                throw new IndexOutOfBoundsException("No such element: " + index);
+            }
+
+            if (this.types[index] != type) {
+                throw new IllegalArgumentException("Element #" + index + " is of type " + this.types[index] + " but " + type + " was requested");
+            }
+
+            return this.positions[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public byte getByte(@Nonnegative int index) {
+            return this.buffer.get(this.position(index, Type.BYTE));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public byte[] getByteArray(@Nonnegative int index) {
+            int position = this.position(index, Type.BYTE_ARRAY);
+            return Arrays.copyOfRange(this.buffer.array(), position, position + this.lengths[index]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double getDouble(@Nonnegative int index) {
+            return this.buffer.getDouble(this.position(index, Type.DOUBLE));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public float getFloat(@Nonnegative int index) {
+            return this.buffer.getFloat(this.position(index, Type.FLOAT));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getInteger(@Nonnegative int index) {
+            return this.buffer.getInt(this.position(index, Type.INTEGER));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getLong(@Nonnegative int index) {
+            return this.buffer.getLong(this.position(index, Type.LONG));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public short getShort(@Nonnegative int index) {
+            return this.buffer.getShort(this.position(index, Type.SHORT));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public String getString(@Nonnegative int index) {
+            int position = this.position(index, Type.STRING);
+            byte[] array = this.buffer.array();
+
+            int length = 0;
+            while (length < this.lengths[index] && array[position + length] != 0) {
+                ++length;
+            }
+
+            try {
+                return new String(array, position, length, Native.getDefaultStringEncoding());
+            } catch (UnsupportedEncodingException ex) {
+                throw new IllegalStateException("Native string encoding is unsupported: " + ex.getMessage(), ex);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return this.types.length;
+        }
+    }
+}
@@ -0,0 +1,749 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+import tv.dotstart.pandemonium.process.metrics.MemoryCounters;
+import tv.dotstart.pandemonium.process.metrics.ProcessMetrics;
+import tv.dotstart.pandemonium.process.structure.StructureAccessor;
+
+/**
+ * Provides a base implementation for memory pointers which accesses process memory through the
+ * primitives provided by {@link AbstractProcess}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public abstract class AbstractProcessMemoryPointer implements ProcessMemoryPointer {
+
+    /**
+     * Defines the minimum amount of bytes which are read at once while locating the terminator of
+     * a string.
+     */
+    private static final int STRING_CHUNK_SIZE = 64;
+
+    /**
+     * Defines the charset which strings are decoded with (this matches the charset JNA encodes
+     * strings with when they are written).
+     */
+    private static final Charset STRING_CHARSET = Charset.forName(Native.getDefaultStringEncoding());
+
+    private final AbstractProcess process;
+    private final ProcessModule module;
+    private final long baseAddress;
+    private final long[] offsets;
+    private volatile Resolution resolution;
+    private volatile MemoryCounters counters;
+    private volatile StringValue string;
+
+    protected AbstractProcessMemoryPointer(@Nonnull AbstractProcess process, @Nonnull ProcessModule module, long baseAddress, @Nonnull long[] offsets) {
+        this.process = process;
+        this.module = module;
+        this.baseAddress = baseAddress;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Creates a new pointer of the same type within the same process and module.
+     *
+     * @param baseAddress an absolute base address.
+     * @param offsets     an array of deep pointer offsets.
+     */
+    @Nonnull
+    protected abstract AbstractProcessMemoryPointer createPointer(long baseAddress, @Nonnull long[] offsets);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getAddress(@Nonnegative long offset) {
+        return this.resolveAddress(offset);
+    }
+
+    /**
+     * Retrieves the base address of this pointer (e.g. the address of the first pointer within the
+     * chain of a deep pointer).
+     */
+    public long getBaseAddress() {
+        return this.baseAddress;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessModule getModule() {
+        return this.module;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public AbstractProcess getProcess() {
+        return this.process;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDeep() {
+        return this.offsets.length != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer pointer(@Nonnegative long offset, @Nonnegative long... offsets) {
+        // the offset applies to the address this pointer resolves to and thus needs to be added to
+        // the last offset of a deep pointer rather than its base address
+        long[] combined = PointerPath.combineOffsets(this.offsets, offset, offsets);
+
+        return this.createPointer(this.offsets.length == 0 ? this.baseAddress + offset : this.baseAddress, combined);
+    }
+
+    /**
+     * Reads an arbitrary amount of data from process memory.
+     */
+    @Nonnull
+    public Memory read(@Nonnegative long offset, @Nonnegative int length) {
+        Memory memory = new Memory(length);
+        this.readFrom(this.resolveAddress(offset), memory, length);
+
+        return memory;
+    }
+
+    /**
+     * Reads a range of process memory into a native buffer while recording the operation within
+     * the counters of this pointer (if enabled).
+     */
+    private void readFrom(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        MemoryCounters counters = this.getCounters();
+
+        if (counters == null) {
+            this.process.read(address, buffer, length);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            this.process.read(address, buffer, length);
+        } catch (ProcessMemoryException ex) {
+            counters.recordReadFailure(System.nanoTime() - start);
+            throw ex;
+        }
+
+        counters.recordRead(length, System.nanoTime() - start);
+    }
+
+    /**
+     * Reads a range of process memory into a heap buffer while recording the operation within the
+     * counters of this pointer (if enabled).
+     */
+    private void readFrom(long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length) {
+        MemoryCounters counters = this.getCounters();
+
+        if (counters == null) {
+            this.process.read(address, buffer, offset, length);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            this.process.read(address, buffer, offset, length);
+        } catch (ProcessMemoryException ex) {
+            counters.recordReadFailure(System.nanoTime() - start);
+            throw ex;
+        }
+
+        counters.recordRead(length, System.nanoTime() - start);
+    }
+
+    /**
+     * Writes a range of process memory while recording the operation within the counters of this
+     * pointer (if enabled).
+     */
+    private void writeTo(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        MemoryCounters counters = this.getCounters();
+
+        if (counters == null) {
+            this.process.write(address, buffer, length);
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            this.process.write(address, buffer, length);
+        } catch (ProcessMemoryException ex) {
+            counters.recordWriteFailure(System.nanoTime() - start);
+            throw ex;
+        }
+
+        counters.recordWrite(length, System.nanoTime() - start);
+    }
+
+    /**
+     * Retrieves the counters which the I/O of this pointer is attributed to.
+     *
+     * @return a set of counters or null if metrics are disabled.
+     */
+    @Nullable
+    private MemoryCounters getCounters() {
+        ProcessMetrics metrics = this.process.getMetrics();
+
+        if (!metrics.isEnabled()) {
+            return null;
+        }
+
+        MemoryCounters counters = this.counters;
+
+        if (counters == null) {
+            counters = this.createCounters(metrics);
+            this.counters = counters;
+        }
+
+        return counters;
+    }
+
+    /**
+     * Looks up the counters of the path of this pointer.
+     */
+    @Nonnull
+    private MemoryCounters createCounters(@Nonnull ProcessMetrics metrics) {
+        String moduleName = this.module.getName();
+        long moduleOffset;
+
+        try {
+            moduleOffset = this.baseAddress - this.module.pointer(0).getAddress(0);
+        } catch (ProcessMemoryException ex) {
+            return metrics.getModuleCounters(moduleName);
+        }
+
+        // pointers which have been created from an absolute address (e.g. the value of another
+        // pointer) typically reside outside of the module image and have no meaningful path
+        if (moduleOffset < 0 || moduleOffset >= this.module.getSize()) {
+            return metrics.getModuleCounters(moduleName);
+        }
+
+        return metrics.getPathCounters(PointerPath.of(moduleName, moduleOffset, this.offsets));
+    }
+
+    /**
+     * Reads a small amount of data from process memory into the scratch buffer of the calling
+     * thread.
+     *
+     * The returned buffer is only valid until the next read is performed on the same thread and
+     * should thus be decoded immediately.
+     */
+    @Nonnull
+    private Memory readScratch(@Nonnegative long offset, @Nonnegative int length) {
+        Memory memory = ScratchBuffer.get().memory;
+
+        try {
+            this.readFrom(this.resolveAddress(offset), memory, length);
+        } catch (ProcessMemoryReadException ex) {
+            // the cached address may have been freed by the game in the meantime so we'll make
+            // sure to resolve the chain again on the next access
+            this.resolution = null;
+            throw ex;
+        }
+
+        return memory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte readByte(@Nonnegative long offset) {
+        return this.readScratch(offset, 1).getByte(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer readByteArray(@Nonnegative long offset, @Nonnull byte[] array, @Nonnegative int arrayOffset, @Nonnegative int arrayLength) {
+        if (arrayLength <= ScratchBuffer.SIZE) {
+            this.readScratch(offset, arrayLength).read(0, array, arrayOffset, arrayLength);
+        } else {
+            this.readFrom(this.resolveAddress(offset), array, arrayOffset, arrayLength);
+        }
+
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer readByteBuffer(@Nonnegative long offset, @Nonnull ByteBuffer buffer, @Nonnegative int bufferOffset, @Nonnegative int bufferLength) {
+        if (bufferOffset + bufferLength > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Buffer too small: Expected at least " + (bufferOffset + bufferLength) + " bytes but got " + buffer.limit());
+        }
+
+        // direct buffers may be passed to the operating system as is while heap buffers are
+        // filled through their backing array (if any) in order to skip intermediate copies
+        if (buffer.isDirect()) {
+            this.readFrom(this.resolveAddress(offset), Native.getDirectBufferPointer(buffer).share(bufferOffset), bufferLength);
+        } else if (buffer.hasArray()) {
+            this.readByteArray(offset, buffer.array(), buffer.arrayOffset() + bufferOffset, bufferLength);
+        } else {
+            byte[] array = new byte[bufferLength];
+            this.readByteArray(offset, array);
+
+            buffer.position(bufferOffset);
+            buffer.put(array, 0, array.length);
+        }
+
+        buffer.position(bufferOffset + bufferLength);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double readDouble(@Nonnegative long offset) {
+        return this.readScratch(offset, 8).getDouble(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float readFloat(@Nonnegative long offset) {
+        return this.readScratch(offset, 4).getFloat(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int readInteger(@Nonnegative long offset) {
+        return this.readScratch(offset, 4).getInt(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readLong(@Nonnegative long offset) {
+        return this.readScratch(offset, 8).getLong(0);
+    }
+
+    /**
+     * Reads a pointer value from the target address while respecting the target process
+     * architecture.
+     */
+    private long readPointerValue(long address) {
+        Memory memory = ScratchBuffer.get().memory;
+
+        if (this.process.is64Bit()) {
+            this.readFrom(address, memory, 8);
+            return memory.getLong(0);
+        }
+
+        this.readFrom(address, memory, 4);
+        return memory.getInt(0) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer readPointerAddress(@Nonnegative long offset) {
+        return this.createPointer(this.readPointerValue(this.resolveAddress(offset)), new long[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short readShort(@Nonnegative long offset) {
+        return this.readScratch(offset, 2).getShort(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String readString(@Nonnegative long offset, @Nonnegative int maxLength) {
+        long address = this.resolveAddress(offset);
+        StringValue previous = this.string;
+
+        if (previous != null && previous.offset != offset) {
+            previous = null;
+        }
+
+        // strings are read in chunks until their terminator has been located (chunks never cross
+        // a page boundary in order to avoid failing on strings which end close to an unmapped
+        // page) while the first chunk is sized to include the terminator of the previous value
+        byte[] buffer = ScratchBuffer.get().getString(maxLength);
+        int expected = previous != null ? previous.raw.length + 1 : STRING_CHUNK_SIZE;
+        int length = 0;
+        int terminator = -1;
+
+        while (terminator == -1 && length < maxLength) {
+            int chunkLength = Math.min(maxLength - length, Math.max(STRING_CHUNK_SIZE, expected - length));
+            chunkLength = (int) Math.min(chunkLength, MemoryFrame.PAGE_SIZE - ((address + length) & (MemoryFrame.PAGE_SIZE - 1)));
+
+            try {
+                this.readFrom(address + length, buffer, length, chunkLength);
+            } catch (ProcessMemoryReadException ex) {
+                this.resolution = null;
+                throw ex;
+            }
+
+            for (int i = length; i < length + chunkLength; ++i) {
+                if (buffer[i] == 0) {
+                    terminator = i;
+                    break;
+                }
+            }
+
+            length += chunkLength;
+        }
+
+        // strings which lack a terminator within their maximum length are truncated
+        length = terminator == -1 ? maxLength : terminator;
+
+        if (previous != null && previous.matches(buffer, length)) {
+            return previous.value;
+        }
+
+        String value = new String(buffer, 0, length, STRING_CHARSET);
+        this.string = new StringValue(offset, Arrays.copyOf(buffer, length), value);
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public <S extends Structure> S readStructure(@Nonnegative long offset, @Nonnegative Class<S> type) {
+        StructureAccessor<S> accessor;
+
+        try {
+            accessor = StructureAccessor.of(type);
+        } catch (IllegalArgumentException ex) {
+            throw new ProcessMemoryReadException("Cannot read structure: " + ex.getMessage(), ex);
+        }
+
+        return accessor.read(this.process, this.resolveAddress(offset));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends Structure> S readStructure(@Nonnegative long offset, @Nonnull S structure) {
+        StructureAccessor<S> accessor;
+
+        try {
+            accessor = StructureAccessor.of((Class<S>) structure.getClass());
+        } catch (IllegalArgumentException ex) {
+            throw new ProcessMemoryReadException("Cannot read structure: " + ex.getMessage(), ex);
+        }
+
+        return accessor.read(this.process, this.resolveAddress(offset), structure);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short readUnsignedByte(@Nonnegative long offset) {
+        return (short) (this.readScratch(offset, 1).getByte(0) & 0xFF);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readUnsignedInteger(@Nonnegative long offset) {
+        return this.readScratch(offset, 4).getInt(0) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int readUnsignedShort(@Nonnegative long offset) {
+        return this.readScratch(offset, 2).getShort(0) & 0xFFFF;
+    }
+
+    /**
+     * Resolves a pointer within this address space.
+     */
+    @Nonnull
+    public Pointer resolvePointer(@Nonnegative long offset) {
+        return new Pointer(this.resolveAddress(offset));
+    }
+
+    /**
+     * Resolves an absolute address within this address space.
+     */
+    private long resolveAddress(@Nonnegative long offset) {
+        if (this.offsets.length == 0) {
+            return this.baseAddress + offset;
+        }
+
+        // deep pointers are resolved once per pointer generation (and optionally timeout) since
+        // walking their chain requires one read per level
+        long generation = this.process.getPointerGeneration();
+        long timeout = this.process.pointerCacheTimeout;
+        Resolution resolution = this.resolution;
+
+        if (timeout != 0 && resolution != null && resolution.generation == generation && (timeout < 0 || System.nanoTime() - resolution.timestamp < timeout)) {
+            return resolution.address + offset;
+        }
+
+        long address = this.baseAddress;
+
+        for (long deepOffset : this.offsets) {
+            address = this.readPointerValue(address) + deepOffset;
+        }
+
+        if (timeout != 0) {
+            this.resolution = new Resolution(address, generation, System.nanoTime());
+        }
+
+        return address + offset;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer resolve(@Nonnegative long offset) {
+        return this.createPointer(this.resolveAddress(offset), new long[0]);
+    }
+
+    /**
+     * Writes an arbitrary value into memory.
+     */
+    @Nonnull
+    public AbstractProcessMemoryPointer write(@Nonnegative long offset, @Nonnegative int length, @Nonnull Pointer sourcePointer) {
+        try {
+            this.writeTo(this.resolveAddress(offset), sourcePointer, length);
+        } catch (ProcessMemoryWriteException ex) {
+            this.resolution = null;
+            throw ex;
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes an arbitrary value into memory.
+     */
+    @Nonnull
+    public AbstractProcessMemoryPointer write(@Nonnegative long offset, @Nonnegative int length, @Nonnull Consumer<Memory> writer) {
+        Memory memory = new Memory(length);
+        writer.accept(memory);
+
+        return this.write(offset, length, memory);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeByte(@Nonnegative long offset, short value) {
+        return this.write(offset, 1, (m) -> m.setByte(0, (byte) value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeByteArray(@Nonnegative long offset, @Nonnull byte[] array, @Nonnegative int arrayOffset, @Nonnegative int arrayLength) {
+        return this.write(offset, arrayLength, (m) -> m.write(0, array, arrayOffset, arrayLength));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeByteBuffer(@Nonnegative long offset, @Nonnull ByteBuffer buffer, @Nonnegative int bufferOffset, @Nonnegative int bufferLength) {
+        buffer.position(bufferOffset);
+
+        // since non-direct buffers are located on the heap we cannot actually refer to them in the
+        // context of OS calls so we'll just convert them into an array of bytes and write the data
+        // directly
+        if (!buffer.isDirect()) {
+            byte[] data = new byte[bufferLength];
+            buffer.get(data);
+
+            return this.writeByteArray(offset, data);
+        }
+
+        // direct buffers are located off-heap in a dedicated memory area which we can easily
+        // provide a pointer to and thus we'll just pass a pointer to the backing API as if we
+        // allocated this memory specifically for this task
+        // FIXME: Evaluate whether buffer positions affect this process as expected
+        return this.write(offset, bufferLength, Native.getDirectBufferPointer(buffer));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeDouble(@Nonnegative long offset, double value) {
+        return this.write(offset, 8, (m) -> m.setDouble(0, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeFloat(@Nonnegative long offset, float value) {
+        return this.write(offset, 4, (m) -> m.setFloat(0, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeInteger(@Nonnegative long offset, long value) {
+        return this.write(offset, 4, (m) -> m.setInt(0, (int) value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeLong(@Nonnegative long offset, long value) {
+        return this.write(offset, 8, (m) -> m.setLong(0, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeShort(@Nonnegative long offset, int value) {
+        return this.write(offset, 2, (m) -> m.setShort(0, (short) value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeString(@Nonnegative long offset, @Nonnull String value) {
+        return this.write(offset, value.length(), (m) -> m.setString(0, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer writeStructure(@Nonnegative long offset, @Nonnull Structure structure) {
+        structure.write();
+
+        return this.write(offset, Native.getNativeSize(structure.getClass()), structure.getPointer());
+    }
+
+    /**
+     * Represents the most recent value of a string read (along with its raw representation).
+     */
+    private static final class StringValue {
+        private final long offset;
+        private final byte[] raw;
+        private final String value;
+
+        StringValue(long offset, @Nonnull byte[] raw, @Nonnull String value) {
+            this.offset = offset;
+            this.raw = raw;
+            this.value = value;
+        }
+
+        /**
+         * Checks whether the supplied raw string is equal to the raw representation of this
+         * value.
+         */
+        boolean matches(@Nonnull byte[] buffer, @Nonnegative int length) {
+            if (this.raw.length != length) {
+                return false;
+            }
+
+            for (int i = 0; i < length; ++i) {
+                if (this.raw[i] != buffer[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Represents a cached deep pointer resolution.
+     */
+    private static final class Resolution {
+        private final long address;
+        private final long generation;
+        private final long timestamp;
+
+        Resolution(long address, long generation, long timestamp) {
+            this.address = address;
+            this.generation = generation;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import com.sun.jna.Pointer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+
+/**
+ * Provides a page cache which serves all reads within a logical tick (a "frame") from local
+ * memory.
+ *
+ * Each page is read from the process once when it is first accessed within a frame and is kept
+ * until the outermost frame ends. As a result, all reads within a frame observe a coherent
+ * snapshot of the respective pages and neighbouring reads collapse into a single call to the
+ * operating system.
+ *
+ * Frames are confined to a single thread and may be nested (e.g. a state mapper may begin its own
+ * frame while the application is already within one).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+public final class MemoryFrame {
+
+    /**
+     * Defines the size of a single cached page.
+     */
+    public static final int PAGE_SIZE = 4096;
+    private static final int PAGE_SHIFT = 12;
+
+    private static final long EMPTY = -1;
+    private static final int UNREADABLE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final PageReader reader;
+    private final List<byte[]> pages = new ArrayList<>();
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int size;
+    private int pageCount;
+    private int depth;
+
+    public MemoryFrame(@Nonnull PageReader reader) {
+        this.reader = reader;
+        Arrays.fill(this.keys, EMPTY);
+    }
+
+    /**
+     * Begins a new (potentially nested) frame.
+     */
+    public void begin() {
+        ++this.depth;
+    }
+
+    /**
+     * Ends the current frame and discards all cached pages if it was the outermost frame.
+     *
+     * @return true if the outermost frame has ended, false otherwise.
+     * @throws IllegalStateException when no frame is active.
+     */
+    public boolean end() {
+        if (this.depth == 0) {
+            throw new IllegalStateException("No active frame");
+        }
+
+        if (--this.depth != 0) {
+            return false;
+        }
+
+        // pages are kept around in order to be reused by the next frame while their mappings are
+        // discarded so that their contents are fetched again
+        Arrays.fill(this.keys, EMPTY);
+        this.size = 0;
+        this.pageCount = 0;
+        return true;
+    }
+
+    /**
+     * Checks whether a frame is currently active.
+     */
+    public boolean isActive() {
+        return this.depth != 0;
+    }
+
+    /**
+     * Copies a range of process memory into a native buffer.
+     *
+     * @return true if the range was served from the cache, false if one or more pages within the
+     * range are unreadable and the caller is expected to fall back to a regular read.
+     */
+    public boolean read(long address, @Nonnull Pointer target, @Nonnegative int length) {
+        if (!this.isAvailable(address, length)) {
+            return false;
+        }
+
+        int position = 0;
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+
+            target.write(position, this.pages.get(this.slots[this.find(current >>> PAGE_SHIFT)]), pageOffset, amount);
+            position += amount;
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies a range of process memory into a heap buffer.
+     *
+     * @return true if the range was served from the cache, false if one or more pages within the
+     * range are unreadable and the caller is expected to fall back to a regular read.
+     */
+    public boolean read(long address, @Nonnull byte[] target, @Nonnegative int offset, @Nonnegative int length) {
+        if (!this.isAvailable(address, length)) {
+            return false;
+        }
+
+        int position = 0;
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+
+            System.arraycopy(this.pages.get(this.slots[this.find(current >>> PAGE_SHIFT)]), pageOffset, target, offset + position, amount);
+            position += amount;
+        }
+
+        return true;
+    }
+
+    /**
+     * Updates all cached pages which overlap with a range that has been written to in order to
+     * keep the frame consistent with the process memory.
+     */
+    public void update(long address, @Nonnull Pointer source, @Nonnegative int length) {
+        int position = 0;
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+
+            int index = this.find(current >>> PAGE_SHIFT);
+            if (this.keys[index] != EMPTY && this.slots[index] != UNREADABLE) {
+                source.read(position, this.pages.get(this.slots[index]), pageOffset, amount);
+            }
+
+            position += amount;
+        }
+    }
+
+    /**
+     * Ensures that all pages within the supplied range have been loaded.
+     *
+     * @return true if all pages are readable, false otherwise.
+     */
+    private boolean isAvailable(long address, @Nonnegative int length) {
+        long firstPage = address >>> PAGE_SHIFT;
+        long lastPage = (address + length - 1) >>> PAGE_SHIFT;
+
+        for (long page = firstPage; page <= lastPage; ++page) {
+            int index = this.find(page);
+
+            if (this.keys[index] == EMPTY) {
+                index = this.load(page, index);
+            }
+
+            if (this.slots[index] == UNREADABLE) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Locates the table index of a page or the index at which it is to be inserted.
+     */
+    private int find(long page) {
+        int mask = this.keys.length - 1;
+        int index = (int) (page ^ (page >>> 32)) * 0x9E3779B9 & mask;
+
+        while (this.keys[index] != EMPTY && this.keys[index] != page) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    /**
+     * Loads a page from process memory and stores it within the table.
+     *
+     * @return the table index of the page.
+     */
+    private int load(long page, int index) {
+        int slot;
+
+        if (this.pageCount == this.pages.size()) {
+            this.pages.add(new byte[PAGE_SIZE]);
+        }
+
+        try {
+            this.reader.read(page << PAGE_SHIFT, this.pages.get(this.pageCount), 0, PAGE_SIZE);
+            slot = this.pageCount++;
+        } catch (ProcessMemoryReadException ex) {
+            slot = UNREADABLE;
+        }
+
+        this.keys[index] = page;
+        this.slots[index] = slot;
+
+        if (++this.size * 2 > this.keys.length) {
+            this.grow();
+            return this.find(page);
+        }
+
+        return index;
+    }
+
+    /**
+     * Doubles the capacity of the page table.
+     */
+    private void grow() {
+        long[] keys = this.keys;
+        int[] slots = this.slots;
+
+        this.keys = new long[keys.length * 2];
+        this.slots = new int[slots.length * 2];
+        Arrays.fill(this.keys, EMPTY);
+
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] != EMPTY) {
+                int index = this.find(keys[i]);
+
+                this.keys[index] = keys[i];
+                this.slots[index] = slots[i];
+            }
+        }
+    }
+
+    /**
+     * Provides a method of reading whole pages from process memory.
+     */
+    @FunctionalInterface
+    public interface PageReader {
+
+        /**
+         * Reads a range of process memory into the supplied buffer.
+         *
+         * @throws ProcessMemoryReadException when the range is not readable.
+         */
+        void read(long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length);
+    }
+}
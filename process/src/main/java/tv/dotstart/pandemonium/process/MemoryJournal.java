@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import com.sun.jna.Memory;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+
+/**
+ * Stores the original contents of all ranges which have been modified by a committed
+ * {@link MemoryTransaction}.
+ *
+ * Journals are typically kept around for the lifetime of a modification (such as an effect) and
+ * are used to restore the previous state of the process memory once it is no longer desired.
+ *
+ * The original contents are restored to the ranges the transaction has written to as long as the
+ * pointer generation of the process remains unchanged. Once the generation has advanced (e.g.
+ * because the game has loaded a new map and re-allocated its data structures), the pointers of
+ * the transaction are resolved again and the original contents of each write are restored
+ * through their respective pointer instead.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+public final class MemoryJournal {
+
+    private final Process process;
+    private final long generation;
+    private final long[] addresses;
+    private final int[] lengths;
+    private final int count;
+    private final Memory original;
+
+    // individual writes
+    private final ProcessMemoryPointer[] pointers;
+    private final long[] pointerOffsets;
+    private final long[] positions;
+    private final int[] writeLengths;
+
+    private boolean reverted;
+
+    /**
+     * @param generation     the pointer generation the ranges have been resolved in.
+     * @param addresses      the start addresses of all coalesced ranges.
+     * @param lengths        the lengths of all coalesced ranges.
+     * @param count          the amount of coalesced ranges.
+     * @param original       the original contents of all coalesced ranges (in order).
+     * @param pointers       the pointers of all individual writes.
+     * @param pointerOffsets the offsets of all individual writes relative to their pointer.
+     * @param positions      the positions of the original contents of all individual writes
+     *                       within the original contents of the coalesced ranges.
+     * @param writeLengths   the lengths of all individual writes.
+     */
+    MemoryJournal(@Nonnull Process process, long generation, @Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nullable Memory original, @Nonnull ProcessMemoryPointer[] pointers, @Nonnull long[] pointerOffsets, @Nonnull long[] positions, @Nonnull int[] writeLengths) {
+        this.process = process;
+        this.generation = generation;
+        this.addresses = addresses;
+        this.lengths = lengths;
+        this.count = count;
+        this.original = original;
+        this.pointers = pointers;
+        this.pointerOffsets = pointerOffsets;
+        this.positions = positions;
+        this.writeLengths = writeLengths;
+    }
+
+    /**
+     * Retrieves the total amount of bytes which have been recorded by this journal.
+     */
+    @Nonnegative
+    public long getLength() {
+        return this.original == null ? 0 : this.original.size();
+    }
+
+    /**
+     * Retrieves the process this journal refers to.
+     */
+    @Nonnull
+    public Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Retrieves the amount of contiguous ranges which have been recorded by this journal.
+     */
+    @Nonnegative
+    public int getRangeCount() {
+        return this.count;
+    }
+
+    /**
+     * Checks whether the recorded ranges have already been restored.
+     */
+    public boolean isReverted() {
+        return this.reverted;
+    }
+
+    /**
+     * Restores the original contents of all recorded ranges.
+     *
+     * Restoring is performed on a best effort basis: When one or more ranges cannot be written,
+     * all remaining ranges are restored regardless and the first failure is passed on to the
+     * caller once all ranges have been processed.
+     *
+     * @throws IllegalStateException       when the journal has already been reverted.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryWriteException when one or more ranges could not be restored.
+     */
+    public void revert() {
+        if (this.reverted) {
+            throw new IllegalStateException("Journal has already been reverted");
+        }
+
+        this.reverted = true;
+
+        // the recorded addresses may refer to memory which has since been released or re-used
+        // once the generation has advanced
+        if (this.process.getPointerGeneration() != this.generation) {
+            this.restoreResolved();
+            return;
+        }
+
+        this.restore(this.count);
+    }
+
+    /**
+     * Restores the original contents of all individual writes through their respective pointers
+     * (in reverse order).
+     *
+     * @throws ProcessMemoryException when one or more writes could not be restored.
+     */
+    private void restoreResolved() {
+        ProcessMemoryException failure = null;
+
+        for (int i = this.pointers.length - 1; i >= 0; --i) {
+            try {
+                long address = this.pointers[i].getAddress(this.pointerOffsets[i]);
+                this.process.write(address, this.original.share(this.positions[i], this.writeLengths[i]), this.writeLengths[i]);
+            } catch (ProcessMemoryException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Restores the first n recorded ranges in reverse order.
+     *
+     * @throws ProcessMemoryException when one or more ranges could not be restored.
+     */
+    void restore(@Nonnegative int n) {
+        ProcessMemoryException failure = null;
+        long position = 0;
+
+        for (int i = 0; i < n; ++i) {
+            position += this.lengths[i];
+        }
+
+        for (int i = n - 1; i >= 0; --i) {
+            position -= this.lengths[i];
+
+            try {
+                this.process.write(this.addresses[i], this.original.share(position, this.lengths[i]), this.lengths[i]);
+            } catch (ProcessMemoryException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Represents a contiguous range of pages within the address space of a process which share the
+ * same protection.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class MemoryRegion {
+    private final long baseAddress;
+    private final long size;
+    private final boolean readable;
+    private final boolean writable;
+    private final boolean executable;
+
+    public MemoryRegion(long baseAddress, @Nonnegative long size, boolean readable, boolean writable, boolean executable) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Region size must be positive but was " + size);
+        }
+
+        this.baseAddress = baseAddress;
+        this.size = size;
+        this.readable = readable;
+        this.writable = writable;
+        this.executable = executable;
+    }
+
+    /**
+     * Checks whether the supplied address is located within this region.
+     */
+    public boolean contains(long address) {
+        return address >= this.baseAddress && address < this.getEndAddress();
+    }
+
+    /**
+     * Retrieves the address of the first byte within this region.
+     */
+    public long getBaseAddress() {
+        return this.baseAddress;
+    }
+
+    /**
+     * Retrieves the address of the first byte past the end of this region.
+     */
+    public long getEndAddress() {
+        return this.baseAddress + this.size;
+    }
+
+    /**
+     * Retrieves the size of this region (in bytes).
+     */
+    @Nonnegative
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this region may be read from.
+     */
+    public boolean isReadable() {
+        return this.readable;
+    }
+
+    /**
+     * Checks whether this region may be written to.
+     */
+    public boolean isWritable() {
+        return this.writable;
+    }
+
+    /**
+     * Checks whether this region may be executed.
+     */
+    public boolean isExecutable() {
+        return this.executable;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+
+        MemoryRegion that = (MemoryRegion) o;
+        return this.baseAddress == that.baseAddress &&
+                this.size == that.size &&
+                this.readable == that.readable &&
+                this.writable == that.writable &&
+                this.executable == that.executable;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.baseAddress, this.size, this.readable, this.writable, this.executable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("MemoryRegion{0x%016X-0x%016X %c%c%c}", this.baseAddress, this.getEndAddress(), this.readable ? 'r' : '-', this.writable ? 'w' : '-', this.executable ? 'x' : '-');
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Provides an index of the memory regions within the address space of a process.
+ *
+ * Regions are kept in a set of arrays which are sorted by their base address and are thus located
+ * with a binary search. Neighbouring regions which share the same protection are merged in order
+ * to permit range checks to be answered with a single lookup in the common case.
+ *
+ * Maps reflect the state of the address space at the time of their construction and are not
+ * updated when the process allocates or releases memory.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class MemoryRegionMap {
+    private static final byte READABLE = 1;
+    private static final byte WRITABLE = 2;
+    private static final byte EXECUTABLE = 4;
+
+    private final long[] starts;
+    private final long[] ends;
+    private final byte[] protections;
+    private final List<MemoryRegion> regions;
+
+    /**
+     * @throws IllegalArgumentException when two or more regions overlap.
+     */
+    public MemoryRegionMap(@Nonnull Collection<MemoryRegion> regions) {
+        MemoryRegion[] sorted = regions.toArray(new MemoryRegion[regions.size()]);
+        Arrays.sort(sorted, Comparator.comparingLong(MemoryRegion::getBaseAddress));
+
+        long[] starts = new long[sorted.length];
+        long[] ends = new long[sorted.length];
+        byte[] protections = new byte[sorted.length];
+        int count = 0;
+
+        for (MemoryRegion region : sorted) {
+            byte protection = (byte) ((region.isReadable() ? READABLE : 0) | (region.isWritable() ? WRITABLE : 0) | (region.isExecutable() ? EXECUTABLE : 0));
+
+            if (count != 0 && region.getBaseAddress() < ends[count - 1]) {
+                throw new IllegalArgumentException("Region " + region + " overlaps with its predecessor");
+            }
+
+            if (count != 0 && region.getBaseAddress() == ends[count - 1] && protections[count - 1] == protection) {
+                ends[count - 1] = region.getEndAddress();
+                continue;
+            }
+
+            starts[count] = region.getBaseAddress();
+            ends[count] = region.getEndAddress();
+            protections[count] = protection;
+            ++count;
+        }
+
+        this.starts = Arrays.copyOf(starts, count);
+        this.ends = Arrays.copyOf(ends, count);
+        this.protections = Arrays.copyOf(protections, count);
+
+        List<MemoryRegion> list = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            list.add(new MemoryRegion(this.starts[i], this.ends[i] - this.starts[i], (this.protections[i] & READABLE) != 0, (this.protections[i] & WRITABLE) != 0, (this.protections[i] & EXECUTABLE) != 0));
+        }
+
+        this.regions = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Retrieves the region which contains the supplied address.
+     */
+    @Nonnull
+    public Optional<MemoryRegion> getRegion(long address) {
+        int index = this.indexOf(address);
+
+        if (index == -1) {
+            return Optional.empty();
+        }
+
+        return Optional.of(this.regions.get(index));
+    }
+
+    /**
+     * Retrieves an immutable list of all regions (in ascending order of their base address).
+     */
+    @Nonnull
+    public List<MemoryRegion> getRegions() {
+        return this.regions;
+    }
+
+    /**
+     * Retrieves the total amount of readable bytes within the address space.
+     */
+    @Nonnegative
+    public long getReadableSize() {
+        long size = 0;
+
+        for (int i = 0; i < this.starts.length; ++i) {
+            if ((this.protections[i] & READABLE) != 0) {
+                size += this.ends[i] - this.starts[i];
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Checks whether the supplied range is located within one or more readable regions in its
+     * entirety.
+     */
+    public boolean isReadable(long address, @Nonnegative int length) {
+        return this.isAccessible(address, length, READABLE);
+    }
+
+    /**
+     * Checks whether the supplied range is located within one or more writable regions in its
+     * entirety.
+     */
+    public boolean isWritable(long address, @Nonnegative int length) {
+        return this.isAccessible(address, length, WRITABLE);
+    }
+
+    /**
+     * Retrieves the amount of regions within this map.
+     */
+    @Nonnegative
+    public int size() {
+        return this.starts.length;
+    }
+
+    /**
+     * Checks whether the supplied range is covered by a contiguous sequence of regions which
+     * grant the supplied access.
+     */
+    private boolean isAccessible(long address, @Nonnegative int length, byte access) {
+        int index = this.indexOf(address);
+
+        if (index == -1) {
+            return false;
+        }
+
+        long end = address + length;
+
+        while ((this.protections[index] & access) != 0) {
+            if (end <= this.ends[index]) {
+                return true;
+            }
+
+            // ranges which span multiple regions are only accessible when their regions are
+            // directly adjacent to one another
+            if (++index == this.starts.length || this.starts[index] != this.ends[index - 1]) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Locates the index of the region which contains the supplied address.
+     *
+     * @return a region index or -1 if the address is not mapped.
+     */
+    private int indexOf(long address) {
+        int low = 0;
+        int high = this.starts.length - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (address < this.starts[middle]) {
+                high = middle - 1;
+            } else if (address >= this.ends[middle]) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,484 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import com.sun.jna.Memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+
+/**
+ * Represents a set of writes which are applied to process memory as a single unit.
+ *
+ * Transactions collect an arbitrary amount of typed writes and apply them once {@link #commit()}
+ * is invoked. At this point all pointers are resolved (before any memory is modified), adjacent or
+ * overlapping ranges are coalesced into as few writes as possible (later writes take precedence
+ * over earlier ones where they overlap) and the original contents of all ranges are recorded with
+ * a single batched read.
+ *
+ * The recorded contents are returned in the form of a {@link MemoryJournal} which may be kept
+ * around in order to restore the previous state at a later time (for instance when an effect is
+ * reverted).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+public final class MemoryTransaction {
+
+    private final Process process;
+    private final List<Write> writes = new ArrayList<>();
+
+    private State state = State.PENDING;
+    private MemoryJournal journal;
+
+    MemoryTransaction(@Nonnull Process process) {
+        this.process = process;
+    }
+
+    /**
+     * Applies all writes to the process memory without recording the original contents of the
+     * modified ranges.
+     *
+     * This method is intended for writes which are never going to be reverted and skips the
+     * batched read of the original contents (as a result, ranges which have been written prior to
+     * a failure are not restored either).
+     *
+     * @throws IllegalStateException       when the transaction has already been committed or rolled
+     *                                     back.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryReadException  when a pointer cannot be resolved.
+     * @throws ProcessMemoryWriteException when writing to the process memory fails.
+     */
+    public void apply() {
+        this.execute(false);
+    }
+
+    /**
+     * Applies all writes to the process memory.
+     *
+     * When one of the coalesced ranges cannot be written, all ranges which have been written up to
+     * this point are restored before the failure is passed on to the caller.
+     *
+     * @return a journal which stores the original contents of all modified ranges.
+     * @throws IllegalStateException       when the transaction has already been committed or rolled
+     *                                     back.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryReadException  when a pointer cannot be resolved or the original
+     *                                     contents of a range cannot be recorded.
+     * @throws ProcessMemoryWriteException when writing to the process memory fails.
+     */
+    @Nonnull
+    public MemoryJournal commit() {
+        return this.execute(true);
+    }
+
+    /**
+     * Resolves, coalesces and writes all registered ranges.
+     *
+     * @param record indicates whether the original contents are to be recorded.
+     * @return a journal or null if recording has been disabled.
+     */
+    @Nullable
+    private MemoryJournal execute(boolean record) {
+        this.verifyPending();
+
+        int n = this.writes.size();
+        long generation = this.process.getPointerGeneration();
+
+        // all pointers are resolved before any of the ranges is touched so that broken pointer
+        // chains abort the transaction without leaving the process in a partially modified state
+        long[] targets = new long[n];
+        Integer[] order = new Integer[n];
+
+        for (int i = 0; i < n; ++i) {
+            Write write = this.writes.get(i);
+
+            targets[i] = write.pointer.getAddress(write.offset);
+            order[i] = i;
+        }
+
+        // the sort is stable and thus ranges which start at the same address retain their order of
+        // registration which permits later writes to override earlier ones below
+        Arrays.sort(order, (a, b) -> Long.compareUnsigned(targets[a], targets[b]));
+
+        long[] addresses = new long[n];
+        int[] lengths = new int[n];
+        int[] ranges = new int[n];
+        int count = 0;
+        long end = 0;
+
+        for (int i = 0; i < n; ++i) {
+            int index = order[i];
+            long address = targets[index];
+            long limit = address + this.writes.get(index).data.length;
+
+            if (count != 0 && Long.compareUnsigned(address, end) <= 0) {
+                if (Long.compareUnsigned(limit, end) > 0) {
+                    end = limit;
+                    lengths[count - 1] = (int) (end - addresses[count - 1]);
+                }
+            } else {
+                addresses[count] = address;
+                lengths[count] = (int) (limit - address);
+                end = limit;
+                ++count;
+            }
+
+            ranges[index] = count - 1;
+        }
+
+        if (count == 0) {
+            this.state = State.COMMITTED;
+            this.journal = record ? new MemoryJournal(this.process, generation, addresses, lengths, 0, null, new ProcessMemoryPointer[0], new long[0], new long[0], new int[0]) : null;
+            return this.journal;
+        }
+
+        long[] offsets = new long[count];
+        long length = 0;
+
+        for (int i = 0; i < count; ++i) {
+            offsets[i] = length;
+            length += lengths[i];
+        }
+
+        // coalesced ranges never contain gaps and are thus fully covered by the registered writes
+        // which means that the original contents are only required for the journal
+        Memory data = new Memory(length);
+        MemoryJournal journal = null;
+
+        if (record) {
+            Memory original = new Memory(length);
+            this.process.read(addresses, lengths, count, original);
+
+            // the original contents of each individual write are retained in order to restore
+            // them through their pointers once the recorded addresses are no longer valid
+            ProcessMemoryPointer[] pointers = new ProcessMemoryPointer[n];
+            long[] pointerOffsets = new long[n];
+            long[] positions = new long[n];
+            int[] writeLengths = new int[n];
+
+            for (int i = 0; i < n; ++i) {
+                Write write = this.writes.get(i);
+
+                pointers[i] = write.pointer;
+                pointerOffsets[i] = write.offset;
+                positions[i] = offsets[ranges[i]] + (targets[i] - addresses[ranges[i]]);
+                writeLengths[i] = write.data.length;
+            }
+
+            journal = new MemoryJournal(this.process, generation, addresses, lengths, count, original, pointers, pointerOffsets, positions, writeLengths);
+        }
+
+        for (int i = 0; i < n; ++i) {
+            Write write = this.writes.get(i);
+            int range = ranges[i];
+
+            data.write(offsets[range] + (targets[i] - addresses[range]), write.data, 0, write.data.length);
+        }
+
+        for (int i = 0; i < count; ++i) {
+            try {
+                this.process.write(addresses[i], data.share(offsets[i], lengths[i]), lengths[i]);
+            } catch (ProcessMemoryException ex) {
+                ProcessMemoryWriteException failure = new ProcessMemoryWriteException("Failed to write range " + (i + 1) + " of " + count + " at 0x" + Long.toHexString(addresses[i]), ex);
+
+                if (journal != null) {
+                    try {
+                        journal.restore(i);
+                    } catch (ProcessMemoryException restoreEx) {
+                        failure.addSuppressed(restoreEx);
+                    }
+                }
+
+                this.state = State.ROLLED_BACK;
+                throw failure;
+            }
+        }
+
+        this.state = State.COMMITTED;
+        this.journal = journal;
+        return journal;
+    }
+
+    /**
+     * Retrieves the process this transaction writes to.
+     */
+    @Nonnull
+    public Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Retrieves the amount of writes which have been registered with this transaction.
+     */
+    @Nonnegative
+    public int getWriteCount() {
+        return this.writes.size();
+    }
+
+    /**
+     * Checks whether this transaction has been committed.
+     */
+    public boolean isCommitted() {
+        return this.state == State.COMMITTED;
+    }
+
+    /**
+     * Checks whether this transaction has been rolled back.
+     */
+    public boolean isRolledBack() {
+        return this.state == State.ROLLED_BACK;
+    }
+
+    /**
+     * Rolls back this transaction.
+     *
+     * When the transaction has already been committed, the original contents of all modified
+     * ranges are restored. Otherwise, all registered writes are discarded.
+     *
+     * @throws IllegalStateException       when the transaction has already been rolled back or has
+     *                                     been applied without a journal.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryWriteException when one or more ranges could not be restored.
+     */
+    public void rollback() {
+        if (this.state == State.ROLLED_BACK) {
+            throw new IllegalStateException("Transaction has already been rolled back");
+        }
+        if (this.state == State.COMMITTED && this.journal == null) {
+            throw new IllegalStateException("Transaction has been applied without a journal");
+        }
+
+        State previous = this.state;
+        this.state = State.ROLLED_BACK;
+        this.writes.clear();
+
+        if (previous == State.COMMITTED && !this.journal.isReverted()) {
+            this.journal.revert();
+        }
+    }
+
+    /**
+     * Ensures that this transaction still accepts writes.
+     */
+    private void verifyPending() {
+        if (this.state != State.PENDING) {
+            throw new IllegalStateException("Transaction has already been " + (this.state == State.COMMITTED ? "committed" : "rolled back"));
+        }
+    }
+
+    /**
+     * Registers a write of an encoded value.
+     */
+    @Nonnull
+    private MemoryTransaction write(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnull byte[] data) {
+        this.verifyPending();
+
+        if (pointer.getProcess() != this.process) {
+            throw new IllegalArgumentException("Pointer refers to a different process");
+        }
+
+        if (data.length != 0) {
+            this.writes.add(new Write(pointer, offset, data));
+        }
+
+        return this;
+    }
+
+    /**
+     * Allocates a buffer for the encoding of a value.
+     */
+    @Nonnull
+    private static ByteBuffer allocate(@Nonnegative int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.nativeOrder());
+    }
+
+    // <editor-fold desc="Writes">
+
+    /**
+     * Schedules the write of a single byte to the address the supplied pointer references.
+     *
+     * @see ProcessMemoryPointer#writeByte(short) for information on the handling of values.
+     */
+    @Nonnull
+    public MemoryTransaction writeByte(@Nonnull ProcessMemoryPointer pointer, short value) {
+        return this.writeByte(pointer, 0, value);
+    }
+
+    /**
+     * Schedules the write of a single byte to the address the supplied pointer references plus
+     * the supplied offset.
+     *
+     * @see ProcessMemoryPointer#writeByte(long, short) for information on the handling of values.
+     */
+    @Nonnull
+    public MemoryTransaction writeByte(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, short value) {
+        return this.write(pointer, offset, new byte[]{(byte) value});
+    }
+
+    /**
+     * Schedules the write of a byte array to the address the supplied pointer references.
+     */
+    @Nonnull
+    public MemoryTransaction writeByteArray(@Nonnull ProcessMemoryPointer pointer, @Nonnull byte[] array) {
+        return this.writeByteArray(pointer, 0, array, 0, array.length);
+    }
+
+    /**
+     * Schedules the write of a byte array to the address the supplied pointer references plus the
+     * supplied offset.
+     *
+     * The array contents are copied and thus may be modified once this method returns.
+     */
+    @Nonnull
+    public MemoryTransaction writeByteArray(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnull byte[] array, @Nonnegative int arrayOffset, @Nonnegative int arrayLength) {
+        return this.write(pointer, offset, Arrays.copyOfRange(array, arrayOffset, arrayOffset + arrayLength));
+    }
+
+    /**
+     * Schedules the write of a double to the address the supplied pointer references.
+     */
+    @Nonnull
+    public MemoryTransaction writeDouble(@Nonnull ProcessMemoryPointer pointer, double value) {
+        return this.writeDouble(pointer, 0, value);
+    }
+
+    /**
+     * Schedules the write of a double to the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    public MemoryTransaction writeDouble(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, double value) {
+        return this.write(pointer, offset, allocate(8).putDouble(value).array());
+    }
+
+    /**
+     * Schedules the write of a float to the address the supplied pointer references.
+     */
+    @Nonnull
+    public MemoryTransaction writeFloat(@Nonnull ProcessMemoryPointer pointer, float value) {
+        return this.writeFloat(pointer, 0, value);
+    }
+
+    /**
+     * Schedules the write of a float to the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    public MemoryTransaction writeFloat(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, float value) {
+        return this.write(pointer, offset, allocate(4).putFloat(value).array());
+    }
+
+    /**
+     * Schedules the write of an integer to the address the supplied pointer references.
+     *
+     * @see ProcessMemoryPointer#writeInteger(long) for information on the handling of values.
+     */
+    @Nonnull
+    public MemoryTransaction writeInteger(@Nonnull ProcessMemoryPointer pointer, long value) {
+        return this.writeInteger(pointer, 0, value);
+    }
+
+    /**
+     * Schedules the write of an integer to the address the supplied pointer references plus the
+     * supplied offset.
+     *
+     * @see ProcessMemoryPointer#writeInteger(long, long) for information on the handling of
+     * values.
+     */
+    @Nonnull
+    public MemoryTransaction writeInteger(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, long value) {
+        return this.write(pointer, offset, allocate(4).putInt((int) value).array());
+    }
+
+    /**
+     * Schedules the write of a long value to the address the supplied pointer references.
+     */
+    @Nonnull
+    public MemoryTransaction writeLong(@Nonnull ProcessMemoryPointer pointer, long value) {
+        return this.writeLong(pointer, 0, value);
+    }
+
+    /**
+     * Schedules the write of a long value to the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    public MemoryTransaction writeLong(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, long value) {
+        return this.write(pointer, offset, allocate(8).putLong(value).array());
+    }
+
+    /**
+     * Schedules the write of a short value to the address the supplied pointer references.
+     *
+     * @see ProcessMemoryPointer#writeShort(int) for information on the handling of values.
+     */
+    @Nonnull
+    public MemoryTransaction writeShort(@Nonnull ProcessMemoryPointer pointer, int value) {
+        return this.writeShort(pointer, 0, value);
+    }
+
+    /**
+     * Schedules the write of a short value to the address the supplied pointer references plus the
+     * supplied offset.
+     *
+     * @see ProcessMemoryPointer#writeShort(long, int) for information on the handling of values.
+     */
+    @Nonnull
+    public MemoryTransaction writeShort(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, int value) {
+        return this.write(pointer, offset, allocate(2).putShort((short) value).array());
+    }
+    // </editor-fold>
+
+    /**
+     * Represents the states a transaction may be in.
+     */
+    private enum State {
+        PENDING,
+        COMMITTED,
+        ROLLED_BACK
+    }
+
+    /**
+     * Represents a single registered write.
+     */
+    private static final class Write {
+
+        final ProcessMemoryPointer pointer;
+        final long offset;
+        final byte[] data;
+
+        Write(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnull byte[] data) {
+            this.pointer = pointer;
+            this.offset = offset;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Represents the location of a (potentially deep) pointer relative to a process module.
+ *
+ * Paths are immutable and pre-compute their hash code and are thus suitable for use as keys of
+ * caches, statistics and other lookup tables which are consulted on the memory access hot path.
+ * Processes intern their paths along with the respective pointer instances (see
+ * {@link Process#pointer(PointerPath)}) and thus all users of equal paths share a single pointer
+ * (and its resolved address).
+ *
+ * Module names are retained as passed by the caller and are resolved according to the module
+ * lookup semantics of the respective process (see {@link Process#getModule(String)}).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class PointerPath {
+    private static final long[] EMPTY_OFFSETS = new long[0];
+
+    private final String moduleName;
+    private final long offset;
+    final long[] offsets;
+    private final int hashCode;
+
+    private PointerPath(@Nonnull String moduleName, long offset, @Nonnull long[] offsets) {
+        this.moduleName = moduleName;
+        this.offset = offset;
+        this.offsets = offsets;
+        this.hashCode = 31 * (31 * moduleName.hashCode() + Long.hashCode(offset)) + Arrays.hashCode(offsets);
+    }
+
+    /**
+     * Creates a path to an address in a process module.
+     *
+     * @param moduleName a module name (e.g. "dxhr.exe").
+     * @param offset     an offset relative to the module base address.
+     * @param offsets    an array of further offsets to apply when resolving deep pointers.
+     * @see Process#pointer(String, long, long...) for more information on these values.
+     */
+    @Nonnull
+    public static PointerPath of(@Nonnull String moduleName, @Nonnegative long offset, @Nonnull @Nonnegative long... offsets) {
+        return new PointerPath(moduleName, offset, offsets.length == 0 ? EMPTY_OFFSETS : offsets.clone());
+    }
+
+    /**
+     * Creates a path relative to the address this path points to.
+     *
+     * The offset is applied to the address this path resolves to (e.g. the last offset within the
+     * chain of a deep pointer) while the supplied offsets are appended to the chain.
+     *
+     * @see ProcessMemoryPointer#pointer(long, long...) for more information on these values.
+     */
+    @Nonnull
+    public PointerPath child(@Nonnegative long offset, @Nonnull @Nonnegative long... offsets) {
+        return new PointerPath(this.moduleName, this.offsets.length == 0 ? this.offset + offset : this.offset, combineOffsets(this.offsets, offset, offsets));
+    }
+
+    /**
+     * Combines the offsets of a deep pointer with the offsets of a pointer which is relative to
+     * the address it resolves to.
+     *
+     * @param offsets         the offsets of the parent pointer.
+     * @param offset          the offset relative to the address of the parent pointer.
+     * @param relativeOffsets the offsets of the relative pointer.
+     * @return the offsets of the resulting pointer (relative to the base address of the parent
+     * pointer when it is a deep pointer or relative to its base address plus the offset otherwise).
+     */
+    @Nonnull
+    static long[] combineOffsets(@Nonnull long[] offsets, long offset, @Nonnull long[] relativeOffsets) {
+        if (offsets.length == 0) {
+            return relativeOffsets.length == 0 ? EMPTY_OFFSETS : relativeOffsets.clone();
+        }
+
+        long[] combined = new long[offsets.length + relativeOffsets.length];
+        System.arraycopy(offsets, 0, combined, 0, offsets.length);
+        System.arraycopy(relativeOffsets, 0, combined, offsets.length, relativeOffsets.length);
+        combined[offsets.length - 1] += offset;
+
+        return combined;
+    }
+
+    /**
+     * Retrieves the name of the module this path is relative to.
+     */
+    @Nonnull
+    public String getModuleName() {
+        return this.moduleName;
+    }
+
+    /**
+     * Retrieves the offset of this path relative to the module base address.
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Retrieves the deep pointer offset at the specified index.
+     *
+     * @throws IndexOutOfBoundsException when the index exceeds the depth of this path.
+     */
+    public long getOffset(@Nonnegative int index) {
+        return this.offsets[index];
+    }
+
+    /**
+     * Retrieves a copy of the deep pointer offsets of this path.
+     */
+    @Nonnull
+    public long[] getOffsets() {
+        return this.offsets.clone();
+    }
+
+    /**
+     * Retrieves the amount of pointers which need to be dereferenced in order to resolve this
+     * path.
+     */
+    @Nonnegative
+    public int getDepth() {
+        return this.offsets.length;
+    }
+
+    /**
+     * Checks whether this path refers to a deep pointer.
+     */
+    public boolean isDeep() {
+        return this.offsets.length != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+
+        PointerPath that = (PointerPath) o;
+        return this.hashCode == that.hashCode &&
+                this.offset == that.offset &&
+                this.moduleName.equals(that.moduleName) &&
+                Arrays.equals(this.offsets, that.offsets);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("\"").append(this.moduleName).append("\"+").append(Long.toHexString(this.offset).toUpperCase());
+
+        for (long offset : this.offsets) {
+            builder.append(" -> ").append(Long.toHexString(offset).toUpperCase());
+        }
+
+        return builder.toString();
+    }
+}
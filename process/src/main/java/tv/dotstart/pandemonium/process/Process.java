@@ -16,7 +16,10 @@
  */
 package tv.dotstart.pandemonium.process;
 
+import com.sun.jna.Pointer;
+
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -24,10 +27,16 @@ import java.util.Set;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import tv.dotstart.pandemonium.process.async.AsyncProcess;
+import tv.dotstart.pandemonium.process.async.MemoryExecutor;
 import tv.dotstart.pandemonium.process.exception.ProcessAttachmentException;
 import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
 import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+import tv.dotstart.pandemonium.process.metrics.ProcessMetrics;
 
 /**
  * A representation for a process on this operating system.
@@ -39,6 +48,54 @@ import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateExcept
  */
 public interface Process {
 
+    /**
+     * Registers a listener which is notified when this process terminates.
+     *
+     * Termination is detected by a background monitor while the process is open and is thus
+     * reported without the need for polling {@link #isAlive()}. Each listener is notified at most
+     * once. When the process is already known to have terminated, the listener is notified
+     * immediately on the calling thread.
+     */
+    void addTerminationListener(@Nonnull ProcessTerminationListener listener);
+
+    /**
+     * Retrieves a facade which performs memory I/O on this process asynchronously using the
+     * {@link MemoryExecutor#getDefault() default executor}.
+     *
+     * The facade is shared by all callers and thus all asynchronous operations on this process are
+     * executed in order of their submission.
+     */
+    @Nonnull
+    AsyncProcess async();
+
+    /**
+     * Creates a new empty batch which reads from the memory of this process.
+     *
+     * Batches are the preferred method of reading multiple values at once as they coalesce
+     * neighbouring reads into as few calls to the operating system as possible.
+     *
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnull
+    ProcessMemoryBatch batch() throws ProcessMemoryStateException;
+
+    /**
+     * Begins a memory frame on the calling thread.
+     *
+     * While a frame is active, all reads issued by the calling thread are served from a page cache
+     * which fetches each accessed page of process memory once and keeps it until the frame ends.
+     * As a result, all reads within a frame observe a coherent snapshot of the process memory while
+     * neighbouring reads are collapsed into a single call to the operating system. Writes are
+     * passed to the process as usual and update the cached pages accordingly.
+     *
+     * Frames may be nested in which case the cache is discarded when the outermost frame ends.
+     * Callers are expected to end every frame they begin (typically within a finally block).
+     *
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @see #endFrame() to end the frame.
+     */
+    void beginFrame() throws ProcessMemoryStateException;
+
     /**
      * Closes the memory for reading and writing and restores its internal state.
      *
@@ -47,6 +104,14 @@ public interface Process {
      */
     void close() throws ProcessAttachmentException, ProcessStateException;
 
+    /**
+     * Ends a memory frame which has previously been started on the calling thread.
+     *
+     * @throws IllegalStateException when no frame is active on the calling thread.
+     * @see #beginFrame() for more information on memory frames.
+     */
+    void endFrame();
+
     /**
      * Retrieves the name this process identifies itself as within the operating system
      * (e.g. "dxhr.exe").
@@ -67,6 +132,58 @@ public interface Process {
     @Nonnegative
     long getExecutableSize();
 
+    /**
+     * Retrieves the statistics on the memory I/O which has been issued against this process.
+     *
+     * Statistics are not collected until they are {@link ProcessMetrics#setEnabled(boolean)
+     * enabled}.
+     */
+    @Nonnull
+    ProcessMetrics getMetrics();
+
+    /**
+     * Retrieves the current pointer generation of this process.
+     *
+     * Deep pointers cache their resolved address along with the generation it was resolved in and
+     * will resolve their chain of pointers again as soon as the generation changes.
+     *
+     * @see #invalidatePointers() to advance the generation.
+     */
+    long getPointerGeneration();
+
+    /**
+     * Retrieves the maximum amount of time a resolved deep pointer address is considered valid
+     * within a single generation.
+     *
+     * When no timeout is configured (e.g. an empty optional is returned), resolved addresses remain
+     * valid until the generation is advanced. A timeout of zero disables the cache entirely.
+     */
+    @Nonnull
+    Optional<Duration> getPointerCacheTimeout();
+
+    /**
+     * Sets the maximum amount of time a resolved deep pointer address is considered valid within a
+     * single generation.
+     *
+     * @param timeout a timeout, zero to disable the cache or null to keep addresses until the
+     *                generation is advanced.
+     * @see #getPointerCacheTimeout() for more information on this value.
+     */
+    void setPointerCacheTimeout(@Nullable Duration timeout);
+
+    /**
+     * Retrieves an index of the memory regions within the address space of this process.
+     *
+     * The index is constructed when it is first requested and is refreshed lazily (e.g. when a
+     * readability check contradicts it or when it has been invalidated explicitly). As a result,
+     * it may not reflect allocations which have been made since its construction.
+     *
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @see #invalidateRegions() to force a refresh of the index.
+     */
+    @Nonnull
+    MemoryRegionMap getRegionMap() throws ProcessMemoryStateException;
+
     /**
      * Retrieves a set of modules which were located within this process and are thus available to
      * games for reading and writing.
@@ -130,6 +247,33 @@ public interface Process {
      */
     boolean isAlive();
 
+    /**
+     * Discards the current memory region index in order to have it constructed again when it is
+     * next requested.
+     */
+    void invalidateRegions();
+
+    /**
+     * Checks whether the supplied range of memory is readable at this time.
+     *
+     * The range is checked against the memory region index first and verified with a single probe
+     * read when the index considers it readable. Ranges which are not covered by the index cause
+     * the index to be refreshed if it has not been constructed recently.
+     *
+     * @param address an absolute address within the process address space.
+     * @param length  the amount of bytes to check.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    boolean isReadable(long address, @Nonnegative int length) throws ProcessMemoryStateException;
+
+    /**
+     * Advances the pointer generation and thus invalidates all cached deep pointer addresses.
+     *
+     * This method is typically invoked by state mappers when the game is known to re-allocate its
+     * data structures (e.g. when a new map or save game is loaded).
+     */
+    void invalidatePointers();
+
     /**
      * Checks whether this process is closed and thus not available for reading and writing from or
      * to its memory.
@@ -152,6 +296,20 @@ public interface Process {
      */
     void open() throws ProcessAttachmentException, ProcessStateException;
 
+    /**
+     * Retrieves the pointer which is identified by the supplied path.
+     *
+     * Pointers are interned along with their paths and thus equal paths will result in the same
+     * pointer instance (and share its cached address) for as long as the pointer remains in use.
+     * Pointers which are no longer referenced are released along with their paths.
+     *
+     * @throws NoSuchElementException      when no such module exists.
+     * @throws ProcessMemoryStateException when accessing process memory is prevented by its
+     *                                     current state.
+     */
+    @Nonnull
+    ProcessMemoryPointer pointer(@Nonnull PointerPath path) throws ProcessMemoryStateException;
+
     /**
      * Creates a new pointer to an address in a process module.
      *
@@ -188,4 +346,77 @@ public interface Process {
      */
     @Nonnull
     ProcessMemoryPointer pointer(@Nonnull Collection<String> moduleNames, @Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException;
+
+    /**
+     * Reads an arbitrary amount of data from an absolute address into a native buffer.
+     *
+     * Reads within an active frame are served from its page cache.
+     *
+     * @param address an absolute address within the process address space.
+     * @param buffer  a native target buffer.
+     * @param length  the amount of bytes to read.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryReadException  when the range is not readable.
+     */
+    void read(long address, @Nonnull Pointer buffer, @Nonnegative int length) throws ProcessMemoryStateException;
+
+    /**
+     * Reads an arbitrary amount of data from an absolute address into a heap buffer.
+     *
+     * Reads within an active frame are served from its page cache.
+     *
+     * @param address an absolute address within the process address space.
+     * @param buffer  a heap target buffer.
+     * @param offset  the index within the buffer at which the data is to be stored.
+     * @param length  the amount of bytes to read.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryReadException  when the range is not readable.
+     */
+    void read(long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length) throws ProcessMemoryStateException;
+
+    /**
+     * Reads a set of ranges from absolute addresses into a native buffer (back to back).
+     *
+     * Implementations pass as many ranges as possible to the operating system at once and are
+     * thus preferable to individual reads when large amounts of scattered values are to be
+     * retrieved.
+     *
+     * @param addresses an array of absolute addresses.
+     * @param lengths   an array of range lengths.
+     * @param count     the amount of ranges to read.
+     * @param buffer    a native target buffer which is large enough to hold all ranges.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryReadException  when one or more ranges are not readable.
+     */
+    void read(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull Pointer buffer) throws ProcessMemoryStateException;
+
+    /**
+     * Removes a previously registered termination listener.
+     */
+    void removeTerminationListener(@Nonnull ProcessTerminationListener listener);
+
+    /**
+     * Creates a new empty transaction which writes to the memory of this process.
+     *
+     * Transactions are the preferred method of writing multiple values at once as they coalesce
+     * neighbouring writes into as few calls to the operating system as possible and record the
+     * original memory contents in order to permit their restoration at a later time.
+     */
+    @Nonnull
+    default MemoryTransaction transaction() {
+        return new MemoryTransaction(this);
+    }
+
+    /**
+     * Writes an arbitrary amount of data from a native buffer to an absolute address.
+     *
+     * Pages which are cached by an active frame of the calling thread are updated accordingly.
+     *
+     * @param address an absolute address within the process address space.
+     * @param buffer  a native source buffer.
+     * @param length  the amount of bytes to write.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryWriteException when the range is not writable.
+     */
+    void write(long address, @Nonnull Pointer buffer, @Nonnegative int length) throws ProcessMemoryStateException;
 }
@@ -22,6 +22,9 @@ import java.util.Set;
 
 import javax.annotation.Nonnull;
 
+import tv.dotstart.pandemonium.process.discovery.ProcessDescriptor;
+import tv.dotstart.pandemonium.process.discovery.ProcessNotifier;
+
 /**
  * Provides platform independent access to this operating system's processes and their respective
  * memory.
@@ -36,6 +39,28 @@ public interface ProcessAccessor {
     @Nonnull
     Set<? extends Process> getActiveProcesses();
 
+    /**
+     * Retrieves a snapshot of the processes on this operating system without attaching to any of
+     * them.
+     *
+     * Unlike {@link #getActiveProcesses()}, this method does not construct any process instances
+     * and is thus suitable for frequent enumeration.
+     */
+    @Nonnull
+    Set<ProcessDescriptor> getProcessDescriptors();
+
+    /**
+     * Creates a notifier which wakes up its callers when the process table of this operating
+     * system changes.
+     *
+     * By default, changes are polled. Implementations are expected to override this method when
+     * their platform provides push notifications.
+     */
+    @Nonnull
+    default ProcessNotifier createNotifier() {
+        return ProcessNotifier.polling();
+    }
+
     /**
      * Returns a running process on this operating system with the specified name or an empty
      * optional if no such process is active on this system.
@@ -58,4 +83,11 @@ public interface ProcessAccessor {
      */
     @Nonnull
     Optional<? extends Process> getProcess(@Nonnull Collection<String> names);
+
+    /**
+     * Returns the process which is identified by the supplied descriptor or an empty optional if
+     * it has exited in the meantime (or cannot be accessed).
+     */
+    @Nonnull
+    Optional<? extends Process> getProcess(@Nonnull ProcessDescriptor descriptor);
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Represents a set of reads which are to be executed against process memory at once.
+ *
+ * Batches collect an arbitrary amount of typed reads and resolve them in as few calls to the
+ * backing API as possible by coalescing adjacent or overlapping address ranges. Each read is
+ * assigned an index (in the order of registration) which is later used to retrieve its value from
+ * the {@link Result} returned by {@link #execute()}.
+ *
+ * Batches may be executed multiple times (e.g. once per state update) in which case all pointers
+ * are resolved again and a new result is produced.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public interface ProcessMemoryBatch {
+
+    /**
+     * Schedules the read of a single byte from the address the supplied pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readByte(@Nonnull ProcessMemoryPointer pointer) {
+        return this.readByte(pointer, 0);
+    }
+
+    /**
+     * Schedules the read of a single byte from the address the supplied pointer references plus
+     * the supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readByte(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset);
+
+    /**
+     * Schedules the read of a byte array of the supplied length from the address the supplied
+     * pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readByteArray(@Nonnull ProcessMemoryPointer pointer, @Nonnegative int length) {
+        return this.readByteArray(pointer, 0, length);
+    }
+
+    /**
+     * Schedules the read of a byte array of the supplied length from the address the supplied
+     * pointer references plus the supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readByteArray(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnegative int length);
+
+    /**
+     * Schedules the read of a double from the address the supplied pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readDouble(@Nonnull ProcessMemoryPointer pointer) {
+        return this.readDouble(pointer, 0);
+    }
+
+    /**
+     * Schedules the read of a double from the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readDouble(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset);
+
+    /**
+     * Schedules the read of a float from the address the supplied pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readFloat(@Nonnull ProcessMemoryPointer pointer) {
+        return this.readFloat(pointer, 0);
+    }
+
+    /**
+     * Schedules the read of a float from the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readFloat(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset);
+
+    /**
+     * Schedules the read of an integer from the address the supplied pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readInteger(@Nonnull ProcessMemoryPointer pointer) {
+        return this.readInteger(pointer, 0);
+    }
+
+    /**
+     * Schedules the read of an integer from the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readInteger(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset);
+
+    /**
+     * Schedules the read of a long from the address the supplied pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readLong(@Nonnull ProcessMemoryPointer pointer) {
+        return this.readLong(pointer, 0);
+    }
+
+    /**
+     * Schedules the read of a long from the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readLong(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset);
+
+    /**
+     * Schedules the read of a short from the address the supplied pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readShort(@Nonnull ProcessMemoryPointer pointer) {
+        return this.readShort(pointer, 0);
+    }
+
+    /**
+     * Schedules the read of a short from the address the supplied pointer references plus the
+     * supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readShort(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset);
+
+    /**
+     * Schedules the read of a NUL terminated string of a maximum length from the address the
+     * supplied pointer references.
+     */
+    @Nonnull
+    default ProcessMemoryBatch readString(@Nonnull ProcessMemoryPointer pointer, @Nonnegative int maxLength) {
+        return this.readString(pointer, 0, maxLength);
+    }
+
+    /**
+     * Schedules the read of a NUL terminated string of a maximum length from the address the
+     * supplied pointer references plus the supplied offset.
+     */
+    @Nonnull
+    ProcessMemoryBatch readString(@Nonnull ProcessMemoryPointer pointer, @Nonnegative long offset, @Nonnegative int maxLength);
+
+    /**
+     * Retrieves the amount of reads which have been scheduled within this batch.
+     */
+    @Nonnegative
+    int size();
+
+    /**
+     * Resolves all scheduled reads and retrieves their values from process memory.
+     *
+     * @throws ProcessMemoryStateException when the process or memory state prevents access.
+     * @throws ProcessMemoryReadException  when reading from the process memory fails.
+     */
+    @Nonnull
+    Result execute();
+
+    /**
+     * Provides access to the values retrieved by a batch.
+     *
+     * Values are referred to by the index of their respective read within the batch (e.g. the
+     * first scheduled read is located at index zero). Attempting to retrieve a value using a type
+     * which differs from the scheduled type will result in an {@link IllegalArgumentException}.
+     */
+    interface Result {
+
+        /**
+         * Retrieves a byte value.
+         */
+        byte getByte(@Nonnegative int index);
+
+        /**
+         * Retrieves a copy of a byte array value.
+         */
+        @Nonnull
+        byte[] getByteArray(@Nonnegative int index);
+
+        /**
+         * Retrieves a double value.
+         */
+        double getDouble(@Nonnegative int index);
+
+        /**
+         * Retrieves a float value.
+         */
+        float getFloat(@Nonnegative int index);
+
+        /**
+         * Retrieves an integer value.
+         */
+        int getInteger(@Nonnegative int index);
+
+        /**
+         * Retrieves a long value.
+         */
+        long getLong(@Nonnegative int index);
+
+        /**
+         * Retrieves a short value.
+         */
+        short getShort(@Nonnegative int index);
+
+        /**
+         * Retrieves a string value.
+         */
+        @Nonnull
+        String getString(@Nonnegative int index);
+
+        /**
+         * Retrieves a byte value as an unsigned value.
+         */
+        @Nonnegative
+        default short getUnsignedByte(@Nonnegative int index) {
+            return (short) (this.getByte(index) & 0xFF);
+        }
+
+        /**
+         * Retrieves an integer value as an unsigned value.
+         */
+        @Nonnegative
+        default long getUnsignedInteger(@Nonnegative int index) {
+            return this.getInteger(index) & 0xFFFFFFFFL;
+        }
+
+        /**
+         * Retrieves a short value as an unsigned value.
+         */
+        @Nonnegative
+        default int getUnsignedShort(@Nonnegative int index) {
+            return this.getShort(index) & 0xFFFF;
+        }
+
+        /**
+         * Retrieves the amount of values within this result.
+         */
+        @Nonnegative
+        int size();
+    }
+}
@@ -37,6 +37,27 @@ import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteExcept
  */
 public interface ProcessMemoryPointer {
 
+    /**
+     * Resolves the absolute address this pointer references.
+     *
+     * @throws ProcessMemoryStateException when the process or memory state prevents access.
+     * @throws ProcessMemoryReadException  when resolving a deep pointer fails.
+     */
+    default long getAddress() {
+        return this.getAddress(0);
+    }
+
+    /**
+     * Resolves the absolute address this pointer references plus the supplied offset.
+     *
+     * When this pointer is a deep pointer, its chain of pointers will be resolved in order to
+     * retrieve the final address.
+     *
+     * @throws ProcessMemoryStateException when the process or memory state prevents access.
+     * @throws ProcessMemoryReadException  when resolving a deep pointer fails.
+     */
+    long getAddress(@Nonnegative long offset);
+
     /**
      * Retrieves the process module this pointer is referencing.
      */
@@ -83,15 +104,14 @@ public interface ProcessMemoryPointer {
      * Checks whether the address this pointer references plus the supplied offset is accessible at
      * this time.
      *
+     * Deep pointers are considered inaccessible when their chain of pointers cannot be resolved.
+     *
      * @throws ProcessMemoryStateException when the process or memory state prevents access.
+     * @see Process#isReadable(long, int) for information on how ranges are checked.
      */
     default boolean isReadable(@Nonnegative long offset, @Nonnegative int length) {
         try {
-            for (int i = 0; i < length; ++i) {
-                this.readByte(offset + i);
-            }
-
-            return true;
+            return this.getProcess().isReadable(this.getAddress(offset), length);
         } catch (ProcessMemoryReadException ex) {
             return false;
         }
@@ -336,6 +356,10 @@ public interface ProcessMemoryPointer {
      * Reads a NUL terminated string of a maximum length from the address this pointer references
      * plus the supplied offset.
      *
+     * Strings which lack a terminator within their maximum length are truncated. Implementations
+     * may return the previously returned instance when the raw value has not changed since the
+     * last invocation.
+     *
      * @throws ProcessMemoryStateException when the process or memory state prevents access.
      * @throws ProcessMemoryReadException  when reading from the process memory fails.
      */
@@ -357,6 +381,10 @@ public interface ProcessMemoryPointer {
     /**
      * Reads a structure from the address this pointer references plus the supplied offset.
      *
+     * Structure types are expected to declare either a public no-argument constructor or a public
+     * constructor which accepts a {@link com.sun.jna.Pointer} (in which case it is passed the
+     * local memory which backs the new instance).
+     *
      * @param <S> a structure type.
      * @throws ProcessMemoryStateException when the process or memory state prevents access.
      * @throws ProcessMemoryReadException  when reading from the process memory fails.
@@ -364,6 +392,34 @@ public interface ProcessMemoryPointer {
     @Nonnull
     <S extends Structure> S readStructure(@Nonnegative long offset, @Nonnegative Class<S> type);
 
+    /**
+     * Reads a structure from the address this pointer references into an existing instance.
+     *
+     * This method permits callers to reuse the same instance for every read (e.g. when polling
+     * the same structure repeatedly).
+     *
+     * @param <S> a structure type.
+     * @return the supplied instance.
+     * @throws ProcessMemoryStateException when the process or memory state prevents access.
+     * @throws ProcessMemoryReadException  when reading from the process memory fails.
+     */
+    @Nonnull
+    default <S extends Structure> S readStructure(@Nonnull S structure) {
+        return this.readStructure(0, structure);
+    }
+
+    /**
+     * Reads a structure from the address this pointer references plus the supplied offset into an
+     * existing instance.
+     *
+     * @param <S> a structure type.
+     * @return the supplied instance.
+     * @throws ProcessMemoryStateException when the process or memory state prevents access.
+     * @throws ProcessMemoryReadException  when reading from the process memory fails.
+     */
+    @Nonnull
+    <S extends Structure> S readStructure(@Nonnegative long offset, @Nonnull S structure);
+
     /**
      * Reads an unsigned byte from the address this pointer references.
      *
@@ -17,11 +17,17 @@
 package tv.dotstart.pandemonium.process;
 
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalLong;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.scan.Signature;
+import tv.dotstart.pandemonium.process.scan.SignatureScanner;
 
 /**
  * Represents a module within a game process such as the executable itself or
@@ -60,4 +66,45 @@ public interface ProcessModule {
      */
     @Nonnull
     ProcessMemoryPointer pointer(@Nonnegative long offset, @Nonnull @Nonnegative long... offsets) throws ProcessMemoryStateException;
+
+    /**
+     * Locates the first occurrence of a signature within this module.
+     *
+     * @param signature a signature (e.g. "8B 0D ?? ?? ?? ?? 85 C9").
+     * @return an offset relative to the module start address or an empty optional if the signature
+     * could not be found.
+     * @throws IllegalArgumentException    when the signature is malformed.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @see Signature#parse(String)
+     */
+    @Nonnull
+    default OptionalLong scan(@Nonnull String signature) throws ProcessMemoryStateException {
+        return this.scan(Signature.parse(signature));
+    }
+
+    /**
+     * Locates the first occurrence of a signature within this module.
+     *
+     * @return an offset relative to the module start address or an empty optional if the signature
+     * could not be found.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnull
+    default OptionalLong scan(@Nonnull Signature signature) throws ProcessMemoryStateException {
+        Long offset = this.scan(Collections.singleton(signature)).get(signature);
+        return offset == null ? OptionalLong.empty() : OptionalLong.of(offset);
+    }
+
+    /**
+     * Locates the first occurrence of each signature within a set using a single pass over the
+     * module image.
+     *
+     * @return a map of signatures and their respective offsets relative to the module start
+     * address (signatures which could not be found are omitted).
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnull
+    default Map<Signature, Long> scan(@Nonnull Collection<Signature> signatures) throws ProcessMemoryStateException {
+        return new SignatureScanner().scan(this, signatures);
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives notifications when a process terminates.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@FunctionalInterface
+public interface ProcessTerminationListener {
+
+    /**
+     * Handles the termination of a process.
+     *
+     * This method is typically invoked on a background thread and is thus expected to pass any
+     * work which affects the application UI to its respective thread.
+     */
+    void onTermination(@Nonnull Process process);
+}
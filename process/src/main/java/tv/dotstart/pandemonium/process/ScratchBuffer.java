@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process;
+
+import com.sun.jna.Memory;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Provides a thread confined set of native buffers which are reused for every primitive read in
+ * order to keep the hot path free of allocations.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+final class ScratchBuffer {
+
+    /**
+     * Defines the size of the scratch buffer (in bytes).
+     *
+     * Reads which exceed this size (such as large arrays, strings or structures) fall back to a
+     * buffer of {@link MemoryFrame#PAGE_SIZE} bytes or to allocating a dedicated buffer.
+     */
+    static final int SIZE = 256;
+
+    private static final ThreadLocal<ScratchBuffer> instance = ThreadLocal.withInitial(ScratchBuffer::new);
+
+    final Memory memory = new Memory(SIZE);
+    final Memory buffer = new Memory(MemoryFrame.PAGE_SIZE);
+    final Memory page = new Memory(MemoryFrame.PAGE_SIZE);
+    private byte[] string = new byte[SIZE];
+
+    private ScratchBuffer() {
+    }
+
+    /**
+     * Retrieves a heap buffer which holds the raw bytes of a string while it is read.
+     *
+     * The buffer grows to the largest requested capacity and is retained for the lifetime of the
+     * thread.
+     */
+    @Nonnull
+    byte[] getString(@Nonnegative int capacity) {
+        if (this.string.length < capacity) {
+            this.string = new byte[capacity];
+        }
+
+        return this.string;
+    }
+
+    /**
+     * Retrieves the scratch buffer of the calling thread.
+     */
+    @Nonnull
+    static ScratchBuffer get() {
+        return instance.get();
+    }
+}
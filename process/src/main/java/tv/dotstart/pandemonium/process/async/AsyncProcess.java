@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.async;
+
+import com.sun.jna.Memory;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryJournal;
+import tv.dotstart.pandemonium.process.MemoryTransaction;
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessMemoryBatch;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+
+/**
+ * Provides asynchronous access to the memory of a process.
+ *
+ * All operations are executed on a {@link MemoryExecutor} and complete their respective futures
+ * once they have finished (or failed). Operations which are submitted through the same instance
+ * are executed strictly in order of submission (e.g. a read which is submitted after a write will
+ * observe the written value) while operations on different processes are executed in parallel.
+ *
+ * Futures are completed on the threads of the executor and thus callers are expected to pass
+ * their results on to their respective threads (e.g. using
+ * {@link CompletableFuture#thenAcceptAsync(java.util.function.Consumer, Executor)}).
+ *
+ * Keep in mind that memory frames are confined to the thread which began them and thus do not
+ * apply to asynchronous operations.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class AsyncProcess {
+
+    /**
+     * Defines the default amount of time an operation may take before its future is completed
+     * with a {@link java.util.concurrent.TimeoutException}.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(2);
+
+    private final Process process;
+    private final MemoryExecutor executor;
+    private final Executor lane;
+    private volatile long timeout = DEFAULT_TIMEOUT.toNanos();
+
+    public AsyncProcess(@Nonnull Process process, @Nonnull MemoryExecutor executor) {
+        this.process = process;
+        this.executor = executor;
+        this.lane = executor.lane();
+    }
+
+    /**
+     * Submits an arbitrary operation which is executed against the process.
+     *
+     * Operations whose future has been completed before they are executed (e.g. because they have
+     * timed out while waiting for a hung operation) are skipped. Operations which are discarded
+     * (e.g. because the executor has been closed) complete their future with a
+     * {@link CancellationException}.
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> submit(@Nonnull Function<? super Process, ? extends T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            this.lane.execute(new MemoryExecutor.Operation() {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run() {
+                    if (future.isDone()) {
+                        return;
+                    }
+
+                    try {
+                        future.complete(operation.apply(AsyncProcess.this.process));
+                    } catch (Throwable ex) {
+                        future.completeExceptionally(ex);
+                    }
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void discard(@Nonnull CancellationException cause) {
+                    future.completeExceptionally(cause);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            CancellationException cause = new CancellationException("Memory executor has been closed");
+            cause.initCause(ex);
+
+            future.completeExceptionally(cause);
+            return future;
+        }
+
+        return this.executor.withTimeout(future, this.timeout, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Reads an arbitrary amount of data from an absolute address.
+     */
+    @Nonnull
+    public CompletableFuture<byte[]> readAsync(long address, @Nonnegative int length) {
+        return this.submit((p) -> {
+            byte[] data = new byte[length];
+            p.read(address, data, 0, length);
+            return data;
+        });
+    }
+
+    /**
+     * Reads a value through the supplied pointer (e.g. {@code readAsync(pointer,
+     * ProcessMemoryPointer::readInteger)}).
+     *
+     * Deep pointers are resolved as part of the operation and thus do not block the caller either.
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> readAsync(@Nonnull ProcessMemoryPointer pointer, @Nonnull Function<? super ProcessMemoryPointer, ? extends T> reader) {
+        return this.submit((p) -> reader.apply(pointer));
+    }
+
+    /**
+     * Writes an arbitrary amount of data to an absolute address.
+     */
+    @Nonnull
+    public CompletableFuture<Void> writeAsync(long address, @Nonnull byte[] data) {
+        if (data.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // the data is copied immediately in order to permit the caller to reuse its array
+        Memory memory = new Memory(data.length);
+        memory.write(0, data, 0, data.length);
+
+        return this.submit((p) -> {
+            p.write(address, memory, data.length);
+            return null;
+        });
+    }
+
+    /**
+     * Commits a transaction and provides the resulting journal.
+     *
+     * @see MemoryTransaction#commit() for more information on the semantics of transactions.
+     */
+    @Nonnull
+    public CompletableFuture<MemoryJournal> writeAsync(@Nonnull MemoryTransaction transaction) {
+        return this.submit((p) -> transaction.commit());
+    }
+
+    /**
+     * Executes a batch and provides its result.
+     *
+     * Batches are not thread safe and are thus not to be modified (or executed) until the returned
+     * future completes.
+     */
+    @Nonnull
+    public CompletableFuture<ProcessMemoryBatch.Result> batchAsync(@Nonnull ProcessMemoryBatch batch) {
+        return this.submit((p) -> batch.execute());
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Retrieves the executor which performs all operations of this instance.
+     */
+    @Nonnull
+    public MemoryExecutor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Retrieves the process this instance operates on.
+     */
+    @Nonnull
+    public Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Retrieves the maximum amount of time an operation may take before its future is completed
+     * with a timeout (or zero if operations never time out).
+     */
+    @Nonnull
+    public Duration getTimeout() {
+        return Duration.ofNanos(this.timeout);
+    }
+
+    /**
+     * Sets the maximum amount of time an operation may take before its future is completed with a
+     * timeout.
+     *
+     * Timed out operations are not aborted (and thus still delay subsequent operations) but release
+     * their callers. The new timeout applies to operations which are submitted after this call.
+     *
+     * @param timeout a timeout or {@link Duration#ZERO} to disable timeouts.
+     */
+    public void setTimeout(@Nonnull Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout cannot be negative: " + timeout);
+        }
+
+        this.timeout = timeout.toNanos();
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.async;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a dedicated pool of threads which perform memory I/O on behalf of other threads (such
+ * as the application thread) in order to keep them responsive when a process is slow to respond.
+ *
+ * Operations are submitted through {@link #lane() lanes} which execute their operations strictly
+ * in order of submission while operations of different lanes are executed in parallel (up to the
+ * configured parallelism).
+ *
+ * Once closed, lanes reject new operations while operations which have not been started yet are
+ * discarded (see {@link Operation}).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class MemoryExecutor implements AutoCloseable {
+    private static final Logger logger = LogManager.getFormatterLogger(MemoryExecutor.class);
+
+    /**
+     * Defines the default amount of threads which perform memory I/O.
+     */
+    public static final int DEFAULT_PARALLELISM = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final Object defaultLock = new Object();
+    @GuardedBy("defaultLock")
+    private static MemoryExecutor defaultExecutor;
+
+    private final int parallelism;
+    private final ExecutorService pool;
+    private final ScheduledExecutorService timer;
+
+    public MemoryExecutor(@Nonnegative int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive but was " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+        this.pool = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory("memory-io-"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("memory-io-timeout-"));
+    }
+
+    /**
+     * Retrieves the executor which is shared by all processes which do not explicitly specify an
+     * executor of their own.
+     */
+    @Nonnull
+    public static MemoryExecutor getDefault() {
+        synchronized (defaultLock) {
+            if (defaultExecutor == null) {
+                defaultExecutor = new MemoryExecutor(DEFAULT_PARALLELISM);
+                logger.info("Created default memory executor with %d threads", DEFAULT_PARALLELISM);
+            }
+
+            return defaultExecutor;
+        }
+    }
+
+    /**
+     * Notifies an operation that it will never be executed (if it wishes to be notified).
+     */
+    private static void discard(@Nonnull Runnable command) {
+        if (command instanceof Operation) {
+            try {
+                ((Operation) command).discard(new CancellationException("Memory executor has been closed"));
+            } catch (Throwable ex) {
+                logger.warn("Failed to discard memory operation: " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Creates a new lane which executes its operations sequentially on this executor.
+     *
+     * Lanes reject operations with a {@link RejectedExecutionException} once this executor has been
+     * closed.
+     */
+    @Nonnull
+    public Executor lane() {
+        return new Lane();
+    }
+
+    /**
+     * Completes the supplied future with a {@link TimeoutException} if it does not complete within
+     * the specified amount of time.
+     *
+     * The operation which is represented by the future is not interrupted (native calls cannot be
+     * interrupted safely) but its callers are released as soon as the timeout elapses.
+     *
+     * @param timeout a timeout or zero to disable the timeout.
+     * @return the supplied future.
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> withTimeout(@Nonnull CompletableFuture<T> future, @Nonnegative long timeout, @Nonnull TimeUnit unit) {
+        if (timeout <= 0 || future.isDone()) {
+            return future;
+        }
+
+        ScheduledFuture<?> task;
+
+        try {
+            task = this.timer.schedule(() -> future.completeExceptionally(new TimeoutException("Memory operation did not complete within " + unit.toMillis(timeout) + " ms")), timeout, unit);
+        } catch (RejectedExecutionException ex) {
+            // the executor has been closed in the meantime in which case the operation is
+            // discarded (and its future completed) instead
+            return future;
+        }
+
+        future.whenComplete((r, ex) -> task.cancel(false));
+
+        return future;
+    }
+
+    /**
+     * Stops all threads of this executor.
+     *
+     * Operations which are still queued are discarded (e.g. {@link Operation operations} are
+     * notified with a {@link CancellationException}) while operations which are currently executed
+     * are permitted to finish.
+     */
+    @Override
+    public void close() {
+        // operations which were passed to the pool but have not been started are discarded along
+        // with the remaining operations of their lanes
+        for (Runnable task : this.pool.shutdownNow()) {
+            if (task instanceof LaneTask) {
+                ((LaneTask) task).discard();
+            }
+        }
+
+        this.timer.shutdownNow();
+
+        synchronized (defaultLock) {
+            if (defaultExecutor == this) {
+                defaultExecutor = null;
+            }
+        }
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Retrieves the maximum amount of operations which are executed in parallel.
+     */
+    @Nonnegative
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Checks whether this executor has been closed.
+     */
+    public boolean isClosed() {
+        return this.pool.isShutdown();
+    }
+    // </editor-fold>
+
+    /**
+     * Represents an operation which wishes to be notified when it is discarded without being
+     * executed (e.g. because the executor has been closed).
+     */
+    interface Operation extends Runnable {
+
+        /**
+         * Handles the discarding of this operation.
+         *
+         * @param cause the reason for which the operation has been discarded.
+         */
+        void discard(@Nonnull CancellationException cause);
+    }
+
+    /**
+     * Executes operations sequentially while occupying at most one thread of the pool at a time.
+     */
+    @ThreadSafe
+    private final class Lane implements Executor {
+        @GuardedBy("tasks")
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        @GuardedBy("tasks")
+        private Runnable active;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void execute(@Nonnull Runnable command) {
+            synchronized (this.tasks) {
+                if (MemoryExecutor.this.isClosed()) {
+                    throw new RejectedExecutionException("Memory executor has been closed");
+                }
+
+                this.tasks.add(command);
+
+                if (this.active != null || this.submitNext()) {
+                    return;
+                }
+            }
+
+            this.discard();
+        }
+
+        /**
+         * Passes the next queued operation to the pool (if any).
+         *
+         * When the pool rejects the operation (e.g. because the executor has been closed), all
+         * remaining operations of this lane are discarded.
+         */
+        private void scheduleNext() {
+            synchronized (this.tasks) {
+                if (this.submitNext()) {
+                    return;
+                }
+            }
+
+            this.discard();
+        }
+
+        /**
+         * Passes the next queued operation to the pool (if any).
+         *
+         * Each operation is passed on individually in order to permit other lanes to make progress
+         * while this lane is busy.
+         *
+         * @return true if the operation has been accepted by the pool (or no operation remains),
+         * false otherwise.
+         */
+        @GuardedBy("tasks")
+        private boolean submitNext() {
+            Runnable next = this.tasks.poll();
+            this.active = next;
+
+            if (next == null) {
+                return true;
+            }
+
+            try {
+                MemoryExecutor.this.pool.execute(new LaneTask(this, next));
+                return true;
+            } catch (RejectedExecutionException ex) {
+                this.tasks.addFirst(next);
+                return false;
+            }
+        }
+
+        /**
+         * Discards all queued operations of this lane.
+         *
+         * Operations are notified outside of the lock since their futures may invoke arbitrary
+         * callbacks.
+         */
+        private void discard() {
+            List<Runnable> discarded;
+
+            synchronized (this.tasks) {
+                discarded = new ArrayList<>(this.tasks);
+                this.tasks.clear();
+                this.active = null;
+            }
+
+            discarded.forEach(MemoryExecutor::discard);
+        }
+    }
+
+    /**
+     * Executes a single operation of a lane and passes the next operation of the lane to the pool
+     * once it has finished.
+     */
+    private static final class LaneTask implements Runnable {
+        private final Lane lane;
+        private final Runnable command;
+
+        LaneTask(@Nonnull Lane lane, @Nonnull Runnable command) {
+            this.lane = lane;
+            this.command = command;
+        }
+
+        /**
+         * Discards the operation along with all remaining operations of its lane.
+         */
+        void discard() {
+            MemoryExecutor.discard(this.command);
+            this.lane.discard();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+                this.command.run();
+            } finally {
+                this.lane.scheduleNext();
+            }
+        }
+    }
+
+    /**
+     * Creates named daemon threads in order to not keep the application alive.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DaemonThreadFactory(@Nonnull String prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public Thread newThread(@Nullable Runnable runnable) {
+            Thread thread = new Thread(runnable, this.prefix + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.discovery;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Identifies a running process without attaching to it.
+ *
+ * Descriptors are cheap to create and are thus used to enumerate all processes on the system
+ * while the (comparatively expensive) {@link tv.dotstart.pandemonium.process.Process} instances
+ * are only ever created for processes the application is actually interested in.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class ProcessDescriptor {
+    private final int pid;
+    private final String name;
+
+    public ProcessDescriptor(@Nonnegative int pid, @Nonnull String name) {
+        this.pid = pid;
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the system wide identifier of this process.
+     */
+    @Nonnegative
+    public int getPid() {
+        return this.pid;
+    }
+
+    /**
+     * Retrieves the native name of this process (e.g. "dxhr.exe").
+     */
+    @Nonnull
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+
+        ProcessDescriptor that = (ProcessDescriptor) o;
+        return this.pid == that.pid &&
+                Objects.equals(this.name, that.name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.pid, this.name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ProcessDescriptor{pid=" + this.pid + ", name=\"" + this.name + "\"}";
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.discovery;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives notifications about processes which have been started or have exited.
+ *
+ * Listeners are invoked on the discovery thread and are thus expected to pass any work which
+ * affects the application UI to its respective thread.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public interface ProcessDiscoveryListener {
+
+    /**
+     * Handles a process which has been started since the previous discovery cycle.
+     */
+    default void onProcessStarted(@Nonnull ProcessDescriptor process) {
+    }
+
+    /**
+     * Handles a process which has exited since the previous discovery cycle.
+     */
+    default void onProcessExited(@Nonnull ProcessDescriptor process) {
+    }
+}
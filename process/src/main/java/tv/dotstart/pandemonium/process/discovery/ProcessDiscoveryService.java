@@ -0,0 +1,329 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.discovery;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.ProcessAccessor;
+
+/**
+ * Keeps track of the processes on this operating system and notifies its listeners when processes
+ * are started or exit.
+ *
+ * Each discovery cycle takes a single snapshot of the process table which is indexed by its
+ * (case insensitive) process names and thus permits any number of lookups without enumerating the
+ * processes again. Cycles are triggered by the {@link ProcessNotifier} of the backing accessor
+ * which either pushes changes as they occur or falls back to polling the process table in a fixed
+ * interval.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProcessDiscoveryService implements AutoCloseable {
+    private static final Logger logger = LogManager.getFormatterLogger(ProcessDiscoveryService.class);
+
+    /**
+     * Defines the default interval (in milliseconds) in which the process table is polled when no
+     * push notifications are available.
+     */
+    public static final long DEFAULT_POLL_INTERVAL = 1000;
+
+    /**
+     * Defines the interval (in milliseconds) in which the process table is synchronized when push
+     * notifications are available in order to recover from lost notifications.
+     */
+    private static final long RESYNC_INTERVAL = 10000;
+
+    /**
+     * Defines the minimum amount of time (in milliseconds) between two cycles in order to coalesce
+     * bursts of notifications (e.g. when a large amount of processes is spawned at once).
+     */
+    private static final long MINIMUM_CYCLE_INTERVAL = 50;
+
+    private final ProcessAccessor accessor;
+    private final long pollInterval;
+    private final List<ProcessDiscoveryListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private Thread thread;
+    @GuardedBy("lock")
+    private long lastCycle;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean running;
+
+    public ProcessDiscoveryService(@Nonnull ProcessAccessor accessor) {
+        this(accessor, DEFAULT_POLL_INTERVAL);
+    }
+
+    public ProcessDiscoveryService(@Nonnull ProcessAccessor accessor, @Nonnegative long pollInterval) {
+        if (pollInterval <= 0) {
+            throw new IllegalArgumentException("Poll interval must be positive but was " + pollInterval);
+        }
+
+        this.accessor = accessor;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Registers a listener which is notified about every process which is started or exits.
+     *
+     * Listeners which are registered before the service is started are notified about all
+     * processes which are present during the initial cycle.
+     */
+    public void addListener(@Nonnull ProcessDiscoveryListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     */
+    public void removeListener(@Nonnull ProcessDiscoveryListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Starts the discovery of processes.
+     *
+     * The initial cycle is performed on the calling thread and thus all processes are available
+     * for lookup as soon as this method returns. Calls to this method are ignored when the service
+     * has already been started.
+     */
+    public void start() {
+        synchronized (this.lock) {
+            if (this.thread != null) {
+                return;
+            }
+
+            // the notifier is created before the initial cycle in order to ensure that no process
+            // which is started in the meantime goes unnoticed
+            ProcessNotifier notifier = this.accessor.createNotifier();
+            logger.info("Discovering processes using %s", notifier.isPushing() ? "push notifications" : "polling");
+
+            this.running = true;
+            this.refresh();
+
+            this.thread = new Thread(() -> this.run(notifier), "process-discovery");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+    }
+
+    /**
+     * Performs a discovery cycle on the calling thread.
+     *
+     * Listeners are notified about all changes since the previous cycle before this method
+     * returns.
+     */
+    public void refresh() {
+        synchronized (this.lock) {
+            Snapshot previous = this.snapshot;
+            Snapshot current = new Snapshot(this.accessor.getProcessDescriptors());
+
+            this.snapshot = current;
+            this.lastCycle = System.nanoTime();
+
+            for (ProcessDescriptor process : previous.processes) {
+                if (!current.processes.contains(process)) {
+                    this.notify(process, false);
+                }
+            }
+
+            for (ProcessDescriptor process : current.processes) {
+                if (!previous.processes.contains(process)) {
+                    this.notify(process, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the discovery of processes.
+     *
+     * The background thread exits with its next wake up and thus this method does not block.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            if (this.thread == null) {
+                return;
+            }
+
+            this.running = false;
+            this.thread.interrupt();
+            this.thread = null;
+        }
+    }
+
+    /**
+     * Passes a change to all registered listeners.
+     */
+    private void notify(@Nonnull ProcessDescriptor process, boolean started) {
+        for (ProcessDiscoveryListener listener : this.listeners) {
+            try {
+                if (started) {
+                    listener.onProcessStarted(process);
+                } else {
+                    listener.onProcessExited(process);
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Discovery listener failed to handle " + process + ": " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Performs discovery cycles whenever the notifier reports a change until the service is
+     * closed.
+     */
+    private void run(@Nonnull ProcessNotifier notifier) {
+        try {
+            long timeout = this.pollInterval;
+
+            while (this.running) {
+                boolean changed = notifier.await(timeout, TimeUnit.MILLISECONDS);
+
+                if (!this.running) {
+                    return;
+                }
+
+                long remaining;
+                synchronized (this.lock) {
+                    remaining = MINIMUM_CYCLE_INTERVAL - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.lastCycle);
+                }
+
+                if (remaining > 0) {
+                    Thread.sleep(remaining);
+                }
+
+                this.refresh();
+
+                // processes may rename themselves shortly after they have been started without
+                // causing another notification (e.g. Wine replaces the name of its loader with the
+                // name of the executed image) and thus every change is followed up by another cycle
+                timeout = !notifier.isPushing() || changed ? this.pollInterval : RESYNC_INTERVAL;
+            }
+        } catch (InterruptedException ignore) {
+        } catch (RuntimeException ex) {
+            logger.error("Process discovery has failed: " + ex.getMessage(), ex);
+        } finally {
+            notifier.close();
+        }
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Retrieves all processes which were present during the most recent cycle.
+     */
+    @Nonnull
+    public Set<ProcessDescriptor> getProcesses() {
+        return this.snapshot.processes;
+    }
+
+    /**
+     * Retrieves all processes with the supplied name (ignoring its case) which were present during
+     * the most recent cycle.
+     */
+    @Nonnull
+    public List<ProcessDescriptor> getProcesses(@Nonnull String name) {
+        return this.snapshot.names.getOrDefault(name.toLowerCase(Locale.ROOT), Collections.emptyList());
+    }
+
+    /**
+     * Retrieves a process with the supplied name (ignoring its case) which was present during the
+     * most recent cycle.
+     */
+    @Nonnull
+    public Optional<ProcessDescriptor> getProcess(@Nonnull String name) {
+        return this.getProcesses(name).stream().findFirst();
+    }
+
+    /**
+     * Retrieves a process with any of the supplied names (ignoring their case) which was present
+     * during the most recent cycle.
+     *
+     * Names are evaluated in the order of the passed collection.
+     */
+    @Nonnull
+    public Optional<ProcessDescriptor> getProcess(@Nonnull Collection<String> names) {
+        Snapshot snapshot = this.snapshot;
+
+        for (String name : names) {
+            List<ProcessDescriptor> processes = snapshot.names.get(name.toLowerCase(Locale.ROOT));
+
+            if (processes != null) {
+                return Optional.of(processes.get(0));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Checks whether the service is currently discovering processes.
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+    // </editor-fold>
+
+    /**
+     * Represents an indexed snapshot of the process table.
+     */
+    @Immutable
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Collections.emptySet());
+
+        final Set<ProcessDescriptor> processes;
+        final Map<String, List<ProcessDescriptor>> names;
+
+        Snapshot(@Nonnull Collection<ProcessDescriptor> processes) {
+            Map<String, List<ProcessDescriptor>> names = new HashMap<>();
+
+            for (ProcessDescriptor process : processes) {
+                names.computeIfAbsent(process.getName().toLowerCase(Locale.ROOT), (n) -> new ArrayList<>(1)).add(process);
+            }
+
+            names.replaceAll((n, p) -> Collections.unmodifiableList(p));
+
+            this.processes = Collections.unmodifiableSet(new HashSet<>(processes));
+            this.names = names;
+        }
+    }
+}
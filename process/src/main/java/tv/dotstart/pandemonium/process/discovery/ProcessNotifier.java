@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.discovery;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Provides a method of waiting for changes to the process table of the operating system.
+ *
+ * Platforms which provide push notifications (such as the Linux proc connector) wake up their
+ * callers as soon as a process is started or exits while all other platforms fall back to the
+ * {@link #polling() polling} implementation which reports a (potential) change whenever the
+ * timeout elapses.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public interface ProcessNotifier extends AutoCloseable {
+
+    /**
+     * Creates a notifier which considers the process table to be changed whenever the supplied
+     * timeout elapses.
+     */
+    @Nonnull
+    static ProcessNotifier polling() {
+        return new ProcessNotifier() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean await(@Nonnegative long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+                unit.sleep(timeout);
+                return true;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean isPushing() {
+                return false;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Blocks until the process table changes or the timeout elapses.
+     *
+     * Implementations may coalesce multiple changes into a single wake up and may report changes
+     * spuriously (e.g. when notifications have been lost).
+     *
+     * @return true if the process table has (potentially) changed, false otherwise.
+     * @throws InterruptedException when the calling thread is interrupted while waiting.
+     */
+    boolean await(@Nonnegative long timeout, @Nonnull TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Checks whether this notifier receives push notifications from the operating system.
+     */
+    boolean isPushing();
+
+    /**
+     * Releases all resources associated with this notifier.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.metrics;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Represents a frequently accessed address along with the amount of operations which have been
+ * issued against it.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class HotAddress {
+    private final long address;
+    private final long reads;
+    private final long writes;
+    private final String moduleName;
+    private final long moduleOffset;
+
+    public HotAddress(long address, @Nonnegative long reads, @Nonnegative long writes, @Nullable String moduleName, long moduleOffset) {
+        this.address = address;
+        this.reads = reads;
+        this.writes = writes;
+        this.moduleName = moduleName;
+        this.moduleOffset = moduleOffset;
+    }
+
+    // <editor-fold desc="Getters & Setters">
+    public long getAddress() {
+        return this.address;
+    }
+
+    @Nonnegative
+    public long getReads() {
+        return this.reads;
+    }
+
+    @Nonnegative
+    public long getWrites() {
+        return this.writes;
+    }
+
+    /**
+     * Retrieves the total amount of operations which have been issued against this address.
+     */
+    @Nonnegative
+    public long getOperations() {
+        return this.reads + this.writes;
+    }
+
+    /**
+     * Retrieves the name of the module whose image contains this address (if any).
+     */
+    @Nullable
+    public String getModuleName() {
+        return this.moduleName;
+    }
+
+    /**
+     * Retrieves the offset of this address relative to the base address of its module.
+     *
+     * The returned value is only meaningful when a module name is present.
+     */
+    public long getModuleOffset() {
+        return this.moduleOffset;
+    }
+    // </editor-fold>
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String toString() {
+        String location = this.moduleName == null ? String.format("0x%X", this.address) : String.format("\"%s\"+%X", this.moduleName, this.moduleOffset);
+        return String.format("%s (reads=%d, writes=%d)", location, this.reads, this.writes);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Counts the operations per address within a fixed size, lock-free hash table.
+ *
+ * Addresses are inserted through a compare-and-set of their slot and are never removed (until
+ * the table is reset). Once the probe sequence of an address is exhausted, its operations are
+ * counted as dropped instead and thus the table never allocates on its recording path. The
+ * addresses which are accessed most frequently are typically accessed early on and will thus
+ * still be present when the table fills up.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+final class HotAddressTable {
+    private static final long EMPTY = 0;
+    private static final int MAX_PROBES = 16;
+
+    private final int mask;
+    private final AtomicLongArray keys;
+    private final AtomicLongArray reads;
+    private final AtomicLongArray writes;
+    private final LongAdder dropped = new LongAdder();
+
+    HotAddressTable(@Nonnegative int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two but was " + capacity);
+        }
+
+        this.mask = capacity - 1;
+        this.keys = new AtomicLongArray(capacity);
+        this.reads = new AtomicLongArray(capacity);
+        this.writes = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Records an operation at the specified address.
+     */
+    void record(long address, boolean write) {
+        // the null address is never accessed successfully and doubles as our empty marker
+        if (address == EMPTY) {
+            return;
+        }
+
+        int index = (int) (address ^ (address >>> 32)) * 0x9E3779B9 & this.mask;
+
+        for (int probe = 0; probe < MAX_PROBES; ++probe) {
+            long key = this.keys.get(index);
+
+            if (key == EMPTY) {
+                if (!this.keys.compareAndSet(index, EMPTY, address)) {
+                    key = this.keys.get(index);
+                } else {
+                    key = address;
+                }
+            }
+
+            if (key == address) {
+                if (write) {
+                    this.writes.incrementAndGet(index);
+                } else {
+                    this.reads.incrementAndGet(index);
+                }
+
+                return;
+            }
+
+            index = (index + 1) & this.mask;
+        }
+
+        this.dropped.increment();
+    }
+
+    /**
+     * Discards all recorded addresses.
+     *
+     * Operations which are recorded concurrently may be lost.
+     */
+    void reset() {
+        for (int i = 0; i <= this.mask; ++i) {
+            this.keys.set(i, EMPTY);
+            this.reads.set(i, 0);
+            this.writes.set(i, 0);
+        }
+
+        this.dropped.reset();
+    }
+
+    /**
+     * Retrieves the addresses with the largest amount of operations.
+     *
+     * @param limit the maximum amount of addresses to return.
+     * @return a list of address, read count and write count triplets in descending order of
+     * operations.
+     */
+    @Nonnull
+    List<long[]> top(@Nonnegative int limit) {
+        List<long[]> entries = new ArrayList<>();
+
+        for (int i = 0; i <= this.mask; ++i) {
+            long key = this.keys.get(i);
+
+            if (key != EMPTY) {
+                entries.add(new long[]{key, this.reads.get(i), this.writes.get(i)});
+            }
+        }
+
+        entries.sort(Comparator.comparingLong((long[] e) -> e[1] + e[2]).reversed());
+        return entries.size() <= limit ? entries : new ArrayList<>(entries.subList(0, limit));
+    }
+
+    /**
+     * Retrieves the amount of operations which could not be attributed to an address as the
+     * table has been exhausted.
+     */
+    @Nonnegative
+    long getDropped() {
+        return this.dropped.sum();
+    }
+}
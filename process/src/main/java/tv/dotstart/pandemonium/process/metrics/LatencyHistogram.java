@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a histogram of latencies (in nanoseconds) which may be recorded concurrently without
+ * acquiring any locks.
+ *
+ * Values are grouped into log-linear buckets (similar to an HDR histogram): Each power of two is
+ * split into {@value #SUB_BUCKET_COUNT} equally sized sub-buckets and thus all reported values
+ * are accurate to within 1/{@value #SUB_BUCKET_COUNT} of their actual magnitude. Values which
+ * exceed {@link #MAX_VALUE} are recorded as {@link #MAX_VALUE}.
+ *
+ * Reads are not atomic with respect to concurrent recordings and may thus observe a histogram
+ * which is slightly behind its counters.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class LatencyHistogram {
+
+    /**
+     * Defines the largest value which is tracked with full precision (roughly 18 minutes).
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Computes the bucket index of a value.
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * Computes the largest value which is recorded within the bucket at the specified index.
+     */
+    private static long highestValue(@Nonnegative int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records a single value.
+     *
+     * @param nanos a latency in nanoseconds (negative values are recorded as zero).
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(MAX_VALUE, nanos));
+
+        this.counts.incrementAndGet(index(value));
+        this.sum.add(value);
+
+        long current = this.max.get();
+        while (value > current && !this.max.compareAndSet(current, value)) {
+            current = this.max.get();
+        }
+    }
+
+    /**
+     * Discards all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            this.counts.set(i, 0);
+        }
+
+        this.sum.reset();
+        this.max.set(0);
+    }
+
+    /**
+     * Retrieves the value below which the specified percentage of all recorded values fall.
+     *
+     * @param percentile a percentile ranging from 0 to 100.
+     * @return a value in nanoseconds or zero if no values have been recorded.
+     */
+    @Nonnegative
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be within [0, 100] but was " + percentile);
+        }
+
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts[i] = this.counts.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * (percentile / 100d)));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            seen += counts[i];
+
+            if (seen >= target) {
+                return Math.min(highestValue(i), this.getMax());
+            }
+        }
+
+        return this.getMax();
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Retrieves the total amount of recorded values.
+     */
+    @Nonnegative
+    public long getCount() {
+        long count = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            count += this.counts.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves the largest recorded value (in nanoseconds).
+     */
+    @Nonnegative
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Retrieves the arithmetic mean of all recorded values (in nanoseconds).
+     */
+    @Nonnegative
+    public double getMean() {
+        long count = this.getCount();
+        return count == 0 ? 0 : this.sum.sum() / (double) count;
+    }
+    // </editor-fold>
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fus, p50=%.1fus, p99=%.1fus, max=%.1fus", this.getCount(), this.getMean() / 1000d, toMicros(this.getValueAtPercentile(50)), toMicros(this.getValueAtPercentile(99)), toMicros(this.getMax()));
+    }
+
+    /**
+     * Converts a value in nanoseconds into fractional microseconds.
+     */
+    private static double toMicros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a set of counters and latency histograms for the memory I/O which has been issued
+ * through a certain module, pointer path or process.
+ *
+ * Counters may optionally be attached to a parent (e.g. the counters of a pointer path are
+ * attached to the counters of its module) in which case all recorded values are also recorded
+ * within the parent.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class MemoryCounters {
+    private final MemoryCounters parent;
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder readBytes = new LongAdder();
+    private final LongAdder readFailures = new LongAdder();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder writtenBytes = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    public MemoryCounters(@Nullable MemoryCounters parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Records a successful read.
+     *
+     * @param length the amount of bytes which have been read.
+     * @param nanos  the amount of time the read took (in nanoseconds).
+     */
+    public void recordRead(@Nonnegative int length, long nanos) {
+        this.reads.increment();
+        this.readBytes.add(length);
+        this.readLatency.record(nanos);
+
+        if (this.parent != null) {
+            this.parent.recordRead(length, nanos);
+        }
+    }
+
+    /**
+     * Records a failed read.
+     *
+     * @param nanos the amount of time the read took until it failed (in nanoseconds).
+     */
+    public void recordReadFailure(long nanos) {
+        this.reads.increment();
+        this.readFailures.increment();
+        this.readLatency.record(nanos);
+
+        if (this.parent != null) {
+            this.parent.recordReadFailure(nanos);
+        }
+    }
+
+    /**
+     * Records a successful write.
+     *
+     * @param length the amount of bytes which have been written.
+     * @param nanos  the amount of time the write took (in nanoseconds).
+     */
+    public void recordWrite(@Nonnegative int length, long nanos) {
+        this.writes.increment();
+        this.writtenBytes.add(length);
+        this.writeLatency.record(nanos);
+
+        if (this.parent != null) {
+            this.parent.recordWrite(length, nanos);
+        }
+    }
+
+    /**
+     * Records a failed write.
+     *
+     * @param nanos the amount of time the write took until it failed (in nanoseconds).
+     */
+    public void recordWriteFailure(long nanos) {
+        this.writes.increment();
+        this.writeFailures.increment();
+        this.writeLatency.record(nanos);
+
+        if (this.parent != null) {
+            this.parent.recordWriteFailure(nanos);
+        }
+    }
+
+    /**
+     * Resets all counters and histograms (without affecting the parent).
+     */
+    public void reset() {
+        this.reads.reset();
+        this.readBytes.reset();
+        this.readFailures.reset();
+        this.readLatency.reset();
+
+        this.writes.reset();
+        this.writtenBytes.reset();
+        this.writeFailures.reset();
+        this.writeLatency.reset();
+    }
+
+    // <editor-fold desc="Getters & Setters">
+    @Nullable
+    public MemoryCounters getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Retrieves the total amount of reads (including failed reads).
+     */
+    @Nonnegative
+    public long getReads() {
+        return this.reads.sum();
+    }
+
+    @Nonnegative
+    public long getReadBytes() {
+        return this.readBytes.sum();
+    }
+
+    @Nonnegative
+    public long getReadFailures() {
+        return this.readFailures.sum();
+    }
+
+    @Nonnull
+    public LatencyHistogram getReadLatency() {
+        return this.readLatency;
+    }
+
+    /**
+     * Retrieves the total amount of writes (including failed writes).
+     */
+    @Nonnegative
+    public long getWrites() {
+        return this.writes.sum();
+    }
+
+    @Nonnegative
+    public long getWrittenBytes() {
+        return this.writtenBytes.sum();
+    }
+
+    @Nonnegative
+    public long getWriteFailures() {
+        return this.writeFailures.sum();
+    }
+
+    @Nonnull
+    public LatencyHistogram getWriteLatency() {
+        return this.writeLatency;
+    }
+    // </editor-fold>
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String toString() {
+        return "MemoryCounters{" +
+                "reads=" + this.getReads() +
+                ", readBytes=" + this.getReadBytes() +
+                ", readFailures=" + this.getReadFailures() +
+                ", readLatency={" + this.readLatency + "}" +
+                ", writes=" + this.getWrites() +
+                ", writtenBytes=" + this.getWrittenBytes() +
+                ", writeFailures=" + this.getWriteFailures() +
+                ", writeLatency={" + this.writeLatency + "}" +
+                '}';
+    }
+}
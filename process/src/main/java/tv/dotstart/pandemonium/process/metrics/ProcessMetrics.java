@@ -0,0 +1,335 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.PointerPath;
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryException;
+
+/**
+ * Collects statistics on the memory I/O which is issued against a process.
+ *
+ * Statistics are kept on three levels:
+ *
+ * <ul>
+ * <li>Process: All reads and writes which are passed to the operating system along with the
+ * addresses they target (reads which are served from a memory frame are counted separately as
+ * they never reach the operating system).</li>
+ * <li>Module: All reads and writes which are issued through pointers within a module.</li>
+ * <li>Pointer Path: All reads and writes which are issued through pointers with a certain path
+ * (including the reads which are necessary to resolve deep pointers).</li>
+ * </ul>
+ *
+ * Metrics are disabled by default in which case recording costs a single volatile read per
+ * operation. All recording is lock-free and does not allocate once a module or path has been
+ * encountered for the first time.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class ProcessMetrics {
+    private static final Logger logger = LogManager.getFormatterLogger(ProcessMetrics.class);
+
+    /**
+     * Defines the maximum amount of distinct addresses which are tracked by the hot address
+     * report.
+     */
+    public static final int HOT_ADDRESS_CAPACITY = 4096;
+
+    /**
+     * Defines the maximum amount of distinct pointer paths which are tracked individually (the
+     * I/O of any further paths is solely attributed to their respective module).
+     */
+    public static final int MAX_PATHS = 4096;
+
+    private final Process process;
+    private final MemoryCounters total = new MemoryCounters(null);
+    private final LongAdder cachedReads = new LongAdder();
+    private final LongAdder cachedBytes = new LongAdder();
+    private final ConcurrentMap<String, MemoryCounters> modules = new ConcurrentHashMap<>();
+    private final ConcurrentMap<PointerPath, MemoryCounters> paths = new ConcurrentHashMap<>();
+    private final HotAddressTable hotAddresses = new HotAddressTable(HOT_ADDRESS_CAPACITY);
+
+    private volatile boolean enabled;
+
+    public ProcessMetrics(@Nonnull Process process) {
+        this.process = process;
+    }
+
+    /**
+     * Records a read which has been passed to the operating system.
+     */
+    public void recordRead(long address, @Nonnegative int length, long nanos) {
+        this.total.recordRead(length, nanos);
+        this.hotAddresses.record(address, false);
+    }
+
+    /**
+     * Records a failed read which has been passed to the operating system.
+     */
+    public void recordReadFailure(long address, long nanos) {
+        this.total.recordReadFailure(nanos);
+        this.hotAddresses.record(address, false);
+    }
+
+    /**
+     * Records a write which has been passed to the operating system.
+     */
+    public void recordWrite(long address, @Nonnegative int length, long nanos) {
+        this.total.recordWrite(length, nanos);
+        this.hotAddresses.record(address, true);
+    }
+
+    /**
+     * Records a failed write which has been passed to the operating system.
+     */
+    public void recordWriteFailure(long address, long nanos) {
+        this.total.recordWriteFailure(nanos);
+        this.hotAddresses.record(address, true);
+    }
+
+    /**
+     * Records a read which has been served from a memory frame.
+     */
+    public void recordCachedRead(@Nonnegative int length) {
+        this.cachedReads.increment();
+        this.cachedBytes.add(length);
+    }
+
+    /**
+     * Retrieves the counters of a module (creating them if necessary).
+     */
+    @Nonnull
+    public MemoryCounters getModuleCounters(@Nonnull String moduleName) {
+        return this.modules.computeIfAbsent(moduleName.toLowerCase(Locale.ROOT), (k) -> new MemoryCounters(null));
+    }
+
+    /**
+     * Retrieves the counters of a pointer path (creating them if necessary).
+     *
+     * When the maximum amount of paths has been reached, the counters of the module are returned
+     * instead.
+     */
+    @Nonnull
+    public MemoryCounters getPathCounters(@Nonnull PointerPath path) {
+        MemoryCounters counters = this.paths.get(path);
+
+        if (counters != null) {
+            return counters;
+        }
+
+        MemoryCounters moduleCounters = this.getModuleCounters(path.getModuleName());
+
+        if (this.paths.size() >= MAX_PATHS) {
+            return moduleCounters;
+        }
+
+        return this.paths.computeIfAbsent(path, (k) -> new MemoryCounters(moduleCounters));
+    }
+
+    /**
+     * Retrieves the addresses which have been accessed most frequently.
+     *
+     * Addresses within module images are reported relative to their respective module.
+     *
+     * @param limit the maximum amount of addresses to return.
+     */
+    @Nonnull
+    public List<HotAddress> getHotAddresses(@Nonnegative int limit) {
+        List<long[]> entries = this.hotAddresses.top(limit);
+        List<ModuleRange> ranges = this.getModuleRanges();
+        List<HotAddress> addresses = new ArrayList<>(entries.size());
+
+        for (long[] entry : entries) {
+            ModuleRange range = ranges.stream()
+                    .filter((r) -> r.contains(entry[0]))
+                    .findFirst()
+                    .orElse(null);
+
+            if (range == null) {
+                addresses.add(new HotAddress(entry[0], entry[1], entry[2], null, 0));
+            } else {
+                addresses.add(new HotAddress(entry[0], entry[1], entry[2], range.name, entry[0] - range.base));
+            }
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Retrieves the address ranges of all module images within the process.
+     */
+    @Nonnull
+    private List<ModuleRange> getModuleRanges() {
+        List<ModuleRange> ranges = new ArrayList<>();
+
+        try {
+            for (ProcessModule module : this.process.getModules()) {
+                ranges.add(new ModuleRange(module.getName(), module.pointer(0).getAddress(0), module.getSize()));
+            }
+        } catch (ProcessMemoryException ex) {
+            logger.warn("Cannot resolve module ranges - Reporting absolute addresses: %s", ex.getMessage());
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Resets all statistics.
+     */
+    public void reset() {
+        this.total.reset();
+        this.cachedReads.reset();
+        this.cachedBytes.reset();
+        this.modules.values().forEach(MemoryCounters::reset);
+        this.paths.values().forEach(MemoryCounters::reset);
+        this.hotAddresses.reset();
+    }
+
+    /**
+     * Generates a human readable report of the collected statistics.
+     *
+     * @param limit the maximum amount of paths and addresses to include.
+     */
+    @Nonnull
+    public String report(@Nonnegative int limit) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("Process: ").append(this.total).append('\n');
+        builder.append("Frame: reads=").append(this.getCachedReads()).append(", bytes=").append(this.getCachedBytes()).append('\n');
+
+        builder.append("Modules:\n");
+        this.modules.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, MemoryCounters> e) -> e.getValue().getReads() + e.getValue().getWrites()).reversed())
+                .limit(limit)
+                .forEach((e) -> builder.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append('\n'));
+
+        builder.append("Paths:\n");
+        this.paths.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<PointerPath, MemoryCounters> e) -> e.getValue().getReads() + e.getValue().getWrites()).reversed())
+                .limit(limit)
+                .forEach((e) -> builder.append("  ").append(e.getKey()).append(": ").append(e.getValue()).append('\n'));
+
+        builder.append("Hot Addresses:\n");
+        this.getHotAddresses(limit).forEach((a) -> builder.append("  ").append(a).append('\n'));
+
+        long dropped = this.getDroppedAddresses();
+        if (dropped != 0) {
+            builder.append("  (").append(dropped).append(" operations on untracked addresses)\n");
+        }
+
+        return builder.toString();
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Checks whether statistics are currently being collected.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Retrieves the counters of all I/O which has been passed to the operating system.
+     */
+    @Nonnull
+    public MemoryCounters getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Retrieves the amount of reads which have been served from a memory frame.
+     */
+    @Nonnegative
+    public long getCachedReads() {
+        return this.cachedReads.sum();
+    }
+
+    @Nonnegative
+    public long getCachedBytes() {
+        return this.cachedBytes.sum();
+    }
+
+    /**
+     * Retrieves an unmodifiable view of the counters of all modules (indexed by their lower case
+     * name).
+     */
+    @Nonnull
+    public Map<String, MemoryCounters> getModules() {
+        return Collections.unmodifiableMap(this.modules);
+    }
+
+    /**
+     * Retrieves an unmodifiable view of the counters of all tracked pointer paths.
+     */
+    @Nonnull
+    public Map<PointerPath, MemoryCounters> getPaths() {
+        return Collections.unmodifiableMap(this.paths);
+    }
+
+    /**
+     * Retrieves the amount of operations whose address could not be tracked by the hot address
+     * report.
+     */
+    @Nonnegative
+    public long getDroppedAddresses() {
+        return this.hotAddresses.getDropped();
+    }
+    // </editor-fold>
+
+    /**
+     * Represents the address range of a module image.
+     */
+    private static final class ModuleRange {
+        private final String name;
+        private final long base;
+        private final long size;
+
+        ModuleRange(@Nonnull String name, long base, @Nonnegative long size) {
+            this.name = name;
+            this.base = base;
+            this.size = size;
+        }
+
+        boolean contains(long address) {
+            return address >= this.base && address - this.base < this.size;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.pin;
+
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+
+/**
+ * Represents a value which is continuously re-asserted within the memory of a process.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public interface Pin {
+
+    /**
+     * Stops asserting the pinned value.
+     *
+     * The memory is left in its current state (e.g. the pinned value remains in place until it is
+     * overwritten by the process). Once this method returns, the pinned value is guaranteed to no
+     * longer be written.
+     */
+    void cancel();
+
+    /**
+     * Retrieves the pinner which asserts this value.
+     */
+    @Nonnull
+    ValuePinner getPinner();
+
+    /**
+     * Retrieves the pointer which references the pinned value.
+     */
+    @Nonnull
+    ProcessMemoryPointer getPointer();
+
+    /**
+     * Retrieves a copy of the pinned value in its raw (native byte order) representation.
+     */
+    @Nonnull
+    byte[] getValue();
+
+    /**
+     * Checks whether this pin has been cancelled.
+     */
+    boolean isCancelled();
+}
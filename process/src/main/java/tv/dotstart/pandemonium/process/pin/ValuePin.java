@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.pin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryTransaction;
+import tv.dotstart.pandemonium.process.ProcessMemoryBatch;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryException;
+
+/**
+ * Provides a pin implementation which stores its value in its raw representation.
+ *
+ * Values of primitive size are verified using the respective typed batch reads while all other
+ * values are compared byte by byte.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+final class ValuePin implements Pin {
+    private static final Logger logger = LogManager.getFormatterLogger(ValuePin.class);
+
+    private final ValuePinner pinner;
+    private final ProcessMemoryPointer pointer;
+    private final byte[] value;
+    private final long raw;
+    private volatile boolean cancelled;
+
+    ValuePin(@Nonnull ValuePinner pinner, @Nonnull ProcessMemoryPointer pointer, @Nonnull byte[] value) {
+        this.pinner = pinner;
+        this.pointer = pointer;
+        this.value = value;
+
+        ByteBuffer buffer = ByteBuffer.wrap(value).order(ByteOrder.nativeOrder());
+
+        switch (value.length) {
+            case 1:
+                this.raw = buffer.get();
+                break;
+            case 2:
+                this.raw = buffer.getShort();
+                break;
+            case 4:
+                this.raw = buffer.getInt();
+                break;
+            case 8:
+                this.raw = buffer.getLong();
+                break;
+            default:
+                this.raw = 0;
+                break;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cancel() {
+        if (this.cancelled) {
+            return;
+        }
+
+        this.cancelled = true;
+        this.pinner.remove(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ValuePinner getPinner() {
+        return this.pinner;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer getPointer() {
+        return this.pointer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public byte[] getValue() {
+        return this.value.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Schedules the verification read of this pin with a batch.
+     */
+    void schedule(@Nonnull ProcessMemoryBatch batch) {
+        switch (this.value.length) {
+            case 1:
+                batch.readByte(this.pointer);
+                break;
+            case 2:
+                batch.readShort(this.pointer);
+                break;
+            case 4:
+                batch.readInteger(this.pointer);
+                break;
+            case 8:
+                batch.readLong(this.pointer);
+                break;
+            default:
+                batch.readByteArray(this.pointer, this.value.length);
+                break;
+        }
+    }
+
+    /**
+     * Checks whether the value within a batch result matches the pinned value.
+     */
+    boolean matches(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+        switch (this.value.length) {
+            case 1:
+                return result.getByte(index) == (byte) this.raw;
+            case 2:
+                return result.getShort(index) == (short) this.raw;
+            case 4:
+                return result.getInteger(index) == (int) this.raw;
+            case 8:
+                return result.getLong(index) == this.raw;
+            default:
+                return Arrays.equals(result.getByteArray(index), this.value);
+        }
+    }
+
+    /**
+     * Schedules the write of the pinned value with a transaction.
+     */
+    void write(@Nonnull MemoryTransaction transaction) {
+        transaction.writeByteArray(this.pointer, this.value);
+    }
+
+    /**
+     * Verifies and (if necessary) writes the pinned value on its own.
+     *
+     * This method is used when a batch cannot be executed as a whole and thus isolates failures
+     * to the affected pins.
+     */
+    void assertValue() {
+        if (this.cancelled) {
+            return;
+        }
+
+        try {
+            byte[] current = new byte[this.value.length];
+            this.pointer.readByteArray(current);
+
+            if (!Arrays.equals(current, this.value)) {
+                this.pointer.writeByteArray(this.value);
+            }
+        } catch (ProcessMemoryException ex) {
+            logger.debug("Cannot assert pinned value at %s: %s", this.pointer, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,450 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.pin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryTransaction;
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessMemoryBatch;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryWriteException;
+
+/**
+ * Continuously re-asserts values within the memory of a process.
+ *
+ * Some values (such as the field of view or the amount of ammunition) are recomputed by games on a
+ * regular basis and thus cannot be changed with a single write. Instead, they are pinned with this
+ * service which verifies all pinned values with a single batch per tick and writes those which
+ * have diverged with a single transaction (which coalesces neighbouring values). Values which
+ * already hold their pinned state are never written.
+ *
+ * All pins are asserted on a dedicated daemon thread which is owned by the pinner and terminated
+ * when the pinner is closed.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ValuePinner implements AutoCloseable {
+    private static final Logger logger = LogManager.getFormatterLogger(ValuePinner.class);
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    /**
+     * Defines the amount of ticks per second which is used when no explicit frequency is given.
+     */
+    public static final double DEFAULT_FREQUENCY = 20;
+
+    private final Process process;
+    private final ScheduledExecutorService executor;
+    private final Object tickLock = new Object();
+    @GuardedBy("this")
+    private final List<ValuePin> pins = new ArrayList<>();
+    @GuardedBy("this")
+    private double frequency;
+    @GuardedBy("this")
+    private ScheduledFuture<?> future;
+    @GuardedBy("this")
+    private Plan plan;
+    @GuardedBy("this")
+    private boolean closed;
+
+    public ValuePinner(@Nonnull Process process) {
+        this(process, DEFAULT_FREQUENCY);
+    }
+
+    /**
+     * @param frequency the amount of ticks per second.
+     * @throws IllegalArgumentException when the frequency is not positive.
+     */
+    public ValuePinner(@Nonnull Process process, @Nonnegative double frequency) {
+        verifyFrequency(frequency);
+
+        this.process = process;
+        this.frequency = frequency;
+        this.executor = Executors.newSingleThreadScheduledExecutor((r) -> {
+            Thread thread = new Thread(r, "value-pinner-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Cancels all pins and stops the pinning thread.
+     *
+     * This method blocks until an in-flight tick has completed in order to guarantee that no
+     * further writes are issued once it returns (e.g. so that the process may be closed safely).
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            this.executor.shutdownNow();
+
+            List<ValuePin> pins = new ArrayList<>(this.pins);
+            this.pins.clear();
+            this.plan = null;
+
+            pins.forEach(Pin::cancel);
+        }
+
+        synchronized (this.tickLock) {
+            // nothing to do here - we are merely waiting for the current tick to finish
+        }
+    }
+
+    /**
+     * Retrieves the amount of ticks per second.
+     */
+    @Nonnegative
+    public synchronized double getFrequency() {
+        return this.frequency;
+    }
+
+    /**
+     * Adjusts the amount of ticks per second.
+     *
+     * @throws IllegalArgumentException when the frequency is not positive.
+     */
+    public synchronized void setFrequency(@Nonnegative double frequency) {
+        verifyFrequency(frequency);
+        this.frequency = frequency;
+
+        if (this.future != null) {
+            this.future.cancel(false);
+            this.future = null;
+            this.start();
+        }
+    }
+
+    /**
+     * Retrieves the amount of active pins.
+     */
+    @Nonnegative
+    public synchronized int getPinCount() {
+        return this.pins.size();
+    }
+
+    /**
+     * Retrieves the process this pinner writes to.
+     */
+    @Nonnull
+    public Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Checks whether this pinner has been closed.
+     */
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Ensures that a frequency is positive.
+     */
+    private static void verifyFrequency(double frequency) {
+        if (!(frequency > 0)) {
+            throw new IllegalArgumentException("Frequency must be positive but was " + frequency);
+        }
+    }
+
+    /**
+     * Allocates a buffer for the encoding of a value.
+     */
+    @Nonnull
+    private static ByteBuffer allocate(@Nonnegative int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.nativeOrder());
+    }
+
+    // <editor-fold desc="Pins">
+
+    /**
+     * Pins a byte value.
+     *
+     * @see ProcessMemoryPointer#writeByte(short) for information on the handling of values.
+     * @throws IllegalArgumentException when the pointer belongs to a different process.
+     * @throws IllegalStateException    when the pinner has been closed.
+     */
+    @Nonnull
+    public Pin pinByte(@Nonnull ProcessMemoryPointer pointer, short value) {
+        return this.add(pointer, new byte[]{(byte) value});
+    }
+
+    /**
+     * Pins an arbitrary sequence of bytes.
+     *
+     * The array contents are copied and thus may be modified once this method returns.
+     *
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  array is empty.
+     * @throws IllegalStateException    when the pinner has been closed.
+     */
+    @Nonnull
+    public Pin pinByteArray(@Nonnull ProcessMemoryPointer pointer, @Nonnull byte[] value) {
+        if (value.length == 0) {
+            throw new IllegalArgumentException("Cannot pin empty array");
+        }
+
+        return this.add(pointer, Arrays.copyOf(value, value.length));
+    }
+
+    /**
+     * Pins a double value.
+     *
+     * @throws IllegalArgumentException when the pointer belongs to a different process.
+     * @throws IllegalStateException    when the pinner has been closed.
+     */
+    @Nonnull
+    public Pin pinDouble(@Nonnull ProcessMemoryPointer pointer, double value) {
+        return this.add(pointer, allocate(8).putDouble(value).array());
+    }
+
+    /**
+     * Pins a float value.
+     *
+     * @throws IllegalArgumentException when the pointer belongs to a different process.
+     * @throws IllegalStateException    when the pinner has been closed.
+     */
+    @Nonnull
+    public Pin pinFloat(@Nonnull ProcessMemoryPointer pointer, float value) {
+        return this.add(pointer, allocate(4).putFloat(value).array());
+    }
+
+    /**
+     * Pins an integer value.
+     *
+     * @see ProcessMemoryPointer#writeInteger(long) for information on the handling of values.
+     * @throws IllegalArgumentException when the pointer belongs to a different process.
+     * @throws IllegalStateException    when the pinner has been closed.
+     */
+    @Nonnull
+    public Pin pinInteger(@Nonnull ProcessMemoryPointer pointer, long value) {
+        return this.add(pointer, allocate(4).putInt((int) value).array());
+    }
+
+    /**
+     * Pins a long value.
+     *
+     * @throws IllegalArgumentException when the pointer belongs to a different process.
+     * @throws IllegalStateException    when the pinner has been closed.
+     */
+    @Nonnull
+    public Pin pinLong(@Nonnull ProcessMemoryPointer pointer, long value) {
+        return this.add(pointer, allocate(8).putLong(value).array());
+    }
+
+    /**
+     * Pins a short value.
+     *
+     * @see ProcessMemoryPointer#writeShort(int) for information on the handling of values.
+     * @throws IllegalArgumentException when the pointer belongs to a different process.
+     * @throws IllegalStateException    when the pinner has been closed.
+     */
+    @Nonnull
+    public Pin pinShort(@Nonnull ProcessMemoryPointer pointer, int value) {
+        return this.add(pointer, allocate(2).putShort((short) value).array());
+    }
+    // </editor-fold>
+
+    /**
+     * Registers a new pin and starts the pinning thread if necessary.
+     */
+    @Nonnull
+    private synchronized Pin add(@Nonnull ProcessMemoryPointer pointer, @Nonnull byte[] value) {
+        if (this.closed) {
+            throw new IllegalStateException("Pinner has been closed");
+        }
+        if (pointer.getProcess() != this.process) {
+            throw new IllegalArgumentException("Pointer does not belong to process " + this.process.getName());
+        }
+
+        ValuePin pin = new ValuePin(this, pointer, value);
+        this.pins.add(pin);
+        this.plan = null;
+
+        if (this.future == null) {
+            this.start();
+        }
+
+        return pin;
+    }
+
+    /**
+     * Removes a cancelled pin and stops ticking when no pins remain.
+     *
+     * This method blocks until an in-flight tick has completed in order to guarantee that the pin
+     * is no longer written once it returns.
+     */
+    void remove(@Nonnull ValuePin pin) {
+        synchronized (this) {
+            if (!this.pins.remove(pin)) {
+                return;
+            }
+
+            this.plan = null;
+
+            if (this.pins.isEmpty() && this.future != null) {
+                this.future.cancel(false);
+                this.future = null;
+            }
+        }
+
+        synchronized (this.tickLock) {
+            // nothing to do here - we are merely waiting for the current tick to finish
+        }
+    }
+
+    /**
+     * Schedules the periodic tick with the current frequency.
+     */
+    @GuardedBy("this")
+    private void start() {
+        long period = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / this.frequency));
+        this.future = this.executor.scheduleAtFixedRate(this::tick, 0, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Retrieves the current verification plan or constructs a new plan if the set of pins has
+     * changed since the last tick.
+     */
+    @Nonnull
+    private synchronized Plan plan() {
+        if (this.plan == null) {
+            ValuePin[] pins = this.pins.toArray(new ValuePin[this.pins.size()]);
+            ProcessMemoryBatch batch = this.process.batch();
+
+            for (ValuePin pin : pins) {
+                pin.schedule(batch);
+            }
+
+            this.plan = new Plan(pins, batch);
+        }
+
+        return this.plan;
+    }
+
+    /**
+     * Verifies all pinned values and writes those which have diverged.
+     */
+    private void tick() {
+        synchronized (this.tickLock) {
+            this.assertValues();
+        }
+    }
+
+    /**
+     * Performs the actual verification and writes of a tick.
+     */
+    private void assertValues() {
+        try {
+            Plan plan = this.plan();
+
+            if (plan.pins.length == 0) {
+                return;
+            }
+
+            ProcessMemoryBatch.Result result;
+
+            try {
+                result = plan.batch.execute();
+            } catch (ProcessMemoryStateException ex) {
+                throw ex;
+            } catch (ProcessMemoryReadException ex) {
+                // one or more values are currently unreadable (e.g. because a pointer chain is
+                // broken during a loading screen) so we'll fall back to asserting each value on
+                // its own in order to isolate the affected pins
+                for (ValuePin pin : plan.pins) {
+                    pin.assertValue();
+                }
+
+                return;
+            }
+
+            MemoryTransaction transaction = null;
+
+            for (int i = 0; i < plan.pins.length; ++i) {
+                ValuePin pin = plan.pins[i];
+
+                if (pin.isCancelled() || pin.matches(result, i)) {
+                    continue;
+                }
+
+                if (transaction == null) {
+                    transaction = this.process.transaction();
+                }
+
+                pin.write(transaction);
+            }
+
+            if (transaction == null) {
+                return;
+            }
+
+            try {
+                transaction.apply();
+            } catch (ProcessMemoryStateException ex) {
+                throw ex;
+            } catch (ProcessMemoryReadException | ProcessMemoryWriteException ex) {
+                for (ValuePin pin : plan.pins) {
+                    pin.assertValue();
+                }
+            }
+        } catch (ProcessMemoryStateException ex) {
+            logger.debug("Skipping pinner tick: %s", ex.getMessage());
+        } catch (RuntimeException ex) {
+            // exceptions which escape this method would silently stop all future ticks
+            logger.error("Failed to assert pinned values: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Represents a snapshot of the active pins along with a batch which reads their values in the
+     * same order.
+     */
+    private static final class Plan {
+        private final ValuePin[] pins;
+        private final ProcessMemoryBatch batch;
+
+        Plan(@Nonnull ValuePin[] pins, @Nonnull ProcessMemoryBatch batch) {
+            this.pins = pins;
+            this.batch = batch;
+        }
+    }
+}
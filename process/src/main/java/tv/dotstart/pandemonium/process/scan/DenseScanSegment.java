@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Stores candidates within a single chunk of the address space as a bitmap with one bit per
+ * aligned slot.
+ *
+ * The previously observed values are kept as a copy of the chunk unless all candidates are known
+ * to share the same value (e.g. after an exact scan) in which case only the bitmap is retained.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class DenseScanSegment extends ScanSegment {
+    private final long address;
+    private final int length;
+    private final long[] bitmap;
+    private final int slots;
+    private final int alignment;
+    private long count;
+
+    private byte[] values;
+    private ByteBuffer valueBuffer;
+    private long uniformValue;
+
+    /**
+     * @param address   the address of the first slot.
+     * @param length    the amount of bytes covered by this segment (including the trailing bytes
+     *                  of the last slot).
+     * @param slots     the amount of slots within this segment.
+     * @param alignment the distance between two slots.
+     */
+    DenseScanSegment(long address, @Nonnegative int length, @Nonnegative int slots, @Nonnegative int alignment) {
+        this.address = address;
+        this.length = length;
+        this.slots = slots;
+        this.alignment = alignment;
+        this.bitmap = new long[(slots + 63) >>> 6];
+    }
+
+    /**
+     * Evaluates every slot within the chunk which is currently loaded by the scanner.
+     *
+     * @param exact whether candidates are to be compared against the target value (otherwise all
+     *              readable slots are considered candidates).
+     */
+    void populate(@Nonnull ValueScanner scanner, boolean exact, long target) {
+        ValueType type = scanner.getType();
+        ByteBuffer chunk = scanner.getChunk();
+
+        for (int i = 0; i < this.slots; ++i) {
+            int position = i * this.alignment;
+
+            if (scanner.isReadable(position) && (!exact || type.read(chunk, position) == target)) {
+                this.bitmap[i >>> 6] |= 1L << i;
+                ++this.count;
+            }
+        }
+
+        this.store(scanner, exact, target);
+    }
+
+    /**
+     * Stores the values of the chunk which is currently loaded by the scanner.
+     */
+    private void store(@Nonnull ValueScanner scanner, boolean uniform, long value) {
+        if (uniform) {
+            this.values = null;
+            this.valueBuffer = null;
+            this.uniformValue = value;
+            return;
+        }
+
+        if (this.values == null) {
+            this.values = new byte[this.length];
+            this.valueBuffer = ByteBuffer.wrap(this.values).order(ByteOrder.nativeOrder());
+        }
+
+        scanner.copyChunk(this.values, this.length);
+    }
+
+    /**
+     * Retrieves the previously observed raw value of a slot.
+     */
+    private long getValue(@Nonnull ValueType type, @Nonnegative int position) {
+        return this.valueBuffer != null ? type.read(this.valueBuffer, position) : this.uniformValue;
+    }
+
+    /**
+     * Converts this segment into a sparse segment.
+     */
+    @Nonnull
+    SparseScanSegment toSparse(@Nonnull ValueScanner scanner) {
+        ValueType type = scanner.getType();
+
+        long[] addresses = new long[(int) this.count];
+        long[] values = new long[(int) this.count];
+        int index = 0;
+
+        for (int i = this.nextSlot(0); i != -1; i = this.nextSlot(i + 1)) {
+            addresses[index] = this.address + (long) i * this.alignment;
+            values[index++] = this.getValue(type, i * this.alignment);
+        }
+
+        return new SparseScanSegment(addresses, values, index);
+    }
+
+    /**
+     * Locates the next slot which contains a candidate.
+     *
+     * @return a slot index or -1 if no further candidates exist.
+     */
+    private int nextSlot(@Nonnegative int from) {
+        int word = from >>> 6;
+
+        if (word >= this.bitmap.length) {
+            return -1;
+        }
+
+        long bits = this.bitmap[word] & (-1L << from);
+
+        while (bits == 0) {
+            if (++word == this.bitmap.length) {
+                return -1;
+            }
+
+            bits = this.bitmap[word];
+        }
+
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Estimates the amount of heap memory (in bytes) which would be occupied by a sparse
+     * representation of this segment.
+     */
+    @Nonnegative
+    long getSparseMemoryUsage() {
+        return this.count * SparseScanSegment.CANDIDATE_SIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getCount() {
+        return this.count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getMemoryUsage() {
+        return (long) this.bitmap.length * Long.BYTES + (this.values != null ? this.values.length : 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void forEach(@Nonnull LongConsumer consumer) {
+        for (int i = this.nextSlot(0); i != -1; i = this.nextSlot(i + 1)) {
+            consumer.accept(this.address + (long) i * this.alignment);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void refine(@Nonnull ValueScanner scanner, @Nonnull ScanCondition condition, long target) {
+        ValueType type = scanner.getType();
+        ByteBuffer chunk = scanner.getChunk();
+
+        // dense segments are always read as a whole using a single call
+        scanner.load(this.address, this.length);
+
+        for (int i = this.nextSlot(0); i != -1; i = this.nextSlot(i + 1)) {
+            int position = i * this.alignment;
+
+            if (!scanner.isReadable(position) || !condition.test(type, this.getValue(type, position), type.read(chunk, position), target)) {
+                this.bitmap[i >>> 6] &= ~(1L << i);
+                --this.count;
+            }
+        }
+
+        this.store(scanner, condition == ScanCondition.EXACT, target);
+    }
+}
@@ -0,0 +1,792 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryFrame;
+import tv.dotstart.pandemonium.process.MemoryRegion;
+import tv.dotstart.pandemonium.process.MemoryRegionMap;
+import tv.dotstart.pandemonium.process.PointerPath;
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Locates chains of pointers which lead from a static address within a module image to a given
+ * target address (e.g. {@code "dxhr.exe"+1858238 -> 70 -> 14}).
+ *
+ * The readable regions of the process are read once when the scanner is constructed. Every
+ * aligned slot which holds the address of a readable location is recorded within a reverse
+ * pointer index: A pair of primitive arrays which contain the pointer values (in ascending order)
+ * and the addresses of their respective slots. Each search walks backwards from the target
+ * address: All slots which point at most {@link Builder#setMaximumOffset(long) the maximum offset}
+ * bytes below the target are located with a binary search and become the targets of the next
+ * level until a slot within a module image is found or the maximum depth has been reached.
+ *
+ * Both the construction of the index and each search are split across a fork-join pool. The
+ * index requires sixteen bytes per recorded pointer and reflects the state of the process at the
+ * time of construction (e.g. the scanner needs to be re-constructed in order to observe changes).
+ *
+ * Results are plain {@link PointerPath} instances which may be passed to
+ * {@link Process#pointer(PointerPath)} directly.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class PointerScanner {
+
+    /**
+     * Defines the amount of bytes which are read and indexed by a single task.
+     */
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final int SORT_THRESHOLD = 8192;
+    private static final int INSERTION_THRESHOLD = 16;
+    private static final int SEARCH_THRESHOLD = 64;
+
+    private final ForkJoinPool pool;
+    private final int depth;
+    private final long maximumOffset;
+    private final int maximumResults;
+
+    // reverse pointer index
+    private final long[] values;
+    private final long[] slots;
+
+    // module images (in ascending order)
+    private final String[] moduleNames;
+    private final long[] moduleStarts;
+    private final long[] moduleEnds;
+
+    private PointerScanner(@Nonnull Builder builder, @Nonnull Module[] modules, @Nonnull long[] values, @Nonnull long[] slots) {
+        this.pool = builder.pool;
+        this.depth = builder.depth;
+        this.maximumOffset = builder.maximumOffset;
+        this.maximumResults = builder.maximumResults;
+        this.values = values;
+        this.slots = slots;
+
+        this.moduleNames = new String[modules.length];
+        this.moduleStarts = new long[modules.length];
+        this.moduleEnds = new long[modules.length];
+
+        for (int i = 0; i < modules.length; ++i) {
+            this.moduleNames[i] = modules[i].name;
+            this.moduleStarts[i] = modules[i].start;
+            this.moduleEnds[i] = modules[i].end;
+        }
+    }
+
+    /**
+     * Creates a new builder for a scanner which operates on the supplied process.
+     */
+    @Nonnull
+    public static Builder builder(@Nonnull Process process) {
+        return new Builder(process);
+    }
+
+    /**
+     * Locates all chains of pointers which resolve to the supplied address.
+     *
+     * Chains are ordered by their depth, their module and their offsets (e.g. the shortest chains
+     * are returned first). Once the maximum amount of results has been reached, the search is
+     * aborted and an arbitrary subset of all chains is returned.
+     *
+     * @param target an address.
+     * @return a list of paths relative to a module.
+     */
+    @Nonnull
+    public List<PointerPath> scan(long target) {
+        ConcurrentLinkedQueue<PointerPath> results = new ConcurrentLinkedQueue<>();
+        Search search = new Search(results);
+
+        // addresses within a module image are static on their own
+        int module = this.getModule(target);
+
+        if (module != -1) {
+            search.emit(module, target, null);
+        }
+
+        this.pool.invoke(new SearchTask(search, target, this.depth, null, -1, -1));
+
+        List<PointerPath> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingInt(PointerPath::getDepth)
+                .thenComparing(PointerPath::getModuleName)
+                .thenComparingLong(PointerPath::getOffset)
+                .thenComparing(PointerPath::getOffsets, PointerScanner::compareOffsets));
+        return Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Compares two arrays of offsets of equal length.
+     */
+    private static int compareOffsets(@Nonnull long[] a, @Nonnull long[] b) {
+        for (int i = 0; i < a.length; ++i) {
+            int result = Long.compare(a[i], b[i]);
+
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Retrieves the index of the module which contains the supplied address.
+     *
+     * @return a module index or -1 when the address is not part of any module image.
+     */
+    private int getModule(long address) {
+        int index = Arrays.binarySearch(this.moduleStarts, address);
+
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        if (index < 0 || address >= this.moduleEnds[index]) {
+            return -1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Retrieves the index of the first pointer which is greater than or equal to the supplied
+     * value.
+     */
+    private int lowerBound(long value) {
+        int low = 0;
+        int high = this.values.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (this.values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    // <editor-fold desc="Getters">
+
+    /**
+     * Retrieves the maximum amount of pointers within a chain.
+     */
+    @Nonnegative
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Retrieves the maximum distance between a pointer and the address it refers to.
+     */
+    @Nonnegative
+    public long getMaximumOffset() {
+        return this.maximumOffset;
+    }
+
+    /**
+     * Retrieves the maximum amount of chains returned by a single scan.
+     */
+    @Nonnegative
+    public int getMaximumResults() {
+        return this.maximumResults;
+    }
+
+    /**
+     * Retrieves the amount of pointers within the reverse pointer index.
+     */
+    @Nonnegative
+    public int getPointerCount() {
+        return this.values.length;
+    }
+
+    /**
+     * Estimates the amount of heap memory (in bytes) occupied by the reverse pointer index.
+     */
+    @Nonnegative
+    public long getMemoryUsage() {
+        return (long) this.values.length * Long.BYTES * 2;
+    }
+    // </editor-fold>
+
+    /**
+     * Represents an element of the (reversed) chain of offsets which leads to the target address.
+     */
+    @Immutable
+    private static final class Tail {
+        private final long offset;
+        private final Tail next;
+        private final int length;
+
+        Tail(long offset, @Nullable Tail next) {
+            this.offset = offset;
+            this.next = next;
+            this.length = next == null ? 1 : next.length + 1;
+        }
+    }
+
+    /**
+     * Collects the results of a single scan.
+     */
+    @ThreadSafe
+    private final class Search {
+        private final ConcurrentLinkedQueue<PointerPath> results;
+        private final AtomicInteger count = new AtomicInteger();
+
+        Search(@Nonnull ConcurrentLinkedQueue<PointerPath> results) {
+            this.results = results;
+        }
+
+        /**
+         * Records a chain which originates at a slot within a module image.
+         */
+        void emit(int module, long slot, @Nullable Tail tail) {
+            if (this.count.incrementAndGet() > PointerScanner.this.maximumResults) {
+                return;
+            }
+
+            long[] offsets = new long[tail == null ? 0 : tail.length];
+
+            for (int i = 0; tail != null; ++i, tail = tail.next) {
+                offsets[i] = tail.offset;
+            }
+
+            this.results.add(PointerPath.of(PointerScanner.this.moduleNames[module], slot - PointerScanner.this.moduleStarts[module], offsets));
+        }
+
+        /**
+         * Checks whether the maximum amount of results has been reached.
+         */
+        boolean isComplete() {
+            return this.count.get() >= PointerScanner.this.maximumResults;
+        }
+    }
+
+    /**
+     * Locates all slots which point close to a target address and either records them (when
+     * they are located within a module image) or continues the search at their respective
+     * address.
+     */
+    private final class SearchTask extends RecursiveAction {
+        private final Search search;
+        private final long target;
+        private final int depth;
+        private final Tail tail;
+        private final int from;
+        private final int to;
+
+        SearchTask(@Nonnull Search search, long target, @Nonnegative int depth, @Nullable Tail tail, int from, int to) {
+            this.search = search;
+            this.target = target;
+            this.depth = depth;
+            this.tail = tail;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (this.search.isComplete()) {
+                return;
+            }
+
+            int from = this.from;
+            int to = this.to;
+
+            if (from == -1) {
+                from = PointerScanner.this.lowerBound(Math.max(0, this.target - PointerScanner.this.maximumOffset));
+                to = PointerScanner.this.lowerBound(this.target + 1);
+            }
+
+            if (to - from > SEARCH_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+
+                invokeAll(
+                        new SearchTask(this.search, this.target, this.depth, this.tail, from, middle),
+                        new SearchTask(this.search, this.target, this.depth, this.tail, middle, to)
+                );
+                return;
+            }
+
+            List<SearchTask> children = null;
+
+            for (int i = from; i < to; ++i) {
+                long slot = PointerScanner.this.slots[i];
+                Tail tail = new Tail(this.target - PointerScanner.this.values[i], this.tail);
+                int module = PointerScanner.this.getModule(slot);
+
+                if (module != -1) {
+                    this.search.emit(module, slot, tail);
+                } else if (this.depth > 1) {
+                    if (children == null) {
+                        children = new ArrayList<>();
+                    }
+
+                    children.add(new SearchTask(this.search, slot, this.depth - 1, tail, -1, -1));
+                }
+            }
+
+            if (children != null) {
+                invokeAll(children);
+            }
+        }
+    }
+
+    /**
+     * Represents the image of a module.
+     */
+    @Immutable
+    private static final class Module {
+        private final String name;
+        private final long start;
+        private final long end;
+
+        Module(@Nonnull String name, long start, long end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Represents the pointers which have been located within a portion of the address space.
+     */
+    private static final class Entries {
+        private final long[] values;
+        private final long[] slots;
+
+        Entries(@Nonnull long[] values, @Nonnull long[] slots) {
+            this.values = values;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * Reads a set of chunks and records all pointers within them.
+     */
+    private static final class IndexTask extends RecursiveTask<List<Entries>> {
+        private final Process process;
+        private final MemoryRegionMap regionMap;
+        private final int pointerSize;
+        private final int alignment;
+        private final long[] chunkStarts;
+        private final long[] chunkEnds;
+        private final long[] regionEnds;
+        private final int from;
+        private final int to;
+
+        IndexTask(@Nonnull Process process, @Nonnull MemoryRegionMap regionMap, @Nonnegative int pointerSize, @Nonnegative int alignment, @Nonnull long[] chunkStarts, @Nonnull long[] chunkEnds, @Nonnull long[] regionEnds, @Nonnegative int from, @Nonnegative int to) {
+            this.process = process;
+            this.regionMap = regionMap;
+            this.pointerSize = pointerSize;
+            this.alignment = alignment;
+            this.chunkStarts = chunkStarts;
+            this.chunkEnds = chunkEnds;
+            this.regionEnds = regionEnds;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<Entries> compute() {
+            if (this.to - this.from > 1) {
+                int middle = (this.from + this.to) >>> 1;
+
+                IndexTask upper = new IndexTask(this.process, this.regionMap, this.pointerSize, this.alignment, this.chunkStarts, this.chunkEnds, this.regionEnds, middle, this.to);
+                upper.fork();
+
+                List<Entries> lower = new IndexTask(this.process, this.regionMap, this.pointerSize, this.alignment, this.chunkStarts, this.chunkEnds, this.regionEnds, this.from, middle).compute();
+                lower.addAll(upper.join());
+                return lower;
+            }
+
+            List<Entries> result = new ArrayList<>(1);
+
+            if (this.from == this.to) {
+                return result;
+            }
+
+            long start = this.chunkStarts[this.from];
+            long end = this.chunkEnds[this.from];
+
+            // every chunk includes the beginning of the following chunk in order to record
+            // pointers which cross the boundary between both
+            int length = (int) (Math.min(this.regionEnds[this.from], end + this.pointerSize - 1) - start);
+            byte[] buffer = new byte[length];
+
+            try {
+                this.process.read(start, buffer, 0, length);
+            } catch (ProcessMemoryReadException ex) {
+                this.readPages(start, buffer);
+            }
+
+            ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.nativeOrder());
+            int capacity = (int) ((end - start + this.alignment - 1) / this.alignment);
+            long[] values = new long[capacity];
+            long[] slots = new long[capacity];
+            int count = 0;
+
+            for (int position = 0; start + position < end && position + this.pointerSize <= length; position += this.alignment) {
+                long value = this.pointerSize == 8 ? view.getLong(position) : view.getInt(position) & 0xFFFFFFFFL;
+
+                if (value != 0 && this.regionMap.isReadable(value, 1)) {
+                    values[count] = value;
+                    slots[count] = start + position;
+                    ++count;
+                }
+            }
+
+            if (count != 0) {
+                result.add(new Entries(Arrays.copyOf(values, count), Arrays.copyOf(slots, count)));
+            }
+
+            return result;
+        }
+
+        /**
+         * Reads a chunk page by page (unreadable pages are left zeroed and thus never produce
+         * pointers).
+         */
+        private void readPages(long start, @Nonnull byte[] buffer) {
+            int position = 0;
+
+            while (position < buffer.length) {
+                int pageLength = (int) Math.min(buffer.length - position, MemoryFrame.PAGE_SIZE - ((start + position) & (MemoryFrame.PAGE_SIZE - 1)));
+
+                try {
+                    this.process.read(start + position, buffer, position, pageLength);
+                } catch (ProcessMemoryReadException ex) {
+                    Arrays.fill(buffer, position, position + pageLength, (byte) 0);
+                }
+
+                position += pageLength;
+            }
+        }
+    }
+
+    /**
+     * Sorts a range of the reverse pointer index by pointer value.
+     *
+     * Values and slots are stored within separate arrays and thus need to be swapped together
+     * which rules out the sorting methods provided by {@link Arrays}.
+     */
+    private static final class SortTask extends RecursiveAction {
+        private final long[] values;
+        private final long[] slots;
+        private final int from;
+        private final int to;
+
+        SortTask(@Nonnull long[] values, @Nonnull long[] slots, @Nonnegative int from, @Nonnegative int to) {
+            this.values = values;
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            int from = this.from;
+            int to = this.to;
+            List<SortTask> forked = null;
+
+            // the smaller partition is sorted (or forked) while the larger one is sorted within
+            // this loop in order to bound the depth of the stack
+            while (to - from > INSERTION_THRESHOLD) {
+                int split = this.partition(from, to);
+                SortTask task;
+
+                if (split - from < to - split) {
+                    task = new SortTask(this.values, this.slots, from, split);
+                    from = split;
+                } else {
+                    task = new SortTask(this.values, this.slots, split, to);
+                    to = split;
+                }
+
+                if (task.to - task.from > SORT_THRESHOLD) {
+                    if (forked == null) {
+                        forked = new ArrayList<>();
+                    }
+
+                    forked.add(task);
+                    task.fork();
+                } else {
+                    task.compute();
+                }
+            }
+
+            this.insertionSort(from, to);
+
+            if (forked != null) {
+                forked.forEach(SortTask::join);
+            }
+        }
+
+        /**
+         * Partitions a range around the median of its first, middle and last value.
+         *
+         * @return the index of the first element of the upper partition.
+         */
+        private int partition(int from, int to) {
+            long[] values = this.values;
+            int middle = (from + to) >>> 1;
+            long a = values[from];
+            long b = values[middle];
+            long c = values[to - 1];
+            long pivot = a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+
+            int i = from - 1;
+            int j = to;
+
+            while (true) {
+                do {
+                    ++i;
+                } while (values[i] < pivot);
+
+                do {
+                    --j;
+                } while (values[j] > pivot);
+
+                if (i >= j) {
+                    return j + 1;
+                }
+
+                this.swap(i, j);
+            }
+        }
+
+        /**
+         * Sorts a small range through insertion.
+         */
+        private void insertionSort(int from, int to) {
+            for (int i = from + 1; i < to; ++i) {
+                long value = this.values[i];
+                long slot = this.slots[i];
+                int j = i - 1;
+
+                while (j >= from && this.values[j] > value) {
+                    this.values[j + 1] = this.values[j];
+                    this.slots[j + 1] = this.slots[j];
+                    --j;
+                }
+
+                this.values[j + 1] = value;
+                this.slots[j + 1] = slot;
+            }
+        }
+
+        /**
+         * Swaps two entries of the index.
+         */
+        private void swap(int i, int j) {
+            long value = this.values[i];
+            this.values[i] = this.values[j];
+            this.values[j] = value;
+
+            long slot = this.slots[i];
+            this.slots[i] = this.slots[j];
+            this.slots[j] = slot;
+        }
+    }
+
+    /**
+     * Provides a factory for pointer scanners.
+     */
+    public static final class Builder {
+        private final Process process;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+        private int alignment;
+        private int depth = 4;
+        private long maximumOffset = 4096;
+        private int maximumResults = 10000;
+
+        private Builder(@Nonnull Process process) {
+            this.process = process;
+            this.alignment = process.is64Bit() ? 8 : 4;
+        }
+
+        /**
+         * Selects the distance between two slots which are considered to hold a pointer (defaults
+         * to the pointer size of the process).
+         *
+         * @throws IllegalArgumentException when the alignment is not positive.
+         */
+        @Nonnull
+        public Builder setAlignment(@Nonnegative int alignment) {
+            if (alignment <= 0) {
+                throw new IllegalArgumentException("Alignment must be positive but was " + alignment);
+            }
+
+            this.alignment = alignment;
+            return this;
+        }
+
+        /**
+         * Selects the maximum amount of pointers within a chain (defaults to four).
+         *
+         * @throws IllegalArgumentException when the depth is not positive.
+         */
+        @Nonnull
+        public Builder setDepth(@Nonnegative int depth) {
+            if (depth <= 0) {
+                throw new IllegalArgumentException("Depth must be positive but was " + depth);
+            }
+
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * Selects the maximum distance between a pointer and the address it refers to (defaults
+         * to 4096 bytes).
+         *
+         * @throws IllegalArgumentException when the offset is negative.
+         */
+        @Nonnull
+        public Builder setMaximumOffset(@Nonnegative long maximumOffset) {
+            if (maximumOffset < 0) {
+                throw new IllegalArgumentException("Maximum offset cannot be negative but was " + maximumOffset);
+            }
+
+            this.maximumOffset = maximumOffset;
+            return this;
+        }
+
+        /**
+         * Selects the maximum amount of chains returned by a single scan (defaults to 10000).
+         *
+         * @throws IllegalArgumentException when the limit is not positive.
+         */
+        @Nonnull
+        public Builder setMaximumResults(@Nonnegative int maximumResults) {
+            if (maximumResults <= 0) {
+                throw new IllegalArgumentException("Maximum results must be positive but was " + maximumResults);
+            }
+
+            this.maximumResults = maximumResults;
+            return this;
+        }
+
+        /**
+         * Selects the pool which executes the construction of the index and all searches
+         * (defaults to the common pool).
+         */
+        @Nonnull
+        public Builder setPool(@Nonnull ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Constructs a new scanner by reading all readable regions of the process.
+         *
+         * @throws ProcessMemoryStateException when the process state prevents access to memory.
+         */
+        @Nonnull
+        public PointerScanner build() {
+            int pointerSize = this.process.is64Bit() ? 8 : 4;
+            this.process.invalidateRegions();
+            MemoryRegionMap regionMap = this.process.getRegionMap();
+
+            Module[] modules = this.process.getModules().stream()
+                    .map((m) -> {
+                        long start = m.pointer(0).getAddress();
+                        return new Module(m.getName(), start, start + m.getSize());
+                    })
+                    .sorted(Comparator.comparingLong((m) -> m.start))
+                    .toArray(Module[]::new);
+
+            // readable regions are divided into aligned chunks which are read and indexed
+            // independently
+            List<long[]> chunks = new ArrayList<>();
+
+            for (MemoryRegion region : regionMap.getRegions()) {
+                if (!region.isReadable()) {
+                    continue;
+                }
+
+                long first = (region.getBaseAddress() + this.alignment - 1) / this.alignment * this.alignment;
+                long chunkSize = CHUNK_SIZE / this.alignment * this.alignment;
+
+                for (long address = first; address < region.getEndAddress(); address += chunkSize) {
+                    chunks.add(new long[]{address, Math.min(region.getEndAddress(), address + chunkSize), region.getEndAddress()});
+                }
+            }
+
+            long[] chunkStarts = chunks.stream().mapToLong((c) -> c[0]).toArray();
+            long[] chunkEnds = chunks.stream().mapToLong((c) -> c[1]).toArray();
+            long[] regionEnds = chunks.stream().mapToLong((c) -> c[2]).toArray();
+
+            List<Entries> entries = this.pool.invoke(new IndexTask(this.process, regionMap, pointerSize, this.alignment, chunkStarts, chunkEnds, regionEnds, 0, chunkStarts.length));
+
+            long count = entries.stream()
+                    .mapToLong((e) -> e.values.length)
+                    .sum();
+
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Too many pointers: " + count);
+            }
+
+            long[] values = new long[(int) count];
+            long[] slots = new long[(int) count];
+            int position = 0;
+
+            for (Entries e : entries) {
+                System.arraycopy(e.values, 0, values, position, e.values.length);
+                System.arraycopy(e.slots, 0, slots, position, e.slots.length);
+                position += e.values.length;
+            }
+
+            this.pool.invoke(new SortTask(values, slots, 0, values.length));
+            return new PointerScanner(this, modules, values, slots);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Provides a list of conditions which refine the results of a {@link ValueScanner}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public enum ScanCondition {
+
+    /**
+     * Matches values which are equal to a given value.
+     */
+    EXACT {
+        @Override
+        boolean test(@Nonnull ValueType type, long previous, long current, long target) {
+            return current == target;
+        }
+    },
+
+    /**
+     * Matches values which differ from their previously observed value.
+     */
+    CHANGED {
+        @Override
+        boolean test(@Nonnull ValueType type, long previous, long current, long target) {
+            return current != previous;
+        }
+    },
+
+    /**
+     * Matches values which are equal to their previously observed value.
+     */
+    UNCHANGED {
+        @Override
+        boolean test(@Nonnull ValueType type, long previous, long current, long target) {
+            return current == previous;
+        }
+    },
+
+    /**
+     * Matches values which are larger than their previously observed value.
+     */
+    INCREASED {
+        @Override
+        boolean test(@Nonnull ValueType type, long previous, long current, long target) {
+            return type.compare(current, previous) > 0;
+        }
+    },
+
+    /**
+     * Matches values which are smaller than their previously observed value.
+     */
+    DECREASED {
+        @Override
+        boolean test(@Nonnull ValueType type, long previous, long current, long target) {
+            return type.compare(current, previous) < 0;
+        }
+    };
+
+    /**
+     * Evaluates this condition for a single value.
+     *
+     * @param previous the previously observed raw value.
+     * @param current  the current raw value.
+     * @param target   the raw value to compare against (only used by {@link #EXACT}).
+     */
+    abstract boolean test(@Nonnull ValueType type, long previous, long current, long target);
+}
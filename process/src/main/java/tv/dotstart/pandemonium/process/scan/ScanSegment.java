@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Represents the candidates of a value scan within a certain portion of the address space.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+abstract class ScanSegment {
+
+    /**
+     * Retrieves the amount of candidates within this segment.
+     */
+    @Nonnegative
+    abstract long getCount();
+
+    /**
+     * Estimates the amount of heap memory (in bytes) occupied by this segment.
+     */
+    @Nonnegative
+    abstract long getMemoryUsage();
+
+    /**
+     * Passes the address of every candidate within this segment to a consumer (in ascending
+     * order).
+     */
+    abstract void forEach(@Nonnull LongConsumer consumer);
+
+    /**
+     * Reads the current value of every candidate and discards all candidates which do not match
+     * the supplied condition.
+     *
+     * @param target the raw value to compare against (only used by {@link ScanCondition#EXACT}).
+     */
+    abstract void refine(@Nonnull ValueScanner scanner, @Nonnull ScanCondition condition, long target);
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Represents a byte signature ("array of bytes") which identifies a location within a module
+ * image independently of its exact address.
+ *
+ * Signatures are expressed as a whitespace separated list of hexadecimal bytes in which unknown
+ * bytes (such as addresses embedded within an instruction) are replaced by wildcards (e.g. {@code
+ * "8B 0D ?? ?? ?? ?? 85 C9"}).
+ *
+ * Searches are performed using a variation of the Boyer-Moore-Horspool algorithm: A skip table
+ * is computed once when the signature is parsed and permits the search to advance by up to the
+ * length of the signature for every mismatch. Wildcards limit the maximum shift and thus
+ * signatures which end in concrete bytes perform best (trailing wildcards are ignored while
+ * searching).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class Signature {
+    private final String pattern;
+    private final byte[] bytes;
+    private final boolean[] wildcards;
+    private final int searchLength;
+    private final int shift;
+    private final int anchor;
+    private final int[] skip = new int[256];
+
+    private Signature(@Nonnull String pattern, @Nonnull byte[] bytes, @Nonnull boolean[] wildcards) {
+        this.pattern = pattern;
+        this.bytes = bytes;
+        this.wildcards = wildcards;
+
+        // trailing wildcards cannot cause a mismatch and would otherwise reduce every shift to a
+        // single byte thus we'll exclude them from the search and simply require the window to
+        // fit into the searched range
+        int searchLength = bytes.length;
+        while (wildcards[searchLength - 1]) {
+            --searchLength;
+        }
+        this.searchLength = searchLength;
+
+        // a wildcard matches every byte and thus limits the shift of every value to the distance
+        // between the wildcard and the end of the window
+        int defaultShift = searchLength;
+        for (int i = 0; i < searchLength - 1; ++i) {
+            if (wildcards[i]) {
+                defaultShift = searchLength - 1 - i;
+            }
+        }
+
+        this.shift = defaultShift;
+        Arrays.fill(this.skip, defaultShift);
+
+        for (int i = 0; i < searchLength - 1; ++i) {
+            if (!wildcards[i]) {
+                int index = bytes[i] & 0xFF;
+                this.skip[index] = Math.min(defaultShift, searchLength - 1 - i);
+            }
+        }
+
+        // select a pair of concrete bytes which is used to locate candidates when searching for
+        // multiple signatures at once while avoiding bytes which commonly occur as padding or
+        // immediate values (as they'd produce a large amount of candidates)
+        int anchor = -1;
+        int anchorScore = Integer.MAX_VALUE;
+
+        for (int i = 0; i < searchLength - 1; ++i) {
+            if (wildcards[i] || wildcards[i + 1]) {
+                continue;
+            }
+
+            int score = score(bytes[i]) + score(bytes[i + 1]);
+            if (score < anchorScore) {
+                anchor = i;
+                anchorScore = score;
+            }
+        }
+
+        this.anchor = anchor;
+    }
+
+    /**
+     * Estimates how common a byte value is within executable images.
+     */
+    private static int score(byte value) {
+        switch (value & 0xFF) {
+            case 0x00:
+            case 0xCC:
+            case 0xFF:
+                return 2;
+            case 0x90:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Parses a signature from its textual representation.
+     *
+     * @throws IllegalArgumentException when the pattern is malformed or consists solely of
+     *                                  wildcards.
+     */
+    @Nonnull
+    public static Signature parse(@Nonnull String pattern) {
+        String[] tokens = pattern.trim().split("\\s+");
+
+        if (tokens.length == 1 && tokens[0].isEmpty()) {
+            throw new IllegalArgumentException("Signature must not be empty");
+        }
+
+        byte[] bytes = new byte[tokens.length];
+        boolean[] wildcards = new boolean[tokens.length];
+        boolean concrete = false;
+
+        for (int i = 0; i < tokens.length; ++i) {
+            String token = tokens[i];
+
+            if ("?".equals(token) || "??".equals(token)) {
+                wildcards[i] = true;
+                continue;
+            }
+
+            if (token.length() != 2 || Character.digit(token.charAt(0), 16) == -1 || Character.digit(token.charAt(1), 16) == -1) {
+                throw new IllegalArgumentException("Illegal signature byte \"" + token + "\" at index " + i + " of signature \"" + pattern + "\"");
+            }
+
+            bytes[i] = (byte) Integer.parseInt(token, 16);
+            concrete = true;
+        }
+
+        if (!concrete) {
+            throw new IllegalArgumentException("Signature must contain at least one concrete byte: \"" + pattern + "\"");
+        }
+
+        return new Signature(pattern.trim(), bytes, wildcards);
+    }
+
+    /**
+     * Retrieves the offset of a pair of concrete bytes within this signature which may be used to
+     * locate candidate positions.
+     *
+     * @return an offset or -1 if the signature does not contain two adjacent concrete bytes.
+     */
+    int getAnchor() {
+        return this.anchor;
+    }
+
+    /**
+     * Retrieves the pair of concrete bytes at the anchor of this signature as an unsigned 16-bit
+     * value.
+     */
+    int getAnchorKey() {
+        return (this.bytes[this.anchor] & 0xFF) << 8 | (this.bytes[this.anchor + 1] & 0xFF);
+    }
+
+    /**
+     * Retrieves the minimum distance by which a search advances after every mismatch.
+     */
+    int getShift() {
+        return this.shift;
+    }
+
+    /**
+     * Retrieves the total length of this signature (including wildcards).
+     */
+    @Nonnegative
+    public int getLength() {
+        return this.bytes.length;
+    }
+
+    /**
+     * Locates the first occurrence of this signature within a range of a buffer.
+     *
+     * @param buffer a buffer.
+     * @param from   the index of the first byte within the buffer to search (inclusive).
+     * @param to     the index of the last byte within the buffer to search (exclusive).
+     * @return the index at which the signature starts or -1 if the signature was not found.
+     */
+    public int indexOf(@Nonnull byte[] buffer, @Nonnegative int from, @Nonnegative int to) {
+        int last = this.searchLength - 1;
+        int limit = to - this.bytes.length;
+        int position = from;
+
+        while (position <= limit) {
+            byte value = buffer[position + last];
+
+            if (value == this.bytes[last] && this.matches(buffer, position, last)) {
+                return position;
+            }
+
+            position += this.skip[value & 0xFF];
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks whether this signature matches a window within a buffer.
+     *
+     * The caller is responsible for ensuring that the buffer contains at least {@link #getLength()}
+     * bytes at the supplied position.
+     */
+    boolean matches(@Nonnull byte[] buffer, @Nonnegative int position) {
+        return this.matches(buffer, position, this.searchLength);
+    }
+
+    /**
+     * Compares a prefix of this signature against a window within a buffer.
+     */
+    private boolean matches(@Nonnull byte[] buffer, @Nonnegative int position, @Nonnegative int length) {
+        for (int i = 0; i < length; ++i) {
+            if (!this.wildcards[i] && buffer[position + i] != this.bytes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        Signature signature = (Signature) o;
+        return Arrays.equals(this.bytes, signature.bytes) &&
+                Arrays.equals(this.wildcards, signature.wildcards);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.bytes) + Arrays.hashCode(this.wildcards);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return this.pattern;
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryFrame;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Locates signatures within the memory image of a module.
+ *
+ * The image is divided into chunks which are read and searched independently using a fork-join
+ * pool. Every chunk is read from the process using a single call (unless it contains unreadable
+ * pages) and is searched for all requested signatures at once.
+ *
+ * Small sets of signatures which permit large shifts are located using the skip table of each
+ * respective signature. Larger sets (or signatures which are interrupted by wildcards close to
+ * their end) are located within a single pass over each chunk instead: Every signature is indexed
+ * by a pair of adjacent concrete bytes and only positions at which such a pair occurs are compared
+ * against the full signature. The cost of this pass is largely independent of the amount of
+ * signatures.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class SignatureScanner {
+
+    /**
+     * Defines the amount of bytes which are read and searched by a single task.
+     */
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final ForkJoinPool pool;
+
+    public SignatureScanner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SignatureScanner(@Nonnull ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Locates the first occurrence of a set of signatures within a module.
+     *
+     * @return a map of signatures and their respective offsets relative to the module base address
+     * (signatures which could not be located are omitted).
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnull
+    public Map<Signature, Long> scan(@Nonnull ProcessModule module, @Nonnull Collection<Signature> signatures) {
+        Signature[] elements = signatures.stream()
+                .distinct()
+                .toArray(Signature[]::new);
+        Map<Signature, Long> result = new HashMap<>();
+
+        if (elements.length == 0 || module.getSize() == 0) {
+            return result;
+        }
+
+        int overlap = Arrays.stream(elements)
+                .mapToInt(Signature::getLength)
+                .max()
+                .getAsInt() - 1;
+
+        long[] offsets = this.pool.invoke(new ChunkTask(module.pointer(0), new Index(elements), overlap, 0, module.getSize()));
+
+        for (int i = 0; i < elements.length; ++i) {
+            if (offsets[i] != -1) {
+                result.put(elements[i], offsets[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Searches a range of a module image and splits it into smaller tasks when it exceeds the
+     * chunk size.
+     */
+    private static final class ChunkTask extends RecursiveTask<long[]> {
+        private final ProcessMemoryPointer base;
+        private final Index index;
+        private final int overlap;
+        private final long start;
+        private final long end;
+        private final long limit;
+
+        ChunkTask(@Nonnull ProcessMemoryPointer base, @Nonnull Index index, @Nonnegative int overlap, @Nonnegative long start, @Nonnegative long end) {
+            this(base, index, overlap, start, end, end);
+        }
+
+        private ChunkTask(@Nonnull ProcessMemoryPointer base, @Nonnull Index index, @Nonnegative int overlap, @Nonnegative long start, @Nonnegative long end, @Nonnegative long limit) {
+            this.base = base;
+            this.index = index;
+            this.overlap = overlap;
+            this.start = start;
+            this.end = end;
+            this.limit = limit;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected long[] compute() {
+            if (this.end - this.start > CHUNK_SIZE) {
+                // split at a chunk boundary in order to keep the reads of leaf tasks aligned (ranges
+                // which span less than two whole chunks are split after their first chunk)
+                long middle = this.start + Math.max(1, (this.end - this.start) / CHUNK_SIZE / 2) * CHUNK_SIZE;
+
+                ChunkTask upper = new ChunkTask(this.base, this.index, this.overlap, middle, this.end, this.limit);
+                upper.fork();
+
+                long[] lower = new ChunkTask(this.base, this.index, this.overlap, this.start, middle, this.limit).compute();
+                long[] higher = upper.join();
+
+                // the lower half always takes precedence since we're looking for the first
+                // occurrence of each signature
+                for (int i = 0; i < lower.length; ++i) {
+                    if (lower[i] == -1) {
+                        lower[i] = higher[i];
+                    }
+                }
+
+                return lower;
+            }
+
+            // every chunk includes the beginning of the following chunk in order to find matches
+            // which cross the boundary between both
+            int length = (int) (Math.min(this.limit, this.end + this.overlap) - this.start);
+            byte[] buffer = new byte[length];
+            long[] offsets = new long[this.index.signatures.length];
+            Arrays.fill(offsets, -1);
+
+            try {
+                this.base.readByteArray(this.start, buffer);
+                this.search(buffer, 0, length, offsets);
+            } catch (ProcessMemoryReadException ex) {
+                this.searchReadable(buffer, offsets);
+            }
+
+            return offsets;
+        }
+
+        /**
+         * Reads a chunk page by page and searches each contiguous run of readable pages on its
+         * own (modules may contain guard pages or sections which have been unmapped).
+         */
+        private void searchReadable(@Nonnull byte[] buffer, @Nonnull long[] offsets) {
+            int runStart = 0;
+            int position = 0;
+
+            while (position < buffer.length) {
+                int pageLength = (int) Math.min(buffer.length - position, MemoryFrame.PAGE_SIZE - ((this.start + position) & (MemoryFrame.PAGE_SIZE - 1)));
+
+                try {
+                    this.base.readByteArray(this.start + position, buffer, position, pageLength);
+                } catch (ProcessMemoryReadException ex) {
+                    this.search(buffer, runStart, position, offsets);
+                    runStart = position + pageLength;
+                }
+
+                position += pageLength;
+            }
+
+            this.search(buffer, runStart, buffer.length, offsets);
+        }
+
+        /**
+         * Searches a range of a chunk for all signatures which have not been located yet.
+         */
+        private void search(@Nonnull byte[] buffer, @Nonnegative int from, @Nonnegative int to, @Nonnull long[] offsets) {
+            Signature[] signatures = this.index.signatures;
+
+            for (int i : this.index.direct) {
+                if (offsets[i] != -1) {
+                    continue;
+                }
+
+                int position = signatures[i].indexOf(buffer, from, to);
+
+                // matches which begin within the overlap belong to the following chunk
+                if (position != -1 && this.start + position < this.end) {
+                    offsets[i] = this.start + position;
+                }
+            }
+
+            if (this.index.heads == null) {
+                return;
+            }
+
+            long[] bitmap = this.index.bitmap;
+            int[] heads = this.index.heads;
+            int[] next = this.index.next;
+
+            for (int position = from; position < to - 1; ++position) {
+                int key = (buffer[position] & 0xFF) << 8 | (buffer[position + 1] & 0xFF);
+
+                if ((bitmap[key >>> 6] & (1L << key)) == 0) {
+                    continue;
+                }
+
+                for (int i = heads[key]; i != -1; i = next[i]) {
+                    int candidate = position - signatures[i].getAnchor();
+
+                    if (offsets[i] == -1 && candidate >= from && candidate + signatures[i].getLength() <= to && this.start + candidate < this.end && signatures[i].matches(buffer, candidate)) {
+                        offsets[i] = this.start + candidate;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Provides a lookup structure which maps each anchor (a pair of adjacent concrete bytes) to
+     * the signatures which contain it.
+     */
+    private static final class Index {
+        private final Signature[] signatures;
+        private final int[] direct;
+        private final long[] bitmap;
+        private final int[] heads;
+        private final int[] next;
+
+        Index(@Nonnull Signature[] signatures) {
+            this.signatures = signatures;
+
+            // each signature which is searched on its own costs roughly one comparison per shift
+            // while the anchor pass costs roughly one lookup per byte regardless of the amount of
+            // signatures
+            double cost = Arrays.stream(signatures)
+                    .filter((s) -> s.getAnchor() != -1)
+                    .mapToDouble((s) -> 1.0 / s.getShift())
+                    .sum();
+            boolean anchored = cost >= 1;
+
+            this.direct = IntStream.range(0, signatures.length)
+                    .filter((i) -> !anchored || signatures[i].getAnchor() == -1)
+                    .toArray();
+
+            if (!anchored) {
+                this.bitmap = null;
+                this.heads = null;
+                this.next = null;
+                return;
+            }
+
+            this.bitmap = new long[65536 / 64];
+            this.heads = new int[65536];
+            this.next = new int[signatures.length];
+            Arrays.fill(this.heads, -1);
+
+            // signatures are linked in reverse order so that each chain is walked in the order
+            // of registration
+            for (int i = signatures.length - 1; i >= 0; --i) {
+                if (signatures[i].getAnchor() == -1) {
+                    continue;
+                }
+
+                int key = signatures[i].getAnchorKey();
+                this.bitmap[key >>> 6] |= 1L << key;
+                this.next[i] = this.heads[key];
+                this.heads[key] = i;
+            }
+        }
+    }
+}
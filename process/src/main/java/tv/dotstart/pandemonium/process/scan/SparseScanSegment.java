@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Stores candidates as a sorted array of addresses along with their most recently observed raw
+ * values.
+ *
+ * Sparse segments are used once the amount of candidates within a portion of the address space
+ * drops far enough to make storing them individually cheaper than a bitmap.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class SparseScanSegment extends ScanSegment {
+
+    /**
+     * Defines the amount of heap memory (in bytes) which is occupied by a single candidate.
+     */
+    static final int CANDIDATE_SIZE = Long.BYTES * 2;
+
+    private long[] addresses;
+    private long[] values;
+    private int count;
+
+    SparseScanSegment(@Nonnull long[] addresses, @Nonnull long[] values, @Nonnegative int count) {
+        this.addresses = addresses;
+        this.values = values;
+        this.count = count;
+    }
+
+    /**
+     * Appends the candidates of a directly following segment to this segment.
+     */
+    void append(@Nonnull SparseScanSegment segment) {
+        this.addresses = Arrays.copyOf(this.addresses, this.count + segment.count);
+        this.values = Arrays.copyOf(this.values, this.count + segment.count);
+
+        System.arraycopy(segment.addresses, 0, this.addresses, this.count, segment.count);
+        System.arraycopy(segment.values, 0, this.values, this.count, segment.count);
+        this.count += segment.count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getCount() {
+        return this.count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getMemoryUsage() {
+        return (long) this.addresses.length * CANDIDATE_SIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void forEach(@Nonnull LongConsumer consumer) {
+        for (int i = 0; i < this.count; ++i) {
+            consumer.accept(this.addresses[i]);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void refine(@Nonnull ValueScanner scanner, @Nonnull ScanCondition condition, long target) {
+        ValueType type = scanner.getType();
+        int kept = 0;
+        int position = 0;
+
+        while (position < this.count) {
+            // candidates are read in batches of neighbouring ranges which are passed to the
+            // operating system at once
+            int end = scanner.load(this.addresses, position, this.count);
+
+            for (int i = position; i < end; ++i) {
+                if (!scanner.isAvailable(i - position)) {
+                    continue;
+                }
+
+                long value = scanner.getValue(i - position);
+
+                if (condition.test(type, this.values[i], value, target)) {
+                    this.addresses[kept] = this.addresses[i];
+                    this.values[kept++] = value;
+                }
+            }
+
+            position = end;
+        }
+
+        this.count = kept;
+
+        // release the memory of discarded candidates
+        if (kept < this.addresses.length / 2) {
+            this.addresses = Arrays.copyOf(this.addresses, kept);
+            this.values = Arrays.copyOf(this.values, kept);
+        }
+    }
+}
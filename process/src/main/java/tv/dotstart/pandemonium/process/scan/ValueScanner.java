@@ -0,0 +1,652 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import com.sun.jna.Memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryFrame;
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Locates values within process memory through an initial scan which is refined by an arbitrary
+ * amount of subsequent scans (e.g. "find all integers equal to 100" followed by "find all of those
+ * which have decreased since").
+ *
+ * The scanned address space is divided into chunks of {@link #CHUNK_SIZE} bytes. Candidates within
+ * each chunk are stored as a bitmap (with one bit per aligned slot) while the amount of candidates
+ * is large and are converted into a sorted array of addresses once that becomes the smaller
+ * representation. All candidates are stored within primitive arrays and thus the memory usage is
+ * bounded by the scanned address space (an exact first scan merely requires one bit per slot while
+ * a scan for an unknown initial value retains a copy of the scanned memory in order to compare
+ * against it later on).
+ *
+ * Dense chunks are read using a single call while sparse candidates are coalesced into ranges
+ * which are passed to the operating system in batches.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+public final class ValueScanner {
+
+    /**
+     * Defines the size of a single chunk of the scanned address space.
+     */
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final int MAXIMUM_RANGES = 1024;
+    private static final int MAXIMUM_RANGE_LENGTH = 4096;
+    private static final int MAXIMUM_GAP = 256;
+    private static final int MAXIMUM_SPARSE_SEGMENT = 65536;
+
+    private final Process process;
+    private final ValueType type;
+    private final int alignment;
+    private final long[] rangeAddresses;
+    private final long[] rangeLengths;
+    private final List<ScanSegment> segments = new ArrayList<>();
+    private boolean scanned;
+
+    // chunk state
+    private final Memory chunkMemory = new Memory(CHUNK_SIZE + Long.BYTES);
+    private final ByteBuffer chunk = this.chunkMemory.getByteBuffer(0, this.chunkMemory.size()).order(ByteOrder.nativeOrder());
+    private final boolean[] unreadablePages = new boolean[CHUNK_SIZE / MemoryFrame.PAGE_SIZE + 2];
+    private long chunkAddress;
+    private boolean chunkComplete;
+
+    // batch state
+    private final long[] batchAddresses = new long[MAXIMUM_RANGES];
+    private final int[] batchLengths = new int[MAXIMUM_RANGES];
+    private final int[] candidatePositions = new int[MAXIMUM_SPARSE_SEGMENT];
+
+    private ValueScanner(@Nonnull Process process, @Nonnull ValueType type, @Nonnegative int alignment, @Nonnull long[] rangeAddresses, @Nonnull long[] rangeLengths) {
+        this.process = process;
+        this.type = type;
+        this.alignment = alignment;
+        this.rangeAddresses = rangeAddresses;
+        this.rangeLengths = rangeLengths;
+    }
+
+    /**
+     * Creates a new builder for a scanner which locates values of the supplied type.
+     */
+    @Nonnull
+    public static Builder builder(@Nonnull Process process, @Nonnull ValueType type) {
+        return new Builder(process, type);
+    }
+
+    // <editor-fold desc="Scans">
+
+    /**
+     * Performs an initial scan which considers every readable slot a candidate (e.g. when the
+     * initial value is not known).
+     *
+     * @return the amount of candidates.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnegative
+    public long firstScan() {
+        return this.firstScan(false, 0);
+    }
+
+    /**
+     * Performs an initial scan which considers every slot which holds the supplied value a
+     * candidate.
+     *
+     * @return the amount of candidates.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnegative
+    public long firstScan(@Nonnull Number value) {
+        return this.firstScan(true, this.type.encode(value));
+    }
+
+    /**
+     * Performs an initial scan.
+     */
+    private long firstScan(boolean exact, long target) {
+        this.segments.clear();
+
+        for (int i = 0; i < this.rangeAddresses.length; ++i) {
+            long start = this.rangeAddresses[i];
+            long end = start + this.rangeLengths[i];
+
+            // align the first slot and exclude trailing bytes which cannot hold a whole value
+            long first = (start + this.alignment - 1) / this.alignment * this.alignment;
+            long last = end - this.type.getSize();
+
+            for (long address = first; address <= last; address += CHUNK_SIZE) {
+                int slots = (int) ((Math.min(last, address + CHUNK_SIZE - 1) - address) / this.alignment) + 1;
+                int length = (slots - 1) * this.alignment + this.type.getSize();
+
+                DenseScanSegment segment = new DenseScanSegment(address, length, slots, this.alignment);
+
+                this.load(address, length);
+                segment.populate(this, exact, target);
+
+                if (segment.getCount() != 0) {
+                    this.segments.add(this.compact(segment));
+                }
+            }
+        }
+
+        this.scanned = true;
+        this.merge();
+        return this.getCount();
+    }
+
+    /**
+     * Refines the current set of candidates using a condition which compares each value against
+     * its previously observed value.
+     *
+     * @return the amount of remaining candidates.
+     * @throws IllegalArgumentException    when {@link ScanCondition#EXACT} is passed (use {@link
+     *                                     #nextScan(Number)} instead).
+     * @throws IllegalStateException       when no initial scan has been performed yet.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnegative
+    public long nextScan(@Nonnull ScanCondition condition) {
+        if (condition == ScanCondition.EXACT) {
+            throw new IllegalArgumentException("Exact scans require a value");
+        }
+
+        return this.nextScan(condition, 0);
+    }
+
+    /**
+     * Refines the current set of candidates to those which currently hold the supplied value.
+     *
+     * @return the amount of remaining candidates.
+     * @throws IllegalStateException       when no initial scan has been performed yet.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnegative
+    public long nextScan(@Nonnull Number value) {
+        return this.nextScan(ScanCondition.EXACT, this.type.encode(value));
+    }
+
+    /**
+     * Refines the current set of candidates.
+     */
+    private long nextScan(@Nonnull ScanCondition condition, long target) {
+        if (!this.scanned) {
+            throw new IllegalStateException("No initial scan has been performed");
+        }
+
+        for (int i = 0; i < this.segments.size(); ++i) {
+            ScanSegment segment = this.segments.get(i);
+            segment.refine(this, condition, target);
+
+            if (segment instanceof DenseScanSegment) {
+                this.segments.set(i, this.compact((DenseScanSegment) segment));
+            }
+        }
+
+        this.segments.removeIf((s) -> s.getCount() == 0);
+        this.merge();
+        return this.getCount();
+    }
+
+    /**
+     * Discards all candidates.
+     */
+    public void reset() {
+        this.segments.clear();
+        this.scanned = false;
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Results">
+
+    /**
+     * Retrieves the addresses of all candidates (in ascending order).
+     *
+     * @throws IllegalStateException when the amount of candidates exceeds the maximum size of an
+     *                               array.
+     */
+    @Nonnull
+    public long[] getAddresses() {
+        long count = this.getCount();
+
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many candidates: " + count);
+        }
+
+        long[] addresses = new long[(int) count];
+        int[] index = new int[1];
+        this.forEach((a) -> addresses[index[0]++] = a);
+        return addresses;
+    }
+
+    /**
+     * Retrieves the addresses of a limited amount of candidates (in ascending order).
+     */
+    @Nonnull
+    public long[] getAddresses(@Nonnegative int limit) {
+        long[] addresses = new long[(int) Math.min(limit, this.getCount())];
+        int index = 0;
+
+        for (ScanSegment segment : this.segments) {
+            if (index == addresses.length) {
+                break;
+            }
+
+            long[] buffer = addresses;
+            int[] position = {index};
+            segment.forEach((a) -> {
+                if (position[0] < buffer.length) {
+                    buffer[position[0]++] = a;
+                }
+            });
+            index = position[0];
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Retrieves the total amount of candidates.
+     */
+    @Nonnegative
+    public long getCount() {
+        return this.segments.stream()
+                .mapToLong(ScanSegment::getCount)
+                .sum();
+    }
+
+    /**
+     * Estimates the amount of heap memory (in bytes) occupied by the current set of candidates.
+     */
+    @Nonnegative
+    public long getMemoryUsage() {
+        return this.segments.stream()
+                .mapToLong(ScanSegment::getMemoryUsage)
+                .sum();
+    }
+
+    /**
+     * Passes the address of every candidate to a consumer (in ascending order).
+     */
+    public void forEach(@Nonnull LongConsumer consumer) {
+        this.segments.forEach((s) -> s.forEach(consumer));
+    }
+
+    /**
+     * Checks whether an initial scan has been performed.
+     */
+    public boolean isScanned() {
+        return this.scanned;
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Getters">
+
+    /**
+     * Retrieves the distance between two scanned slots.
+     */
+    @Nonnegative
+    public int getAlignment() {
+        return this.alignment;
+    }
+
+    /**
+     * Retrieves the process this scanner operates on.
+     */
+    @Nonnull
+    public Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Retrieves the type of value this scanner locates.
+     */
+    @Nonnull
+    public ValueType getType() {
+        return this.type;
+    }
+    // </editor-fold>
+
+    /**
+     * Converts a dense segment into a sparse segment if the latter requires less memory.
+     */
+    @Nonnull
+    private ScanSegment compact(@Nonnull DenseScanSegment segment) {
+        if (segment.getSparseMemoryUsage() < segment.getMemoryUsage()) {
+            return segment.toSparse(this);
+        }
+
+        return segment;
+    }
+
+    /**
+     * Merges neighbouring sparse segments in order to permit their candidates to share batches.
+     */
+    private void merge() {
+        List<ScanSegment> segments = new ArrayList<>(this.segments.size());
+        SparseScanSegment previous = null;
+
+        for (ScanSegment segment : this.segments) {
+            if (segment instanceof SparseScanSegment) {
+                if (previous != null && previous.getCount() + segment.getCount() <= MAXIMUM_SPARSE_SEGMENT) {
+                    previous.append((SparseScanSegment) segment);
+                    continue;
+                }
+
+                previous = (SparseScanSegment) segment;
+            } else {
+                previous = null;
+            }
+
+            segments.add(segment);
+        }
+
+        this.segments.clear();
+        this.segments.addAll(segments);
+    }
+
+    // <editor-fold desc="Chunk Access">
+
+    /**
+     * Loads a chunk of process memory.
+     *
+     * Chunks are read using a single call unless they contain unreadable pages in which case they
+     * are read page by page and the unreadable pages are recorded.
+     */
+    void load(long address, @Nonnegative int length) {
+        this.chunkAddress = address;
+        this.chunkComplete = true;
+
+        try {
+            this.process.read(address, this.chunkMemory, length);
+            return;
+        } catch (ProcessMemoryReadException ex) {
+            this.chunkComplete = false;
+        }
+
+        Arrays.fill(this.unreadablePages, false);
+        int position = 0;
+
+        while (position < length) {
+            int pageLength = (int) Math.min(length - position, MemoryFrame.PAGE_SIZE - ((address + position) & (MemoryFrame.PAGE_SIZE - 1)));
+
+            try {
+                this.process.read(address + position, this.chunkMemory.share(position), pageLength);
+            } catch (ProcessMemoryReadException ex) {
+                this.unreadablePages[this.getPage(address + position)] = true;
+            }
+
+            position += pageLength;
+        }
+    }
+
+    /**
+     * Retrieves the index of a page relative to the first page of the current chunk.
+     */
+    private int getPage(long address) {
+        return (int) ((address / MemoryFrame.PAGE_SIZE) - (this.chunkAddress / MemoryFrame.PAGE_SIZE));
+    }
+
+    /**
+     * Checks whether a value at the supplied position within the current chunk has been read
+     * successfully.
+     */
+    boolean isReadable(@Nonnegative int position) {
+        if (this.chunkComplete) {
+            return true;
+        }
+
+        long address = this.chunkAddress + position;
+        return !this.unreadablePages[this.getPage(address)] && !this.unreadablePages[this.getPage(address + this.type.getSize() - 1)];
+    }
+
+    /**
+     * Retrieves a view of the current chunk.
+     */
+    @Nonnull
+    ByteBuffer getChunk() {
+        return this.chunk;
+    }
+
+    /**
+     * Copies the contents of the current chunk into a heap buffer.
+     */
+    void copyChunk(@Nonnull byte[] buffer, @Nonnegative int length) {
+        this.chunkMemory.read(0, buffer, 0, length);
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Batch Access">
+
+    /**
+     * Loads the values of a set of sorted candidates.
+     *
+     * Neighbouring candidates are coalesced into ranges which are read using a single call as
+     * long as the ranges fit into the chunk buffer.
+     *
+     * @return the index of the first candidate which has not been loaded.
+     */
+    int load(@Nonnull long[] addresses, @Nonnegative int from, @Nonnegative int to) {
+        int size = this.type.getSize();
+        int rangeCount = 0;
+        int bufferLength = 0;
+        long rangeStart = 0;
+        long rangeEnd = 0;
+        int end = from;
+
+        while (end < to && end - from < this.candidatePositions.length) {
+            long address = addresses[end];
+
+            if (rangeCount != 0 && address - rangeEnd <= MAXIMUM_GAP && address + size - rangeStart <= MAXIMUM_RANGE_LENGTH) {
+                long extension = Math.max(0, address + size - rangeEnd);
+
+                if (bufferLength + extension > CHUNK_SIZE) {
+                    break;
+                }
+
+                rangeEnd += extension;
+                bufferLength += extension;
+            } else {
+                if (rangeCount == MAXIMUM_RANGES || bufferLength + size > CHUNK_SIZE) {
+                    break;
+                }
+
+                if (rangeCount != 0) {
+                    this.batchLengths[rangeCount - 1] = (int) (rangeEnd - rangeStart);
+                }
+
+                rangeStart = address;
+                rangeEnd = address + size;
+                this.batchAddresses[rangeCount++] = address;
+                bufferLength += size;
+            }
+
+            this.candidatePositions[end - from] = bufferLength - (int) (rangeEnd - address);
+            ++end;
+        }
+
+        if (rangeCount == 0) {
+            return end;
+        }
+
+        this.batchLengths[rangeCount - 1] = (int) (rangeEnd - rangeStart);
+
+        try {
+            this.process.read(this.batchAddresses, this.batchLengths, rangeCount, this.chunkMemory);
+        } catch (ProcessMemoryReadException ex) {
+            this.loadIndividually(addresses, from, end);
+        }
+
+        return end;
+    }
+
+    /**
+     * Loads each range of a batch separately and marks the candidates within unreadable ranges.
+     */
+    private void loadIndividually(@Nonnull long[] addresses, @Nonnegative int from, @Nonnegative int to) {
+        int range = -1;
+        int position = 0;
+        boolean readable = false;
+
+        for (int i = from; i < to; ++i) {
+            // every range begins with the first candidate which did not fit into its predecessor
+            if (range == -1 || addresses[i] >= this.batchAddresses[range] + this.batchLengths[range]) {
+                if (range != -1) {
+                    position += this.batchLengths[range];
+                }
+
+                ++range;
+
+                try {
+                    this.process.read(this.batchAddresses[range], this.chunkMemory.share(position), this.batchLengths[range]);
+                    readable = true;
+                } catch (ProcessMemoryReadException ex) {
+                    readable = false;
+                }
+            }
+
+            if (!readable) {
+                this.candidatePositions[i - from] = -1;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a candidate of the current batch has been read successfully.
+     */
+    boolean isAvailable(@Nonnegative int index) {
+        return this.candidatePositions[index] != -1;
+    }
+
+    /**
+     * Retrieves the raw value of a candidate within the current batch.
+     */
+    long getValue(@Nonnegative int index) {
+        return this.type.read(this.chunk, this.candidatePositions[index]);
+    }
+    // </editor-fold>
+
+    /**
+     * Provides a factory for value scanners.
+     */
+    public static final class Builder {
+        private final Process process;
+        private final ValueType type;
+        private final List<long[]> ranges = new ArrayList<>();
+        private int alignment;
+
+        private Builder(@Nonnull Process process, @Nonnull ValueType type) {
+            this.process = process;
+            this.type = type;
+            this.alignment = Math.min(4, type.getSize());
+        }
+
+        /**
+         * Adds a range of the address space to the set of scanned ranges.
+         */
+        @Nonnull
+        public Builder addRange(long address, @Nonnegative long length) {
+            this.ranges.add(new long[]{address, length});
+            return this;
+        }
+
+        /**
+         * Adds the image of a module to the set of scanned ranges.
+         *
+         * @throws ProcessMemoryStateException when the process state prevents access to memory.
+         */
+        @Nonnull
+        public Builder addModule(@Nonnull ProcessModule module) {
+            return this.addRange(module.pointer(0).getAddress(), module.getSize());
+        }
+
+        /**
+         * Adds the images of all modules within the process to the set of scanned ranges.
+         *
+         * @throws ProcessMemoryStateException when the process state prevents access to memory.
+         */
+        @Nonnull
+        public Builder addModules() {
+            this.process.getModules().forEach(this::addModule);
+            return this;
+        }
+
+        /**
+         * Selects the distance between two scanned slots (defaults to the size of the value type
+         * or four bytes, whichever is smaller).
+         *
+         * @throws IllegalArgumentException when the alignment is not positive.
+         */
+        @Nonnull
+        public Builder setAlignment(@Nonnegative int alignment) {
+            if (alignment <= 0) {
+                throw new IllegalArgumentException("Alignment must be positive but was " + alignment);
+            }
+
+            this.alignment = alignment;
+            return this;
+        }
+
+        /**
+         * Constructs a new scanner based on the current builder configuration.
+         *
+         * When no ranges have been added, the scanner covers the images of all modules within
+         * the process.
+         *
+         * @throws ProcessMemoryStateException when the process state prevents access to memory.
+         */
+        @Nonnull
+        public ValueScanner build() {
+            if (this.ranges.isEmpty()) {
+                this.addModules();
+            }
+
+            // ranges are sorted and overlapping ranges are merged so that candidates are always
+            // visited in ascending order and never reported twice
+            List<long[]> ranges = new ArrayList<>(this.ranges);
+            ranges.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+            List<long[]> merged = new ArrayList<>();
+
+            for (long[] range : ranges) {
+                long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+                if (previous != null && range[0] <= previous[0] + previous[1]) {
+                    previous[1] = Math.max(previous[1], range[0] + range[1] - previous[0]);
+                } else {
+                    merged.add(new long[]{range[0], range[1]});
+                }
+            }
+
+            return new ValueScanner(this.process, this.type, this.alignment,
+                    merged.stream().mapToLong((r) -> r[0]).toArray(),
+                    merged.stream().mapToLong((r) -> r[1]).toArray());
+        }
+    }
+}
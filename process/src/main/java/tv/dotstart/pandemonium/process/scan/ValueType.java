@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.scan;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Provides a list of value types which may be located using a {@link ValueScanner}.
+ *
+ * Values are handled in their raw representation (a sign extended integer or the bits of a
+ * floating point number) in order to store them within primitive arrays.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public enum ValueType {
+    BYTE(Byte.BYTES) {
+        @Override
+        long encode(@Nonnull Number value) {
+            return value.byteValue();
+        }
+
+        @Override
+        long read(@Nonnull ByteBuffer buffer, @Nonnegative int index) {
+            return buffer.get(index);
+        }
+    },
+    SHORT(Short.BYTES) {
+        @Override
+        long encode(@Nonnull Number value) {
+            return value.shortValue();
+        }
+
+        @Override
+        long read(@Nonnull ByteBuffer buffer, @Nonnegative int index) {
+            return buffer.getShort(index);
+        }
+    },
+    INTEGER(Integer.BYTES) {
+        @Override
+        long encode(@Nonnull Number value) {
+            return value.intValue();
+        }
+
+        @Override
+        long read(@Nonnull ByteBuffer buffer, @Nonnegative int index) {
+            return buffer.getInt(index);
+        }
+    },
+    FLOAT(Float.BYTES) {
+        @Override
+        int compare(long a, long b) {
+            return Float.compare(Float.intBitsToFloat((int) a), Float.intBitsToFloat((int) b));
+        }
+
+        @Override
+        long encode(@Nonnull Number value) {
+            return Float.floatToRawIntBits(value.floatValue());
+        }
+
+        @Override
+        long read(@Nonnull ByteBuffer buffer, @Nonnegative int index) {
+            return buffer.getInt(index);
+        }
+    },
+    DOUBLE(Double.BYTES) {
+        @Override
+        int compare(long a, long b) {
+            return Double.compare(Double.longBitsToDouble(a), Double.longBitsToDouble(b));
+        }
+
+        @Override
+        long encode(@Nonnull Number value) {
+            return Double.doubleToRawLongBits(value.doubleValue());
+        }
+
+        @Override
+        long read(@Nonnull ByteBuffer buffer, @Nonnegative int index) {
+            return buffer.getLong(index);
+        }
+    };
+
+    private final int size;
+
+    ValueType(@Nonnegative int size) {
+        this.size = size;
+    }
+
+    /**
+     * Retrieves the size of this type in bytes.
+     */
+    @Nonnegative
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Compares two raw values numerically.
+     */
+    int compare(long a, long b) {
+        return Long.compare(a, b);
+    }
+
+    /**
+     * Converts a number into the raw representation of this type.
+     */
+    abstract long encode(@Nonnull Number value);
+
+    /**
+     * Reads a raw value from a buffer.
+     */
+    abstract long read(@Nonnull ByteBuffer buffer, @Nonnegative int index);
+}
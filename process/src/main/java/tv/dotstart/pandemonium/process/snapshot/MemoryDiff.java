@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.snapshot;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Represents the ranges of memory which differ between two {@link MemorySnapshot snapshots}.
+ *
+ * Ranges are stored within a pair of primitive arrays in ascending order and never overlap. Each
+ * range begins and ends with a changed byte although ranges may include unchanged bytes when
+ * neighbouring changes have been merged.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class MemoryDiff {
+    private final long[] addresses;
+    private final long[] lengths;
+
+    private MemoryDiff(@Nonnull long[] addresses, @Nonnull long[] lengths) {
+        this.addresses = addresses;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Checks whether the byte at the supplied address has changed.
+     */
+    public boolean contains(long address) {
+        return this.intersects(address, 1);
+    }
+
+    /**
+     * Checks whether any byte within the supplied range has changed.
+     */
+    public boolean intersects(long address, @Nonnegative long length) {
+        // locate the last range which begins before the end of the supplied range
+        int index = Arrays.binarySearch(this.addresses, address + length - 1);
+
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        return index >= 0 && this.addresses[index] + this.lengths[index] > address;
+    }
+
+    // <editor-fold desc="Getters">
+
+    /**
+     * Retrieves the start address of a changed range.
+     *
+     * @throws IndexOutOfBoundsException when the index exceeds the amount of ranges.
+     */
+    public long getAddress(@Nonnegative int index) {
+        return this.addresses[index];
+    }
+
+    /**
+     * Retrieves the length of a changed range (in bytes).
+     *
+     * @throws IndexOutOfBoundsException when the index exceeds the amount of ranges.
+     */
+    @Nonnegative
+    public long getLength(@Nonnegative int index) {
+        return this.lengths[index];
+    }
+
+    /**
+     * Retrieves the amount of changed ranges.
+     */
+    @Nonnegative
+    public int getCount() {
+        return this.addresses.length;
+    }
+
+    /**
+     * Retrieves the total length of all changed ranges (in bytes).
+     */
+    @Nonnegative
+    public long getSize() {
+        long size = 0;
+
+        for (long length : this.lengths) {
+            size += length;
+        }
+
+        return size;
+    }
+
+    /**
+     * Checks whether both snapshots are equal.
+     */
+    public boolean isEmpty() {
+        return this.addresses.length == 0;
+    }
+    // </editor-fold>
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("MemoryDiff{");
+
+        for (int i = 0; i < Math.min(16, this.addresses.length); ++i) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+
+            builder.append(String.format("0x%016X+%d", this.addresses[i], this.lengths[i]));
+        }
+
+        if (this.addresses.length > 16) {
+            builder.append(", ... (").append(this.addresses.length - 16).append(" more)");
+        }
+
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Collects changed ranges in ascending order and merges those which are separated by a
+     * limited amount of unchanged bytes.
+     */
+    @NotThreadSafe
+    static final class Builder {
+        private final long maximumGap;
+        private long[] addresses = new long[16];
+        private long[] lengths = new long[16];
+        private int count;
+        private long start;
+        private long end;
+        private boolean open;
+
+        Builder(@Nonnegative long maximumGap) {
+            this.maximumGap = maximumGap;
+        }
+
+        /**
+         * Records a changed range which begins at or after the end of all previously recorded
+         * ranges.
+         */
+        void add(long start, long end) {
+            if (this.open && start - this.end <= this.maximumGap) {
+                this.end = end;
+                return;
+            }
+
+            this.flush();
+            this.start = start;
+            this.end = end;
+            this.open = true;
+        }
+
+        /**
+         * Appends the currently open range to the result.
+         */
+        private void flush() {
+            if (!this.open) {
+                return;
+            }
+
+            if (this.count == this.addresses.length) {
+                this.addresses = Arrays.copyOf(this.addresses, this.count * 2);
+                this.lengths = Arrays.copyOf(this.lengths, this.count * 2);
+            }
+
+            this.addresses[this.count] = this.start;
+            this.lengths[this.count] = this.end - this.start;
+            ++this.count;
+            this.open = false;
+        }
+
+        @Nonnull
+        MemoryDiff build() {
+            this.flush();
+            return new MemoryDiff(Arrays.copyOf(this.addresses, this.count), Arrays.copyOf(this.lengths, this.count));
+        }
+    }
+}
@@ -0,0 +1,559 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.snapshot;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import tv.dotstart.pandemonium.process.MemoryFrame;
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Represents a copy of one or more ranges of process memory at a given point in time.
+ *
+ * Snapshots are captured into direct (off-heap) buffers which are released once the snapshot is
+ * no longer reachable. Two snapshots of the same ranges (see {@link #capture()}) may be compared
+ * in order to locate the memory which has changed in between (e.g. when a game event occurs):
+ * Every page is first checked for equality through a single pass which compares eight bytes at a
+ * time and only pages which differ are searched for the precise ranges of changed bytes.
+ *
+ * Pages which cannot be read are recorded as such. A page which is readable within only one of
+ * two compared snapshots is reported as changed in its entirety.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class MemorySnapshot {
+
+    /**
+     * Defines the maximum size of a single buffer within a snapshot (larger ranges are split into
+     * multiple buffers).
+     */
+    public static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final Process process;
+    private final Instant timestamp;
+    private final long[] addresses;
+    private final int[] lengths;
+    private final Segment[] segments;
+
+    private MemorySnapshot(@Nonnull Process process, @Nonnull long[] addresses, @Nonnull int[] lengths) {
+        this.process = process;
+        this.addresses = addresses;
+        this.lengths = lengths;
+        this.segments = new Segment[addresses.length];
+        this.timestamp = Instant.now();
+
+        for (int i = 0; i < addresses.length; ++i) {
+            this.segments[i] = Segment.capture(process, addresses[i], lengths[i]);
+        }
+    }
+
+    /**
+     * Creates a new builder for a snapshot of the supplied process.
+     */
+    @Nonnull
+    public static Builder builder(@Nonnull Process process) {
+        return new Builder(process);
+    }
+
+    /**
+     * Captures a new snapshot of the same ranges.
+     *
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     */
+    @Nonnull
+    public MemorySnapshot capture() {
+        return new MemorySnapshot(this.process, this.addresses, this.lengths);
+    }
+
+    // <editor-fold desc="Diff">
+
+    /**
+     * Locates all bytes which differ between this snapshot and a later snapshot of the same
+     * ranges.
+     *
+     * @throws IllegalArgumentException when both snapshots cover different ranges.
+     */
+    @Nonnull
+    public MemoryDiff diff(@Nonnull MemorySnapshot other) {
+        return this.diff(other, 0);
+    }
+
+    /**
+     * Locates all bytes which differ between this snapshot and a later snapshot of the same
+     * ranges.
+     *
+     * @param maximumGap the maximum amount of unchanged bytes between two changes which are
+     *                   reported as a single range.
+     * @throws IllegalArgumentException when both snapshots cover different ranges.
+     */
+    @Nonnull
+    public MemoryDiff diff(@Nonnull MemorySnapshot other, @Nonnegative long maximumGap) {
+        if (!Arrays.equals(this.addresses, other.addresses) || !Arrays.equals(this.lengths, other.lengths)) {
+            throw new IllegalArgumentException("Cannot compare snapshots of different ranges");
+        }
+
+        if (maximumGap < 0) {
+            throw new IllegalArgumentException("Maximum gap cannot be negative but was " + maximumGap);
+        }
+
+        MemoryDiff.Builder builder = new MemoryDiff.Builder(maximumGap);
+
+        for (int i = 0; i < this.segments.length; ++i) {
+            this.segments[i].diff(other.segments[i], builder);
+        }
+
+        return builder.build();
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Value Access">
+
+    /**
+     * Retrieves a byte from this snapshot.
+     *
+     * @throws ProcessMemoryReadException when the address has not been captured.
+     */
+    public byte getByte(long address) {
+        Segment segment = this.locate(address, 1);
+        return segment.buffer.get((int) (address - segment.address));
+    }
+
+    /**
+     * Retrieves a short from this snapshot.
+     *
+     * @throws ProcessMemoryReadException when the range has not been captured.
+     */
+    public short getShort(long address) {
+        Segment segment = this.locate(address, 2);
+        return segment.buffer.getShort((int) (address - segment.address));
+    }
+
+    /**
+     * Retrieves an integer from this snapshot.
+     *
+     * @throws ProcessMemoryReadException when the range has not been captured.
+     */
+    public int getInteger(long address) {
+        Segment segment = this.locate(address, 4);
+        return segment.buffer.getInt((int) (address - segment.address));
+    }
+
+    /**
+     * Retrieves a long from this snapshot.
+     *
+     * @throws ProcessMemoryReadException when the range has not been captured.
+     */
+    public long getLong(long address) {
+        Segment segment = this.locate(address, 8);
+        return segment.buffer.getLong((int) (address - segment.address));
+    }
+
+    /**
+     * Retrieves a float from this snapshot.
+     *
+     * @throws ProcessMemoryReadException when the range has not been captured.
+     */
+    public float getFloat(long address) {
+        Segment segment = this.locate(address, 4);
+        return segment.buffer.getFloat((int) (address - segment.address));
+    }
+
+    /**
+     * Retrieves a double from this snapshot.
+     *
+     * @throws ProcessMemoryReadException when the range has not been captured.
+     */
+    public double getDouble(long address) {
+        Segment segment = this.locate(address, 8);
+        return segment.buffer.getDouble((int) (address - segment.address));
+    }
+
+    /**
+     * Copies a range of this snapshot into a heap buffer.
+     *
+     * @throws ProcessMemoryReadException when the range has not been captured.
+     */
+    public void read(long address, @Nonnull byte[] buffer, @Nonnegative int offset, @Nonnegative int length) {
+        Segment segment = this.locate(address, length);
+        ByteBuffer view = segment.buffer.duplicate();
+        view.position((int) (address - segment.address));
+        view.get(buffer, offset, length);
+    }
+
+    /**
+     * Checks whether a range has been captured successfully.
+     */
+    public boolean isReadable(long address, @Nonnegative int length) {
+        Segment segment = this.find(address, length);
+        return segment != null && segment.isReadable(address, length);
+    }
+
+    /**
+     * Locates the segment which contains a range.
+     *
+     * @throws ProcessMemoryReadException when the range has not been captured.
+     */
+    @Nonnull
+    private Segment locate(long address, @Nonnegative int length) {
+        Segment segment = this.find(address, length);
+
+        if (segment == null || !segment.isReadable(address, length)) {
+            throw new ProcessMemoryReadException(String.format("Failed to read snapshot at address 0x%016X: Range of %d bytes has not been captured", address, length));
+        }
+
+        return segment;
+    }
+
+    /**
+     * Locates the segment which contains a range.
+     *
+     * @return a segment or null when no segment contains the entire range.
+     */
+    @Nullable
+    private Segment find(long address, @Nonnegative int length) {
+        int index = Arrays.binarySearch(this.addresses, address);
+
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        if (index < 0 || address + length > this.addresses[index] + this.lengths[index]) {
+            return null;
+        }
+
+        return this.segments[index];
+    }
+    // </editor-fold>
+
+    // <editor-fold desc="Getters">
+
+    /**
+     * Retrieves the process this snapshot has been captured from.
+     */
+    @Nonnull
+    public Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Retrieves the total amount of captured bytes (including unreadable pages).
+     */
+    @Nonnegative
+    public long getSize() {
+        long size = 0;
+
+        for (int length : this.lengths) {
+            size += length;
+        }
+
+        return size;
+    }
+
+    /**
+     * Retrieves the time at which this snapshot has been captured.
+     */
+    @Nonnull
+    public Instant getTimestamp() {
+        return this.timestamp;
+    }
+    // </editor-fold>
+
+    /**
+     * Represents a contiguous range of captured memory.
+     */
+    @Immutable
+    private static final class Segment {
+        private final long address;
+        private final int length;
+        private final ByteBuffer buffer;
+        private final boolean[] unreadablePages;
+
+        private Segment(long address, @Nonnegative int length, @Nonnull ByteBuffer buffer, @Nullable boolean[] unreadablePages) {
+            this.address = address;
+            this.length = length;
+            this.buffer = buffer;
+            this.unreadablePages = unreadablePages;
+        }
+
+        /**
+         * Captures a range of process memory.
+         *
+         * Ranges are read using a single call unless they contain unreadable pages in which case
+         * they are read page by page and the unreadable pages are recorded (and left zeroed).
+         */
+        @Nonnull
+        static Segment capture(@Nonnull Process process, long address, @Nonnegative int length) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+            Pointer pointer = Native.getDirectBufferPointer(buffer);
+
+            try {
+                process.read(address, pointer, length);
+                return new Segment(address, length, buffer, null);
+            } catch (ProcessMemoryReadException ex) {
+                // fall through to the page by page read
+            }
+
+            boolean[] unreadablePages = new boolean[getPage(address, address + length - 1) + 1];
+            int position = 0;
+
+            while (position < length) {
+                int pageLength = (int) Math.min(length - position, MemoryFrame.PAGE_SIZE - ((address + position) & (MemoryFrame.PAGE_SIZE - 1)));
+
+                try {
+                    process.read(address + position, pointer.share(position), pageLength);
+                } catch (ProcessMemoryReadException ex) {
+                    unreadablePages[getPage(address, address + position)] = true;
+                }
+
+                position += pageLength;
+            }
+
+            return new Segment(address, length, buffer, unreadablePages);
+        }
+
+        /**
+         * Retrieves the index of a page relative to the first page of a segment.
+         */
+        private static int getPage(long segmentAddress, long address) {
+            return (int) ((address / MemoryFrame.PAGE_SIZE) - (segmentAddress / MemoryFrame.PAGE_SIZE));
+        }
+
+        /**
+         * Checks whether a range within this segment has been read successfully.
+         */
+        boolean isReadable(long address, @Nonnegative int length) {
+            if (this.unreadablePages == null) {
+                return true;
+            }
+
+            for (int page = getPage(this.address, address); page <= getPage(this.address, address + Math.max(1, length) - 1); ++page) {
+                if (this.unreadablePages[page]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Checks whether a page has been read successfully.
+         */
+        private boolean isPageReadable(@Nonnegative int page) {
+            return this.unreadablePages == null || !this.unreadablePages[page];
+        }
+
+        /**
+         * Records all ranges which differ between this segment and another segment of the same
+         * range.
+         */
+        void diff(@Nonnull Segment other, @Nonnull MemoryDiff.Builder builder) {
+            int position = 0;
+
+            while (position < this.length) {
+                int page = getPage(this.address, this.address + position);
+                int end = (int) Math.min(this.length, position + MemoryFrame.PAGE_SIZE - ((this.address + position) & (MemoryFrame.PAGE_SIZE - 1)));
+                boolean readable = this.isPageReadable(page);
+
+                if (readable != other.isPageReadable(page)) {
+                    builder.add(this.address + position, this.address + end);
+                } else if (readable && !this.equals(other, position, end)) {
+                    this.diff(other, position, end, builder);
+                }
+
+                position = end;
+            }
+        }
+
+        /**
+         * Checks whether a range is equal within this segment and another segment.
+         */
+        private boolean equals(@Nonnull Segment other, @Nonnegative int from, @Nonnegative int to) {
+            ByteBuffer a = this.buffer;
+            ByteBuffer b = other.buffer;
+            int position = from;
+
+            // differences are accumulated across four words at a time in order to keep the
+            // amount of branches within the loop low
+            for (; position + 32 <= to; position += 32) {
+                long difference = (a.getLong(position) ^ b.getLong(position))
+                        | (a.getLong(position + 8) ^ b.getLong(position + 8))
+                        | (a.getLong(position + 16) ^ b.getLong(position + 16))
+                        | (a.getLong(position + 24) ^ b.getLong(position + 24));
+
+                if (difference != 0) {
+                    return false;
+                }
+            }
+
+            for (; position + 8 <= to; position += 8) {
+                if (a.getLong(position) != b.getLong(position)) {
+                    return false;
+                }
+            }
+
+            for (; position < to; ++position) {
+                if (a.get(position) != b.get(position)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Records the precise ranges which differ within a range of this segment and another
+         * segment.
+         */
+        private void diff(@Nonnull Segment other, @Nonnegative int from, @Nonnegative int to, @Nonnull MemoryDiff.Builder builder) {
+            ByteBuffer a = this.buffer;
+            ByteBuffer b = other.buffer;
+            boolean littleEndian = a.order() == ByteOrder.LITTLE_ENDIAN;
+            int position = from;
+
+            for (; position + 8 <= to; position += 8) {
+                long difference = a.getLong(position) ^ b.getLong(position);
+
+                if (difference == 0) {
+                    continue;
+                }
+
+                // the first byte of a word resides within its least significant bits on little
+                // endian systems and within its most significant bits otherwise
+                for (int i = 0; i < 8; ++i) {
+                    int shift = littleEndian ? i * 8 : 56 - i * 8;
+
+                    if ((difference >>> shift & 0xFF) != 0) {
+                        builder.add(this.address + position + i, this.address + position + i + 1);
+                    }
+                }
+            }
+
+            for (; position < to; ++position) {
+                if (a.get(position) != b.get(position)) {
+                    builder.add(this.address + position, this.address + position + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Provides a factory for memory snapshots.
+     */
+    public static final class Builder {
+        private final Process process;
+        private final List<long[]> ranges = new ArrayList<>();
+
+        private Builder(@Nonnull Process process) {
+            this.process = process;
+        }
+
+        /**
+         * Adds a range of the address space to the set of captured ranges.
+         */
+        @Nonnull
+        public Builder addRange(long address, @Nonnegative long length) {
+            if (length <= 0) {
+                throw new IllegalArgumentException("Length must be positive but was " + length);
+            }
+
+            this.ranges.add(new long[]{address, length});
+            return this;
+        }
+
+        /**
+         * Adds the image of a module to the set of captured ranges.
+         *
+         * @throws ProcessMemoryStateException when the process state prevents access to memory.
+         */
+        @Nonnull
+        public Builder addModule(@Nonnull ProcessModule module) {
+            return this.addRange(module.pointer(0).getAddress(), module.getSize());
+        }
+
+        /**
+         * Adds the images of all modules within the process to the set of captured ranges.
+         *
+         * @throws ProcessMemoryStateException when the process state prevents access to memory.
+         */
+        @Nonnull
+        public Builder addModules() {
+            this.process.getModules().forEach(this::addModule);
+            return this;
+        }
+
+        /**
+         * Captures a new snapshot based on the current builder configuration.
+         *
+         * When no ranges have been added, the snapshot covers the images of all modules within
+         * the process.
+         *
+         * @throws ProcessMemoryStateException when the process state prevents access to memory.
+         */
+        @Nonnull
+        public MemorySnapshot build() {
+            if (this.ranges.isEmpty()) {
+                this.addModules();
+            }
+
+            // ranges are sorted and overlapping ranges are merged so that changes are always
+            // reported in ascending order and never reported twice
+            List<long[]> ranges = new ArrayList<>(this.ranges);
+            ranges.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+            List<long[]> merged = new ArrayList<>();
+
+            for (long[] range : ranges) {
+                long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+                if (previous != null && range[0] <= previous[0] + previous[1]) {
+                    previous[1] = Math.max(previous[1], range[0] + range[1] - previous[0]);
+                } else {
+                    merged.add(new long[]{range[0], range[1]});
+                }
+            }
+
+            // ranges which exceed the maximum size of a buffer are split into multiple segments
+            List<long[]> segments = new ArrayList<>();
+
+            for (long[] range : merged) {
+                for (long offset = 0; offset < range[1]; offset += SEGMENT_SIZE) {
+                    segments.add(new long[]{range[0] + offset, Math.min(SEGMENT_SIZE, range[1] - offset)});
+                }
+            }
+
+            return new MemorySnapshot(this.process,
+                    segments.stream().mapToLong((s) -> s[0]).toArray(),
+                    segments.stream().mapToInt((s) -> (int) s[1]).toArray());
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.structure;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Reads structures of a certain type from process memory.
+ *
+ * Accessors are compiled once per structure type: The layout of the type is resolved and a
+ * decoder is bound to every field using method handles. Reads are subsequently performed using a
+ * single call into a thread confined buffer which is decoded without consulting JNA's reflective
+ * field conversion. The native memory of the target structure receives a copy of the raw data in
+ * order to keep it consistent with its fields.
+ *
+ * Types which contain fields that cannot be decoded directly (such as pointers, native longs or
+ * nested structures) fall back to {@link Structure#read()} after the raw data has been copied.
+ *
+ * New instances are created through a public no-argument constructor when available. Otherwise, a
+ * public constructor which accepts a {@link Pointer} is passed a newly allocated block of local
+ * memory which backs the structure.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class StructureAccessor<S extends Structure> {
+    private static final ClassValue<StructureAccessor<?>> cache = new ClassValue<StructureAccessor<?>>() {
+        @Override
+        protected StructureAccessor<?> computeValue(Class<?> type) {
+            return new StructureAccessor<>(type.asSubclass(Structure.class));
+        }
+    };
+    private static final ThreadLocal<DecodeBuffer> buffer = ThreadLocal.withInitial(DecodeBuffer::new);
+
+    private final Class<S> type;
+    private final StructureLayout layout;
+    private final MethodHandle constructor;
+    private final MethodHandle pointerConstructor;
+    private final FieldDecoder[] decoders;
+
+    private StructureAccessor(@Nonnull Class<S> type) {
+        this.type = type;
+        this.layout = StructureLayout.of(type);
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.constructor = findConstructor(lookup, type);
+        this.pointerConstructor = this.constructor == null ? findConstructor(lookup, type, Pointer.class) : null;
+        this.decoders = compile(lookup, type, this.layout.getFields());
+    }
+
+    /**
+     * Retrieves the accessor for a structure type.
+     *
+     * @throws IllegalArgumentException when the structure cannot be instantiated or its layout
+     *                                  cannot be determined.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static <S extends Structure> StructureAccessor<S> of(@Nonnull Class<S> type) {
+        return (StructureAccessor<S>) cache.get(type);
+    }
+
+    /**
+     * Locates a public constructor with the specified parameter types.
+     *
+     * @return a handle which returns the new instance as a {@link Structure} or null if no such
+     * constructor exists.
+     */
+    @Nullable
+    private static MethodHandle findConstructor(@Nonnull MethodHandles.Lookup lookup, @Nonnull Class<?> type, @Nonnull Class<?>... parameterTypes) {
+        try {
+            return lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asType(MethodType.methodType(Structure.class, parameterTypes));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a decoder for every field within a layout.
+     *
+     * @return an array of decoders or null if one or more fields cannot be decoded directly.
+     */
+    @Nullable
+    private static FieldDecoder[] compile(@Nonnull MethodHandles.Lookup lookup, @Nonnull Class<?> type, @Nonnull List<StructureField> fields) {
+        FieldDecoder[] decoders = new FieldDecoder[fields.size()];
+
+        try {
+            for (int i = 0; i < decoders.length; ++i) {
+                decoders[i] = compile(lookup, type, fields.get(i));
+
+                if (decoders[i] == null) {
+                    return null;
+                }
+            }
+        } catch (NoSuchFieldException | IllegalAccessException ex) {
+            return null;
+        }
+
+        return decoders;
+    }
+
+    /**
+     * Creates a decoder for a single field.
+     *
+     * @return a decoder or null if the field type is not supported.
+     */
+    @Nullable
+    private static FieldDecoder compile(@Nonnull MethodHandles.Lookup lookup, @Nonnull Class<?> type, @Nonnull StructureField field) throws NoSuchFieldException, IllegalAccessException {
+        Class<?> fieldType = field.getType();
+        int offset = field.getOffset();
+
+        if (fieldType.isArray()) {
+            MethodHandle getter = lookup.unreflectGetter(type.getField(field.getName()))
+                    .asType(MethodType.methodType(fieldType, Object.class));
+
+            if (fieldType == byte[].class) {
+                return (b, t) -> {
+                    byte[] array = (byte[]) getter.invokeExact(t);
+                    System.arraycopy(b.array(), offset, array, 0, Math.min(array.length, field.getLength()));
+                };
+            }
+            if (fieldType == short[].class) {
+                return (b, t) -> {
+                    short[] array = (short[]) getter.invokeExact(t);
+                    for (int i = 0; i < Math.min(array.length, field.getLength()); ++i) {
+                        array[i] = b.getShort(offset + i * Short.BYTES);
+                    }
+                };
+            }
+            if (fieldType == int[].class) {
+                return (b, t) -> {
+                    int[] array = (int[]) getter.invokeExact(t);
+                    for (int i = 0; i < Math.min(array.length, field.getLength()); ++i) {
+                        array[i] = b.getInt(offset + i * Integer.BYTES);
+                    }
+                };
+            }
+            if (fieldType == long[].class) {
+                return (b, t) -> {
+                    long[] array = (long[]) getter.invokeExact(t);
+                    for (int i = 0; i < Math.min(array.length, field.getLength()); ++i) {
+                        array[i] = b.getLong(offset + i * Long.BYTES);
+                    }
+                };
+            }
+            if (fieldType == float[].class) {
+                return (b, t) -> {
+                    float[] array = (float[]) getter.invokeExact(t);
+                    for (int i = 0; i < Math.min(array.length, field.getLength()); ++i) {
+                        array[i] = b.getFloat(offset + i * Float.BYTES);
+                    }
+                };
+            }
+            if (fieldType == double[].class) {
+                return (b, t) -> {
+                    double[] array = (double[]) getter.invokeExact(t);
+                    for (int i = 0; i < Math.min(array.length, field.getLength()); ++i) {
+                        array[i] = b.getDouble(offset + i * Double.BYTES);
+                    }
+                };
+            }
+
+            return null;
+        }
+
+        if (!fieldType.isPrimitive()) {
+            return null;
+        }
+
+        MethodHandle setter = lookup.unreflectSetter(type.getField(field.getName()))
+                .asType(MethodType.methodType(void.class, Object.class, fieldType));
+
+        if (fieldType == byte.class) {
+            return (b, t) -> {
+                setter.invokeExact(t, b.get(offset));
+            };
+        }
+        if (fieldType == short.class) {
+            return (b, t) -> {
+                setter.invokeExact(t, b.getShort(offset));
+            };
+        }
+        if (fieldType == int.class) {
+            return (b, t) -> {
+                setter.invokeExact(t, b.getInt(offset));
+            };
+        }
+        if (fieldType == long.class) {
+            return (b, t) -> {
+                setter.invokeExact(t, b.getLong(offset));
+            };
+        }
+        if (fieldType == float.class) {
+            return (b, t) -> {
+                setter.invokeExact(t, b.getFloat(offset));
+            };
+        }
+        if (fieldType == double.class) {
+            return (b, t) -> {
+                setter.invokeExact(t, b.getDouble(offset));
+            };
+        }
+        if (fieldType == boolean.class) {
+            // JNA maps booleans to a native int
+            return (b, t) -> {
+                setter.invokeExact(t, b.getInt(offset) != 0);
+            };
+        }
+        if (fieldType == char.class) {
+            // JNA maps chars to a native wchar_t
+            if (Native.WCHAR_SIZE == Character.BYTES) {
+                return (b, t) -> {
+                    setter.invokeExact(t, b.getChar(offset));
+                };
+            }
+
+            return (b, t) -> {
+                setter.invokeExact(t, (char) b.getInt(offset));
+            };
+        }
+
+        return null;
+    }
+
+    /**
+     * Retrieves the layout of the structure type.
+     */
+    @Nonnull
+    public StructureLayout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * Retrieves the structure type this accessor reads.
+     */
+    @Nonnull
+    public Class<S> getType() {
+        return this.type;
+    }
+
+    /**
+     * Checks whether all fields of the structure are decoded directly (e.g. without falling back
+     * to {@link Structure#read()}).
+     */
+    public boolean isCompiled() {
+        return this.decoders != null;
+    }
+
+    /**
+     * Creates a new empty instance of the structure type.
+     *
+     * @throws IllegalArgumentException when the structure cannot be instantiated.
+     */
+    @Nonnull
+    public S newInstance() {
+        try {
+            if (this.constructor != null) {
+                return this.type.cast((Structure) this.constructor.invokeExact());
+            }
+
+            if (this.pointerConstructor != null) {
+                return this.type.cast((Structure) this.pointerConstructor.invokeExact((Pointer) new Memory(this.layout.getSize())));
+            }
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalArgumentException("Cannot instantiate structure " + this.type.getName() + ": " + ex.getMessage(), ex);
+        }
+
+        // non-public constructors are left to JNA which reports the appropriate error when the
+        // type cannot be instantiated at all
+        return this.type.cast(Structure.newInstance(this.type));
+    }
+
+    /**
+     * Reads a new instance of the structure from an absolute address.
+     *
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryReadException  when the structure cannot be read or instantiated.
+     */
+    @Nonnull
+    public S read(@Nonnull Process process, long address) {
+        S structure;
+
+        try {
+            structure = this.newInstance();
+        } catch (IllegalArgumentException ex) {
+            throw new ProcessMemoryReadException("Cannot read structure: " + ex.getMessage(), ex);
+        }
+
+        return this.read(process, address, structure);
+    }
+
+    /**
+     * Reads the structure from an absolute address into an existing instance.
+     *
+     * @return the supplied instance.
+     * @throws ProcessMemoryStateException when the process state prevents access to memory.
+     * @throws ProcessMemoryReadException  when the structure cannot be read.
+     */
+    @Nonnull
+    public S read(@Nonnull Process process, long address, @Nonnull S structure) {
+        int size = this.layout.getSize();
+
+        if (this.decoders == null) {
+            // structures are backed by local memory and thus need to be populated with a copy of
+            // the remote memory before their fields are decoded
+            process.read(address, structure.getPointer(), size);
+            structure.read();
+            return structure;
+        }
+
+        DecodeBuffer buffer = StructureAccessor.buffer.get().ensureCapacity(size);
+        process.read(address, buffer.array, 0, size);
+
+        try {
+            for (FieldDecoder decoder : this.decoders) {
+                decoder.decode(buffer.view, structure);
+            }
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ProcessMemoryReadException("Cannot decode structure " + this.type.getName() + ": " + ex.getMessage(), ex);
+        }
+
+        structure.getPointer().write(0, buffer.array, 0, size);
+        return structure;
+    }
+
+    /**
+     * Decodes a single field from a buffer into a structure.
+     */
+    @FunctionalInterface
+    private interface FieldDecoder {
+        void decode(@Nonnull ByteBuffer buffer, @Nonnull Object target) throws Throwable;
+    }
+
+    /**
+     * Provides a thread confined buffer which grows to the largest structure read by its thread.
+     */
+    private static final class DecodeBuffer {
+        private byte[] array = new byte[0];
+        private ByteBuffer view;
+
+        @Nonnull
+        DecodeBuffer ensureCapacity(@Nonnegative int size) {
+            if (this.array.length < size) {
+                this.array = new byte[size];
+                this.view = ByteBuffer.wrap(this.array).order(ByteOrder.nativeOrder());
+            }
+
+            return this;
+        }
+    }
+}
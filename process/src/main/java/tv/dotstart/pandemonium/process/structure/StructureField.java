@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.structure;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Describes a single field within a structure layout.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class StructureField {
+    private final String name;
+    private final int offset;
+    private final Class<?> type;
+    private final int length;
+
+    StructureField(@Nonnull String name, @Nonnegative int offset, @Nonnull Class<?> type, @Nonnegative int length) {
+        this.name = name;
+        this.offset = offset;
+        this.type = type;
+        this.length = length;
+    }
+
+    /**
+     * Retrieves the amount of elements within this field (e.g. the length of an array or one for
+     * all other types).
+     */
+    @Nonnegative
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Retrieves the name of this field.
+     */
+    @Nonnull
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Retrieves the offset of this field relative to the start of its structure.
+     */
+    @Nonnegative
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Retrieves the Java type of this field.
+     */
+    @Nonnull
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return this.type.getSimpleName() + " " + this.name + " @ 0x" + Integer.toHexString(this.offset);
+    }
+}
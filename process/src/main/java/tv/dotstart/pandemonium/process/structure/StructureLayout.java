@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.structure;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Describes the memory layout of a structure type (e.g. its fields, their offsets and types).
+ *
+ * Layouts are derived from the field order and alignment rules of their respective JNA structure
+ * type once and are cached for the lifetime of the type.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Immutable
+public final class StructureLayout {
+    private static final ClassValue<StructureLayout> cache = new ClassValue<StructureLayout>() {
+        @Override
+        protected StructureLayout computeValue(Class<?> type) {
+            return new StructureLayout(type.asSubclass(Structure.class));
+        }
+    };
+
+    private final Class<? extends Structure> type;
+    private final int size;
+    private final List<StructureField> fields;
+
+    private StructureLayout(@Nonnull Class<? extends Structure> type) {
+        this.type = type;
+
+        Structure structure = instantiate(type);
+        this.size = structure.size();
+
+        // JNA does not expose its computed layout publicly thus we'll query it through the
+        // respective protected methods once per type
+        List<StructureField> fields = new ArrayList<>();
+
+        try {
+            Method getFieldOrder = Structure.class.getDeclaredMethod("getFieldOrder");
+            Method fieldOffset = Structure.class.getDeclaredMethod("fieldOffset", String.class);
+            getFieldOrder.setAccessible(true);
+            fieldOffset.setAccessible(true);
+
+            for (Object name : (List<?>) getFieldOrder.invoke(structure)) {
+                Field field = type.getField((String) name);
+                Object value = field.get(structure);
+                int length = field.getType().isArray() && value != null ? Array.getLength(value) : 1;
+
+                fields.add(new StructureField((String) name, (Integer) fieldOffset.invoke(structure, name), field.getType(), length));
+            }
+        } catch (NoSuchMethodException | NoSuchFieldException | IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalArgumentException("Cannot determine layout of structure " + type.getName() + ": " + ex.getMessage(), ex);
+        }
+
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Creates a new instance of a structure type in order to query its layout.
+     *
+     * Types which only declare a constructor that accepts a {@link Pointer} are passed a null
+     * pointer in which case JNA allocates the memory of the structure (since its size is not known
+     * at this point).
+     *
+     * @throws IllegalArgumentException when the structure cannot be instantiated.
+     */
+    @Nonnull
+    private static Structure instantiate(@Nonnull Class<? extends Structure> type) {
+        try {
+            type.getConstructor();
+        } catch (NoSuchMethodException ex) {
+            try {
+                return type.getConstructor(Pointer.class).newInstance((Pointer) null);
+            } catch (NoSuchMethodException ignore) {
+                // fall back to JNA which reports the appropriate error
+            } catch (InvocationTargetException | InstantiationException | IllegalAccessException ex2) {
+                throw new IllegalArgumentException("Cannot instantiate structure " + type.getName() + ": " + ex2.getMessage(), ex2);
+            }
+        }
+
+        return Structure.newInstance(type);
+    }
+
+    /**
+     * Retrieves the layout of a structure type.
+     *
+     * @throws IllegalArgumentException when the structure cannot be instantiated or its layout
+     *                                  cannot be determined.
+     */
+    @Nonnull
+    public static StructureLayout of(@Nonnull Class<? extends Structure> type) {
+        return cache.get(type);
+    }
+
+    /**
+     * Retrieves a field by its name.
+     */
+    @Nonnull
+    public Optional<StructureField> getField(@Nonnull String name) {
+        return this.fields.stream()
+                .filter((f) -> f.getName().equals(name))
+                .findFirst();
+    }
+
+    /**
+     * Retrieves an ordered list of fields within this layout.
+     */
+    @Nonnull
+    public List<StructureField> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * Retrieves the total size of the structure (including padding) in bytes.
+     */
+    @Nonnegative
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Retrieves the structure type this layout describes.
+     */
+    @Nonnull
+    public Class<? extends Structure> getType() {
+        return this.type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return this.type.getName() + this.fields + " (" + this.size + " bytes)";
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.AbstractProcess;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Provides a base implementation for processes which take part in recording or replaying a
+ * memory trace.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+abstract class AbstractTraceProcess extends AbstractProcess {
+    private final String name;
+    private final boolean is64;
+    private final Path executablePath;
+    private final long executableSize;
+
+    private volatile Map<String, TraceProcessModule> moduleMap = Collections.emptyMap();
+
+    AbstractTraceProcess(@Nonnull String name, boolean is64, @Nonnull Path executablePath, @Nonnegative long executableSize) {
+        this.name = name;
+        this.is64 = is64;
+        this.executablePath = executablePath;
+        this.executableSize = executableSize;
+    }
+
+    /**
+     * Replaces the modules of this process.
+     */
+    void setModules(@Nonnull Collection<TraceProcessModule> modules) {
+        Map<String, TraceProcessModule> moduleMap = new LinkedHashMap<>();
+        modules.forEach((m) -> moduleMap.put(m.getName().toLowerCase(Locale.ROOT), m));
+
+        this.moduleMap = Collections.unmodifiableMap(moduleMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected abstract void validateAccess() throws ProcessMemoryStateException;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Path getExecutablePath() {
+        return this.executablePath;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getExecutableSize() {
+        return this.executableSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Set<TraceProcessModule> getModules() {
+        return Collections.unmodifiableSet(new HashSet<>(this.moduleMap.values()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<TraceProcessModule> getModule(@Nonnull String moduleName) {
+        return Optional.ofNullable(this.moduleMap.get(moduleName.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasModule(@Nonnull String moduleName) {
+        return this.moduleMap.containsKey(moduleName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean is64Bit() {
+        return this.is64;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Defines the binary format of memory traces.
+ *
+ * A trace consists of a header (a magic number followed by the format version) and a sequence of
+ * records. Every record begins with its type and a timestamp (in nanoseconds relative to the
+ * beginning of the recording) followed by a type specific payload:
+ *
+ * <ul>
+ * <li>{@link #PROCESS}: architecture flag, process name, executable path and size.</li>
+ * <li>{@link #MODULE}: base address, size, name and path of a module.</li>
+ * <li>{@link #READ}: address, length and contents of a range which has been read.</li>
+ * <li>{@link #WRITE}: address, length and contents of a range which has been written.</li>
+ * <li>{@link #READ_FAILURE}: address and length of a range which could not be read.</li>
+ * </ul>
+ *
+ * Strings are encoded as UTF-8 and prefixed with their length (as an unsigned short). The trace
+ * ends at the first record of type {@link #END} (which is also the case for any trailing space
+ * which has been mapped but not written to).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class MemoryTrace {
+    static final int MAGIC = 0x504D5452; // PMTR
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final byte END = 0;
+    static final byte PROCESS = 1;
+    static final byte MODULE = 2;
+    static final byte READ = 3;
+    static final byte WRITE = 4;
+    static final byte READ_FAILURE = 5;
+
+    /**
+     * Defines the size of the fields which are shared by all records (type and timestamp).
+     */
+    static final int RECORD_HEADER_SIZE = 9;
+
+    /**
+     * Defines the size of the fields which are shared by all range records (address and length).
+     */
+    static final int RANGE_HEADER_SIZE = 12;
+
+    private MemoryTrace() {
+    }
+
+    /**
+     * Computes the encoded size of a string.
+     */
+    static int sizeOf(@Nonnull byte[] encoded) {
+        return 2 + encoded.length;
+    }
+
+    /**
+     * Encodes a string for use within a trace.
+     *
+     * @throws IllegalArgumentException when the string exceeds the maximum encoded length.
+     */
+    @Nonnull
+    static byte[] encode(@Nonnull String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+
+        if (encoded.length > 0xFFFF) {
+            throw new IllegalArgumentException("String exceeds maximum length of 65535 bytes");
+        }
+
+        return encoded;
+    }
+
+    /**
+     * Writes an encoded string to a buffer.
+     */
+    static void putString(@Nonnull ByteBuffer buffer, @Nonnull byte[] encoded) {
+        buffer.putShort((short) encoded.length);
+        buffer.put(encoded);
+    }
+
+    /**
+     * Reads a string from a buffer.
+     */
+    @Nonnull
+    static String getString(@Nonnull ByteBuffer buffer) {
+        byte[] encoded = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(encoded);
+
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+}
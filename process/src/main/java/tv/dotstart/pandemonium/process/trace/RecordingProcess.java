@@ -0,0 +1,292 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import com.sun.jna.Pointer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryRegion;
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessModule;
+import tv.dotstart.pandemonium.process.exception.ProcessAttachmentException;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Decorates a process in order to record all memory traffic into a trace file which may later be
+ * replayed through a {@link ReplayProcess}.
+ *
+ * Every read (including its result), failed read and write which reaches the decorated process
+ * is appended to the trace along with its timestamp. Since pointers, frames and batches of this
+ * process are provided by {@link tv.dotstart.pandemonium.process.AbstractProcess}, all of them
+ * are covered by the recording (frames record the pages they load rather than the individual
+ * reads they serve).
+ *
+ * The decorated process is owned by the recording: It is opened along with the recording (if it
+ * is not open yet) and closed when the recording is closed. Modules are captured when the
+ * recording is opened.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class RecordingProcess extends AbstractTraceProcess {
+    private static final Logger logger = LogManager.getFormatterLogger(RecordingProcess.class);
+
+    private final Process delegate;
+    private final Path tracePath;
+    private volatile TraceWriter writer;
+    private volatile boolean recording;
+
+    public RecordingProcess(@Nonnull Process delegate, @Nonnull Path tracePath) {
+        super(delegate.getName(), delegate.is64Bit(), delegate.getExecutablePath(), delegate.getExecutableSize());
+        this.delegate = delegate;
+        this.tracePath = tracePath;
+    }
+
+    /**
+     * Appends a range to the trace.
+     */
+    private void record(byte type, long address, @Nonnull Pointer data, @Nonnegative int length) {
+        TraceWriter writer = this.writer;
+
+        if (writer == null || !this.recording) {
+            return;
+        }
+
+        try {
+            writer.writeRange(type, address, data, length);
+        } catch (IOException ex) {
+            this.abortRecording(writer, ex);
+        }
+    }
+
+    /**
+     * Appends a failed read to the trace.
+     */
+    private void recordReadFailure(long address, @Nonnegative int length) {
+        TraceWriter writer = this.writer;
+
+        if (writer == null || !this.recording) {
+            return;
+        }
+
+        try {
+            writer.writeReadFailure(address, length);
+        } catch (IOException ex) {
+            this.abortRecording(writer, ex);
+        }
+    }
+
+    /**
+     * Stops the recording after the trace has become unwritable while keeping the process itself
+     * accessible.
+     */
+    private void abortRecording(@Nonnull TraceWriter writer, @Nonnull IOException ex) {
+        this.recording = false;
+        logger.error("Failed to append to trace \"" + this.tracePath + "\" - Recording stopped: " + ex.getMessage(), ex);
+
+        try {
+            writer.close();
+        } catch (IOException closeEx) {
+            logger.warn("Failed to close trace: " + closeEx.getMessage(), closeEx);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        try {
+            this.delegate.read(address, buffer, length);
+        } catch (ProcessMemoryReadException ex) {
+            this.recordReadFailure(address, length);
+            throw ex;
+        }
+
+        this.record(MemoryTrace.READ, address, buffer, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readMemory(@Nonnull long[] addresses, @Nonnull int[] lengths, @Nonnegative int count, @Nonnull Pointer buffer) {
+        try {
+            this.delegate.read(addresses, lengths, count, buffer);
+        } catch (ProcessMemoryReadException ex) {
+            // the failing range cannot be identified from the outside and thus the entire batch
+            // is recorded as unreadable
+            for (int i = 0; i < count; ++i) {
+                this.recordReadFailure(addresses[i], lengths[i]);
+            }
+
+            throw ex;
+        }
+
+        long position = 0;
+
+        for (int i = 0; i < count; ++i) {
+            this.record(MemoryTrace.READ, addresses[i], buffer.share(position), lengths[i]);
+            position += lengths[i];
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        this.delegate.write(address, buffer, length);
+        this.record(MemoryTrace.WRITE, address, buffer, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    protected Collection<MemoryRegion> queryRegions() {
+        // the delegate caches its regions independently of this process
+        this.delegate.invalidateRegions();
+        return this.delegate.getRegionMap().getRegions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateAccess() throws ProcessMemoryStateException {
+        if (this.writer == null || this.isTerminated()) {
+            throw new ProcessMemoryStateException("Process is closed");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open() throws ProcessAttachmentException, ProcessStateException {
+        if (this.writer != null) {
+            throw new ProcessStateException("Process is already open");
+        }
+
+        if (!this.delegate.isOpen()) {
+            this.delegate.open();
+        }
+
+        List<TraceProcessModule> modules = new ArrayList<>();
+
+        for (ProcessModule module : this.delegate.getModules()) {
+            modules.add(new TraceProcessModule(this, module.getName(), module.getPath(), module.pointer(0).getAddress(0), module.getSize()));
+        }
+
+        TraceWriter writer;
+
+        try {
+            writer = new TraceWriter(this.tracePath);
+            writer.writeProcess(this.is64Bit(), this.getName(), this.getExecutablePath(), this.getExecutableSize());
+
+            for (TraceProcessModule module : modules) {
+                writer.writeModule(module.getBaseAddress(), module.getSize(), module.getName(), module.getPath());
+            }
+        } catch (IOException ex) {
+            throw new ProcessAttachmentException("Failed to create trace \"" + this.tracePath + "\": " + ex.getMessage(), ex);
+        }
+
+        this.setModules(modules);
+        this.recording = true;
+        this.writer = writer;
+        this.delegate.addTerminationListener((p) -> this.signalTermination());
+
+        logger.info("Recording memory traffic of process \"%s\" to \"%s\"", this.getName(), this.tracePath);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws ProcessAttachmentException, ProcessStateException {
+        TraceWriter writer = this.writer;
+
+        if (writer == null) {
+            throw new ProcessStateException("Process is already closed");
+        }
+
+        this.writer = null;
+        this.recording = false;
+
+        try {
+            logger.info("Finalizing trace \"%s\" (%d bytes)", this.tracePath, writer.getLength());
+            writer.close();
+        } catch (IOException ex) {
+            logger.error("Failed to finalize trace \"" + this.tracePath + "\": " + ex.getMessage(), ex);
+        }
+
+        if (this.delegate.isOpen()) {
+            this.delegate.close();
+        }
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Retrieves the process whose memory traffic is recorded.
+     */
+    @Nonnull
+    public Process getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * Retrieves the path to the trace file.
+     */
+    @Nonnull
+    public Path getTracePath() {
+        return this.tracePath;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAlive() {
+        return this.delegate.isAlive();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOpen() {
+        return this.writer != null;
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryFrame;
+import tv.dotstart.pandemonium.process.MemoryRegion;
+
+/**
+ * Represents the known contents of a replayed address space.
+ *
+ * Memory is kept in pages of {@link MemoryFrame#PAGE_SIZE} bytes which track the validity of each
+ * byte individually as traces only contain the ranges which have actually been accessed.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+final class ReplayImage {
+    private static final int PAGE_SIZE = MemoryFrame.PAGE_SIZE;
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+
+    private final Map<Long, Page> pages = new HashMap<>();
+
+    /**
+     * Creates a deep copy of this image.
+     */
+    @Nonnull
+    ReplayImage copy() {
+        ReplayImage copy = new ReplayImage();
+        this.pages.forEach((k, v) -> copy.pages.put(k, v.copy()));
+
+        return copy;
+    }
+
+    /**
+     * Stores a range of memory.
+     *
+     * @param source    a buffer which holds the range contents at its current position.
+     * @param overwrite true if bytes which are already known are replaced, false if only unknown
+     *                  bytes are filled in.
+     */
+    void put(long address, @Nonnull ByteBuffer source, @Nonnegative int length, boolean overwrite) {
+        int position = 0;
+        int base = source.position();
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+            Page page = this.pages.computeIfAbsent(current >>> PAGE_SHIFT, (k) -> new Page());
+
+            for (int i = 0; i < amount; ++i) {
+                if (overwrite || !page.isValid(pageOffset + i)) {
+                    page.data[pageOffset + i] = source.get(base + position + i);
+                    page.setValid(pageOffset + i, true);
+                }
+            }
+
+            position += amount;
+        }
+    }
+
+    /**
+     * Stores a range of memory from a native buffer (replacing any known contents).
+     */
+    void put(long address, @Nonnull Pointer source, @Nonnegative int length) {
+        int position = 0;
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+            Page page = this.pages.computeIfAbsent(current >>> PAGE_SHIFT, (k) -> new Page());
+
+            source.read(position, page.data, pageOffset, amount);
+            for (int i = 0; i < amount; ++i) {
+                page.setValid(pageOffset + i, true);
+            }
+
+            position += amount;
+        }
+    }
+
+    /**
+     * Marks a range of memory as unknown (e.g. because it could not be read at the time).
+     */
+    void invalidate(long address, @Nonnegative int length) {
+        int position = 0;
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+            Page page = this.pages.get(current >>> PAGE_SHIFT);
+
+            if (page != null) {
+                for (int i = 0; i < amount; ++i) {
+                    page.setValid(pageOffset + i, false);
+                }
+            }
+
+            position += amount;
+        }
+    }
+
+    /**
+     * Copies a range of memory into a native buffer.
+     *
+     * @return true if the range has been copied, false if one or more of its bytes are unknown.
+     */
+    boolean read(long address, @Nonnull Pointer target, @Nonnegative int length) {
+        int position = 0;
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+            Page page = this.pages.get(current >>> PAGE_SHIFT);
+
+            if (page == null || !page.isValid(pageOffset, amount)) {
+                return false;
+            }
+
+            position += amount;
+        }
+
+        position = 0;
+
+        while (position < length) {
+            long current = address + position;
+            int pageOffset = (int) (current & (PAGE_SIZE - 1));
+            int amount = Math.min(length - position, PAGE_SIZE - pageOffset);
+
+            target.write(position, this.pages.get(current >>> PAGE_SHIFT).data, pageOffset, amount);
+            position += amount;
+        }
+
+        return true;
+    }
+
+    /**
+     * Describes the known parts of the address space as a set of page aligned regions.
+     */
+    @Nonnull
+    List<MemoryRegion> getRegions() {
+        long[] pages = this.pages.keySet().stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        List<MemoryRegion> regions = new ArrayList<>();
+
+        int start = 0;
+        for (int i = 1; i <= pages.length; ++i) {
+            if (i == pages.length || pages[i] != pages[i - 1] + 1) {
+                regions.add(new MemoryRegion(pages[start] << PAGE_SHIFT, (long) (i - start) << PAGE_SHIFT, true, true, false));
+                start = i;
+            }
+        }
+
+        return regions;
+    }
+
+    /**
+     * Represents a single page along with the validity of its bytes.
+     */
+    private static final class Page {
+        private final byte[] data = new byte[PAGE_SIZE];
+        private final long[] valid = new long[PAGE_SIZE / Long.SIZE];
+
+        @Nonnull
+        Page copy() {
+            Page copy = new Page();
+            System.arraycopy(this.data, 0, copy.data, 0, PAGE_SIZE);
+            System.arraycopy(this.valid, 0, copy.valid, 0, this.valid.length);
+
+            return copy;
+        }
+
+        boolean isValid(@Nonnegative int offset) {
+            return (this.valid[offset >>> 6] & (1L << offset)) != 0;
+        }
+
+        boolean isValid(@Nonnegative int offset, @Nonnegative int length) {
+            for (int i = offset; i < offset + length; ++i) {
+                if (!this.isValid(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        void setValid(@Nonnegative int offset, boolean valid) {
+            if (valid) {
+                this.valid[offset >>> 6] |= 1L << offset;
+            } else {
+                this.valid[offset >>> 6] &= ~(1L << offset);
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import com.sun.jna.Pointer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.MemoryRegion;
+import tv.dotstart.pandemonium.process.exception.ProcessStateException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Provides a process which serves its memory from a trace that has previously been captured
+ * through a {@link RecordingProcess}.
+ *
+ * The replay reconstructs the address space as it was observed at its current position: Every
+ * range holds the contents of the most recent read or write at or before the position. Ranges
+ * which have not been observed before the position hold the contents of their first observation
+ * while ranges which have never been observed are not readable. Writes which are issued against
+ * the replay are applied to the reconstructed address space until they are superseded by the
+ * trace.
+ *
+ * The position is controlled manually through {@link #seek(Duration)} and
+ * {@link #advance(Duration)} (which permits deterministic replays) or follows the system clock
+ * once {@link #play(double) played}. A replay which is played to the end of its trace signals the
+ * termination of the process.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ReplayProcess extends AbstractTraceProcess {
+    private static final Logger logger = LogManager.getFormatterLogger(ReplayProcess.class);
+
+    private final Path tracePath;
+    private final TraceReader reader;
+    private final ReplayImage initialImage;
+    private final long duration;
+
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private ReplayImage image;
+    @GuardedBy("lock")
+    private TraceReader.Cursor cursor;
+    @GuardedBy("lock")
+    private boolean pending;
+    @GuardedBy("lock")
+    private long position;
+    @GuardedBy("lock")
+    private double speed;
+    @GuardedBy("lock")
+    private long playOrigin;
+    @GuardedBy("lock")
+    private long playOffset;
+
+    private volatile boolean open;
+
+    private ReplayProcess(@Nonnull Path tracePath, @Nonnull TraceReader reader, @Nonnull TraceReader.Cursor header) {
+        super(header.getName(), header.is64Bit(), Paths.get(header.getPath()), header.getSize());
+        this.tracePath = tracePath;
+        this.reader = reader;
+
+        // the initial image consists of the first observation of every range and is used as the
+        // basis for all positions
+        List<TraceProcessModule> modules = new ArrayList<>();
+        ReplayImage initialImage = new ReplayImage();
+        TraceReader.Cursor cursor = reader.cursor();
+        long duration = 0;
+
+        while (cursor.next()) {
+            duration = Math.max(duration, cursor.getTimestamp());
+
+            switch (cursor.getType()) {
+                case MemoryTrace.MODULE:
+                    modules.add(new TraceProcessModule(this, cursor.getName(), Paths.get(cursor.getPath()), cursor.getAddress(), cursor.getSize()));
+                    break;
+                case MemoryTrace.READ:
+                case MemoryTrace.WRITE:
+                    initialImage.put(cursor.getAddress(), cursor.data(), cursor.getLength(), false);
+                    break;
+            }
+        }
+
+        this.setModules(modules);
+        this.initialImage = initialImage;
+        this.duration = duration;
+
+        synchronized (this.lock) {
+            this.rewind();
+        }
+    }
+
+    /**
+     * Loads a trace for replay.
+     *
+     * @throws IOException when the trace is unreadable or does not describe a process.
+     */
+    @Nonnull
+    public static ReplayProcess load(@Nonnull Path tracePath) throws IOException {
+        TraceReader reader = new TraceReader(tracePath);
+        TraceReader.Cursor header = reader.cursor();
+
+        if (!header.next() || header.getType() != MemoryTrace.PROCESS) {
+            throw new IOException("Trace \"" + tracePath + "\" does not describe a process");
+        }
+
+        ReplayProcess process = new ReplayProcess(tracePath, reader, header);
+        logger.info("Loaded trace of process \"%s\" with a duration of %d ms", process.getName(), process.getDuration().toMillis());
+
+        return process;
+    }
+
+    /**
+     * Resets the reconstructed address space to the beginning of the trace.
+     */
+    @GuardedBy("lock")
+    private void rewind() {
+        this.image = this.initialImage.copy();
+        this.cursor = this.reader.cursor();
+        this.pending = false;
+        this.position = 0;
+    }
+
+    /**
+     * Moves the reconstructed address space to the specified position.
+     */
+    @GuardedBy("lock")
+    private void moveTo(@Nonnegative long position) {
+        if (position < this.position) {
+            this.rewind();
+        }
+
+        while (this.pending || this.cursor.next()) {
+            if (this.cursor.getTimestamp() > position) {
+                this.pending = true;
+                break;
+            }
+
+            this.pending = false;
+
+            switch (this.cursor.getType()) {
+                case MemoryTrace.READ:
+                case MemoryTrace.WRITE:
+                    this.image.put(this.cursor.getAddress(), this.cursor.data(), this.cursor.getLength(), true);
+                    break;
+                case MemoryTrace.READ_FAILURE:
+                    this.image.invalidate(this.cursor.getAddress(), this.cursor.getLength());
+                    break;
+            }
+        }
+
+        this.position = position;
+    }
+
+    /**
+     * Updates the position of a playing replay based on the system clock.
+     */
+    @GuardedBy("lock")
+    private void synchronize() {
+        if (this.speed == 0) {
+            return;
+        }
+
+        long position = this.playOffset + (long) ((System.nanoTime() - this.playOrigin) * this.speed);
+
+        if (position >= this.duration) {
+            this.moveTo(this.duration);
+            this.speed = 0;
+
+            logger.info("Replay of process \"%s\" has reached the end of its trace", this.getName());
+            this.signalTermination();
+            return;
+        }
+
+        this.moveTo(position);
+    }
+
+    /**
+     * Moves the replay to an absolute position within the trace.
+     *
+     * @throws IllegalArgumentException when the position is negative.
+     */
+    public void seek(@Nonnull Duration position) {
+        if (position.isNegative()) {
+            throw new IllegalArgumentException("Position cannot be negative");
+        }
+
+        synchronized (this.lock) {
+            this.moveTo(Math.min(this.duration, position.toNanos()));
+
+            this.playOrigin = System.nanoTime();
+            this.playOffset = this.position;
+        }
+    }
+
+    /**
+     * Moves the replay forward by the specified amount of time.
+     */
+    public void advance(@Nonnull Duration amount) {
+        synchronized (this.lock) {
+            this.synchronize();
+            this.seek(Duration.ofNanos(Math.max(0, this.position + amount.toNanos())));
+        }
+    }
+
+    /**
+     * Starts moving the replay forward along with the system clock.
+     *
+     * @param speed a playback speed (where 1 corresponds to the speed of the recording).
+     */
+    public void play(double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Speed must be positive but was " + speed);
+        }
+
+        synchronized (this.lock) {
+            this.synchronize();
+
+            this.speed = speed;
+            this.playOrigin = System.nanoTime();
+            this.playOffset = this.position;
+        }
+    }
+
+    /**
+     * Stops moving the replay forward along with the system clock.
+     */
+    public void pause() {
+        synchronized (this.lock) {
+            this.synchronize();
+            this.speed = 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void readMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        synchronized (this.lock) {
+            this.synchronize();
+
+            if (!this.image.read(address, buffer, length)) {
+                throw new ProcessMemoryReadException(String.format("Failed to read process memory from address 0x%016X: Range of %d bytes has not been recorded", address, length));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void writeMemory(long address, @Nonnull Pointer buffer, @Nonnegative int length) {
+        synchronized (this.lock) {
+            this.synchronize();
+            this.image.put(address, buffer, length);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    protected Collection<MemoryRegion> queryRegions() {
+        synchronized (this.lock) {
+            return this.image.getRegions();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void validateAccess() throws ProcessMemoryStateException {
+        if (!this.open || this.isTerminated()) {
+            throw new ProcessMemoryStateException("Process is closed");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open() throws ProcessStateException {
+        if (this.open) {
+            throw new ProcessStateException("Process is already open");
+        }
+
+        this.open = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws ProcessStateException {
+        if (!this.open) {
+            throw new ProcessStateException("Process is already closed");
+        }
+
+        this.open = false;
+        this.pause();
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Retrieves the total duration of the trace.
+     */
+    @Nonnull
+    public Duration getDuration() {
+        return Duration.ofNanos(this.duration);
+    }
+
+    /**
+     * Retrieves the current position of the replay.
+     */
+    @Nonnull
+    public Duration getPosition() {
+        synchronized (this.lock) {
+            this.synchronize();
+            return Duration.ofNanos(this.position);
+        }
+    }
+
+    /**
+     * Checks whether the replay is currently moving forward along with the system clock.
+     */
+    public boolean isPlaying() {
+        synchronized (this.lock) {
+            this.synchronize();
+            return this.speed != 0;
+        }
+    }
+
+    /**
+     * Retrieves the path to the trace file.
+     */
+    @Nonnull
+    public Path getTracePath() {
+        return this.tracePath;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAlive() {
+        // a playing replay terminates as soon as its position passes the end of its trace
+        synchronized (this.lock) {
+            this.synchronize();
+        }
+
+        return !this.isTerminated();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+    // </editor-fold>
+}
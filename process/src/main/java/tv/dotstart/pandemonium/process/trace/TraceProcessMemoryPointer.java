@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.AbstractProcessMemoryPointer;
+
+/**
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public class TraceProcessMemoryPointer extends AbstractProcessMemoryPointer {
+    private final AbstractTraceProcess process;
+    private final TraceProcessModule module;
+
+    TraceProcessMemoryPointer(@Nonnull AbstractTraceProcess process, @Nonnull TraceProcessModule module, long baseAddress, @Nonnull long[] offsets) {
+        super(process, module, baseAddress, offsets);
+        this.process = process;
+        this.module = module;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    protected TraceProcessMemoryPointer createPointer(long baseAddress, @Nonnull long[] offsets) {
+        return new TraceProcessMemoryPointer(this.process, this.module, baseAddress, offsets);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public TraceProcessModule getModule() {
+        return this.module;
+    }
+}
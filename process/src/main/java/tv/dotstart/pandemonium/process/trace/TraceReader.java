@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides read access to a memory trace through a read-only memory mapping.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+final class TraceReader {
+    private final MappedByteBuffer buffer;
+
+    TraceReader(@Nonnull Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Trace exceeds maximum supported size of 2 GiB");
+            }
+            if (size < MemoryTrace.HEADER_SIZE) {
+                throw new IOException("Trace is truncated: Header is incomplete");
+            }
+
+            // the mapping remains valid after the channel has been closed
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int magic = this.buffer.getInt(0);
+        short version = this.buffer.getShort(4);
+
+        if (magic != MemoryTrace.MAGIC) {
+            throw new IOException(String.format("Not a memory trace: Expected magic number 0x%08X but got 0x%08X", MemoryTrace.MAGIC, magic));
+        }
+        if (version != MemoryTrace.VERSION) {
+            throw new IOException("Unsupported trace version: " + version);
+        }
+    }
+
+    /**
+     * Creates a new cursor which is positioned before the first record of the trace.
+     */
+    @Nonnull
+    Cursor cursor() {
+        return new Cursor(this.buffer.duplicate());
+    }
+
+    /**
+     * Iterates over the records of a trace.
+     *
+     * Records which have been truncated (e.g. because the recording application crashed) are
+     * treated as the end of the trace.
+     */
+    @NotThreadSafe
+    static final class Cursor {
+        private final ByteBuffer buffer;
+
+        private byte type = MemoryTrace.END;
+        private long timestamp;
+        private long address;
+        private int length;
+        private int dataPosition;
+
+        // process and module records
+        private boolean is64;
+        private String name;
+        private String path;
+        private long size;
+
+        Cursor(@Nonnull ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.buffer.position(MemoryTrace.HEADER_SIZE);
+        }
+
+        /**
+         * Advances to the next record.
+         *
+         * @return true if a record has been read, false if the end of the trace has been reached.
+         */
+        boolean next() {
+            try {
+                return this.read();
+            } catch (RuntimeException ex) {
+                // buffer underflows and malformed strings indicate a truncated record
+                this.type = MemoryTrace.END;
+                return false;
+            }
+        }
+
+        /**
+         * Decodes the record at the current position.
+         */
+        private boolean read() {
+            if (this.buffer.remaining() < MemoryTrace.RECORD_HEADER_SIZE) {
+                this.type = MemoryTrace.END;
+                return false;
+            }
+
+            this.type = this.buffer.get();
+
+            if (this.type == MemoryTrace.END) {
+                return false;
+            }
+
+            this.timestamp = this.buffer.getLong();
+
+            switch (this.type) {
+                case MemoryTrace.PROCESS:
+                    this.is64 = this.buffer.get() != 0;
+                    this.name = MemoryTrace.getString(this.buffer);
+                    this.path = MemoryTrace.getString(this.buffer);
+                    this.size = this.buffer.getLong();
+                    return true;
+                case MemoryTrace.MODULE:
+                    this.address = this.buffer.getLong();
+                    this.size = this.buffer.getLong();
+                    this.name = MemoryTrace.getString(this.buffer);
+                    this.path = MemoryTrace.getString(this.buffer);
+                    return true;
+                case MemoryTrace.READ:
+                case MemoryTrace.WRITE:
+                    this.address = this.buffer.getLong();
+                    this.length = this.buffer.getInt();
+                    this.dataPosition = this.buffer.position();
+
+                    if (this.length < 0 || this.buffer.remaining() < this.length) {
+                        this.type = MemoryTrace.END;
+                        return false;
+                    }
+
+                    this.buffer.position(this.dataPosition + this.length);
+                    return true;
+                case MemoryTrace.READ_FAILURE:
+                    this.address = this.buffer.getLong();
+                    this.length = this.buffer.getInt();
+                    return true;
+                default:
+                    throw new IllegalStateException("Unknown record type: " + this.type);
+            }
+        }
+
+        /**
+         * Retrieves a view of the contents of the current range record.
+         */
+        @Nonnull
+        ByteBuffer data() {
+            ByteBuffer data = this.buffer.duplicate();
+            data.position(this.dataPosition);
+            data.limit(this.dataPosition + this.length);
+
+            return data;
+        }
+
+        // <editor-fold desc="Getters & Setters">
+        byte getType() {
+            return this.type;
+        }
+
+        @Nonnegative
+        long getTimestamp() {
+            return this.timestamp;
+        }
+
+        long getAddress() {
+            return this.address;
+        }
+
+        @Nonnegative
+        int getLength() {
+            return this.length;
+        }
+
+        boolean is64Bit() {
+            return this.is64;
+        }
+
+        @Nonnull
+        String getName() {
+            return this.name;
+        }
+
+        @Nonnull
+        String getPath() {
+            return this.path;
+        }
+
+        @Nonnegative
+        long getSize() {
+            return this.size;
+        }
+        // </editor-fold>
+    }
+}
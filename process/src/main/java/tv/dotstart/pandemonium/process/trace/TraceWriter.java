@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.trace;
+
+import com.sun.jna.Pointer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Appends records to a memory trace through a sliding memory mapped window.
+ *
+ * The file is grown in chunks of {@link #CHUNK_SIZE} bytes and trimmed to its actual length when
+ * the writer is closed (unless the platform refuses to truncate a file which is still mapped in
+ * which case the trailing space is ignored by readers).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+final class TraceWriter implements Closeable {
+    private static final Logger logger = LogManager.getFormatterLogger(TraceWriter.class);
+
+    /**
+     * Defines the size of the window which is mapped at once.
+     */
+    static final int CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private static final int STAGING_SIZE = 4096;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long start = System.nanoTime();
+    private final byte[] staging = new byte[STAGING_SIZE];
+
+    @GuardedBy("this")
+    private MappedByteBuffer buffer;
+    @GuardedBy("this")
+    private long bufferPosition;
+
+    TraceWriter(@Nonnull Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_SIZE);
+            this.buffer.putInt(MemoryTrace.MAGIC);
+            this.buffer.putShort(MemoryTrace.VERSION);
+            this.buffer.putShort((short) 0);
+        } catch (IOException ex) {
+            this.channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Ensures that the current window is capable of holding the specified amount of bytes and
+     * maps a new window otherwise.
+     */
+    @GuardedBy("this")
+    private void ensureCapacity(@Nonnegative int length) throws IOException {
+        if (this.buffer == null) {
+            throw new IOException("Trace has been closed");
+        }
+
+        if (this.buffer.remaining() >= length) {
+            return;
+        }
+
+        long position = this.bufferPosition + this.buffer.position();
+
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(CHUNK_SIZE, length));
+        this.bufferPosition = position;
+    }
+
+    /**
+     * Writes the type and timestamp of a new record.
+     */
+    @GuardedBy("this")
+    private void beginRecord(byte type, @Nonnegative int payloadLength) throws IOException {
+        this.ensureCapacity(MemoryTrace.RECORD_HEADER_SIZE + payloadLength);
+
+        this.buffer.put(type);
+        this.buffer.putLong(System.nanoTime() - this.start);
+    }
+
+    /**
+     * Appends a description of the recorded process.
+     */
+    synchronized void writeProcess(boolean is64, @Nonnull String name, @Nonnull Path executablePath, @Nonnegative long executableSize) throws IOException {
+        byte[] encodedName = MemoryTrace.encode(name);
+        byte[] encodedPath = MemoryTrace.encode(executablePath.toString());
+
+        this.beginRecord(MemoryTrace.PROCESS, 1 + MemoryTrace.sizeOf(encodedName) + MemoryTrace.sizeOf(encodedPath) + 8);
+        this.buffer.put((byte) (is64 ? 1 : 0));
+        MemoryTrace.putString(this.buffer, encodedName);
+        MemoryTrace.putString(this.buffer, encodedPath);
+        this.buffer.putLong(executableSize);
+    }
+
+    /**
+     * Appends a description of a module within the recorded process.
+     */
+    synchronized void writeModule(long baseAddress, @Nonnegative long size, @Nonnull String name, @Nonnull Path path) throws IOException {
+        byte[] encodedName = MemoryTrace.encode(name);
+        byte[] encodedPath = MemoryTrace.encode(path.toString());
+
+        this.beginRecord(MemoryTrace.MODULE, 16 + MemoryTrace.sizeOf(encodedName) + MemoryTrace.sizeOf(encodedPath));
+        this.buffer.putLong(baseAddress);
+        this.buffer.putLong(size);
+        MemoryTrace.putString(this.buffer, encodedName);
+        MemoryTrace.putString(this.buffer, encodedPath);
+    }
+
+    /**
+     * Appends a range of memory which has been read or written.
+     *
+     * @param type either {@link MemoryTrace#READ} or {@link MemoryTrace#WRITE}.
+     */
+    synchronized void writeRange(byte type, long address, @Nonnull Pointer data, @Nonnegative int length) throws IOException {
+        this.beginRecord(type, MemoryTrace.RANGE_HEADER_SIZE + length);
+        this.buffer.putLong(address);
+        this.buffer.putInt(length);
+
+        // JNA provides no way of copying native memory into a mapped buffer directly and thus
+        // the contents are staged through a heap buffer
+        int position = 0;
+
+        while (position < length) {
+            int amount = Math.min(length - position, STAGING_SIZE);
+
+            data.read(position, this.staging, 0, amount);
+            this.buffer.put(this.staging, 0, amount);
+            position += amount;
+        }
+    }
+
+    /**
+     * Appends a range of memory which could not be read.
+     */
+    synchronized void writeReadFailure(long address, @Nonnegative int length) throws IOException {
+        this.beginRecord(MemoryTrace.READ_FAILURE, MemoryTrace.RANGE_HEADER_SIZE);
+        this.buffer.putLong(address);
+        this.buffer.putInt(length);
+    }
+
+    /**
+     * Retrieves the amount of bytes which have been written so far.
+     */
+    @Nonnegative
+    synchronized long getLength() {
+        return this.buffer == null ? 0 : this.bufferPosition + this.buffer.position();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.buffer == null) {
+            return;
+        }
+
+        long length = this.bufferPosition + this.buffer.position();
+
+        try {
+            this.buffer.force();
+            this.buffer = null;
+
+            try {
+                this.channel.truncate(length);
+            } catch (IOException ex) {
+                // some platforms refuse to truncate files which are still mapped (the mapping is
+                // only released once the buffer has been collected) in which case the remaining
+                // space is zero filled and thus terminates the trace regardless
+                logger.debug("Cannot trim trace \"%s\" to %d bytes: %s", this.path, length, ex.getMessage());
+            }
+        } finally {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.watch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryBatch;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+
+/**
+ * Provides a base to watch implementations which takes care of cancellation and listener
+ * notification.
+ *
+ * Implementations are only ever sampled by the thread of their owning watcher and are thus free
+ * to keep their comparison state in plain fields.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+abstract class AbstractMemoryWatch<T> implements MemoryWatch<T> {
+    private static final Logger logger = LogManager.getFormatterLogger(AbstractMemoryWatch.class);
+
+    private final MemoryWatcher watcher;
+    private final ProcessMemoryPointer pointer;
+    private final double frequency;
+    private final WatchListener<T> listener;
+
+    private volatile boolean cancelled;
+    private volatile T value;
+
+    AbstractMemoryWatch(@Nonnull MemoryWatcher watcher, @Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<T> listener) {
+        this.watcher = watcher;
+        this.pointer = pointer;
+        this.frequency = frequency;
+        this.listener = listener;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cancel() {
+        if (this.cancelled) {
+            return;
+        }
+
+        this.cancelled = true;
+        this.watcher.remove(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getFrequency() {
+        return this.frequency;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProcessMemoryPointer getPointer() {
+        return this.pointer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public T getValue() {
+        return this.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Schedules the read of the watched value within a batch.
+     */
+    abstract void schedule(@Nonnull ProcessMemoryBatch batch);
+
+    /**
+     * Updates the watched value based on the result of a batch.
+     *
+     * @param index the index at which this watch scheduled its read.
+     */
+    abstract void update(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index);
+
+    /**
+     * Reads and updates the watched value on its own.
+     *
+     * This method is invoked when a batch cannot be read as a whole and is expected to handle
+     * read failures by marking the value unavailable.
+     */
+    abstract void sample();
+
+    /**
+     * Stores a newly observed value and notifies the listener.
+     *
+     * Implementations are expected to only invoke this method when the value has actually
+     * changed.
+     */
+    void publish(@Nullable T value) {
+        T previousValue = this.value;
+        this.value = value;
+
+        if (this.cancelled) {
+            return;
+        }
+
+        try {
+            this.listener.onChange(previousValue, value);
+        } catch (RuntimeException ex) {
+            logger.error("Watch listener failed to handle change of " + this.pointer + ": " + ex.getMessage(), ex);
+        }
+    }
+}
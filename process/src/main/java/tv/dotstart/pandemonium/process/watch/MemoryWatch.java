@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.watch;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+
+/**
+ * Represents a value within process memory which is periodically sampled by a {@link
+ * MemoryWatcher}.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+public interface MemoryWatch<T> {
+
+    /**
+     * Stops sampling this watch.
+     *
+     * Listeners may still receive a single notification after this method returns if a sample is
+     * currently in progress.
+     */
+    void cancel();
+
+    /**
+     * Retrieves the frequency (in Hz) at which this watch is sampled.
+     */
+    @Nonnegative
+    double getFrequency();
+
+    /**
+     * Retrieves the pointer which references the watched value.
+     */
+    @Nonnull
+    ProcessMemoryPointer getPointer();
+
+    /**
+     * Retrieves the most recently observed value.
+     *
+     * @return a value or null if the watch has not been sampled yet or its value is not readable
+     * at the moment.
+     */
+    @Nullable
+    T getValue();
+
+    /**
+     * Checks whether this watch has been cancelled.
+     */
+    boolean isCancelled();
+}
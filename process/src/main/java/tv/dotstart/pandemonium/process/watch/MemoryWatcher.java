@@ -0,0 +1,374 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.watch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.ProcessMemoryBatch;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryStateException;
+
+/**
+ * Periodically samples values within the memory of a process and notifies listeners when they
+ * change.
+ *
+ * Watches which share the same sampling frequency are grouped and read using a single batch per
+ * tick (which permits their reads to be coalesced). All groups are sampled on a dedicated daemon
+ * thread which is owned by the watcher and terminated when the watcher is closed.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public class MemoryWatcher implements AutoCloseable {
+    private static final Logger logger = LogManager.getFormatterLogger(MemoryWatcher.class);
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private final Process process;
+    private final ScheduledExecutorService executor;
+    @GuardedBy("this")
+    private final Map<Long, Group> groups = new HashMap<>();
+    @GuardedBy("this")
+    private boolean closed;
+
+    public MemoryWatcher(@Nonnull Process process) {
+        this.process = process;
+        this.executor = Executors.newSingleThreadScheduledExecutor((r) -> {
+            Thread thread = new Thread(r, "memory-watcher-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Cancels all watches and stops the sampling thread.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        this.executor.shutdownNow();
+
+        List<AbstractMemoryWatch<?>> watches = new ArrayList<>();
+        this.groups.values().forEach((g) -> g.drainTo(watches));
+        this.groups.clear();
+
+        watches.forEach(MemoryWatch::cancel);
+    }
+
+    /**
+     * Retrieves the process this watcher samples.
+     */
+    @Nonnull
+    public Process getProcess() {
+        return this.process;
+    }
+
+    /**
+     * Retrieves the amount of active watches.
+     */
+    @Nonnegative
+    public synchronized int getWatchCount() {
+        return this.groups.values().stream()
+                .mapToInt(Group::size)
+                .sum();
+    }
+
+    /**
+     * Checks whether this watcher has been closed.
+     */
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    // <editor-fold desc="Watches">
+
+    /**
+     * Watches a byte value.
+     *
+     * @param frequency the amount of samples per second.
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  frequency is not positive.
+     * @throws IllegalStateException    when the watcher has been closed.
+     */
+    @Nonnull
+    public MemoryWatch<Byte> watchByte(@Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<Byte> listener) {
+        return this.add(new PrimitiveMemoryWatch<>(this, pointer, frequency, listener, PrimitiveMemoryWatch.Codec.BYTE));
+    }
+
+    /**
+     * Watches a double value.
+     *
+     * @param frequency the amount of samples per second.
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  frequency is not positive.
+     * @throws IllegalStateException    when the watcher has been closed.
+     */
+    @Nonnull
+    public MemoryWatch<Double> watchDouble(@Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<Double> listener) {
+        return this.add(new PrimitiveMemoryWatch<>(this, pointer, frequency, listener, PrimitiveMemoryWatch.Codec.DOUBLE));
+    }
+
+    /**
+     * Watches a float value.
+     *
+     * @param frequency the amount of samples per second.
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  frequency is not positive.
+     * @throws IllegalStateException    when the watcher has been closed.
+     */
+    @Nonnull
+    public MemoryWatch<Float> watchFloat(@Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<Float> listener) {
+        return this.add(new PrimitiveMemoryWatch<>(this, pointer, frequency, listener, PrimitiveMemoryWatch.Codec.FLOAT));
+    }
+
+    /**
+     * Watches an integer value.
+     *
+     * @param frequency the amount of samples per second.
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  frequency is not positive.
+     * @throws IllegalStateException    when the watcher has been closed.
+     */
+    @Nonnull
+    public MemoryWatch<Integer> watchInteger(@Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<Integer> listener) {
+        return this.add(new PrimitiveMemoryWatch<>(this, pointer, frequency, listener, PrimitiveMemoryWatch.Codec.INTEGER));
+    }
+
+    /**
+     * Watches a long value.
+     *
+     * @param frequency the amount of samples per second.
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  frequency is not positive.
+     * @throws IllegalStateException    when the watcher has been closed.
+     */
+    @Nonnull
+    public MemoryWatch<Long> watchLong(@Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<Long> listener) {
+        return this.add(new PrimitiveMemoryWatch<>(this, pointer, frequency, listener, PrimitiveMemoryWatch.Codec.LONG));
+    }
+
+    /**
+     * Watches a short value.
+     *
+     * @param frequency the amount of samples per second.
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  frequency is not positive.
+     * @throws IllegalStateException    when the watcher has been closed.
+     */
+    @Nonnull
+    public MemoryWatch<Short> watchShort(@Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<Short> listener) {
+        return this.add(new PrimitiveMemoryWatch<>(this, pointer, frequency, listener, PrimitiveMemoryWatch.Codec.SHORT));
+    }
+
+    /**
+     * Watches a NUL terminated string of a maximum length.
+     *
+     * @param frequency the amount of samples per second.
+     * @throws IllegalArgumentException when the pointer belongs to a different process or the
+     *                                  frequency is not positive.
+     * @throws IllegalStateException    when the watcher has been closed.
+     */
+    @Nonnull
+    public MemoryWatch<String> watchString(@Nonnull ProcessMemoryPointer pointer, @Nonnegative int maxLength, @Nonnegative double frequency, @Nonnull WatchListener<String> listener) {
+        return this.add(new StringMemoryWatch(this, pointer, maxLength, frequency, listener));
+    }
+    // </editor-fold>
+
+    /**
+     * Registers a watch with the group of its respective frequency.
+     */
+    @Nonnull
+    private synchronized <W extends AbstractMemoryWatch<?>> W add(@Nonnull W watch) {
+        if (this.closed) {
+            throw new IllegalStateException("Watcher has been closed");
+        }
+        if (watch.getPointer().getProcess() != this.process) {
+            throw new IllegalArgumentException("Pointer does not belong to process " + this.process.getName());
+        }
+        if (!(watch.getFrequency() > 0)) {
+            throw new IllegalArgumentException("Frequency must be positive but was " + watch.getFrequency());
+        }
+
+        long period = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / watch.getFrequency()));
+
+        Group group = this.groups.computeIfAbsent(period, Group::new);
+        group.add(watch);
+
+        if (group.future == null) {
+            group.future = this.executor.scheduleAtFixedRate(group, 0, period, TimeUnit.NANOSECONDS);
+        }
+
+        return watch;
+    }
+
+    /**
+     * Removes a cancelled watch from its group and stops sampling the group if it no longer
+     * contains any watches.
+     */
+    synchronized void remove(@Nonnull AbstractMemoryWatch<?> watch) {
+        long period = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / watch.getFrequency()));
+        Group group = this.groups.get(period);
+
+        if (group == null || !group.remove(watch) || !group.isEmpty()) {
+            return;
+        }
+
+        this.groups.remove(period);
+
+        if (group.future != null) {
+            group.future.cancel(false);
+        }
+    }
+
+    /**
+     * Represents a set of watches which share the same sampling period.
+     */
+    @ThreadSafe
+    private final class Group implements Runnable {
+        private final long period;
+        @GuardedBy("this")
+        private final List<AbstractMemoryWatch<?>> watches = new ArrayList<>();
+        @GuardedBy("MemoryWatcher.this")
+        private ScheduledFuture<?> future;
+        @GuardedBy("this")
+        private Plan plan;
+
+        Group(long period) {
+            this.period = period;
+        }
+
+        synchronized void add(@Nonnull AbstractMemoryWatch<?> watch) {
+            this.watches.add(watch);
+            this.plan = null;
+        }
+
+        synchronized boolean remove(@Nonnull AbstractMemoryWatch<?> watch) {
+            this.plan = null;
+            return this.watches.remove(watch);
+        }
+
+        synchronized void drainTo(@Nonnull List<AbstractMemoryWatch<?>> target) {
+            target.addAll(this.watches);
+            this.watches.clear();
+            this.plan = null;
+        }
+
+        synchronized boolean isEmpty() {
+            return this.watches.isEmpty();
+        }
+
+        synchronized int size() {
+            return this.watches.size();
+        }
+
+        /**
+         * Retrieves the current sampling plan or constructs a new plan if the set of watches has
+         * changed since the last tick.
+         */
+        @Nonnull
+        private synchronized Plan plan() {
+            if (this.plan == null) {
+                AbstractMemoryWatch<?>[] watches = this.watches.toArray(new AbstractMemoryWatch<?>[this.watches.size()]);
+                ProcessMemoryBatch batch = MemoryWatcher.this.process.batch();
+
+                for (AbstractMemoryWatch<?> watch : watches) {
+                    watch.schedule(batch);
+                }
+
+                this.plan = new Plan(watches, batch);
+            }
+
+            return this.plan;
+        }
+
+        /**
+         * Samples all watches within this group.
+         */
+        @Override
+        public void run() {
+            try {
+                Plan plan = this.plan();
+
+                if (plan.watches.length == 0) {
+                    return;
+                }
+
+                ProcessMemoryBatch.Result result;
+
+                try {
+                    result = plan.batch.execute();
+                } catch (ProcessMemoryStateException ex) {
+                    throw ex;
+                } catch (ProcessMemoryReadException ex) {
+                    // one or more values are currently unreadable (e.g. because a pointer chain
+                    // is broken during a loading screen) so we'll fall back to sampling each
+                    // value on its own in order to isolate the affected watches
+                    for (AbstractMemoryWatch<?> watch : plan.watches) {
+                        watch.sample();
+                    }
+
+                    return;
+                }
+
+                for (int i = 0; i < plan.watches.length; ++i) {
+                    plan.watches[i].update(result, i);
+                }
+            } catch (ProcessMemoryStateException ex) {
+                logger.debug("Skipping sample of %d ns group: %s", this.period, ex.getMessage());
+            } catch (RuntimeException ex) {
+                // exceptions which escape this method would silently stop all future samples of
+                // this group
+                logger.error("Failed to sample %d ns group: " + ex.getMessage(), this.period, ex);
+            }
+        }
+    }
+
+    /**
+     * Represents a snapshot of the watches within a group along with a batch which reads their
+     * values in the same order.
+     */
+    private static final class Plan {
+        private final AbstractMemoryWatch<?>[] watches;
+        private final ProcessMemoryBatch batch;
+
+        Plan(@Nonnull AbstractMemoryWatch<?>[] watches, @Nonnull ProcessMemoryBatch batch) {
+            this.watches = watches;
+            this.batch = batch;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.watch;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryBatch;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+
+/**
+ * Watches a primitive value.
+ *
+ * Values are compared in their raw representation (e.g. the bits of a float) which avoids boxing
+ * unless the value has actually changed.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class PrimitiveMemoryWatch<T> extends AbstractMemoryWatch<T> {
+    private final Codec<T> codec;
+
+    private long raw;
+    private boolean available;
+
+    PrimitiveMemoryWatch(@Nonnull MemoryWatcher watcher, @Nonnull ProcessMemoryPointer pointer, @Nonnegative double frequency, @Nonnull WatchListener<T> listener, @Nonnull Codec<T> codec) {
+        super(watcher, pointer, frequency, listener);
+        this.codec = codec;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void schedule(@Nonnull ProcessMemoryBatch batch) {
+        this.codec.schedule(batch, this.getPointer());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void update(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+        this.update(this.codec.get(result, index));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void sample() {
+        long raw;
+
+        try {
+            raw = this.codec.read(this.getPointer());
+        } catch (ProcessMemoryReadException ex) {
+            if (this.available) {
+                this.available = false;
+                this.publish(null);
+            }
+
+            return;
+        }
+
+        this.update(raw);
+    }
+
+    /**
+     * Compares a newly observed raw value against the previous value and publishes it if it
+     * differs.
+     */
+    private void update(long raw) {
+        if (this.available && this.raw == raw) {
+            return;
+        }
+
+        this.raw = raw;
+        this.available = true;
+        this.publish(this.codec.decode(raw));
+    }
+
+    /**
+     * Provides a method of reading and decoding a certain primitive type.
+     */
+    interface Codec<T> {
+        Codec<Byte> BYTE = new Codec<Byte>() {
+            @Override
+            public void schedule(@Nonnull ProcessMemoryBatch batch, @Nonnull ProcessMemoryPointer pointer) {
+                batch.readByte(pointer);
+            }
+
+            @Override
+            public long get(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+                return result.getByte(index);
+            }
+
+            @Override
+            public long read(@Nonnull ProcessMemoryPointer pointer) {
+                return (byte) pointer.readByte();
+            }
+
+            @Nonnull
+            @Override
+            public Byte decode(long raw) {
+                return (byte) raw;
+            }
+        };
+        Codec<Short> SHORT = new Codec<Short>() {
+            @Override
+            public void schedule(@Nonnull ProcessMemoryBatch batch, @Nonnull ProcessMemoryPointer pointer) {
+                batch.readShort(pointer);
+            }
+
+            @Override
+            public long get(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+                return result.getShort(index);
+            }
+
+            @Override
+            public long read(@Nonnull ProcessMemoryPointer pointer) {
+                return (short) pointer.readShort();
+            }
+
+            @Nonnull
+            @Override
+            public Short decode(long raw) {
+                return (short) raw;
+            }
+        };
+        Codec<Integer> INTEGER = new Codec<Integer>() {
+            @Override
+            public void schedule(@Nonnull ProcessMemoryBatch batch, @Nonnull ProcessMemoryPointer pointer) {
+                batch.readInteger(pointer);
+            }
+
+            @Override
+            public long get(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+                return result.getInteger(index);
+            }
+
+            @Override
+            public long read(@Nonnull ProcessMemoryPointer pointer) {
+                return (int) pointer.readInteger();
+            }
+
+            @Nonnull
+            @Override
+            public Integer decode(long raw) {
+                return (int) raw;
+            }
+        };
+        Codec<Long> LONG = new Codec<Long>() {
+            @Override
+            public void schedule(@Nonnull ProcessMemoryBatch batch, @Nonnull ProcessMemoryPointer pointer) {
+                batch.readLong(pointer);
+            }
+
+            @Override
+            public long get(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+                return result.getLong(index);
+            }
+
+            @Override
+            public long read(@Nonnull ProcessMemoryPointer pointer) {
+                return pointer.readLong();
+            }
+
+            @Nonnull
+            @Override
+            public Long decode(long raw) {
+                return raw;
+            }
+        };
+        Codec<Float> FLOAT = new Codec<Float>() {
+            @Override
+            public void schedule(@Nonnull ProcessMemoryBatch batch, @Nonnull ProcessMemoryPointer pointer) {
+                batch.readFloat(pointer);
+            }
+
+            @Override
+            public long get(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+                return Float.floatToRawIntBits(result.getFloat(index));
+            }
+
+            @Override
+            public long read(@Nonnull ProcessMemoryPointer pointer) {
+                return Float.floatToRawIntBits(pointer.readFloat());
+            }
+
+            @Nonnull
+            @Override
+            public Float decode(long raw) {
+                return Float.intBitsToFloat((int) raw);
+            }
+        };
+        Codec<Double> DOUBLE = new Codec<Double>() {
+            @Override
+            public void schedule(@Nonnull ProcessMemoryBatch batch, @Nonnull ProcessMemoryPointer pointer) {
+                batch.readDouble(pointer);
+            }
+
+            @Override
+            public long get(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+                return Double.doubleToRawLongBits(result.getDouble(index));
+            }
+
+            @Override
+            public long read(@Nonnull ProcessMemoryPointer pointer) {
+                return Double.doubleToRawLongBits(pointer.readDouble());
+            }
+
+            @Nonnull
+            @Override
+            public Double decode(long raw) {
+                return Double.longBitsToDouble(raw);
+            }
+        };
+
+        /**
+         * Schedules the read of a value within a batch.
+         */
+        void schedule(@Nonnull ProcessMemoryBatch batch, @Nonnull ProcessMemoryPointer pointer);
+
+        /**
+         * Retrieves the raw representation of a value from a batch result.
+         */
+        long get(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index);
+
+        /**
+         * Reads the raw representation of a value directly.
+         */
+        long read(@Nonnull ProcessMemoryPointer pointer);
+
+        /**
+         * Converts a raw representation into its respective value.
+         */
+        @Nonnull
+        T decode(long raw);
+    }
+}
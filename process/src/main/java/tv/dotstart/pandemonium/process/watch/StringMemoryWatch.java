@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.watch;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.ProcessMemoryBatch;
+import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.exception.memory.ProcessMemoryReadException;
+
+/**
+ * Watches a NUL terminated string of a maximum length.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+final class StringMemoryWatch extends AbstractMemoryWatch<String> {
+    private final int maxLength;
+
+    StringMemoryWatch(@Nonnull MemoryWatcher watcher, @Nonnull ProcessMemoryPointer pointer, @Nonnegative int maxLength, @Nonnegative double frequency, @Nonnull WatchListener<String> listener) {
+        super(watcher, pointer, frequency, listener);
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void schedule(@Nonnull ProcessMemoryBatch batch) {
+        batch.readString(this.getPointer(), this.maxLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void update(@Nonnull ProcessMemoryBatch.Result result, @Nonnegative int index) {
+        this.update(result.getString(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void sample() {
+        String value;
+
+        try {
+            value = this.getPointer().readString(this.maxLength);
+        } catch (ProcessMemoryReadException ex) {
+            value = null;
+        }
+
+        this.update(value);
+    }
+
+    /**
+     * Compares a newly observed value against the previous value and publishes it if it differs.
+     */
+    private void update(String value) {
+        if (!Objects.equals(this.getValue(), value)) {
+            this.publish(value);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.process.watch;
+
+import javax.annotation.Nullable;
+
+/**
+ * Receives notifications about changes to a watched value.
+ *
+ * Listeners are invoked on the sampling thread of their respective {@link MemoryWatcher} and are
+ * thus expected to return quickly in order to not delay other watches.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@FunctionalInterface
+public interface WatchListener<T> {
+
+    /**
+     * Handles a change of a watched value.
+     *
+     * The first successful sample of a watch is reported as a change from null. Similarly, a value
+     * which becomes unreadable (e.g. because its pointer chain is currently broken) is reported as
+     * a change to null.
+     *
+     * @param previousValue the previously observed value (or null).
+     * @param value         the newly observed value (or null).
+     */
+    void onChange(@Nullable T previousValue, @Nullable T value);
+}
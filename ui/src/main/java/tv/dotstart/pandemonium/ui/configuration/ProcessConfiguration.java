@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.ui.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import javax.annotation.Nonnull;
+
+import tv.dotstart.pandemonium.process.ProcessAccessor;
+import tv.dotstart.pandemonium.process.discovery.ProcessDiscoveryService;
+import tv.dotstart.pandemonium.ui.game.GameRuntime;
+
+/**
+ * Provides beans in order to locate game processes on the local system.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@Configuration
+public class ProcessConfiguration {
+
+    /**
+     * Provides a service which keeps track of all processes on the local system.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @Lazy
+    @Nonnull
+    public ProcessDiscoveryService processDiscoveryService(@Nonnull ProcessAccessor processAccessor) {
+        return new ProcessDiscoveryService(processAccessor);
+    }
+
+    /**
+     * Provides a dedicated thread which performs all I/O on game processes.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy
+    @Nonnull
+    public GameRuntime gameRuntime() {
+        return new GameRuntime();
+    }
+}
@@ -34,6 +34,7 @@ import tv.dotstart.pandemonium.effect.EffectFactory;
 import tv.dotstart.pandemonium.game.Game;
 import tv.dotstart.pandemonium.game.GameStateMapper;
 import tv.dotstart.pandemonium.game.Metadata;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
 import tv.dotstart.pandemonium.ui.dxhr.effect.BulletEffectFactory;
@@ -54,9 +55,9 @@ public class DXHRGame implements Game {
     private static final UUID id = new UUID(0x726FFC341294293L, 0xAC07F5C72C6DF878L);
     private static final Metadata metadata = new Metadata("0.1.0", 0, "https://github.com/dotStart/Pandemonium", "https://github.com/dotstart/Pandemonium/issues/new", ".start");
 
-    private static final long LOADING_PTR = 0x1876708;
-    private static final long PAUSED_PTR = 0x18726B0;
-    private static final long STREAM_GROUP_PTR = 0x1857924;
+    private static final PointerPath LOADING_PTR = PointerPath.of("dxhr.exe", 0x1876708);
+    private static final PointerPath PAUSED_PTR = PointerPath.of("dxhr.exe", 0x18726B0);
+    private static final PointerPath STREAM_GROUP_PTR = PointerPath.of("dxhr.exe", 0x1857924);
     private static final int STREAM_GROUP_LENGTH = 55;
     private static final String STREAM_GROUP_PROLOGUE = "det_sarifhq_rail_tutorial";
 
@@ -137,18 +138,28 @@ public class DXHRGame implements Game {
     @Override
     public GameStateMapper createStateMapper(@Nonnull Process process) {
         return new GameStateMapper() {
-            private final ProcessMemoryPointer loadingPointer = process.pointer("dxhr.exe", LOADING_PTR);
-            private final ProcessMemoryPointer pausedPointer = process.pointer("dxhr.exe", PAUSED_PTR);
-            private final ProcessMemoryPointer streamGroupPointer = process.pointer("dxhr.exe", STREAM_GROUP_PTR);
+            private final ProcessMemoryPointer loadingPointer = process.pointer(LOADING_PTR);
+            private final ProcessMemoryPointer pausedPointer = process.pointer(PAUSED_PTR);
+            private final ProcessMemoryPointer streamGroupPointer = process.pointer(STREAM_GROUP_PTR);
 
             private String streamGroupId = null;
+            private boolean loading;
 
             /**
              * {@inheritDoc}
              */
             @Override
             public boolean isPaused() {
-                return this.loadingPointer.readByte() == 1 || this.pausedPointer.readByte() == 1;
+                boolean loading = this.loadingPointer.readByte() == 1;
+
+                // the game re-allocates most of its player related structures while loading and
+                // thus we'll have to discard all previously resolved deep pointers
+                if (loading && !this.loading) {
+                    process.invalidatePointers();
+                }
+
+                this.loading = loading;
+                return loading || this.pausedPointer.readByte() == 1;
             }
 
             /**
@@ -164,6 +175,7 @@ public class DXHRGame implements Game {
                     }
 
                     logger.info("Entering map %s", streamGroupId);
+                    process.invalidatePointers();
                 }
 
                 boolean reset = this.streamGroupId != null && !this.streamGroupId.equalsIgnoreCase(streamGroupId) && streamGroupId.equalsIgnoreCase(STREAM_GROUP_PROLOGUE);
@@ -21,6 +21,8 @@ import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.effect.Effect;
 import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.process.MemoryJournal;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
 
@@ -28,10 +30,8 @@ import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public class BulletEffectFactory implements EffectFactory {
-    private static final long BULLET_LOADED_PTR = 0x01858238;
-    private static final long[] BULLET_LOADED_OFFSETS = new long[]{0x70, 0x14};
-    private static final long BULLET_INVENTORY_PTR = 0x01858238;
-    private static final long[] BULLET_INVENTORY_OFFSETS = new long[]{0x70, 0x2E};
+    private static final PointerPath BULLET_LOADED_PTR = PointerPath.of("dxhr.exe", 0x01858238, 0x70, 0x14);
+    private static final PointerPath BULLET_INVENTORY_PTR = PointerPath.of("dxhr.exe", 0x01858238, 0x70, 0x2E);
 
     private final int effectId;
     private final byte loadedAmount;
@@ -50,22 +50,20 @@ public class BulletEffectFactory implements EffectFactory {
     @Override
     public Effect build(@Nonnull Process process) {
         return new Effect() {
-            private final ProcessMemoryPointer bulletLoadedPointer = process.pointer("dxhr.exe", BULLET_LOADED_PTR, BULLET_LOADED_OFFSETS);
-            private final ProcessMemoryPointer bulletInventoryPointer = process.pointer("dxhr.exe", BULLET_INVENTORY_PTR, BULLET_INVENTORY_OFFSETS);
+            private final ProcessMemoryPointer bulletLoadedPointer = process.pointer(BULLET_LOADED_PTR);
+            private final ProcessMemoryPointer bulletInventoryPointer = process.pointer(BULLET_INVENTORY_PTR);
 
-            private byte loadedAmount;
-            private byte inventoryAmount;
+            private MemoryJournal journal;
 
             /**
              * {@inheritDoc}
              */
             @Override
             public void apply() {
-                this.loadedAmount = this.bulletLoadedPointer.readByte();
-                this.inventoryAmount = this.bulletInventoryPointer.readByte();
-
-                this.bulletLoadedPointer.writeByte(BulletEffectFactory.this.loadedAmount);
-                this.bulletInventoryPointer.writeByte(BulletEffectFactory.this.inventoryAmount);
+                this.journal = process.transaction()
+                        .writeByte(this.bulletLoadedPointer, BulletEffectFactory.this.loadedAmount)
+                        .writeByte(this.bulletInventoryPointer, BulletEffectFactory.this.inventoryAmount)
+                        .commit();
             }
 
             /**
@@ -73,8 +71,10 @@ public class BulletEffectFactory implements EffectFactory {
              */
             @Override
             public void revert() {
-                this.bulletLoadedPointer.writeByte(this.loadedAmount);
-                this.bulletInventoryPointer.writeByte(this.inventoryAmount);
+                if (this.journal != null) {
+                    this.journal.revert();
+                    this.journal = null;
+                }
             }
         };
     }
@@ -92,7 +92,7 @@ public class BulletEffectFactory implements EffectFactory {
      */
     @Override
     public boolean isCompatibleWith(@Nonnull Process process) {
-        return process.pointer("dxhr.exe", BULLET_LOADED_PTR, BULLET_LOADED_OFFSETS).isReadable(1);
+        return process.pointer(BULLET_LOADED_PTR).isReadable(1);
     }
 
     /**
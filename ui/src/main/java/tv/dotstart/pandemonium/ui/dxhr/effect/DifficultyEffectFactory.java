@@ -20,6 +20,7 @@ import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.effect.Effect;
 import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
 
@@ -27,7 +28,7 @@ import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public class DifficultyEffectFactory implements EffectFactory {
-    private static final long DIFFICULTY_PTR = 0x1855950;
+    private static final PointerPath DIFFICULTY_PTR = PointerPath.of("dxhr.exe", 0x1855950);
 
     private final int effectId;
     private final byte level;
@@ -44,7 +45,7 @@ public class DifficultyEffectFactory implements EffectFactory {
     @Override
     public Effect build(@Nonnull Process process) {
         return new Effect() {
-            private final ProcessMemoryPointer difficultyPointer = process.pointer("dxhr.exe", DIFFICULTY_PTR);
+            private final ProcessMemoryPointer difficultyPointer = process.pointer(DIFFICULTY_PTR);
 
             private byte level;
 
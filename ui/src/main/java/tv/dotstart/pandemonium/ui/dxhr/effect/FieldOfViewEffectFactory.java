@@ -21,14 +21,17 @@ import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.effect.Effect;
 import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.effect.PinnedEffect;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
+import tv.dotstart.pandemonium.process.pin.ValuePinner;
 
 /**
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public abstract class FieldOfViewEffectFactory implements EffectFactory {
-    private static final long FOV_PTR = 0x1855954;
+    private static final PointerPath FOV_PTR = PointerPath.of("dxhr.exe", 0x1855954);
 
     private final int effectId;
     private final int fov;
@@ -45,7 +48,7 @@ public abstract class FieldOfViewEffectFactory implements EffectFactory {
     @Override
     public Effect build(@Nonnull Process process) {
         return new Effect() {
-            private final ProcessMemoryPointer fovPointer = process.pointer("dxhr.exe", FOV_PTR);
+            private final ProcessMemoryPointer fovPointer = process.pointer(FOV_PTR);
 
             private int fov;
 
@@ -68,6 +71,39 @@ public abstract class FieldOfViewEffectFactory implements EffectFactory {
         };
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Effect build(@Nonnull Process process, @Nonnull ValuePinner pinner) {
+        return new PinnedEffect(pinner) {
+            private final ProcessMemoryPointer fovPointer = process.pointer(FOV_PTR);
+
+            private int fov;
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void apply() {
+                // the game resets the field of view on a regular basis (e.g. when leaving a cut
+                // scene or conversation) and thus we'll have to keep asserting our value
+                this.fov = this.fovPointer.readInteger();
+                this.register(this.getPinner().pinInteger(this.fovPointer, FieldOfViewEffectFactory.this.fov));
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void revert() {
+                super.revert();
+                this.fovPointer.writeInteger(this.fov);
+            }
+        };
+    }
+
     /**
      * {@inheritDoc}
      */
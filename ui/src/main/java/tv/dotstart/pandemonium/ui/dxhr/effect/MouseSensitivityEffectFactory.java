@@ -21,6 +21,7 @@ import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.effect.Effect;
 import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
 
@@ -28,8 +29,8 @@ import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public abstract class MouseSensitivityEffectFactory implements EffectFactory {
-    private static final long MOUSE_X_SENSITIVITY_PTR = 0x709E38;
-    private static final long MOUSE_Y_SENSITIVITY_PTR = 0x709E3C;
+    private static final PointerPath MOUSE_X_SENSITIVITY_PTR = PointerPath.of("dxhr.exe", 0x709E38);
+    private static final PointerPath MOUSE_Y_SENSITIVITY_PTR = PointerPath.of("dxhr.exe", 0x709E3C);
 
     private final int effectId;
     private final float multiplier;
@@ -95,7 +96,7 @@ public abstract class MouseSensitivityEffectFactory implements EffectFactory {
         @Nonnull
         @Override
         protected ProcessMemoryPointer createPointer(@Nonnull Process process) {
-            return process.pointer("dxhr.exe", MOUSE_X_SENSITIVITY_PTR);
+            return process.pointer(MOUSE_X_SENSITIVITY_PTR);
         }
 
         /**
@@ -140,7 +141,7 @@ public abstract class MouseSensitivityEffectFactory implements EffectFactory {
         @Nonnull
         @Override
         protected ProcessMemoryPointer createPointer(@Nonnull Process process) {
-            return process.pointer("dxhr.exe", MOUSE_Y_SENSITIVITY_PTR);
+            return process.pointer(MOUSE_Y_SENSITIVITY_PTR);
         }
 
         /**
@@ -20,6 +20,7 @@ import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.effect.Effect;
 import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
 
@@ -27,7 +28,7 @@ import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public class ObjectiveLocatorEffectFactory implements EffectFactory {
-    private static final long LOCATOR_PTR = 0x1855919;
+    private static final PointerPath LOCATOR_PTR = PointerPath.of("dxhr.exe", 0x1855919);
 
     /**
      * {@inheritDoc}
@@ -36,7 +37,7 @@ public class ObjectiveLocatorEffectFactory implements EffectFactory {
     @Override
     public Effect build(@Nonnull Process process) {
         return new Effect() {
-            private final ProcessMemoryPointer locatorPointer = process.pointer("dxhr.exe", LOCATOR_PTR);
+            private final ProcessMemoryPointer locatorPointer = process.pointer(LOCATOR_PTR);
 
             private boolean enabled;
 
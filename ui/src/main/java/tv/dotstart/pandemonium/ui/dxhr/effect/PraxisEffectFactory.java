@@ -20,6 +20,7 @@ import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.effect.Effect;
 import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
 
@@ -27,8 +28,7 @@ import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public class PraxisEffectFactory implements EffectFactory {
-    private static final long PRAXIS_PTR = 0x015DE1A8;
-    private static final long[] PRAXIS_OFFSETS = new long[]{0x14, 0x140};
+    private static final PointerPath PRAXIS_PTR = PointerPath.of("dxhr.exe", 0x015DE1A8, 0x14, 0x140);
 
     private final int effectId;
     private final byte praxis;
@@ -45,7 +45,7 @@ public class PraxisEffectFactory implements EffectFactory {
     @Override
     public Effect build(@Nonnull Process process) {
         return new Effect() {
-            private final ProcessMemoryPointer praxisPointer = process.pointer("dxhr.exe", PRAXIS_PTR, PRAXIS_OFFSETS);
+            private final ProcessMemoryPointer praxisPointer = process.pointer(PRAXIS_PTR);
 
             private byte praxis;
 
@@ -20,6 +20,7 @@ import javax.annotation.Nonnull;
 
 import tv.dotstart.pandemonium.effect.Effect;
 import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.process.PointerPath;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
 
@@ -27,7 +28,7 @@ import tv.dotstart.pandemonium.process.ProcessMemoryPointer;
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 public class ReticleEffectFactory implements EffectFactory {
-    private static final long RETICLE_PTR = 0x185593C;
+    private static final PointerPath RETICLE_PTR = PointerPath.of("dxhr.exe", 0x185593C);
 
     /**
      * {@inheritDoc}
@@ -36,7 +37,7 @@ public class ReticleEffectFactory implements EffectFactory {
     @Override
     public Effect build(@Nonnull Process process) {
         return new Effect() {
-            private final ProcessMemoryPointer reticlePointer = process.pointer("dxhr.exe", RETICLE_PTR);
+            private final ProcessMemoryPointer reticlePointer = process.pointer(RETICLE_PTR);
 
             private boolean enabled;
 
@@ -30,13 +30,11 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.Observable;
 import javafx.beans.property.ObjectProperty;
@@ -44,7 +42,6 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.event.ActionEvent;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaException;
 import javafx.scene.media.MediaPlayer;
@@ -61,10 +58,15 @@ import tv.dotstart.pandemonium.fx.localization.ConfigurationAwareMessageSource;
 import tv.dotstart.pandemonium.game.GameConfiguration;
 import tv.dotstart.pandemonium.game.GameStateMapper;
 import tv.dotstart.pandemonium.process.Process;
+import tv.dotstart.pandemonium.process.pin.ValuePinner;
 
 /**
  * Manages the lifetime of effects within the application.
  *
+ * All process I/O (state polling, effect application, etc) and effect timing is performed on the
+ * {@link GameRuntime} thread. The state which is exposed through the properties of this manager
+ * is merely a copy of the runtime state which is updated on the application thread.
+ *
  * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
  */
 @Lazy
@@ -78,28 +80,33 @@ public class EffectManager {
     private final ObjectProperty<GameStateLabel.State> state = new SimpleObjectProperty<>();
     private final ObservableList<ScheduledEffect> effectList = FXCollections.observableArrayList();
     private final List<MediaPlayer> mediaPlayers = new ArrayList<>();
-    private final Timeline spawnTimeline = new Timeline(
-            new KeyFrame(Duration.seconds(20), this::spawnEffect)
-    );
-    private final Timeline stateTimeline = new Timeline(
-            new KeyFrame(Duration.millis(500), this::checkState)
-    );
 
     private final ApplicationContext context;
     private final ApplicationConfiguration applicationConfiguration;
     private final ConfigurationAwareMessageSource messageSource;
+    private final GameRuntime runtime;
+
+    // <editor-fold desc="Runtime State">
+    private final List<EffectSchedule> schedules = new ArrayList<>();
+    private final RuntimeTimeline spawnTimeline;
+    private final RuntimeTimeline stateTimeline;
 
+    private GameConfiguration runtimeConfiguration;
+    private Process runtimeProcess;
     private Random random;
     private GameStateMapper stateMapper;
+    private ValuePinner pinner;
+    // </editor-fold>
 
     @Autowired
-    public EffectManager(@Nonnull ApplicationContext context, @Nonnull ApplicationConfiguration applicationConfiguration, @Nonnull ConfigurationAwareMessageSource messageSource) {
+    public EffectManager(@Nonnull ApplicationContext context, @Nonnull ApplicationConfiguration applicationConfiguration, @Nonnull ConfigurationAwareMessageSource messageSource, @Nonnull GameRuntime runtime) {
         this.context = context;
         this.applicationConfiguration = applicationConfiguration;
         this.messageSource = messageSource;
+        this.runtime = runtime;
 
-        this.spawnTimeline.setCycleCount(Animation.INDEFINITE);
-        this.stateTimeline.setCycleCount(Animation.INDEFINITE);
+        this.spawnTimeline = RuntimeTimeline.cycle(runtime, 20, TimeUnit.SECONDS, this::spawnEffect);
+        this.stateTimeline = RuntimeTimeline.cycle(runtime, 500, TimeUnit.MILLISECONDS, this::checkState);
 
         this.process.addListener(this::onProcessInvalidated);
         this.effectList.addListener((ListChangeListener<ScheduledEffect>) c -> {
@@ -125,88 +132,161 @@ public class EffectManager {
     private void abort() {
         logger.info("Process is about to be closed - Aborting all effects and stopping timeline");
         this.stateTimeline.stop();
+        this.spawnTimeline.stop();
 
         // if we have active effects we'll attempt to revert them since we are hopefully detaching
         // from the process
         // FIXME: Check for process termination
-        if (this.effectList.size() != 0) {
-            this.effectList.forEach(ScheduledEffect::abort);
-            this.effectList.clear();
+        this.abortEffects();
+
+        // effects release their pins when reverted so the pinner may safely be shut down at this
+        // point
+        if (this.pinner != null) {
+            this.pinner.close();
+            this.pinner = null;
+        }
+
+        this.publishState(GameStateLabel.State.TERMINATED);
+    }
+
+    /**
+     * Aborts all active effects and removes them from the effect list.
+     */
+    private void abortEffects() {
+        if (this.schedules.isEmpty()) {
+            return;
+        }
+
+        this.schedules.forEach(EffectSchedule::abort);
+        this.publishRemoval(new ArrayList<>(this.schedules));
+        this.schedules.clear();
+    }
+
+    /**
+     * Attaches the runtime to a newly discovered process.
+     */
+    private void attach(@Nonnull GameConfiguration configuration, @Nonnull Process process) {
+        this.runtimeConfiguration = configuration;
+        this.runtimeProcess = process;
+
+        // check whether we got a valid seed and reset if there is none
+        // this case should actually never occur since we do not modify the configuration without
+        // detaching from the process
+        String seed = configuration.getSeed();
+
+        if (seed == null) {
+            logger.warn("Seed is null - Cannot continue");
+            this.detach();
+            return;
         }
 
-        this.setState(GameStateLabel.State.TERMINATED);
+        // initialize a pinner which asserts the values of effects for their entire duration
+        if (this.pinner != null) {
+            this.pinner.close();
+        }
+
+        this.pinner = new ValuePinner(process);
+
+        // initialize a state mapper for the specified process
+        logger.info("Initializing state mapper");
+        this.stateMapper = configuration.getGame().createStateMapper(process);
+
+        // initialize the RNG in order to kickstart the spawn process
+        logger.info("Initializing random number generator using seed %d", seed.hashCode());
+        this.random = new Random(seed.hashCode());
+
+        // start the scan timeline in order to decide when to start spawning effects
+        logger.info("Initializing spawn timeline");
+        this.stateTimeline.playFromStart();
+    }
+
+    /**
+     * Detaches the runtime from its current process (if any).
+     */
+    private void detach() {
+        this.abort();
+
+        this.runtimeConfiguration = null;
+        this.runtimeProcess = null;
+        this.stateMapper = null;
     }
 
     /**
      * Checks whether the game is currently active and starts/stops the spawn timeline as needed.
      */
-    private void checkState(@Nonnull ActionEvent event) {
-        GameConfiguration configuration = this.getGameConfiguration();
-        Process process = this.getProcess();
+    private void checkState() {
+        GameConfiguration configuration = this.runtimeConfiguration;
+        Process process = this.runtimeProcess;
 
         if (configuration == null || process == null) {
             return;
         }
 
         try {
-            // check whether the game has been reset since our last call and if so reset the RNG to its
-            // initial state to guarantee we get the same behavior as we did during the first launch
-            if (this.stateMapper.hasReset()) {
-                String seed = configuration.getSeed();
-
-                if (seed == null) {
-                    logger.error("Ignoring reset - Seed unavailable");
-                    logger.error("This is a bug!");
-                } else {
-                    logger.info("State mapper indicated reset - Re-initializing spawner seed");
-
-                    this.random = new Random(configuration.getSeed().hashCode());
-                    this.spawnTimeline.playFromStart();
+            // evaluate all state mapper properties against a single coherent snapshot of the
+            // process memory
+            process.beginFrame();
+
+            try {
+                // check whether the game has been reset since our last call and if so reset the RNG to its
+                // initial state to guarantee we get the same behavior as we did during the first launch
+                if (this.stateMapper.hasReset()) {
+                    String seed = configuration.getSeed();
+
+                    if (seed == null) {
+                        logger.error("Ignoring reset - Seed unavailable");
+                        logger.error("This is a bug!");
+                    } else {
+                        logger.info("State mapper indicated reset - Re-initializing spawner seed");
+
+                        this.random = new Random(configuration.getSeed().hashCode());
+                        this.spawnTimeline.playFromStart();
+                    }
                 }
-            }
-
-            if (!this.stateMapper.inGame()) {
-                // our state mapper identifies the game to be on its title screen or in its main
-                // menu and thus we will have to stop our spawn timeline and revert all effects
-                if (this.spawnTimeline.getStatus() != Animation.Status.STOPPED) {
-                    logger.info("State mapper indicates main-menu/title screen state - Stopping effect spawn cycle and removing all active effects");
-                    this.spawnTimeline.stop();
 
-                    this.effectList.forEach(ScheduledEffect::abort);
-                    this.effectList.clear();
+                if (!this.stateMapper.inGame()) {
+                    // our state mapper identifies the game to be on its title screen or in its main
+                    // menu and thus we will have to stop our spawn timeline and revert all effects
+                    if (this.spawnTimeline.getStatus() != RuntimeTimeline.Status.STOPPED) {
+                        logger.info("State mapper indicates main-menu/title screen state - Stopping effect spawn cycle and removing all active effects");
+                        this.spawnTimeline.stop();
+                        this.abortEffects();
 
-                    this.setState(GameStateLabel.State.TITLE_SCREEN);
-                }
-            } else if (this.stateMapper.isPaused()) {
-                // our state mapper identifies the game to be paused (e.g. the player is currently
-                // in a menu or on a loading screen), we'll stop the timeline temporarily and revert
-                // as soon as the state changes
-                if (this.spawnTimeline.getStatus() == Animation.Status.RUNNING) {
-                    logger.info("State mapper indicates pause - Pausing effect spawn cycle and active effects");
+                        this.publishState(GameStateLabel.State.TITLE_SCREEN);
+                    }
+                } else if (this.stateMapper.isPaused()) {
+                    // our state mapper identifies the game to be paused (e.g. the player is currently
+                    // in a menu or on a loading screen), we'll stop the timeline temporarily and revert
+                    // as soon as the state changes
+                    if (this.spawnTimeline.getStatus() == RuntimeTimeline.Status.RUNNING) {
+                        logger.info("State mapper indicates pause - Pausing effect spawn cycle and active effects");
 
-                    this.spawnTimeline.pause();
-                    this.effectList.forEach(ScheduledEffect::pause);
+                        this.spawnTimeline.pause();
+                        this.schedules.forEach(EffectSchedule::pause);
 
-                    this.setState(GameStateLabel.State.PAUSED);
-                }
-            } else if (this.spawnTimeline.getStatus() != Animation.Status.RUNNING) {
-                // the state mapper indicates the game to be active but our local state does not
-                // reflect this - Start timeline from scratch or resume where we left off
-                switch (this.spawnTimeline.getStatus()) {
-                    case PAUSED:
-                        logger.info("State mapper indicates active gameplay - Resuming operation");
-
-                        this.spawnTimeline.play();
-                        this.effectList.forEach(ScheduledEffect::play);
-                        break;
-                    case STOPPED:
-                        logger.info("State mapper indicates gameplay start - Initializing operation");
+                        this.publishState(GameStateLabel.State.PAUSED);
+                    }
+                } else if (this.spawnTimeline.getStatus() != RuntimeTimeline.Status.RUNNING) {
+                    // the state mapper indicates the game to be active but our local state does not
+                    // reflect this - Start timeline from scratch or resume where we left off
+                    switch (this.spawnTimeline.getStatus()) {
+                        case PAUSED:
+                            logger.info("State mapper indicates active gameplay - Resuming operation");
+
+                            this.spawnTimeline.play();
+                            this.schedules.forEach(EffectSchedule::play);
+                            break;
+                        case STOPPED:
+                            logger.info("State mapper indicates gameplay start - Initializing operation");
+
+                            this.spawnTimeline.playFromStart();
+                            break;
+                    }
 
-                        this.spawnTimeline.playFromStart();
-                        break;
+                    this.publishState(GameStateLabel.State.PLAYING);
                 }
-
-                this.setState(GameStateLabel.State.PLAYING);
+            } finally {
+                process.endFrame();
             }
         } catch (Throwable ex) {
             this.stateTimeline.stop();
@@ -291,9 +371,9 @@ public class EffectManager {
     /**
      * Evaluates the chances of spawning an effect.
      */
-    private void spawnEffect(@Nonnull ActionEvent event) {
-        GameConfiguration configuration = this.getGameConfiguration();
-        Process process = this.getProcess();
+    private void spawnEffect() {
+        GameConfiguration configuration = this.runtimeConfiguration;
+        Process process = this.runtimeProcess;
         Random random = this.random;
 
         if (configuration == null || process == null || random == null) {
@@ -301,11 +381,14 @@ public class EffectManager {
         }
 
         // remove garbage
-        if (!this.effectList.isEmpty()) {
+        if (!this.schedules.isEmpty()) {
             logger.info("Removing reverted effects");
-            this.effectList.removeIf((e) -> e.getState() == ScheduledEffect.State.REVERTED);
 
-            logger.info("%d active effects remain", this.effectList.size());
+            List<EffectSchedule> reverted = new ArrayList<>();
+            this.schedules.removeIf((e) -> e.getState() == ScheduledEffect.State.REVERTED && reverted.add(e));
+            this.publishRemoval(reverted);
+
+            logger.info("%d active effects remain", this.schedules.size());
         }
 
         // evaluate effect spawn
@@ -316,11 +399,20 @@ public class EffectManager {
             return;
         }
 
-        if (!this.effectList.isEmpty() && !this.evaluateChance(configuration.getCombinationChance())) {
+        if (!this.schedules.isEmpty() && !this.evaluateChance(configuration.getCombinationChance())) {
             logger.info("Skipping spawn - Combination chance condition not met");
             return;
         }
 
+        try {
+            // compatibility checks of all candidates are evaluated against the same snapshot of
+            // the process memory
+            process.beginFrame();
+        } catch (Throwable ex) {
+            logger.warn("Cannot access process memory - Skipping spawn: " + ex.getMessage(), ex);
+            return;
+        }
+
         try {
             int attempt = 0;
 
@@ -352,18 +444,18 @@ public class EffectManager {
                     continue;
                 }
 
-                Effect effect = factory.build(process);
+                Effect effect = factory.build(process, this.pinner);
 
                 // check whether stacking is available for the specified effect and if not skip this
                 // attempt in favor of a different effect
-                if (!factory.mayStack() && this.effectList.stream().anyMatch((e) -> e.getFactory() == factory)) {
+                if (!factory.mayStack() && this.schedules.stream().anyMatch((e) -> e.getFactory() == factory)) {
                     logger.info("Spawn attempt #%02d - Effect provided by factory %s does not stack", attempt++, factory.getClass());
                     continue;
                 }
 
                 // check whether two effects are incompatible with each other and if so skip this
                 // attempt in favor of a different effect
-                if (this.effectList.stream().anyMatch((e) -> !e.getFactory().isCompatibleWith(factory, effect) || !factory.isCompatibleWith(e.getFactory(), e.getGameEffect()))) {
+                if (this.schedules.stream().anyMatch((e) -> !e.getFactory().isCompatibleWith(factory, effect) || !factory.isCompatibleWith(e.getFactory(), e.getGameEffect()))) {
                     logger.info("Spawn attempt #%02d - Effect provided by factory %s is incompatible with one or more active effects", attempt++, factory.getClass());
                     continue;
                 }
@@ -371,32 +463,13 @@ public class EffectManager {
                 // update the title and description using the local message source as this
                 // information is unavailable in our effect component
                 logger.info("Spawn Attempt #%02d - Spawning effect provided by factory %s with delay %d seconds and duration %s seconds", attempt, factory.getClass().getName(), (int) delay, (int) duration);
-                ScheduledEffect scheduledEffect = new ScheduledEffect(factory, effect, Duration.seconds(delay), Duration.seconds(duration));
+                EffectSchedule schedule = new EffectSchedule(this.runtime, factory, effect, Duration.seconds(delay), Duration.seconds(duration));
+                this.schedules.add(schedule);
 
-                scheduledEffect.setTitle(this.messageSource.getMessage(EffectFactory.getTitleLocalizationKey(factory)));
-                scheduledEffect.setDescription(this.messageSource.getMessage(EffectFactory.getDescriptionLocalizationKey(factory)));
-
-                this.effectList.add(scheduledEffect);
-                scheduledEffect.play();
-
-                if (this.applicationConfiguration.isAudioPlaySchedule()) {
-                    logger.info("Playing schedule audio clip");
-                    this.playAudioClip(this.applicationConfiguration.getAudioClipSchedule());
-                }
-
-                scheduledEffect.setOnApply(() -> {
-                    if (this.applicationConfiguration.isAudioPlayApply()) {
-                        logger.info("Playing apply audio clip");
-                        this.playAudioClip(this.applicationConfiguration.getAudioClipApply());
-                    }
-                });
-
-                scheduledEffect.setOnRevert(() -> {
-                    if (this.applicationConfiguration.isAudioPlayRevert()) {
-                        logger.info("Playing revert audio clip");
-                        this.playAudioClip(this.applicationConfiguration.getAudioClipRevert());
-                    }
-                });
+                // the control is constructed on the application thread before the schedule
+                // publishes its first status
+                Platform.runLater(() -> this.present(schedule));
+                schedule.play();
 
                 break;
             }
@@ -410,9 +483,64 @@ public class EffectManager {
             Platform.runLater(() -> {
                 throw ex;
             });
+        } finally {
+            process.endFrame();
+        }
+    }
+
+    /**
+     * Creates the control which represents a newly spawned effect and adds it to the effect list.
+     *
+     * This method is invoked on the application thread.
+     */
+    private void present(@Nonnull EffectSchedule schedule) {
+        EffectFactory factory = schedule.getFactory();
+        ScheduledEffect scheduledEffect = new ScheduledEffect(factory, schedule.getGameEffect(), schedule.getDelay(), schedule.getDuration());
+
+        scheduledEffect.setTitle(this.messageSource.getMessage(EffectFactory.getTitleLocalizationKey(factory)));
+        scheduledEffect.setDescription(this.messageSource.getMessage(EffectFactory.getDescriptionLocalizationKey(factory)));
+
+        scheduledEffect.setOnApply(() -> {
+            if (this.applicationConfiguration.isAudioPlayApply()) {
+                logger.info("Playing apply audio clip");
+                this.playAudioClip(this.applicationConfiguration.getAudioClipApply());
+            }
+        });
+
+        scheduledEffect.setOnRevert(() -> {
+            if (this.applicationConfiguration.isAudioPlayRevert()) {
+                logger.info("Playing revert audio clip");
+                this.playAudioClip(this.applicationConfiguration.getAudioClipRevert());
+            }
+        });
+
+        schedule.setView(scheduledEffect);
+        this.effectList.add(scheduledEffect);
+
+        if (this.applicationConfiguration.isAudioPlaySchedule()) {
+            logger.info("Playing schedule audio clip");
+            this.playAudioClip(this.applicationConfiguration.getAudioClipSchedule());
         }
     }
 
+    /**
+     * Removes the controls of a set of schedules from the effect list.
+     */
+    private void publishRemoval(@Nonnull List<EffectSchedule> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+
+        Platform.runLater(() -> schedules.forEach((s) -> this.effectList.remove(s.getView())));
+    }
+
+    /**
+     * Publishes a new game state to the application thread.
+     */
+    private void publishState(@Nonnull GameStateLabel.State state) {
+        Platform.runLater(() -> this.setState(state));
+    }
+
     /**
      * Handles the invalidation of the process variable.
      */
@@ -421,35 +549,15 @@ public class EffectManager {
         Process process = this.getProcess();
 
         // if the process or configuration was removed, we'll make sure to close all of our handles
-        // and revert all effects (if this is still possible for us to pull off at this time)
+        // and revert all effects (if this is still possible for us to pull off at this time) - the
+        // caller is about to close the process once this listener returns and thus we'll have to
+        // wait for the runtime to finish detaching
         if (process == null || configuration == null) {
-            this.abort();
-            this.stateMapper = null;
+            this.runtime.executeAndWait(this::detach);
             return;
         }
 
-        // check whether we got a valid seed and reset if there is none
-        // this case should actually never occur since we do not modify the configuration without
-        // detaching from the process
-        String seed = configuration.getSeed();
-
-        if (seed == null) {
-            logger.warn("Seed is null - Cannot continue");
-            this.abort();
-            return;
-        }
-
-        // initialize a state mapper for the specified process
-        logger.info("Initializing state mapper");
-        this.stateMapper = configuration.getGame().createStateMapper(process);
-
-        // initialize the RNG in order to kickstart the spawn process
-        logger.info("Initializing random number generator using seed %d", seed.hashCode());
-        this.random = new Random(seed.hashCode());
-
-        // start the scan timeline in order to decide when to start spawning effects
-        logger.info("Initializing spawn timeline");
-        this.stateTimeline.playFromStart();
+        this.runtime.execute(() -> this.attach(configuration, process));
     }
 
     // <editor-fold desc="Getters & Setters">
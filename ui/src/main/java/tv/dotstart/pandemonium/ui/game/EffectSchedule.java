@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.ui.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import javafx.application.Platform;
+import javafx.util.Duration;
+import tv.dotstart.pandemonium.effect.Effect;
+import tv.dotstart.pandemonium.effect.EffectFactory;
+import tv.dotstart.pandemonium.fx.control.game.ScheduledEffect;
+
+/**
+ * Applies and reverts a scheduled effect on the game runtime thread.
+ *
+ * Every state change is published to the {@link ScheduledEffect} control which represents this
+ * schedule within the user interface.
+ *
+ * Instances are confined to the runtime thread (with the exception of {@link #getView()} and
+ * {@link #setView(ScheduledEffect)} which are invoked on the application thread).
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+final class EffectSchedule {
+    private static final Logger logger = LogManager.getFormatterLogger(EffectSchedule.class);
+
+    private final EffectFactory factory;
+    private final Effect effect;
+    private final Duration delay;
+    private final Duration duration;
+    private final RuntimeTimeline timeline;
+
+    private ScheduledEffect.State state;
+    private volatile ScheduledEffect view;
+
+    EffectSchedule(@Nonnull GameRuntime runtime, @Nonnull EffectFactory factory, @Nonnull Effect effect, @Nonnull Duration delay, @Nonnull Duration duration) {
+        this.factory = factory;
+        this.effect = effect;
+        this.delay = delay;
+        this.duration = duration;
+
+        this.timeline = RuntimeTimeline.of(
+                runtime,
+                (long) delay.toMillis(), this::onDelayFinished,
+                (long) delay.add(duration).toMillis(), this::onDurationFinished,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * "Plays" the scheduled effect resulting in its effect being applied when its delay has
+     * passed.
+     */
+    void play() {
+        // reverted schedules remain within the effect list until the next spawn cycle and are
+        // thus resumed along with all other schedules (which would apply them a second time)
+        if (this.state == ScheduledEffect.State.REVERTED) {
+            return;
+        }
+
+        if (this.state == ScheduledEffect.State.WAITING || this.state == ScheduledEffect.State.APPLIED) {
+            logger.info("Resuming playback of effect from paused state for effect provided by %s", this.factory.getClass().getName());
+            this.timeline.play();
+            this.publish();
+            return;
+        }
+
+        logger.info("Scheduled effect provided by %s", this.factory.getClass().getName());
+        this.state = ScheduledEffect.State.WAITING;
+        this.timeline.playFromStart();
+        this.publish();
+    }
+
+    /**
+     * Pauses the scheduled effect (e.g. delays the next action until the effect is unpaused).
+     */
+    void pause() {
+        this.timeline.pause();
+        this.publish();
+    }
+
+    /**
+     * Aborts the effect (if it has already been played) and stops its schedule.
+     */
+    void abort() {
+        logger.info("Aborting effect provided by %s", this.factory.getClass().getName());
+        this.timeline.stop();
+
+        // failing reverts must not prevent the remaining schedules from being aborted
+        if (this.state == ScheduledEffect.State.APPLIED) {
+            try {
+                this.revert();
+            } catch (Throwable ex) {
+                logger.error("Failed to revert effect provided by " + this.factory.getClass().getName() + ": " + ex.getMessage(), ex);
+            }
+        }
+
+        this.state = ScheduledEffect.State.STOPPED;
+        this.publish();
+    }
+
+    /**
+     * Publishes an immutable copy of the current schedule state to the user interface.
+     */
+    private void publish() {
+        ScheduledEffect.Status status = new ScheduledEffect.Status(this.state, Duration.millis(TimeUnit.NANOSECONDS.toMillis(this.timeline.getCurrentTime())), this.timeline.getStatus() == RuntimeTimeline.Status.RUNNING);
+
+        // the control is created by a task which has been queued before the first status was
+        // published and thus is always present by the time this task is executed
+        Platform.runLater(() -> {
+            ScheduledEffect view = this.view;
+
+            if (view != null) {
+                view.update(status);
+            }
+        });
+    }
+
+    /**
+     * Reverts the effect unless it indicates to be persistent.
+     */
+    private void revert() {
+        if (!this.factory.isPersistent()) {
+            this.effect.revert();
+        } else {
+            logger.info("Effect indicates that it is persistent and thus won't be reverted");
+        }
+    }
+
+    /**
+     * Handles a finalized delay.
+     */
+    private void onDelayFinished() {
+        logger.info("%d second delay has passed - Applying effect provided by %s", (int) this.delay.toSeconds(), this.factory.getClass().getName());
+
+        try {
+            this.effect.apply();
+            this.state = ScheduledEffect.State.APPLIED;
+        } catch (Throwable ex) {
+            // effects which fail to apply are discarded along with all other reverted effects
+            logger.error("Failed to apply effect provided by " + this.factory.getClass().getName() + ": " + ex.getMessage(), ex);
+
+            this.timeline.stop();
+            this.state = ScheduledEffect.State.REVERTED;
+        }
+
+        this.publish();
+    }
+
+    /**
+     * Handles a finalized duration.
+     */
+    private void onDurationFinished() {
+        logger.info("%d second duration has passed - Reverting effect provided by %s", (int) this.duration.toSeconds(), this.factory.getClass().getName());
+
+        try {
+            this.revert();
+        } catch (Throwable ex) {
+            logger.error("Failed to revert effect provided by " + this.factory.getClass().getName() + ": " + ex.getMessage(), ex);
+        }
+
+        this.state = ScheduledEffect.State.REVERTED;
+        this.publish();
+    }
+
+    // <editor-fold desc="Getters & Setters">
+    @Nonnull
+    EffectFactory getFactory() {
+        return this.factory;
+    }
+
+    @Nonnull
+    Effect getGameEffect() {
+        return this.effect;
+    }
+
+    @Nonnull
+    Duration getDelay() {
+        return this.delay;
+    }
+
+    @Nonnull
+    Duration getDuration() {
+        return this.duration;
+    }
+
+    @Nullable
+    ScheduledEffect.State getState() {
+        return this.state;
+    }
+
+    @Nullable
+    ScheduledEffect getView() {
+        return this.view;
+    }
+
+    void setView(@Nonnull ScheduledEffect view) {
+        this.view = view;
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.ui.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a dedicated thread which owns all process I/O and effect timing of the application.
+ *
+ * All game related state (state mappers, pinners, effect schedules, etc) is confined to this
+ * thread while the application thread merely receives immutable updates in order to present them.
+ * As a result, UI frame pacing and effect timing no longer interfere with each other.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class GameRuntime implements Executor, AutoCloseable {
+    private static final Logger logger = LogManager.getFormatterLogger(GameRuntime.class);
+
+    private final ScheduledExecutorService executor;
+    private volatile Thread thread;
+
+    public GameRuntime() {
+        this.executor = Executors.newSingleThreadScheduledExecutor((r) -> {
+            Thread thread = new Thread(r, "game-runtime");
+            thread.setDaemon(true);
+
+            this.thread = thread;
+            return thread;
+        });
+    }
+
+    /**
+     * Checks whether the calling thread is the runtime thread.
+     */
+    public boolean isRuntimeThread() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    /**
+     * Asserts that the calling thread is the runtime thread.
+     *
+     * @throws IllegalStateException when called from any other thread.
+     */
+    public void checkRuntimeThread() {
+        if (!this.isRuntimeThread()) {
+            throw new IllegalStateException("Not on game runtime thread; currentThread = " + Thread.currentThread().getName());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Tasks which are submitted after the runtime has been closed are silently discarded.
+     */
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        try {
+            this.executor.execute(() -> this.run(command));
+        } catch (RejectedExecutionException ex) {
+            logger.debug("Discarding task - Runtime has been closed");
+        }
+    }
+
+    /**
+     * Executes a task on the runtime thread and blocks until it has completed.
+     *
+     * Tasks which are submitted from the runtime thread itself are executed immediately while
+     * tasks which are submitted after the runtime has been closed are silently discarded.
+     */
+    public void executeAndWait(@Nonnull Runnable command) {
+        if (this.isRuntimeThread()) {
+            this.run(command);
+            return;
+        }
+
+        Future<?> future;
+
+        try {
+            future = this.executor.submit(() -> this.run(command));
+        } catch (RejectedExecutionException ex) {
+            logger.debug("Discarding task - Runtime has been closed");
+            return;
+        }
+
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException ex) {
+            // errors are logged by the task itself while cancellation merely occurs when the
+            // runtime is closed concurrently
+            logger.debug("Task did not complete: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes a task on the runtime thread once the specified delay has elapsed.
+     *
+     * @return a future which may be used to cancel the task or null if the runtime has been
+     * closed.
+     */
+    @Nullable
+    public ScheduledFuture<?> schedule(@Nonnull Runnable command, @Nonnegative long delay, @Nonnull TimeUnit unit) {
+        try {
+            return this.executor.schedule(() -> this.run(command), delay, unit);
+        } catch (RejectedExecutionException ex) {
+            logger.debug("Discarding scheduled task - Runtime has been closed");
+            return null;
+        }
+    }
+
+    /**
+     * Executes a task and logs any errors it raises as the executor would otherwise silently
+     * swallow them.
+     */
+    private void run(@Nonnull Runnable command) {
+        try {
+            command.run();
+        } catch (Throwable ex) {
+            logger.error("Unhandled error on game runtime thread: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Stops the runtime thread.
+     *
+     * Tasks which are still queued are discarded.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Checks whether this runtime has been closed.
+     */
+    public boolean isClosed() {
+        return this.executor.isShutdown();
+    }
+}
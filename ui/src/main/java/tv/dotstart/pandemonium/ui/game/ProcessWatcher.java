@@ -24,22 +24,30 @@ import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
-import javafx.event.ActionEvent;
 import javafx.util.Duration;
 import tv.dotstart.pandemonium.game.Game;
 import tv.dotstart.pandemonium.game.GameConfiguration;
 import tv.dotstart.pandemonium.process.Process;
 import tv.dotstart.pandemonium.process.ProcessAccessor;
+import tv.dotstart.pandemonium.process.discovery.ProcessDescriptor;
+import tv.dotstart.pandemonium.process.discovery.ProcessDiscoveryListener;
+import tv.dotstart.pandemonium.process.discovery.ProcessDiscoveryService;
 import tv.dotstart.pandemonium.process.exception.ProcessAttachmentException;
 import tv.dotstart.pandemonium.process.exception.ProcessPermissionException;
 import tv.dotstart.pandemonium.process.exception.ProcessStateException;
@@ -52,25 +60,38 @@ import tv.dotstart.pandemonium.process.exception.ProcessStateException;
  */
 @Lazy
 @Component
-public class ProcessWatcher {
+public class ProcessWatcher implements ProcessDiscoveryListener {
     private static final Logger logger = LogManager.getFormatterLogger(ProcessWatcher.class);
 
     private final ObjectProperty<GameConfiguration> gameConfiguration = new SimpleObjectProperty<>();
     private final ObjectProperty<Process> process = new SimpleObjectProperty<>();
 
     private final ProcessAccessor processAccessor;
+    private final ProcessDiscoveryService discoveryService;
     private final EffectManager effectManager;
 
+    /**
+     * Stores the (lower case) executable names of the active configuration in order to filter
+     * discovery events on the discovery thread.
+     */
+    private volatile Set<String> executableNames = Collections.emptySet();
+
+    // scans are triggered by the discovery service as soon as a matching process is started while
+    // the timeline retries the attachment to processes which were not yet compatible (e.g. because
+    // they are still loading)
     private final Timeline scanTimeline = new Timeline(
-            new KeyFrame(Duration.seconds(0), this::scan),
+            new KeyFrame(Duration.seconds(0), (e) -> this.scan()),
             new KeyFrame(Duration.seconds(5))
     );
 
     @Autowired
-    public ProcessWatcher(@Nonnull ProcessAccessor processAccessor, @Nonnull EffectManager effectManager) {
+    public ProcessWatcher(@Nonnull ProcessAccessor processAccessor, @Nonnull ProcessDiscoveryService discoveryService, @Nonnull EffectManager effectManager) {
         this.processAccessor = processAccessor;
+        this.discoveryService = discoveryService;
         this.effectManager = effectManager;
 
+        this.discoveryService.addListener(this);
+
         this.scanTimeline.setCycleCount(Animation.INDEFINITE);
         this.gameConfiguration.addListener(this::onConfigurationActivate);
 
@@ -88,9 +109,27 @@ public class ProcessWatcher {
     }
 
     /**
-     * Scans the active processes for a compatible game instance.
+     * {@inheritDoc}
      */
-    private void scan(@Nonnull ActionEvent event) {
+    @Override
+    public void onProcessStarted(@Nonnull ProcessDescriptor process) {
+        if (!this.executableNames.contains(process.getName().toLowerCase(Locale.ROOT))) {
+            return;
+        }
+
+        logger.info("Discovered potential game process \"%s\" (pid %d)", process.getName(), process.getPid());
+
+        Platform.runLater(() -> {
+            if (this.scanTimeline.getStatus() == Animation.Status.RUNNING) {
+                this.scan();
+            }
+        });
+    }
+
+    /**
+     * Scans the discovered processes for a compatible game instance.
+     */
+    private void scan() {
         GameConfiguration configuration = this.getGameConfiguration();
         Process process = this.getProcess();
 
@@ -101,20 +140,20 @@ public class ProcessWatcher {
                 return;
             }
 
-            // handle process validation
+            // process termination is handled by a listener which is registered upon attachment
             if (process != null) {
-                // validate whether the process is still alive and if not request a graceful
-                // shutdown
-                if (!process.isAlive()) {
-                    this.shutdown();
-                }
-
                 return;
             }
 
             // validate executable and module compatibility before actually attaching to the process
             Game game = configuration.getGame();
-            process = this.processAccessor.getProcess(game.getExecutableNames())
+            ProcessDescriptor descriptor = this.discoveryService.getProcess(game.getExecutableNames()).orElse(null);
+
+            if (descriptor == null) {
+                return;
+            }
+
+            process = this.processAccessor.getProcess(descriptor)
                     .filter((p) -> game.getMatcherChain().matches(p))
                     .orElse(null);
 
@@ -129,8 +168,17 @@ public class ProcessWatcher {
             process.open();
 
             logger.info("Confirming memory compatibility");
+            boolean compatible;
 
-            if (!game.getMatcherChain().isCompatible(process)) {
+            process.beginFrame();
+
+            try {
+                compatible = game.getMatcherChain().isCompatible(process);
+            } finally {
+                process.endFrame();
+            }
+
+            if (!compatible) {
                 logger.warn("Process memory does not match expected bounds");
                 logger.warn("Closing process");
 
@@ -141,6 +189,7 @@ public class ProcessWatcher {
             // inform other components of our changes
             logger.info("Process seems to be compatible - Carrying on");
             this.process.setValue(process);
+            process.addTerminationListener(this::onProcessTermination);
         } catch (Throwable ex) {
             this.scanTimeline.stop();
 
@@ -148,7 +197,7 @@ public class ProcessWatcher {
                 logger.warn("Lacking permissions to attach to process: " + ex.getMessage(), ex);
             }
 
-            javafx.application.Platform.runLater(() -> {
+            Platform.runLater(() -> {
                 throw new RuntimeException("Failed to attach to process: " + ex.getMessage(), ex);
             });
         }
@@ -161,6 +210,8 @@ public class ProcessWatcher {
             return;
         }
 
+        // listeners of the process property (e.g. the effect manager) revert their modifications
+        // synchronously and thus the process may be closed as soon as the property is updated
         logger.info("Closing process");
         this.process.set(null);
 
@@ -171,6 +222,23 @@ public class ProcessWatcher {
         }
     }
 
+    /**
+     * Handles the termination of the attached process.
+     *
+     * This method is invoked on the monitor thread of the process and thus passes the shutdown on
+     * to the application thread.
+     */
+    private void onProcessTermination(@Nonnull Process process) {
+        Platform.runLater(() -> {
+            if (this.getProcess() != process) {
+                return;
+            }
+
+            logger.info("Process has terminated");
+            this.shutdown();
+        });
+    }
+
     /**
      * Handles the activation of a configuration.
      */
@@ -178,12 +246,16 @@ public class ProcessWatcher {
         if (n == null) {
             logger.info("Configuration removed - Disabling watcher");
 
+            this.executableNames = Collections.emptySet();
             this.scanTimeline.stop();
             this.shutdown();
             return;
         }
 
         logger.info("Configuration stored - Enabling watcher");
+        this.executableNames = n.getGame().getExecutableNames().stream()
+                .map((e) -> e.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
         this.scanTimeline.playFromStart();
     }
 
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2017 Johannes Donath <me@dotstart.tv>
+ * and other copyright owners as documented in the project's IP log.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tv.dotstart.pandemonium.ui.game;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Provides a pausable timeline which invokes its key frames on the game runtime thread.
+ *
+ * This is the runtime counterpart of {@link javafx.animation.Timeline}: Its elapsed time is based
+ * on {@link System#nanoTime()} rather than the pulses of the application thread and key frames
+ * are scheduled individually (e.g. the runtime thread is idle between frames). Cyclic timelines
+ * are re-based against their cycle length rather than the time at which a frame has actually been
+ * invoked and thus do not drift.
+ *
+ * Instances are confined to the runtime thread.
+ *
+ * @author <a href="mailto:me@dotstart.tv">Johannes Donath</a>
+ */
+@NotThreadSafe
+final class RuntimeTimeline {
+    private final GameRuntime runtime;
+    private final long[] times;
+    private final Runnable[] handlers;
+    private final boolean cyclic;
+
+    private Status status = Status.STOPPED;
+    private long offset;
+    private long startedAt;
+    private int nextFrame;
+    private ScheduledFuture<?> pending;
+
+    private RuntimeTimeline(@Nonnull GameRuntime runtime, @Nonnull long[] times, @Nonnull Runnable[] handlers, boolean cyclic) {
+        this.runtime = runtime;
+        this.times = times;
+        this.handlers = handlers;
+        this.cyclic = cyclic;
+    }
+
+    /**
+     * Creates a timeline which invokes each of its frames once.
+     */
+    @Nonnull
+    static RuntimeTimeline of(@Nonnull GameRuntime runtime, @Nonnegative long time1, @Nonnull Runnable handler1, @Nonnegative long time2, @Nonnull Runnable handler2, @Nonnull TimeUnit unit) {
+        if (time2 < time1) {
+            throw new IllegalArgumentException("Key frames must be supplied in order");
+        }
+
+        return new RuntimeTimeline(runtime, new long[]{unit.toNanos(time1), unit.toNanos(time2)}, new Runnable[]{handler1, handler2}, false);
+    }
+
+    /**
+     * Creates a timeline which invokes its only frame once per cycle indefinitely.
+     */
+    @Nonnull
+    static RuntimeTimeline cycle(@Nonnull GameRuntime runtime, @Nonnegative long period, @Nonnull TimeUnit unit, @Nonnull Runnable handler) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive but was " + period);
+        }
+
+        return new RuntimeTimeline(runtime, new long[]{unit.toNanos(period)}, new Runnable[]{handler}, true);
+    }
+
+    /**
+     * Starts or resumes this timeline.
+     */
+    void play() {
+        this.runtime.checkRuntimeThread();
+
+        if (this.status == Status.RUNNING) {
+            return;
+        }
+
+        if (this.status == Status.STOPPED) {
+            this.offset = 0;
+            this.nextFrame = 0;
+        }
+
+        this.status = Status.RUNNING;
+        this.startedAt = System.nanoTime();
+        this.scheduleNext();
+    }
+
+    /**
+     * Starts this timeline from its beginning regardless of its current state.
+     */
+    void playFromStart() {
+        this.stop();
+        this.play();
+    }
+
+    /**
+     * Pauses this timeline while retaining its current position.
+     */
+    void pause() {
+        this.runtime.checkRuntimeThread();
+
+        if (this.status != Status.RUNNING) {
+            return;
+        }
+
+        this.offset = this.getCurrentTime();
+        this.status = Status.PAUSED;
+        this.cancelPending();
+    }
+
+    /**
+     * Stops this timeline and resets its position.
+     */
+    void stop() {
+        this.runtime.checkRuntimeThread();
+
+        this.status = Status.STOPPED;
+        this.offset = 0;
+        this.nextFrame = 0;
+        this.cancelPending();
+    }
+
+    /**
+     * Schedules the next pending key frame.
+     */
+    private void scheduleNext() {
+        this.cancelPending();
+
+        if (this.nextFrame == this.times.length) {
+            this.status = Status.STOPPED;
+            return;
+        }
+
+        long delay = Math.max(0, this.times[this.nextFrame] - this.getCurrentTime());
+        this.pending = this.runtime.schedule(this::onFrame, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cancels the pending key frame (if any).
+     */
+    private void cancelPending() {
+        if (this.pending != null) {
+            this.pending.cancel(false);
+            this.pending = null;
+        }
+    }
+
+    /**
+     * Invokes the pending key frame and schedules its successor.
+     */
+    private void onFrame() {
+        // frames which have been cancelled after they were dequeued by the executor are
+        // recognized by their absent future
+        if (this.status != Status.RUNNING || this.pending == null) {
+            return;
+        }
+
+        this.pending = null;
+        int frame = this.nextFrame++;
+
+        if (this.cyclic && this.nextFrame == this.times.length) {
+            this.offset -= this.times[this.times.length - 1];
+            this.nextFrame = 0;
+        } else if (!this.cyclic && this.nextFrame == this.times.length) {
+            this.offset = this.times[frame];
+            this.status = Status.STOPPED;
+        }
+
+        this.handlers[frame].run();
+
+        // handlers may alter the state of this timeline (e.g. stop or restart it) in which case
+        // their decision takes precedence
+        if (this.status == Status.RUNNING && this.pending == null) {
+            this.scheduleNext();
+        }
+    }
+
+    // <editor-fold desc="Getters & Setters">
+
+    /**
+     * Retrieves the current position of this timeline (in nanoseconds).
+     */
+    @Nonnegative
+    long getCurrentTime() {
+        if (this.status != Status.RUNNING) {
+            return this.offset;
+        }
+
+        return Math.max(0, this.offset + (System.nanoTime() - this.startedAt));
+    }
+
+    @Nonnull
+    Status getStatus() {
+        return this.status;
+    }
+    // </editor-fold>
+
+    /**
+     * Provides a list of valid timeline states.
+     */
+    enum Status {
+        STOPPED,
+        PAUSED,
+        RUNNING
+    }
+}